@@ -0,0 +1,37 @@
+package org.cafe.example.mcp;
+
+/**
+ * tool目标类实例的生命周期
+ */
+public enum BeanScope {
+
+    /**
+     * 所有调用共享同一个实例（同一个类的多个tool之间也共享）
+     */
+    SINGLETON,
+
+    /**
+     * 每次调用都创建新实例
+     */
+    PROTOTYPE,
+
+    /**
+     * 从固定大小的实例池中借用实例、调用完成后归还
+     */
+    POOLED;
+
+    /**
+     * 根据名称解析（忽略大小写），为空时返回默认值{@link #SINGLETON}
+     */
+    public static BeanScope of(String name) {
+        if (name == null || name.isEmpty()) {
+            return SINGLETON;
+        }
+        for (BeanScope scope : values()) {
+            if (scope.name().equalsIgnoreCase(name)) {
+                return scope;
+            }
+        }
+        throw new IllegalArgumentException("Unknown bean scope: " + name);
+    }
+}
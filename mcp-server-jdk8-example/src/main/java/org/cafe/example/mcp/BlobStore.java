@@ -0,0 +1,291 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图片、二进制资源、大文本等文件的存储：文件通过{@link FileChannel#map}映射到堆外，{@link McpSchema.ImageContent}的data、
+ * {@link McpSchema.BlobResourceContents}的blob、{@link McpSchema.TextResourceContents}的text中只保存引用，
+ * 序列化响应时再从映射的内存直接（base64编码或按UTF-8解码）写入输出，不在堆上常驻文件内容。
+ * 需通过{@link #register(ObjectMapper)}注册到transport使用的ObjectMapper。
+ * 注意：映射的内容与文件共享，更新文件时应写入新文件后替换（rename），原地覆盖或截断文件会影响进行中的请求；
+ * 文件删除后应调用{@link #release(Path)}释放映射，序列化已释放（或未知）的引用时抛出异常，而不是把引用当作内容发送
+ */
+@Slf4j
+public class BlobStore {
+
+    /**
+     * 引用前缀：包含base64中不会出现的字符，不会与真实数据冲突
+     */
+    private static final String REFERENCE_PREFIX = "\u0000blob:";
+
+    private enum Kind {
+        /**
+         * 二进制文件，输出时base64编码
+         */
+        BINARY,
+        /**
+         * 内容已是base64编码的文本文件，原样输出
+         */
+        BASE64,
+        /**
+         * UTF-8文本文件，输出时解码为JSON字符串
+         */
+        TEXT
+    }
+
+    private final Map<String, Blob> blobs = new ConcurrentHashMap<>();
+    private final Map<Path, Mapping> mappings = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    /**
+     * 映射二进制文件（例如图片），序列化时base64编码
+     *
+     * @return 用于ImageContent的data或BlobResourceContents的blob的引用；文件未变化时返回同一引用
+     */
+    public String map(Path file) throws IOException {
+        return map(file, Kind.BINARY);
+    }
+
+    /**
+     * 映射内容已是base64编码的文本文件，序列化时原样输出（忽略末尾的空白字符）
+     */
+    public String mapBase64(Path file) throws IOException {
+        return map(file, Kind.BASE64);
+    }
+
+    /**
+     * 映射UTF-8文本文件，序列化时解码为JSON字符串，用于TextResourceContents的text
+     */
+    public String mapText(Path file) throws IOException {
+        return map(file, Kind.TEXT);
+    }
+
+    /**
+     * 同{@link #map(Path)}，使用调用方已读取的文件属性，不再次读取
+     */
+    public String map(Path file, BasicFileAttributes attrs) throws IOException {
+        return map(file, Kind.BINARY, attrs);
+    }
+
+    /**
+     * 同{@link #mapText(Path)}，使用调用方已读取的文件属性，不再次读取
+     */
+    public String mapText(Path file, BasicFileAttributes attrs) throws IOException {
+        return map(file, Kind.TEXT, attrs);
+    }
+
+    public static boolean isReference(String value) {
+        return value != null && value.startsWith(REFERENCE_PREFIX);
+    }
+
+    /**
+     * 释放文件的映射（包括保留的上一版本），之后序列化其引用将失败；映射的内存在不再被引用后由GC释放
+     */
+    public synchronized void release(Path file) {
+        Mapping mapping = mappings.remove(file.toAbsolutePath().normalize());
+        if (mapping != null) {
+            blobs.remove(mapping.reference);
+            if (mapping.replaced != null) {
+                blobs.remove(mapping.replaced);
+            }
+            log.debug("Released {}", file);
+        }
+    }
+
+    /**
+     * 释放所有映射，MCP Server停止时调用
+     */
+    public synchronized void close() {
+        mappings.clear();
+        blobs.clear();
+    }
+
+    public int getBlobCount() {
+        return mappings.size();
+    }
+
+    public long getMappedBytes() {
+        return mappings.values().stream().mapToLong(mapping -> mapping.size).sum();
+    }
+
+    /**
+     * 将引用的序列化方式注册到ObjectMapper
+     */
+    public ObjectMapper register(ObjectMapper objectMapper) {
+        SimpleModule module = new SimpleModule("BlobStore");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                String property = referenceProperty(beanDesc.getBeanClass());
+                if (property != null) {
+                    beanProperties.replaceAll(writer -> property.equals(writer.getName()) ? new BlobPropertyWriter(writer) : writer);
+                }
+                return beanProperties;
+            }
+        });
+        return objectMapper.registerModule(module);
+    }
+
+    private static String referenceProperty(Class<?> beanClass) {
+        if (McpSchema.ImageContent.class.isAssignableFrom(beanClass)) {
+            return "data";
+        } else if (McpSchema.BlobResourceContents.class.isAssignableFrom(beanClass)) {
+            return "blob";
+        } else if (McpSchema.TextResourceContents.class.isAssignableFrom(beanClass)) {
+            return "text";
+        }
+        return null;
+    }
+
+    private String map(Path file, Kind kind) throws IOException {
+        return map(file, kind, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    private synchronized String map(Path file, Kind kind, BasicFileAttributes attrs) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        Mapping mapping = mappings.get(path);
+        if (mapping != null && mapping.matches(kind, lastModified, attrs.size())) {
+            return mapping.reference;
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射在channel关闭后仍然有效
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Blob blob = new Blob(REFERENCE_PREFIX + ids.incrementAndGet(), trim(buffer, kind), kind);
+        blobs.put(blob.reference, blob);
+        mappings.put(path, new Mapping(kind, lastModified, buffer.capacity(), blob.reference, mapping == null ? null : mapping.reference));
+        if (mapping != null && mapping.replaced != null) {
+            // 保留上一版本供进行中的请求输出，更早的版本在不再被引用后由GC释放映射
+            blobs.remove(mapping.replaced);
+        }
+        log.debug("Mapped {} ({} bytes) as {}", path, buffer.capacity(), kind);
+        return blob.reference;
+    }
+
+    /**
+     * base64文本文件去掉末尾的空白字符
+     */
+    private static ByteBuffer trim(MappedByteBuffer buffer, Kind kind) {
+        int length = buffer.capacity();
+        if (kind == Kind.BASE64) {
+            while (length > 0 && Character.isWhitespace(buffer.get(length - 1))) {
+                length--;
+            }
+        }
+        ByteBuffer content = buffer.duplicate();
+        content.limit(length);
+        return content.slice();
+    }
+
+    private static class Mapping {
+
+        final Kind kind;
+        final long lastModified;
+        final long size;
+        final String reference;
+
+        /**
+         * 上一版本的引用，没有时为null
+         */
+        final String replaced;
+
+        Mapping(Kind kind, long lastModified, long size, String reference, String replaced) {
+            this.kind = kind;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.reference = reference;
+            this.replaced = replaced;
+        }
+
+        boolean matches(Kind kind, long lastModified, long size) {
+            return this.kind == kind && this.lastModified == lastModified && this.size == size;
+        }
+    }
+
+    private static class Blob {
+
+        final String reference;
+        final ByteBuffer buffer;
+        final Kind kind;
+
+        Blob(String reference, ByteBuffer buffer, Kind kind) {
+            this.reference = reference;
+            this.buffer = buffer;
+            this.kind = kind;
+        }
+
+        void write(JsonGenerator gen) throws IOException {
+            // 每次输出使用独立的position/limit，可被多个请求并发读取
+            ByteBuffer content = buffer.duplicate();
+            int length = content.remaining();
+            if (kind == Kind.BINARY) {
+                gen.writeBinary(Base64Variants.MIME_NO_LINEFEEDS, new ByteBufferBackedInputStream(content), length);
+                return;
+            }
+            try (Reader reader = new InputStreamReader(new ByteBufferBackedInputStream(content),
+                    kind == Kind.BASE64 ? StandardCharsets.US_ASCII : StandardCharsets.UTF_8)) {
+                gen.writeString(reader, kind == Kind.BASE64 ? length : -1);
+            }
+        }
+    }
+
+    /**
+     * 值为引用时从映射的内存输出，否则按原方式序列化；引用已释放时抛出异常，不输出引用本身
+     */
+    private class BlobPropertyWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+
+        BlobPropertyWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            Object value = get(bean);
+            if (!(value instanceof String) || !isReference((String) value)) {
+                super.serializeAsField(bean, gen, prov);
+                return;
+            }
+            Blob blob = blobs.get(value);
+            if (blob == null) {
+                throw JsonMappingException.from(gen, "Blob " + value.toString().substring(REFERENCE_PREFIX.length())
+                        + " of " + bean.getClass().getSimpleName() + "." + getName() + " has been released");
+            }
+            gen.writeFieldName(getName());
+            blob.write(gen);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cafe.example.mcp.annotation.Bulkhead;
+
+/**
+ * tool隔离舱定义：来自{@code tool-list.json}中"execution"下的"bulkhead"节点或{@link Bulkhead}注解；
+ * 只有name时表示引用已定义的隔离舱，其他属性为空时使用默认值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkheadDef {
+
+    String name;
+    Integer maxThreads;
+    Integer maxQueue;
+    Long timeoutMillis;
+
+    /**
+     * abort(default) or callerRuns
+     */
+    String rejection;
+
+    public BulkheadDef(String name) {
+        this.name = name;
+    }
+
+    public static BulkheadDef from(Bulkhead annotation) {
+        return new BulkheadDef(annotation.name(), annotation.maxThreads(), annotation.maxQueue(),
+                annotation.timeoutMillis(), annotation.rejection());
+    }
+
+    /**
+     * 是否仅引用已定义的隔离舱
+     */
+    public boolean isReference() {
+        return maxThreads == null && maxQueue == null && timeoutMillis == null && rejection == null;
+    }
+}
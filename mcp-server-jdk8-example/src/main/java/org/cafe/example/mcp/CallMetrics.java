@@ -0,0 +1,89 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个tool/prompt/resource的调用指标：调用数、错误数、执行中的调用数及延迟直方图
+ */
+public class CallMetrics implements CallMetricsMXBean {
+
+    @Getter
+    private final String method;
+    @Getter
+    private final String name;
+
+    @Getter
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errorCount = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public CallMetrics(String method, String name) {
+        this.method = method;
+        this.name = name;
+    }
+
+    /**
+     * 调用开始
+     *
+     * @return 开始时间，传给{@link #end(long, boolean)}
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 调用结束（包括取消）
+     */
+    public void end(long startNanos, boolean error) {
+        latency.recordNanos(System.nanoTime() - startNanos);
+        if (error) {
+            errorCount.increment();
+        }
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public long getCallCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = latency.getCount();
+        return count == 0 ? 0 : latency.getSumMicros() / 1000.0 / count;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getQuantileMicros(0.5) / 1000.0;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getQuantileMicros(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return latency.getQuantileMicros(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxMicros() / 1000.0;
+    }
+}
@@ -0,0 +1,39 @@
+package org.cafe.example.mcp;
+
+/**
+ * tool/prompt/resource调用的JMX指标，ObjectName为{@code org.cafe.example.mcp:type=CallMetrics,name=方法/名称}
+ */
+public interface CallMetricsMXBean {
+
+    /**
+     * MCP方法：tools/call、prompts/get或resources/read
+     */
+    String getMethod();
+
+    /**
+     * tool/prompt/resource名称
+     */
+    String getName();
+
+    long getCallCount();
+
+    /**
+     * 抛出异常或返回isError=true的调用数
+     */
+    long getErrorCount();
+
+    /**
+     * 当前执行中的调用数
+     */
+    int getInFlight();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
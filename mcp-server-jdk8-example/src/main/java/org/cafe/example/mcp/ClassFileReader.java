@@ -0,0 +1,157 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * class文件读取：只解析常量池以及类、方法上的RuntimeVisibleAnnotations属性，得到类名及其使用的注解，不加载、不初始化类
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    @Getter
+    private final String className;
+
+    /**
+     * 类上的注解的类名
+     */
+    @Getter
+    private final Set<String> classAnnotations = new HashSet<>();
+
+    /**
+     * 任一方法上的注解的类名
+     */
+    @Getter
+    private final Set<String> methodAnnotations = new HashSet<>();
+
+    private final String[] utf8;
+    private final int[] classNameIndexes;
+
+    public ClassFileReader(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        int constantPoolCount = in.readUnsignedShort();
+        utf8 = new String[constantPoolCount];
+        classNameIndexes = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:
+                    classNameIndexes[i] = in.readUnsignedShort();
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    in.skipBytes(2);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    // long、double占用两个常量池项
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag: " + tag);
+            }
+        }
+
+        in.readUnsignedShort();
+        className = utf8[classNameIndexes[in.readUnsignedShort()]].replace('/', '.');
+        in.readUnsignedShort();
+        in.skipBytes(2 * in.readUnsignedShort());
+
+        // fields
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipBytes(6);
+            readAttributes(in, null);
+        }
+        // methods
+        count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipBytes(6);
+            readAttributes(in, methodAnnotations);
+        }
+        readAttributes(in, classAnnotations);
+    }
+
+    private void readAttributes(DataInputStream in, Set<String> annotations) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (annotations == null || !RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                in.skipBytes(length);
+                continue;
+            }
+            int annotationCount = in.readUnsignedShort();
+            for (int j = 0; j < annotationCount; j++) {
+                annotations.add(readAnnotation(in));
+            }
+        }
+    }
+
+    /**
+     * @return 注解的类名
+     */
+    private String readAnnotation(DataInputStream in) throws IOException {
+        String descriptor = utf8[in.readUnsignedShort()];
+        int pairCount = in.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            in.skipBytes(2);
+            skipElementValue(in);
+        }
+        // Lcom/example/Annotation;
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                readAnnotation(in);
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default:
+                // 基本类型、String、Class
+                in.skipBytes(2);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 配置文件监听器：基于{@link WatchService}监听文件或目录的变化，同一监听项在debounce时间内的多次变化只触发一次，
+ * 回调在独立的reloader线程上执行，不占用请求线程
+ */
+@Slf4j
+public class ConfigWatcher implements Closeable {
+
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final List<Watch> watches = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "mcp-config-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread watcherThread;
+
+    private volatile boolean closed;
+
+    public ConfigWatcher(long debounceMillis) throws IOException {
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watcherThread = new Thread(this::watchLoop, "mcp-config-watcher");
+        this.watcherThread.setDaemon(true);
+        this.watcherThread.start();
+    }
+
+    /**
+     * 监听文件或目录（目录下任意文件变化均会触发）
+     *
+     * @param path     文件或目录的绝对路径
+     * @param listener 变化时（debounce后）的回调
+     */
+    public void watch(Path path, Runnable listener) throws IOException {
+        watch(path, changed -> listener.run());
+    }
+
+    /**
+     * 监听文件或目录，回调参数为debounce时间内变化的路径（事件溢出时为发生溢出的目录）
+     */
+    public void watch(Path path, Consumer<Set<Path>> listener) throws IOException {
+        boolean directory = Files.isDirectory(path);
+        if (directory) {
+            // 同时监听所有子目录
+            try (Stream<Path> subdirectories = Files.walk(path)) {
+                for (Path subdirectory : (Iterable<Path>) subdirectories.filter(Files::isDirectory)::iterator) {
+                    register(subdirectory);
+                }
+            }
+        } else {
+            register(path.getParent());
+        }
+        watches.add(new Watch(path, directory, listener));
+        log.info("Watching {} for changes", path);
+    }
+
+    private void register(Path directory) throws IOException {
+        WatchKey key = directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        directories.put(key, directory);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watcherThread.interrupt();
+        reloader.shutdownNow();
+        watchService.close();
+    }
+
+    private void watchLoop() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = directories.get(key);
+            if (directory != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // OVERFLOW时无法确定变化的文件，触发该目录下的所有监听项
+                    Path changed = event.kind() == StandardWatchEventKinds.OVERFLOW ? null : directory.resolve((Path) event.context());
+                    if (changed != null && event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                        registerCreated(changed);
+                    }
+                    for (Watch watch : watches) {
+                        if (changed == null ? watch.in(directory) : watch.matches(changed)) {
+                            schedule(watch, changed == null ? directory : changed);
+                        }
+                    }
+                }
+            }
+            key.reset();
+        }
+    }
+
+    /**
+     * 被监听目录下新建的子目录也需要监听
+     */
+    private void registerCreated(Path directory) {
+        boolean watched = false;
+        for (Watch watch : watches) {
+            watched |= watch.directory && directory.startsWith(watch.path);
+        }
+        if (watched) {
+            try {
+                register(directory);
+            } catch (IOException e) {
+                log.warn("Watch {} error: {}", directory, e.getMessage());
+            }
+        }
+    }
+
+    private void schedule(Watch watch, Path changed) {
+        synchronized (watch) {
+            watch.changed.add(changed);
+            if (watch.pending != null) {
+                watch.pending.cancel(false);
+            }
+            watch.pending = reloader.schedule(() -> {
+                Set<Path> paths;
+                synchronized (watch) {
+                    paths = watch.changed;
+                    watch.changed = new LinkedHashSet<>();
+                }
+                try {
+                    watch.listener.accept(paths);
+                } catch (Exception e) {
+                    log.error("Reload {} error: {}", watch.path, e.getMessage(), e);
+                }
+            }, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class Watch {
+
+        final Path path;
+        final boolean directory;
+        final Consumer<Set<Path>> listener;
+        ScheduledFuture<?> pending;
+        Set<Path> changed = new LinkedHashSet<>();
+
+        Watch(Path path, boolean directory, Consumer<Set<Path>> listener) {
+            this.path = path;
+            this.directory = directory;
+            this.listener = listener;
+        }
+
+        boolean matches(Path changed) {
+            return directory ? changed.startsWith(path) : changed.equals(path);
+        }
+
+        boolean in(Path watchedDirectory) {
+            return directory ? watchedDirectory.startsWith(path) : watchedDirectory.equals(path.getParent());
+        }
+    }
+}
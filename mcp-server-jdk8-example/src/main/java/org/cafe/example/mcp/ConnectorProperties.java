@@ -0,0 +1,139 @@
+package org.cafe.example.mcp;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.cafe.example.mcp.annotation.TomcatConnector;
+
+/**
+ * Tomcat connector配置：来自{@link TomcatConnector}注解，注解中未设置的属性使用预设值；值为null的属性保持Tomcat默认值
+ */
+@Slf4j
+@Data
+public class ConnectorProperties {
+
+    public static final String PRESET_DEFAULT = "default";
+    public static final String PRESET_HIGH_CONCURRENCY = "highConcurrency";
+
+    public static final String PROTOCOL_NIO = "nio";
+    public static final String PROTOCOL_NIO2 = "nio2";
+    public static final String PROTOCOL_APR = "apr";
+
+    /**
+     * 压缩的响应类型：只压缩JSON等普通响应，SSE流（text/event-stream）压缩后会被缓冲，不能压缩
+     */
+    private static final String COMPRESSIBLE_MIME_TYPES = "application/json,text/plain";
+
+    private String protocol = PROTOCOL_NIO;
+    private Integer maxThreads;
+    private Integer minSpareThreads;
+    private Integer maxConnections;
+    private Integer acceptCount;
+    private Integer connectionTimeoutMillis;
+    private Integer keepAliveTimeoutMillis;
+    private Integer maxKeepAliveRequests;
+    private long asyncTimeoutMillis = 10000;
+    private String compression;
+
+    public static ConnectorProperties preset(String name) {
+        ConnectorProperties properties = new ConnectorProperties();
+        if (PRESET_HIGH_CONCURRENCY.equalsIgnoreCase(name)) {
+            // 异步servlet的SSE流不占用工作线程，连接数才是主要限制（同时受进程的文件描述符上限限制）
+            properties.setProtocol(PROTOCOL_NIO2);
+            properties.setMaxThreads(400);
+            properties.setMinSpareThreads(50);
+            properties.setMaxConnections(50000);
+            properties.setAcceptCount(2048);
+            properties.setConnectionTimeoutMillis(20000);
+            properties.setKeepAliveTimeoutMillis(120000);
+            properties.setMaxKeepAliveRequests(-1);
+            properties.setAsyncTimeoutMillis(0);
+            properties.setCompression("on");
+        } else if (!PRESET_DEFAULT.equalsIgnoreCase(name)) {
+            throw new IllegalArgumentException("Unknown connector preset: " + name);
+        }
+        return properties;
+    }
+
+    public static ConnectorProperties from(TomcatConnector annotation) {
+        ConnectorProperties properties = preset(annotation.preset());
+        if (!annotation.protocol().isEmpty()) {
+            properties.setProtocol(annotation.protocol());
+        }
+        if (annotation.maxThreads() != -1) {
+            properties.setMaxThreads(annotation.maxThreads());
+        }
+        if (annotation.minSpareThreads() != -1) {
+            properties.setMinSpareThreads(annotation.minSpareThreads());
+        }
+        if (annotation.maxConnections() != -1) {
+            properties.setMaxConnections(annotation.maxConnections());
+        }
+        if (annotation.acceptCount() != -1) {
+            properties.setAcceptCount(annotation.acceptCount());
+        }
+        if (annotation.connectionTimeoutMillis() != -1) {
+            properties.setConnectionTimeoutMillis(annotation.connectionTimeoutMillis());
+        }
+        if (annotation.keepAliveTimeoutMillis() != -1) {
+            properties.setKeepAliveTimeoutMillis(annotation.keepAliveTimeoutMillis());
+        }
+        if (annotation.maxKeepAliveRequests() != TomcatConnector.UNSET) {
+            properties.setMaxKeepAliveRequests(annotation.maxKeepAliveRequests());
+        }
+        if (annotation.asyncTimeoutMillis() != -1) {
+            properties.setAsyncTimeoutMillis(annotation.asyncTimeoutMillis());
+        }
+        if (!annotation.compression().isEmpty()) {
+            properties.setCompression(annotation.compression());
+        }
+        return properties;
+    }
+
+    /**
+     * 协议的类名
+     */
+    static String protocolClass(String protocol) {
+        if (PROTOCOL_NIO.equalsIgnoreCase(protocol)) {
+            return "org.apache.coyote.http11.Http11NioProtocol";
+        } else if (PROTOCOL_NIO2.equalsIgnoreCase(protocol)) {
+            return "org.apache.coyote.http11.Http11Nio2Protocol";
+        } else if (PROTOCOL_APR.equalsIgnoreCase(protocol)) {
+            return "org.apache.coyote.http11.Http11AprProtocol";
+        }
+        return protocol;
+    }
+
+    public Connector createConnector(int port) {
+        Connector connector = new Connector(protocolClass(protocol));
+        connector.setPort(port);
+        connector.setAsyncTimeout(asyncTimeoutMillis);
+        setProperty(connector, "maxThreads", maxThreads);
+        setProperty(connector, "minSpareThreads", minSpareThreads);
+        setProperty(connector, "maxConnections", maxConnections);
+        setProperty(connector, "acceptCount", acceptCount);
+        setProperty(connector, "connectionTimeout", connectionTimeoutMillis);
+        setProperty(connector, "keepAliveTimeout", keepAliveTimeoutMillis);
+        setProperty(connector, "maxKeepAliveRequests", maxKeepAliveRequests);
+        if (compression != null) {
+            setProperty(connector, "compression", compression);
+            setProperty(connector, "compressibleMimeType", COMPRESSIBLE_MIME_TYPES);
+        }
+        /*
+         * 配置 SO LINGER:on=true,linger=0
+         * 以确保收到客户端的 FIN 信号并确认后主动调用 close 关闭连接（避免连接停留在 CLOSE_WAIT 状态），但可能会导致最后传输的数据包丢失；
+         * NIO2的AsynchronousSocketChannel不支持SO_LINGER（设置后每个连接都会出错被重置）
+         */
+        if (!connector.getProtocolHandlerClassName().contains("Nio2")) {
+            connector.setProperty("socket.soLingerOn", "true");
+            connector.setProperty("socket.soLingerTime", "0");
+        }
+        return connector;
+    }
+
+    private static void setProperty(Connector connector, String name, Object value) {
+        if (value != null && !connector.setProperty(name, value.toString())) {
+            log.warn("Connector property {}={} is not supported by protocol {}", name, value, connector.getProtocolHandlerClassName());
+        }
+    }
+}
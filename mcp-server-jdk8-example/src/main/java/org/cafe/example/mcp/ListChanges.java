@@ -0,0 +1,27 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 热加载时tool/prompt列表的变更：updated为名称不变但元数据（描述、参数等）变化的项，
+ * 仅处理逻辑变化（已原子替换）的项不计入，因为列表内容没有变化
+ */
+@Getter
+public class ListChanges<T> {
+
+    private final List<T> added = new ArrayList<>();
+    private final List<T> updated = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("added: %d, updated: %d, removed: %s", added.size(), updated.size(), removed);
+    }
+}
@@ -0,0 +1,208 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * tools/list、prompts/list响应的预序列化快照：SDK每次list请求都会重新创建ListXxxResult并完整序列化所有tool/prompt（含inputSchema），
+ * 这里通过注册到transport ObjectMapper的序列化器，在tool/prompt集合未变化（同一批对象、同样顺序）时直接输出缓存的UTF-8字节，
+ * 集合变化或调用{@link #invalidate()}后重新生成；响应的{@code _meta.etag}为内容摘要，可供客户端判断列表是否变化。
+ * 热加载更新tool/prompt的定义时不在SDK中remove+add（会发送两次list_changed），生成快照时按名称输出当前的定义（见{@link #setCurrentDefinitions}）
+ */
+@Slf4j
+public class ListResultSnapshots {
+
+    private final Snapshots<McpSchema.ListToolsResult> tools = new Snapshots<>("tools",
+            McpSchema.ListToolsResult::getTools, McpSchema.ListToolsResult::getNextCursor, this::currentTools);
+    private final Snapshots<McpSchema.ListPromptsResult> prompts = new Snapshots<>("prompts",
+            McpSchema.ListPromptsResult::getPrompts, McpSchema.ListPromptsResult::getNextCursor, this::currentPrompts);
+
+    private volatile UnaryOperator<McpSchema.Tool> currentTool = UnaryOperator.identity();
+    private volatile UnaryOperator<McpSchema.Prompt> currentPrompt = UnaryOperator.identity();
+
+    /**
+     * 不含快照序列化器的ObjectMapper，用于生成快照
+     */
+    private ObjectMapper snapshotMapper;
+
+    /**
+     * 将快照序列化器注册到transport使用的ObjectMapper
+     */
+    public ObjectMapper register(ObjectMapper objectMapper) {
+        this.snapshotMapper = objectMapper.copy();
+        SimpleModule module = new SimpleModule("ListResultSnapshots");
+        module.addSerializer(McpSchema.ListToolsResult.class, new SnapshotSerializer<>(McpSchema.ListToolsResult.class, tools));
+        module.addSerializer(McpSchema.ListPromptsResult.class, new SnapshotSerializer<>(McpSchema.ListPromptsResult.class, prompts));
+        return objectMapper.registerModule(module);
+    }
+
+    /**
+     * 生成快照时将SDK中注册的tool/prompt替换为当前的定义（按名称），定义更新后需调用{@link #invalidate()}
+     */
+    public void setCurrentDefinitions(UnaryOperator<McpSchema.Tool> currentTool, UnaryOperator<McpSchema.Prompt> currentPrompt) {
+        this.currentTool = currentTool;
+        this.currentPrompt = currentPrompt;
+    }
+
+    private McpSchema.ListToolsResult currentTools(McpSchema.ListToolsResult result) {
+        return result.getTools() == null ? result : new McpSchema.ListToolsResult(
+                result.getTools().stream().map(currentTool).collect(Collectors.toList()), result.getNextCursor());
+    }
+
+    private McpSchema.ListPromptsResult currentPrompts(McpSchema.ListPromptsResult result) {
+        return result.getPrompts() == null ? result : new McpSchema.ListPromptsResult(
+                result.getPrompts().stream().map(currentPrompt).collect(Collectors.toList()), result.getNextCursor());
+    }
+
+    /**
+     * 丢弃已有快照，下次list请求时重新生成
+     */
+    public void invalidate() {
+        tools.invalidate();
+        prompts.invalidate();
+    }
+
+    public String getToolsEtag() {
+        return tools.getEtag();
+    }
+
+    public String getPromptsEtag() {
+        return prompts.getEtag();
+    }
+
+    private class Snapshots<T> {
+
+        private final String name;
+        private final Function<T, List<?>> items;
+        private final Function<T, String> nextCursor;
+        private final UnaryOperator<T> currentDefinitions;
+        private final AtomicLong version = new AtomicLong();
+
+        /**
+         * 每次invalidate递增，invalidate之前开始生成的快照不再保存
+         */
+        private final AtomicLong generation = new AtomicLong();
+
+        private volatile Snapshot current;
+
+        Snapshots(String name, Function<T, List<?>> items, Function<T, String> nextCursor, UnaryOperator<T> currentDefinitions) {
+            this.name = name;
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.currentDefinitions = currentDefinitions;
+        }
+
+        SerializedString get(T result) throws IOException {
+            Snapshot snapshot = current;
+            if (snapshot != null && snapshot.matches(items.apply(result), nextCursor.apply(result))) {
+                return snapshot.json;
+            }
+            long buildGeneration = generation.get();
+            snapshot = build(result);
+            if (generation.get() == buildGeneration) {
+                current = snapshot;
+            }
+            return snapshot.json;
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            current = null;
+        }
+
+        String getEtag() {
+            Snapshot snapshot = current;
+            return snapshot == null ? null : snapshot.etag;
+        }
+
+        private Snapshot build(T result) throws IOException {
+            ObjectNode node = snapshotMapper.valueToTree(currentDefinitions.apply(result));
+            String etag = etag(snapshotMapper.writeValueAsBytes(node));
+            node.putObject("_meta").put("etag", etag);
+            SerializedString json = new SerializedString(snapshotMapper.writeValueAsString(node));
+            // 预先编码为UTF-8，输出时直接写入字节
+            int size = json.asUnquotedUTF8().length;
+            List<?> snapshotItems = items.apply(result);
+            long snapshotVersion = version.incrementAndGet();
+            log.debug("Built {}/list snapshot: version {}, {} items, {} bytes, etag {}", name, snapshotVersion,
+                    snapshotItems == null ? 0 : snapshotItems.size(), size, etag);
+            return new Snapshot(snapshotItems, nextCursor.apply(result), json, etag);
+        }
+    }
+
+    private static class Snapshot {
+
+        final List<?> items;
+        final String nextCursor;
+        final SerializedString json;
+        final String etag;
+
+        Snapshot(List<?> items, String nextCursor, SerializedString json, String etag) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.json = json;
+            this.etag = etag;
+        }
+
+        /**
+         * SDK每次都会新建List，但其中的tool/prompt对象在注册表未变化时是同一批实例，因此按引用逐个比较
+         */
+        boolean matches(List<?> otherItems, String otherNextCursor) {
+            if (items == null || otherItems == null || items.size() != otherItems.size()
+                    || !Objects.equals(nextCursor, otherNextCursor)) {
+                return false;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) != otherItems.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class SnapshotSerializer<T> extends StdSerializer<T> {
+
+        private final transient Snapshots<T> snapshots;
+
+        SnapshotSerializer(Class<T> type, Snapshots<T> snapshots) {
+            super(type);
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(snapshots.get(value));
+        }
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder etag = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                etag.append(String.format("%02x", digest[i]));
+            }
+            return etag.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.springframework.ai.tool.annotation.Tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * 类路径扫描器：在指定的包（含子包）下查找带{@code @McpServerEndpoint}的类和带{@code @Tool}方法的类。
+ * 直接读取class文件（见{@link ClassFileReader}），不加载、不初始化类；
+ * 扫描结果按类路径条目缓存到文件，jar以路径、大小和修改时间，目录以其中class文件的路径、大小和修改时间作为版本，
+ * 版本未变化的条目在之后的启动中无需再次扫描
+ */
+@Slf4j
+public class McpClassScanner {
+
+    /**
+     * 扫描的包，逗号分隔，默认为本类所在的包
+     */
+    public static final String PROPERTY_SCAN_PACKAGES = "mcp.scan.packages";
+
+    /**
+     * 扫描结果的缓存文件，未指定或为空时不缓存；应位于只有当前用户可写的目录中（缓存文件可被其他用户修改时不使用）
+     */
+    public static final String PROPERTY_SCAN_CACHE_FILE = "mcp.scan.cacheFile";
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String ENDPOINT_ANNOTATION = McpServerEndpoint.class.getName();
+    private static final String TOOL_ANNOTATION = Tool.class.getName();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> packages;
+    private final Path cacheFile;
+
+    /**
+     * @param packages  扫描的包
+     * @param cacheFile 缓存文件，为null时不缓存
+     */
+    public McpClassScanner(List<String> packages, Path cacheFile) {
+        this.packages = packages;
+        this.cacheFile = cacheFile;
+    }
+
+    public static McpClassScanner fromSystemProperties() {
+        List<String> packages = Arrays.stream(System.getProperty(PROPERTY_SCAN_PACKAGES, McpClassScanner.class.getPackage().getName())
+                .split("\\s*,\\s*")).filter(name -> !name.isEmpty()).collect(Collectors.toList());
+        String cacheFile = System.getProperty(PROPERTY_SCAN_CACHE_FILE, "");
+        return new McpClassScanner(packages, cacheFile.isEmpty() ? null : Paths.get(cacheFile));
+    }
+
+    /**
+     * 扫描当前类路径（{@code java.class.path}）
+     */
+    public ScanResult scan() {
+        List<Path> classpath = Arrays.stream(System.getProperty("java.class.path", "").split(File.pathSeparator))
+                .filter(entry -> !entry.isEmpty()).map(Paths::get).collect(Collectors.toList());
+        return scan(classpath);
+    }
+
+    /**
+     * 扫描类路径条目（jar或目录），无法读取的条目或class文件将被忽略
+     */
+    public ScanResult scan(List<Path> classpath) {
+        long start = System.nanoTime();
+        Map<String, CacheEntry> cache = readCache();
+        Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+        classpath.parallelStream().forEach(path -> {
+            try {
+                String key = path.toAbsolutePath().normalize().toString();
+                String stamp = stamp(path);
+                if (stamp == null) {
+                    return;
+                }
+                CacheEntry cached = cache.get(key);
+                entries.put(key, cached != null && stamp.equals(cached.getStamp()) ? cached : new CacheEntry(stamp, scanEntry(path)));
+            } catch (IOException e) {
+                log.warn("Scan {} error: {}", path, e.getMessage());
+            }
+        });
+
+        // 按类路径顺序合并，同名类以先出现的为准
+        ScanResult result = new ScanResult();
+        for (Path path : classpath) {
+            CacheEntry entry = entries.get(path.toAbsolutePath().normalize().toString());
+            if (entry != null) {
+                addAllAbsent(result.getEndpointClasses(), entry.getResult().getEndpointClasses());
+                addAllAbsent(result.getToolClasses(), entry.getResult().getToolClasses());
+            }
+        }
+        long hits = entries.entrySet().stream().filter(entry -> entry.getValue() == cache.get(entry.getKey())).count();
+        if (hits < entries.size()) {
+            writeCache(entries);
+        }
+        log.info("Scanned {} classpath entries ({} cached) for packages {} in {} ms: endpoints {}, tool classes {}",
+                entries.size(), hits, packages, (System.nanoTime() - start) / 1000000,
+                result.getEndpointClasses(), result.getToolClasses().size());
+        return result;
+    }
+
+    private static void addAllAbsent(List<String> target, List<String> source) {
+        for (String className : source) {
+            if (!target.contains(className)) {
+                target.add(className);
+            }
+        }
+    }
+
+    /**
+     * 类路径条目的版本，条目不存在时为null
+     */
+    private String stamp(Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            return packages + ":" + Files.size(path) + "-" + Files.getLastModifiedTime(path).toMillis();
+        } else if (!Files.isDirectory(path)) {
+            return null;
+        }
+        // 与遍历顺序无关的累加hash
+        long[] hash = new long[2];
+        for (Path packageDir : packageDirs(path)) {
+            Files.walkFileTree(packageDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (file.toString().endsWith(CLASS_SUFFIX)) {
+                        hash[0]++;
+                        hash[1] += (31L * file.toString().hashCode() + attrs.size()) * 31 + attrs.lastModifiedTime().toMillis();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return packages + ":" + hash[0] + "-" + Long.toHexString(hash[1]);
+    }
+
+    private List<Path> packageDirs(Path directory) {
+        return packages.stream().map(name -> directory.resolve(name.replace('.', '/')))
+                .filter(Files::isDirectory).collect(Collectors.toList());
+    }
+
+    private ScanResult scanEntry(Path path) throws IOException {
+        ScanResult result = new ScanResult();
+        if (Files.isDirectory(path)) {
+            for (Path packageDir : packageDirs(path)) {
+                Files.walkFileTree(packageDir, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                        if (isTopLevelClass(file.getFileName().toString())) {
+                            addClass(result, Files.readAllBytes(file));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        } else {
+            List<String> prefixes = packages.stream().map(name -> name.replace('.', '/') + "/").collect(Collectors.toList());
+            try (JarFile jarFile = new JarFile(path.toFile())) {
+                Enumeration<JarEntry> jarEntries = jarFile.entries();
+                while (jarEntries.hasMoreElements()) {
+                    JarEntry jarEntry = jarEntries.nextElement();
+                    String name = jarEntry.getName();
+                    if (isTopLevelClass(name) && prefixes.stream().anyMatch(name::startsWith)) {
+                        try (InputStream in = jarFile.getInputStream(jarEntry)) {
+                            addClass(result, readAll(in));
+                        }
+                    }
+                }
+            }
+        }
+        Collections.sort(result.getEndpointClasses());
+        Collections.sort(result.getToolClasses());
+        return result;
+    }
+
+    private static boolean isTopLevelClass(String name) {
+        return name.endsWith(CLASS_SUFFIX) && !name.contains("$") && !name.endsWith("module-info.class")
+                && !name.endsWith("package-info.class");
+    }
+
+    private static void addClass(ScanResult result, byte[] bytes) {
+        ClassFileReader reader;
+        try {
+            reader = new ClassFileReader(bytes);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Skip unreadable class file: {}", e.getMessage());
+            return;
+        }
+        if (reader.getClassAnnotations().contains(ENDPOINT_ANNOTATION)) {
+            result.getEndpointClasses().add(reader.getClassName());
+        }
+        if (reader.getMethodAnnotations().contains(TOOL_ANNOTATION)) {
+            result.getToolClasses().add(reader.getClassName());
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private Map<String, CacheEntry> readCache() {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return Collections.emptyMap();
+        }
+        try {
+            if (!isPrivate(cacheFile)) {
+                log.warn("Ignore scan cache {}: not owned by {} or writable by other users", cacheFile, System.getProperty("user.name"));
+                return Collections.emptyMap();
+            }
+            return objectMapper.readValue(cacheFile.toFile(), new TypeReference<Map<String, CacheEntry>>() {
+            });
+        } catch (IOException e) {
+            log.warn("Read scan cache {} error: {}", cacheFile, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 缓存文件是否属于当前用户、且同组及其他用户不可写；不支持POSIX权限的文件系统不检查
+     */
+    static boolean isPrivate(Path file) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        if (view == null) {
+            return true;
+        }
+        PosixFileAttributes attributes = view.readAttributes();
+        return attributes.owner().getName().equals(System.getProperty("user.name"))
+                && !attributes.permissions().contains(PosixFilePermission.GROUP_WRITE)
+                && !attributes.permissions().contains(PosixFilePermission.OTHERS_WRITE);
+    }
+
+    /**
+     * 写入临时文件（只有当前用户可读写）后替换，并发启动的其他进程不会读到不完整的缓存
+     */
+    private void writeCache(Map<String, CacheEntry> entries) {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tempFile = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(tempFile.toFile(), new TreeMap<>(entries));
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Write scan cache {} error: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    /**
+     * 扫描结果：类名按类路径顺序
+     */
+    @Data
+    @NoArgsConstructor
+    public static class ScanResult {
+
+        private List<String> endpointClasses = new ArrayList<>();
+        private List<String> toolClasses = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CacheEntry {
+
+        private String stamp;
+        private ScanResult result;
+    }
+}
@@ -0,0 +1,192 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.Getter;
+import org.cafe.example.mcp.util.JmxUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * MCP Server的调用指标：包装tool/prompt/resource规格的处理器，按方法和名称记录调用数、错误数、执行中的调用数及延迟，
+ * 通过JMX（{@link CallMetricsMXBean}）和Prometheus文本格式（见{@link MetricsServlet}）暴露
+ */
+public class McpMetrics {
+
+    public static final String METHOD_TOOLS_CALL = "tools/call";
+    public static final String METHOD_PROMPTS_GET = "prompts/get";
+    public static final String METHOD_RESOURCES_READ = "resources/read";
+
+    private static final String JMX_TYPE = "CallMetrics";
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    /**
+     * MCP Server名称，作为Prometheus指标的server标签
+     */
+    @Getter
+    private final String server;
+
+    /**
+     * JMX名称的前缀，为null时不加前缀
+     */
+    private final String jmxScope;
+
+    private final Map<String, CallMetrics> metrics = new ConcurrentHashMap<>();
+
+    public McpMetrics(String server, String jmxScope) {
+        this.server = server;
+        this.jmxScope = jmxScope;
+    }
+
+    /**
+     * @param name tool/prompt名称或resource uri（不同根目录下的resource名称可能相同）
+     */
+    public CallMetrics get(String method, String name) {
+        return metrics.computeIfAbsent(method + "/" + name, key -> {
+            CallMetrics callMetrics = new CallMetrics(method, name);
+            JmxUtils.register(callMetrics, JMX_TYPE, jmxName(key));
+            return callMetrics;
+        });
+    }
+
+    /**
+     * tool/prompt/resource被移除时移除其指标
+     *
+     * @param name tool/prompt名称或resource uri
+     */
+    public void remove(String method, String name) {
+        String key = method + "/" + name;
+        if (metrics.remove(key) != null) {
+            JmxUtils.unregister(JMX_TYPE, jmxName(key));
+        }
+    }
+
+    public Collection<CallMetrics> allMetrics() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    public void close() {
+        metrics.keySet().forEach(key -> JmxUtils.unregister(JMX_TYPE, jmxName(key)));
+        metrics.clear();
+    }
+
+    private String jmxName(String key) {
+        return jmxScope == null ? key : jmxScope + "/" + key;
+    }
+
+    public McpServerFeatures.SyncToolSpecification wrap(McpServerFeatures.SyncToolSpecification specification) {
+        return new McpServerFeatures.SyncToolSpecification(specification.getTool(), wrapSync(
+                get(METHOD_TOOLS_CALL, specification.getTool().getName()), specification.getCall(), McpMetrics::isError));
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification specification) {
+        return new McpServerFeatures.AsyncToolSpecification(specification.getTool(), wrapAsync(
+                get(METHOD_TOOLS_CALL, specification.getTool().getName()), specification.getCall(), McpMetrics::isError));
+    }
+
+    public McpServerFeatures.SyncPromptSpecification wrap(McpServerFeatures.SyncPromptSpecification specification) {
+        return new McpServerFeatures.SyncPromptSpecification(specification.getPrompt(), wrapSync(
+                get(METHOD_PROMPTS_GET, specification.getPrompt().getName()), specification.getPromptHandler(), result -> false));
+    }
+
+    public McpServerFeatures.AsyncPromptSpecification wrap(McpServerFeatures.AsyncPromptSpecification specification) {
+        return new McpServerFeatures.AsyncPromptSpecification(specification.getPrompt(), wrapAsync(
+                get(METHOD_PROMPTS_GET, specification.getPrompt().getName()), specification.getPromptHandler(), result -> false));
+    }
+
+    public McpServerFeatures.SyncResourceSpecification wrap(McpServerFeatures.SyncResourceSpecification specification) {
+        return new McpServerFeatures.SyncResourceSpecification(specification.getResource(), wrapSync(
+                get(METHOD_RESOURCES_READ, specification.getResource().getUri()), specification.getReadHandler(), result -> false));
+    }
+
+    public McpServerFeatures.AsyncResourceSpecification wrap(McpServerFeatures.AsyncResourceSpecification specification) {
+        return new McpServerFeatures.AsyncResourceSpecification(specification.getResource(), wrapAsync(
+                get(METHOD_RESOURCES_READ, specification.getResource().getUri()), specification.getReadHandler(), result -> false));
+    }
+
+    private static boolean isError(McpSchema.CallToolResult result) {
+        return result == null || Boolean.TRUE.equals(result.getIsError());
+    }
+
+    private static <E, Q, R> BiFunction<E, Q, R> wrapSync(CallMetrics callMetrics, BiFunction<E, Q, R> handler,
+                                                         Predicate<R> isError) {
+        return (exchange, request) -> {
+            long start = callMetrics.start();
+            boolean error = true;
+            try {
+                R result = handler.apply(exchange, request);
+                error = isError.test(result);
+                return result;
+            } finally {
+                callMetrics.end(start, error);
+            }
+        };
+    }
+
+    private static <E, Q, R> BiFunction<E, Q, Mono<R>> wrapAsync(CallMetrics callMetrics, BiFunction<E, Q, Mono<R>> handler,
+                                                               Predicate<R> isError) {
+        return (exchange, request) -> Mono.defer(() -> {
+            long start = callMetrics.start();
+            // handler同步抛出异常（或返回null）时也转换为error信号，计入错误并结束in-flight
+            return Mono.defer(() -> handler.apply(exchange, request))
+                    .doOnSuccess(result -> callMetrics.end(start, isError.test(result)))
+                    .doOnError(e -> callMetrics.end(start, true))
+                    .doOnCancel(() -> callMetrics.end(start, false));
+        });
+    }
+
+    /**
+     * 以Prometheus文本格式（0.0.4）输出指标
+     */
+    public static void writePrometheus(Collection<McpMetrics> servers, Writer out) throws IOException {
+        writeHeader(out, "mcp_calls_total", "counter", "MCP requests handled by tool, prompt or resource");
+        forEach(servers, (labels, callMetrics) -> writeSample(out, "mcp_calls_total", labels, callMetrics.getCallCount()));
+        writeHeader(out, "mcp_errors_total", "counter", "MCP requests that failed or returned an error result");
+        forEach(servers, (labels, callMetrics) -> writeSample(out, "mcp_errors_total", labels, callMetrics.getErrorCount()));
+        writeHeader(out, "mcp_in_flight", "gauge", "MCP requests currently executing");
+        forEach(servers, (labels, callMetrics) -> writeSample(out, "mcp_in_flight", labels, callMetrics.getInFlight()));
+        writeHeader(out, "mcp_latency_seconds", "summary", "MCP request latency");
+        forEach(servers, (labels, callMetrics) -> {
+            LatencyHistogram latency = callMetrics.getLatency();
+            for (double quantile : QUANTILES) {
+                writeSample(out, "mcp_latency_seconds", labels + ",quantile=\"" + quantile + "\"",
+                        latency.getQuantileMicros(quantile) / 1e6);
+            }
+            writeSample(out, "mcp_latency_seconds_sum", labels, latency.getSumMicros() / 1e6);
+            writeSample(out, "mcp_latency_seconds_count", labels, latency.getCount());
+        });
+    }
+
+    private interface SampleWriter {
+        void write(String labels, CallMetrics callMetrics) throws IOException;
+    }
+
+    private static void forEach(Collection<McpMetrics> servers, SampleWriter writer) throws IOException {
+        for (McpMetrics serverMetrics : servers) {
+            List<CallMetrics> sorted = new ArrayList<>(serverMetrics.metrics.values());
+            sorted.sort(Comparator.comparing(CallMetrics::getMethod).thenComparing(CallMetrics::getName));
+            for (CallMetrics callMetrics : sorted) {
+                writer.write("server=\"" + escape(serverMetrics.server) + "\",method=\"" + callMetrics.getMethod()
+                        + "\",name=\"" + escape(callMetrics.getName()) + "\"", callMetrics);
+            }
+        }
+    }
+
+    private static void writeHeader(Writer out, String name, String type, String help) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void writeSample(Writer out, String name, String labels, Number value) throws IOException {
+        out.write(name + "{" + labels + "} " + value + "\n");
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
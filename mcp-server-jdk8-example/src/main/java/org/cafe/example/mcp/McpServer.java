@@ -1,7 +1,10 @@
 package org.cafe.example.mcp;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpAsyncServer;
 import io.modelcontextprotocol.server.McpAsyncStreamableHttpServer;
 import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpSyncServer;
 import io.modelcontextprotocol.server.transport.HttpServletSseServerTransportProvider;
 import io.modelcontextprotocol.server.transport.StdioServerTransportProvider;
 import io.modelcontextprotocol.spec.McpSchema;
@@ -9,47 +12,160 @@ import io.modelcontextprotocol.spec.McpServerTransportProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
-import org.apache.catalina.connector.Connector;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
 import org.cafe.example.mcp.annotation.McpServerEndpoint;
 import org.cafe.example.mcp.util.ProcessUtils;
 import org.cafe.example.mcp.util.TimeUtils;
 
+import javax.servlet.Filter;
 import javax.servlet.Servlet;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class McpServer {
 
-    private static final String MSG_REGISTER_TOOLS = "Registered tools: %d, notification: %s";
-    private static final String MSG_REGISTER_RESOURCES = "Registered resources: %d, notification: %s";
-    private static final String MSG_REGISTER_PROMPTS = "Registered prompts: %d, notification: %s";
+    private static final String MSG_REGISTER_TOOLS = "Registered tools: {}, notification: {}";
+    private static final String MSG_REGISTER_RESOURCES = "Registered resources: {}, notification: {}";
+    private static final String MSG_REGISTER_PROMPTS = "Registered prompts: {}, notification: {}";
     private static final String MCP_SERVLET_NAME = "mcpServlet";
+    static final String METRICS_SERVLET_NAME = "metricsServlet";
+    static final String TRACES_SERVLET_NAME = "tracesServlet";
+    static final String TRACING_FILTER_NAME = "tracingFilter";
+    static final String CANCELLATION_FILTER_NAME = "cancellationFilter";
+    private static final long HOT_RELOAD_DEBOUNCE_MILLIS = 500;
+    private static final String MSG_STARTUP_PHASE = "Startup phase '{}' took {} ms";
 
     private final McpServerProperties serverProperties = new McpServerProperties();
-    private final ToolProvider toolProvider = new ToolProvider();
-    private final ResourceProvider resourceProvider = new ResourceProvider();
-    private final PromptProvider promptProvider = new PromptProvider();
+    private final ToolProvider toolProvider;
+    private final BlobStore blobStore = new BlobStore();
+    private final ResourceProvider resourceProvider;
+    private final PromptProvider promptProvider;
+    private final ListResultSnapshots listResultSnapshots = new ListResultSnapshots();
+    private final ObjectMapper objectMapper = blobStore.register(listResultSnapshots.register(new TracingObjectMapper()));
+
+    /**
+     * 所在的宿主，为null时独立运行（使用自己的Tomcat和ConfigWatcher）
+     */
+    private final McpServerHost host;
 
     private Tomcat tomcat;
     private McpSchema.Implementation serverInfo;
     private McpSchema.ServerCapabilities.Builder capabilitiesBuilder;
     private McpServerTransportProvider transportProvider;
+    private McpSyncServer syncServer;
+    private McpAsyncServer asyncServer;
+    private ConfigWatcher configWatcher;
+    private McpMetrics metrics;
 
+    public McpServer() {
+        this(new ToolProvider(), null);
+    }
+
+    McpServer(ToolProvider toolProvider, McpServerHost host) {
+        this.toolProvider = toolProvider;
+        this.host = host;
+        // prompt配置文件夹、resource根目录优先使用端点上的配置，JMX名称与tool使用相同的前缀
+        McpServerEndpoint endpoint = toolProvider.getEndpoint();
+        this.promptProvider = new PromptProvider(blobStore, PromptProvider.resolvePromptDir(endpoint == null ? "" : endpoint.promptDir()),
+                toolProvider.getJmxScope());
+        this.resourceProvider = new ResourceProvider(blobStore, endpoint == null ? "" : endpoint.resourceRoots(), toolProvider.getJmxScope());
+        listResultSnapshots.setCurrentDefinitions(toolProvider::currentTool, promptProvider::currentPrompt);
+    }
+
+    /**
+     * 启动MCP Server；在宿主中运行时不启动Tomcat，由宿主挂载servlet
+     */
     public void start() throws LifecycleException, IOException {
         log.info("Starting MCP Server...");
+        long startNanos = System.nanoTime();
 
-        processServerProperties();
+        // tools/prompts/resources的构建互不依赖，并行执行；各provider记忆化结果，构建MCP Server时直接使用
+        ForkJoinPool startupPool = new ForkJoinPool(3);
+        long phaseNanos;
+        try {
+            CompletableFuture<Void> registry = CompletableFuture.allOf(
+                    startupPhase(startupPool, "tools", toolProvider::allSyncTools),
+                    startupPhase(startupPool, "prompts", promptProvider::allSyncPrompts),
+                    startupPhase(startupPool, "resources", resourceProvider::allSyncResources));
+
+            phaseNanos = System.nanoTime();
+            processServerProperties();
+            log.info(MSG_STARTUP_PHASE, "properties", millisSince(phaseNanos));
+            if (host != null && serverProperties.isStdio()) {
+                throw new IllegalStateException("McpServer '" + serverProperties.getName() + "' uses stdio transport and cannot run in a host");
+            }
+
+            join(registry);
+            log.info(MSG_STARTUP_PHASE, "registry", millisSince(startNanos));
+        } finally {
+            startupPool.shutdown();
+        }
 
+        phaseNanos = System.nanoTime();
+        McpTracing.start();
         buildMcpServer();
+        log.info(MSG_STARTUP_PHASE, "server", millisSince(phaseNanos));
 
-        if (!serverProperties.isStdio()) {
+        if (serverProperties.isHotReload()) {
+            phaseNanos = System.nanoTime();
+            startConfigWatcher();
+            log.info(MSG_STARTUP_PHASE, "watcher", millisSince(phaseNanos));
+        }
+
+        if (host == null && !serverProperties.isStdio()) {
+            phaseNanos = System.nanoTime();
             startTomcat();
+            log.info(MSG_STARTUP_PHASE, "tomcat", millisSince(phaseNanos));
+        }
+        log.info("MCP Server started in {} ms", millisSince(startNanos));
+    }
+
+    private static CompletableFuture<Object> startupPhase(ForkJoinPool pool, String phase, Callable<?> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long phaseNanos = System.nanoTime();
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                log.info(MSG_STARTUP_PHASE, phase, millisSince(phaseNanos));
+            }
+        }, pool);
+    }
+
+    private static void join(CompletableFuture<?> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
         }
     }
 
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+
     private void processServerProperties() {
         McpServerEndpoint mcpServerEndpoint = toolProvider.getEndpoint();
         assert mcpServerEndpoint != null;
@@ -73,15 +189,19 @@ public class McpServer {
         serverProperties.setToolChangeNotification(mcpServerEndpoint.toolChangeNotification());
         serverProperties.setResourceChangeNotification(mcpServerEndpoint.resourceChangeNotification());
         serverProperties.setPromptChangeNotification(mcpServerEndpoint.promptChangeNotification());
+        serverProperties.setHotReload(mcpServerEndpoint.hotReload());
+        serverProperties.setConnector(ConnectorProperties.from(mcpServerEndpoint.connector()));
         log.info("MCP Server properties: [{}]", serverProperties);
 
         serverInfo = new McpSchema.Implementation(serverProperties.getName(), serverProperties.getVersion());
+        metrics = new McpMetrics(serverProperties.getName(), host == null ? null : serverProperties.getName());
     }
 
     private void buildMcpServer() throws IOException {
         capabilitiesBuilder = McpSchema.ServerCapabilities.builder();
         capabilitiesBuilder.tools(serverProperties.isToolChangeNotification());
-        capabilitiesBuilder.resources(true, serverProperties.isResourceChangeNotification());
+        // SDK 0.10未实现resources/subscribe，不声明subscribe，资源内容变化时不发送通知（客户端重新读取即可获得最新内容）
+        capabilitiesBuilder.resources(false, serverProperties.isResourceChangeNotification());
         capabilitiesBuilder.prompts(serverProperties.isPromptChangeNotification());
 
         if (serverProperties.getTransport() == TransportType.SSE) {
@@ -89,9 +209,10 @@ public class McpServer {
                     .baseUrl(serverProperties.getBaseUrl())
                     .messageEndpoint(serverProperties.getSseMessageEndpoint())
                     .sseEndpoint(serverProperties.getSseEndpoint())
+                    .objectMapper(objectMapper)
                     .build();
         } else if (serverProperties.isStdio()){
-            transportProvider = new StdioServerTransportProvider();
+            transportProvider = new StdioServerTransportProvider(objectMapper);
         }
 
         if (serverProperties.getTransport() == TransportType.STREAMABLE_HTTP) {
@@ -103,36 +224,56 @@ public class McpServer {
         }
     }
 
+    /**
+     * 包装规格的处理器以记录调用指标
+     */
+    private static <T> List<T> instrument(List<T> specifications, UnaryOperator<T> wrapper) {
+        return specifications.stream().map(wrapper).collect(Collectors.toList());
+    }
+
+    /**
+     * tool的处理器还需记录追踪span
+     */
+    private McpServerFeatures.SyncToolSpecification instrumentTool(McpServerFeatures.SyncToolSpecification specification) {
+        return McpTracing.wrap(metrics.wrap(specification));
+    }
+
+    private McpServerFeatures.AsyncToolSpecification instrumentTool(McpServerFeatures.AsyncToolSpecification specification) {
+        return McpTracing.wrap(metrics.wrap(specification));
+    }
+
     private void buildAsyncStreamableHttpServer() throws IOException {
         log.info("building async StreamableHttpServer...");
 
         McpAsyncStreamableHttpServer.Builder serverBuilder = McpAsyncStreamableHttpServer.builder()
                 .serverInfo(serverInfo.getName(), serverInfo.getVersion())
-                .withMcpEndpoint(serverProperties.getMcpEndpoint());
+                .withMcpEndpoint(serverProperties.getMcpEndpoint())
+                .withObjectMapper(objectMapper);
 
         // tools
-        List<McpServerFeatures.AsyncToolSpecification> toolSpecifications = toolProvider.allAsyncTools();
+        List<McpServerFeatures.AsyncToolSpecification> toolSpecifications = instrument(toolProvider.allAsyncTools(), this::instrumentTool);
         if (!toolSpecifications.isEmpty()) {
             toolSpecifications.forEach(serverBuilder::withTool);
         }
-        log.info(String.format(MSG_REGISTER_TOOLS, toolSpecifications.size(), serverProperties.isToolChangeNotification()));
+        log.info(MSG_REGISTER_TOOLS, toolSpecifications.size(), serverProperties.isToolChangeNotification());
 
         // resources
-        List<McpServerFeatures.AsyncResourceSpecification> resourceSpecifications = resourceProvider.allAsyncResources();
+        List<McpServerFeatures.AsyncResourceSpecification> resourceSpecifications = instrument(resourceProvider.allAsyncResources(), metrics::wrap);
         if (!resourceSpecifications.isEmpty()) {
             resourceSpecifications.forEach(asyncResourceSpecification -> {
                 serverBuilder.withResource(asyncResourceSpecification.getResource().getUri(), asyncResourceSpecification);
             });
         }
-        log.info(String.format(MSG_REGISTER_RESOURCES, resourceSpecifications.size(), serverProperties.isResourceChangeNotification()));
+        log.info(MSG_REGISTER_RESOURCES, resourceSpecifications.size(), serverProperties.isResourceChangeNotification());
+        resourceProvider.allResourceTemplates().forEach(serverBuilder::withResourceTemplate);
 
         // prompts
-        List<McpServerFeatures.AsyncPromptSpecification> promptSpecifications = promptProvider.allAsyncPrompts();
+        List<McpServerFeatures.AsyncPromptSpecification> promptSpecifications = instrument(promptProvider.allAsyncPrompts(), metrics::wrap);
         if (!promptSpecifications.isEmpty()) {
             promptSpecifications.forEach(asyncPromptSpecification ->
                     serverBuilder.withPrompt(asyncPromptSpecification.getPrompt().getName(), asyncPromptSpecification));
         }
-        log.info(String.format(MSG_REGISTER_PROMPTS, promptSpecifications.size(), serverProperties.isPromptChangeNotification()));
+        log.info(MSG_REGISTER_PROMPTS, promptSpecifications.size(), serverProperties.isPromptChangeNotification());
 
         serverBuilder.serverCapabilities(capabilitiesBuilder.build());
         McpAsyncStreamableHttpServer streamableHttpServer = serverBuilder.build();
@@ -147,30 +288,34 @@ public class McpServer {
         io.modelcontextprotocol.server.McpServer.SyncSpecification serverBuilder = io.modelcontextprotocol.server.McpServer.sync(transportProvider).serverInfo(serverInfo);
 
         // tools
-        List<McpServerFeatures.SyncToolSpecification> toolSpecifications = toolProvider.allSyncTools();
+        List<McpServerFeatures.SyncToolSpecification> toolSpecifications = instrument(toolProvider.allSyncTools(), this::instrumentTool);
         if (!toolSpecifications.isEmpty()) {
             serverBuilder.tools(toolSpecifications);
         }
-        log.info(String.format(MSG_REGISTER_TOOLS, toolSpecifications.size(), serverProperties.isToolChangeNotification()));
+        log.info(MSG_REGISTER_TOOLS, toolSpecifications.size(), serverProperties.isToolChangeNotification());
 
         // resources
-        List<McpServerFeatures.SyncResourceSpecification> syncResourceSpecifications = resourceProvider.allSyncResources();
+        List<McpServerFeatures.SyncResourceSpecification> syncResourceSpecifications = instrument(resourceProvider.allSyncResources(), metrics::wrap);
         if (!syncResourceSpecifications.isEmpty()) {
             serverBuilder.resources(syncResourceSpecifications);
         }
-        log.info(String.format(MSG_REGISTER_RESOURCES, syncResourceSpecifications.size(), serverProperties.isResourceChangeNotification()));
+        log.info(MSG_REGISTER_RESOURCES, syncResourceSpecifications.size(), serverProperties.isResourceChangeNotification());
+        List<McpSchema.ResourceTemplate> resourceTemplates = resourceProvider.allResourceTemplates();
+        if (!resourceTemplates.isEmpty()) {
+            serverBuilder.resourceTemplates(resourceTemplates);
+        }
 
         // prompts
-        List<McpServerFeatures.SyncPromptSpecification> syncPromptSpecifications = promptProvider.allSyncPrompts();
+        List<McpServerFeatures.SyncPromptSpecification> syncPromptSpecifications = instrument(promptProvider.allSyncPrompts(), metrics::wrap);
         if (!syncPromptSpecifications.isEmpty()) {
             serverBuilder.prompts(syncPromptSpecifications);
         }
-        log.info(String.format(MSG_REGISTER_PROMPTS, syncPromptSpecifications.size(), serverProperties.isPromptChangeNotification()));
+        log.info(MSG_REGISTER_PROMPTS, syncPromptSpecifications.size(), serverProperties.isPromptChangeNotification());
 
-        // TODO Resource Templates, roots, rootsChangeConsumers
+        // TODO roots, rootsChangeConsumers
 
         serverBuilder.capabilities(capabilitiesBuilder.build());
-        serverBuilder.build();
+        syncServer = serverBuilder.build();
     }
 
     private void buildAsyncServer() throws IOException {
@@ -180,68 +325,295 @@ public class McpServer {
         io.modelcontextprotocol.server.McpServer.AsyncSpecification serverBuilder = io.modelcontextprotocol.server.McpServer.async(transportProvider).serverInfo(serverInfo);
 
         // tools
-        List<McpServerFeatures.AsyncToolSpecification> asyncToolSpecifications = toolProvider.allAsyncTools();
+        List<McpServerFeatures.AsyncToolSpecification> asyncToolSpecifications = instrument(toolProvider.allAsyncTools(), this::instrumentTool);
         if (!asyncToolSpecifications.isEmpty()) {
             serverBuilder.tools(asyncToolSpecifications);
         }
-        log.info(String.format(MSG_REGISTER_TOOLS, asyncToolSpecifications.size(), serverProperties.isToolChangeNotification()));
+        log.info(MSG_REGISTER_TOOLS, asyncToolSpecifications.size(), serverProperties.isToolChangeNotification());
 
         // resources
-        List<McpServerFeatures.AsyncResourceSpecification> asyncResourceSpecifications = resourceProvider.allAsyncResources();
+        List<McpServerFeatures.AsyncResourceSpecification> asyncResourceSpecifications = instrument(resourceProvider.allAsyncResources(), metrics::wrap);
         if (!asyncResourceSpecifications.isEmpty()) {
             serverBuilder.resources(asyncResourceSpecifications);
         }
-        log.info(String.format(MSG_REGISTER_RESOURCES, asyncResourceSpecifications.size(), serverProperties.isResourceChangeNotification()));
+        log.info(MSG_REGISTER_RESOURCES, asyncResourceSpecifications.size(), serverProperties.isResourceChangeNotification());
+        List<McpSchema.ResourceTemplate> resourceTemplates = resourceProvider.allResourceTemplates();
+        if (!resourceTemplates.isEmpty()) {
+            serverBuilder.resourceTemplates(resourceTemplates);
+        }
 
         // prompts
-        List<McpServerFeatures.AsyncPromptSpecification> asyncPromptSpecifications = promptProvider.allAsyncPrompts();
+        List<McpServerFeatures.AsyncPromptSpecification> asyncPromptSpecifications = instrument(promptProvider.allAsyncPrompts(), metrics::wrap);
         if (!asyncPromptSpecifications.isEmpty()) {
             serverBuilder.prompts(asyncPromptSpecifications);
         }
-        log.info(String.format(MSG_REGISTER_PROMPTS, asyncPromptSpecifications.size(), serverProperties.isPromptChangeNotification()));
+        log.info(MSG_REGISTER_PROMPTS, asyncPromptSpecifications.size(), serverProperties.isPromptChangeNotification());
 
-        // TODO Resource Templates, roots, rootsChangeConsumers
+        // TODO roots, rootsChangeConsumers
 
         serverBuilder.capabilities(capabilitiesBuilder.build());
-        serverBuilder.build();
+        asyncServer = serverBuilder.build();
+    }
+
+    /**
+     * 监听tool-list.json、prompt配置文件夹及resource根目录：文件变化（去抖后）在后台线程上重新加载，
+     * 仅处理器变化时直接替换；tool/prompt/resource增删或定义变化时同步到MCP Server，由SDK发送list_changed通知；
+     * resource内容变化时使其缓存失效
+     */
+    private void startConfigWatcher() throws IOException {
+        configWatcher = host == null ? new ConfigWatcher(HOT_RELOAD_DEBOUNCE_MILLIS) : host.getConfigWatcher();
+
+        Path toolListPath = toolProvider.getToolListPath();
+        if (toolListPath != null) {
+            configWatcher.watch(toolListPath, this::reloadTools);
+        } else {
+            log.warn("tool-list.json is not on the file system, hot reload is disabled for tools");
+        }
+        configWatcher.watch(promptProvider.getPromptDir(), this::reloadPrompts);
+        for (Path root : resourceProvider.getRoots()) {
+            configWatcher.watch(root, this::reloadResources);
+        }
+
+        if (syncServer == null && asyncServer == null) {
+            // StreamableHttpServer不支持运行时增删tool/prompt：已有tool/prompt的处理器仍可热替换，增删需重启生效
+            log.warn("{} transport does not support list changes at runtime, added or removed tools/prompts/resources require a restart",
+                    serverProperties.getTransport());
+        }
+    }
+
+    private void reloadTools() {
+        try {
+            ListChanges<McpSchema.Tool> changes = toolProvider.reloadToolDefs();
+            if (changes.isEmpty()) {
+                return;
+            }
+            log.info("Reloaded tools: {}", changes);
+            for (String name : changes.getRemoved()) {
+                removeTool(name);
+                metrics.remove(McpMetrics.METHOD_TOOLS_CALL, name);
+            }
+            for (McpSchema.Tool tool : changes.getAdded()) {
+                addTool(tool);
+            }
+            if (!changes.getUpdated().isEmpty()) {
+                // 处理器已替换，tools/list按名称输出当前定义；增删时SDK已发送过list_changed
+                listResultSnapshots.invalidate();
+                if (changes.getAdded().isEmpty() && changes.getRemoved().isEmpty() && serverProperties.isToolChangeNotification()) {
+                    notifyToolsListChanged();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Reload tools error:", e);
+        }
+    }
+
+    private void reloadPrompts() {
+        try {
+            ListChanges<McpSchema.Prompt> changes = promptProvider.reloadFilePrompts();
+            if (changes.isEmpty()) {
+                return;
+            }
+            log.info("Reloaded prompts: {}", changes);
+            for (String name : changes.getRemoved()) {
+                removePrompt(name);
+                metrics.remove(McpMetrics.METHOD_PROMPTS_GET, name);
+            }
+            for (McpSchema.Prompt prompt : changes.getAdded()) {
+                addPrompt(prompt);
+            }
+            if (!changes.getUpdated().isEmpty()) {
+                // 处理器已替换，prompts/list按名称输出当前定义；增删时SDK已发送过list_changed
+                listResultSnapshots.invalidate();
+                if (changes.getAdded().isEmpty() && changes.getRemoved().isEmpty() && serverProperties.isPromptChangeNotification()) {
+                    notifyPromptsListChanged();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Reload prompts error:", e);
+        }
+    }
+
+    private void reloadResources(Set<Path> changed) {
+        try {
+            ListChanges<McpServerFeatures.SyncResourceSpecification> changes = resourceProvider.refresh(changed);
+            if (changes.isEmpty()) {
+                return;
+            }
+            log.info("Reloaded resources: {}", changes);
+            for (String uri : changes.getRemoved()) {
+                if (syncServer != null) {
+                    syncServer.removeResource(uri);
+                } else if (asyncServer != null) {
+                    asyncServer.removeResource(uri).block();
+                }
+                metrics.remove(McpMetrics.METHOD_RESOURCES_READ, uri);
+            }
+            for (McpServerFeatures.SyncResourceSpecification specification : changes.getAdded()) {
+                if (syncServer != null) {
+                    syncServer.addResource(metrics.wrap(specification));
+                } else if (asyncServer != null) {
+                    asyncServer.addResource(metrics.wrap(McpServerFeatures.AsyncResourceSpecification.fromSync(specification))).block();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Reload resources error:", e);
+        }
+    }
+
+    private void notifyToolsListChanged() {
+        if (syncServer != null) {
+            syncServer.notifyToolsListChanged();
+        } else if (asyncServer != null) {
+            asyncServer.notifyToolsListChanged().block();
+        }
+    }
+
+    private void notifyPromptsListChanged() {
+        if (syncServer != null) {
+            syncServer.notifyPromptsListChanged();
+        } else if (asyncServer != null) {
+            asyncServer.notifyPromptsListChanged().block();
+        }
+    }
+
+    private void addTool(McpSchema.Tool tool) {
+        if (syncServer != null) {
+            syncServer.addTool(instrumentTool(toolProvider.syncSpecification(tool)));
+        } else if (asyncServer != null) {
+            asyncServer.addTool(instrumentTool(toolProvider.asyncSpecification(tool))).block();
+        }
+    }
+
+    private void removeTool(String name) {
+        if (syncServer != null) {
+            syncServer.removeTool(name);
+        } else if (asyncServer != null) {
+            asyncServer.removeTool(name).block();
+        }
+    }
+
+    private void addPrompt(McpSchema.Prompt prompt) {
+        if (syncServer != null) {
+            syncServer.addPrompt(metrics.wrap(promptProvider.syncSpecification(prompt)));
+        } else if (asyncServer != null) {
+            asyncServer.addPrompt(metrics.wrap(promptProvider.asyncSpecification(prompt))).block();
+        }
+    }
+
+    private void removePrompt(String name) {
+        if (syncServer != null) {
+            syncServer.removePrompt(name);
+        } else if (asyncServer != null) {
+            asyncServer.removePrompt(name).block();
+        }
     }
 
     private void startTomcat() throws LifecycleException {
         log.info("Starting Tomcat...");
 
-        tomcat = new Tomcat();
-        tomcat.setPort(serverProperties.getPort());
+        tomcat = createTomcat(serverProperties.getPort(), serverProperties.getConnector());
+
+        // 添加 Web 应用（无 webapp 目录，只注册 servlet）
+        Context ctx = tomcat.addContext("", new File(System.getProperty("java.io.tmpdir")).getAbsolutePath());
+
+        // 注册 MCP Servlet
+        addServlet(ctx, MCP_SERVLET_NAME, (Servlet) transportProvider, "/*");
+        // 精确匹配优先于"/*"
+        String metricsPath = MetricsServlet.path();
+        if (!metricsPath.isEmpty()) {
+            addServlet(ctx, METRICS_SERVLET_NAME, new MetricsServlet(() -> Collections.singletonList(metrics)), metricsPath);
+        }
+        if (McpTracing.isEnabled()) {
+            addFilter(ctx, TRACING_FILTER_NAME, new TracingFilter(serverProperties.getName()), MCP_SERVLET_NAME);
+            addTracesServlet(ctx);
+        }
+        addFilter(ctx, CANCELLATION_FILTER_NAME, new ToolCallCancellationFilter(), MCP_SERVLET_NAME);
+
+        tomcat.start();
+
+        log.info("Tomcat running on {} and mcp server path is {}", serverProperties.getPort(), getEndpointPaths().get(0));
+    }
+
+    /**
+     * MCP Server的请求路径：Streamable HTTP为mcpEndpoint，SSE为sseEndpoint和sseMessageEndpoint
+     */
+    List<String> getEndpointPaths() {
+        if (serverProperties.getTransport() == TransportType.STREAMABLE_HTTP) {
+            return Collections.singletonList(serverProperties.getMcpEndpoint());
+        }
+        return Arrays.asList(serverProperties.getSseEndpoint(), serverProperties.getSseMessageEndpoint());
+    }
+
+    /**
+     * 使用的配置（tool-list.json、prompt配置文件夹、resource根目录），同一宿主中的MCP Server不能共用
+     */
+    List<String> getConfigLocations() {
+        List<String> locations = new ArrayList<>();
+        if (toolProvider.getToolListFile() != null) {
+            locations.add("tool list " + toolProvider.getToolListFile());
+        }
+        locations.add("prompt dir " + promptProvider.getPromptDir());
+        resourceProvider.getRoots().forEach(root -> locations.add("resource root " + root));
+        return locations;
+    }
+
+    McpMetrics getMetrics() {
+        return metrics;
+    }
+
+    McpServerProperties getServerProperties() {
+        return serverProperties;
+    }
+
+    Servlet getServlet() {
+        return (Servlet) transportProvider;
+    }
+
+    static Tomcat createTomcat(int port, ConnectorProperties connectorProperties) {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setPort(port);
 
         // 设置临时目录
         File baseDir = new File(System.getProperty("java.io.tmpdir"));
         tomcat.setBaseDir(baseDir.getAbsolutePath());
 
-        // 添加 Web 应用（无 webapp 目录，只注册 servlet）
-        Context ctx = tomcat.addContext("", baseDir.getAbsolutePath());
+        tomcat.setConnector(connectorProperties.createConnector(port));
+        log.info("Tomcat connector: {}", connectorProperties);
+        return tomcat;
+    }
 
-        // 注册 MCP Servlet
+    static void addServlet(Context ctx, String name, Servlet servlet, String... patterns) {
         org.apache.catalina.Wrapper wrapper = ctx.createWrapper();
-        wrapper.setName(MCP_SERVLET_NAME);
-        wrapper.setServlet((Servlet) transportProvider);
+        wrapper.setName(name);
+        wrapper.setServlet(servlet);
         wrapper.setLoadOnStartup(1);
         wrapper.setAsyncSupported(true);
         ctx.addChild(wrapper);
-        ctx.addServletMappingDecoded("/*", MCP_SERVLET_NAME);
-
-        Connector connector = tomcat.getConnector(); // 默认创建一个 HTTP connector
-        connector.setAsyncTimeout(10000); // 10 seconds timeout for async requests, default is 30 seconds
-        /*
-         * 配置 SO LINGER:on=true,linger=0
-         * 以确保收到客户端的 FIN 信号并确认后主动调用 close 关闭连接（避免连接停留在 CLOSE_WAIT 状态），但可能会导致最后传输的数据包丢失
-         */
-        connector.setProperty("socket.soLingerOn", "true");
-        connector.setProperty("socket.soLingerTime", "0");
+        for (String pattern : patterns) {
+            ctx.addServletMappingDecoded(pattern, name);
+        }
+    }
 
-        tomcat.start();
+    static void addFilter(Context ctx, String name, Filter filter, String servletName) {
+        FilterDef filterDef = new FilterDef();
+        filterDef.setFilterName(name);
+        filterDef.setFilter(filter);
+        filterDef.setAsyncSupported("true");
+        ctx.addFilterDef(filterDef);
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName(name);
+        filterMap.addServletName(servletName);
+        ctx.addFilterMap(filterMap);
+    }
 
-        String endpoint = serverProperties.getTransport() == TransportType.STREAMABLE_HTTP ?
-                serverProperties.getMcpEndpoint() : serverProperties.getSseEndpoint();
-        log.info("Tomcat running on {} and mcp server path is {}", serverProperties.getPort(), endpoint);
+    /**
+     * 使用内存环形缓冲区导出span时挂载追踪调试端点
+     */
+    static void addTracesServlet(Context ctx) {
+        String tracesPath = McpTracing.tracesPath();
+        if (McpTracing.getRingBuffer() != null && !tracesPath.isEmpty()) {
+            addServlet(ctx, TRACES_SERVLET_NAME, new TracesServlet(), tracesPath);
+        }
     }
 
     public static void main(String[] args) {
@@ -259,13 +631,34 @@ public class McpServer {
         }
     }
 
-    private void stop() {
+    public void stop() {
         log.info("Stopping MCP Server...");
 
+        // 宿主的ConfigWatcher由宿主关闭
+        if (configWatcher != null && host == null) {
+            try {
+                configWatcher.close();
+            } catch (IOException e) {
+                log.error("close ConfigWatcher error:", e);
+            }
+        }
+
         if (transportProvider != null) {
             transportProvider.closeGracefully().block();
         }
 
+        toolProvider.close();
+        promptProvider.close();
+        resourceProvider.close();
+        blobStore.close();
+        if (metrics != null) {
+            metrics.close();
+        }
+        // 宿主的追踪由宿主停止
+        if (host == null) {
+            McpTracing.stop();
+        }
+
         if (tomcat != null) {
             log.info("Stopping Tomcat...");
             try {
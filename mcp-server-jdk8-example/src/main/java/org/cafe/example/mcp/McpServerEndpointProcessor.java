@@ -15,14 +15,97 @@ import java.util.List;
 @Slf4j
 public class McpServerEndpointProcessor {
 
+    /**
+     * 要启动的端点类名，未指定时使用扫描到的第一个
+     */
+    public static final String PROPERTY_ENDPOINT = "mcp.endpoint";
+
     private McpServerEndpointProcessor() {
     }
 
+    /**
+     * 从扫描结果中选择要启动的端点类：通过{@code -Dmcp.endpoint}指定类名，未指定时使用第一个（找到多个时给出警告）
+     *
+     * @return 未找到时返回null
+     */
+    public static String selectEndpointClass(McpClassScanner.ScanResult scanResult) {
+        List<String> endpointClasses = scanResult.getEndpointClasses();
+        String endpointClass = System.getProperty(PROPERTY_ENDPOINT);
+        if (endpointClass != null) {
+            if (!endpointClasses.contains(endpointClass)) {
+                log.error("McpServerEndpoint {} not found in {}", endpointClass, endpointClasses);
+                return null;
+            }
+            return endpointClass;
+        }
+        if (endpointClasses.isEmpty()) {
+            log.error("No McpServerEndpoint found, check -D{}", McpClassScanner.PROPERTY_SCAN_PACKAGES);
+            return null;
+        }
+        if (endpointClasses.size() > 1) {
+            log.warn("Found {} McpServerEndpoints {}, using {}; specify one with -D{}", endpointClasses.size(), endpointClasses,
+                    endpointClasses.get(0), PROPERTY_ENDPOINT);
+        }
+        return endpointClasses.get(0);
+    }
+
+    /**
+     * 端点提供的tool类：端点类本身（如果有{@code @Tool}方法），以及端点类所在包（含子包）下、本身不是端点的{@code @Tool}类
+     */
+    public static List<String> resolveToolClasses(String endpointClass, McpClassScanner.ScanResult scanResult) {
+        String endpointPackage = endpointClass.substring(0, Math.max(endpointClass.lastIndexOf('.'), 0));
+        List<String> toolClasses = new ArrayList<>();
+        for (String toolClass : scanResult.getToolClasses()) {
+            if (toolClass.equals(endpointClass) || !scanResult.getEndpointClasses().contains(toolClass)
+                    && (endpointPackage.isEmpty() || toolClass.startsWith(endpointPackage + "."))) {
+                toolClasses.add(toolClass);
+            }
+        }
+        return toolClasses;
+    }
+
+    /**
+     * 创建tool类的实例（通过无参构造方法）；类名来自扫描结果（可能来自缓存文件），加载后先确认类中有{@code @Tool}方法再初始化
+     *
+     * @return 失败或类中没有{@code @Tool}方法时返回null
+     */
+    public static Object createToolBean(String className) {
+        try {
+            Class<?> beanClass = Class.forName(className, false, McpServerEndpointProcessor.class.getClassLoader());
+            if (!hasToolMethod(beanClass)) {
+                log.error("Skip tool bean {}: no @Tool method found", className);
+                return null;
+            }
+            return beanClass.getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            log.error("Create tool bean {} error: {}", className, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    static boolean hasToolMethod(Class<?> beanClass) {
+        for (Method method : beanClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Tool.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取端点类上的{@code @McpServerEndpoint}，加载类时不初始化
+     *
+     * @return 类不存在或没有该注解时返回null
+     */
     public static McpServerEndpoint resolveMcpServerEndpoint(String className) {
         log.info("Processing McpServer...");
         try {
-            Class<?> beanClass = Class.forName(className);
-            return beanClass.getAnnotation(McpServerEndpoint.class);
+            Class<?> beanClass = Class.forName(className, false, McpServerEndpointProcessor.class.getClassLoader());
+            McpServerEndpoint endpoint = beanClass.getAnnotation(McpServerEndpoint.class);
+            if (endpoint == null) {
+                log.error("{} is not annotated with @McpServerEndpoint", className);
+            }
+            return endpoint;
         } catch (Exception e) {
             log.error("Processing McpServerEndpoint error: {}", e.getMessage(), e);
             return null;
@@ -40,8 +123,11 @@ public class McpServerEndpointProcessor {
         }
 
         try {
+            long start = System.nanoTime();
             List<McpToolInfo> toolInfos = collectMcpFunctions(targetBean);
-            log.debug("Found MCP tools on {}: {}", targetBean.getClass().getName(), toolInfos);
+            log.info("Resolved {} tools in {} ms, schema index hits: {}, generated: {}", toolInfos.size(),
+                    (System.nanoTime() - start) / 1000000, ToolSchemaIndex.getIndexHits(), ToolSchemaIndex.getGenerated());
+            log.trace("MCP tools on {}: {}", targetBean.getClass().getName(), toolInfos);
             return toolInfos;
         } catch (Exception e) {
             log.error("Processing McpServer tools error: {}", e.getMessage(), e);
@@ -49,7 +135,10 @@ public class McpServerEndpointProcessor {
         return Collections.emptyList();
     }
 
-    private static List<McpToolInfo> collectMcpFunctions(Object targetBean) {
+    /**
+     * 收集{@code @Tool}方法，并为每个方法生成{@link ToolDispatcher}（见{@link ToolInvoker}）
+     */
+    private static List<McpToolInfo> collectMcpFunctions(Object targetBean) throws IllegalAccessException {
         Method[] methods = targetBean.getClass().getDeclaredMethods();
         List<McpToolInfo> functionInfos = new ArrayList<>();
 
@@ -0,0 +1,197 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.cafe.example.mcp.util.ProcessUtils;
+import org.cafe.example.mcp.util.TimeUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * MCP Server宿主：在同一个JVM、同一个Tomcat connector上运行扫描到的所有{@code @McpServerEndpoint}，
+ * 每个MCP Server的servlet按其请求路径（mcpEndpoint，或sseEndpoint和sseMessageEndpoint）挂载，路径不能重复。
+ * 各MCP Server的tool/prompt/resource注册表相互独立，各自的tool-list.json、prompt配置文件夹、resource根目录通过{@code @McpServerEndpoint}指定、
+ * 不能共用，JMX名称以MCP Server名称为前缀；blocking类型tool共用一个工作线程池，各自的隔离舱仍限制自身的并发数与队列；
+ * 配置文件监听共用一个ConfigWatcher
+ */
+@Slf4j
+public class McpServerHost {
+
+    /**
+     * Tomcat端口，默认为第一个MCP Server的端口
+     */
+    public static final String PROPERTY_HOST_PORT = "mcp.host.port";
+
+    /**
+     * 共享工作线程池的线程数，默认为CPU核数的10倍
+     */
+    public static final String PROPERTY_WORKER_THREADS = "mcp.host.workerThreads";
+
+    private static final long HOT_RELOAD_DEBOUNCE_MILLIS = 500;
+
+    private final ThreadPoolExecutor workers;
+    private final List<McpServer> servers = new ArrayList<>();
+    private ConfigWatcher configWatcher;
+    private Tomcat tomcat;
+
+    public McpServerHost() {
+        int workerThreads = Integer.getInteger(PROPERTY_WORKER_THREADS, 10 * Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "mcp-worker-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 各MCP Server共用的ConfigWatcher，第一次使用时创建
+     */
+    synchronized ConfigWatcher getConfigWatcher() throws IOException {
+        if (configWatcher == null) {
+            configWatcher = new ConfigWatcher(HOT_RELOAD_DEBOUNCE_MILLIS);
+        }
+        return configWatcher;
+    }
+
+    public void start() throws LifecycleException, IOException {
+        start(McpClassScanner.fromSystemProperties().scan());
+    }
+
+    void start(McpClassScanner.ScanResult scanResult) throws LifecycleException, IOException {
+        log.info("Starting MCP Server host...");
+        long startNanos = System.nanoTime();
+
+        if (scanResult.getEndpointClasses().isEmpty()) {
+            throw new IllegalStateException("No McpServerEndpoint found, check -D" + McpClassScanner.PROPERTY_SCAN_PACKAGES);
+        }
+        Map<String, String> usedConfigs = new HashMap<>();
+        for (String endpointClass : scanResult.getEndpointClasses()) {
+            ToolProvider toolProvider = new ToolProvider(scanResult, endpointClass, workers);
+            McpServer server = new McpServer(toolProvider, this);
+            servers.add(server);
+            String name = toolProvider.getEndpoint() == null ? endpointClass : toolProvider.getEndpoint().name();
+            for (String location : server.getConfigLocations()) {
+                String used = usedConfigs.putIfAbsent(location, name);
+                if (used != null) {
+                    throw new IllegalStateException("McpServer '" + name + "' " + location + " is already used by McpServer '" + used
+                            + "', specify its own in @McpServerEndpoint");
+                }
+            }
+        }
+        for (McpServer server : servers) {
+            server.start();
+        }
+
+        // 端口和connector配置以第一个MCP Server为准
+        McpServerProperties first = servers.get(0).getServerProperties();
+        int port = Integer.getInteger(PROPERTY_HOST_PORT, first.getPort());
+        tomcat = McpServer.createTomcat(port, first.getConnector());
+        Context ctx = tomcat.addContext("", new File(System.getProperty("java.io.tmpdir")).getAbsolutePath());
+        Map<String, String> mountedPaths = new HashMap<>();
+        for (McpServer server : servers) {
+            McpServerProperties properties = server.getServerProperties();
+            List<String> paths = server.getEndpointPaths();
+            for (String path : paths) {
+                String mounted = mountedPaths.putIfAbsent(path, properties.getName());
+                if (mounted != null) {
+                    throw new IllegalStateException("McpServer '" + properties.getName() + "' path " + path
+                            + " is already used by McpServer '" + mounted + "'");
+                }
+            }
+            if (properties.getPort() != port) {
+                log.warn("McpServer '{}' port {} is ignored, serving on host port {}", properties.getName(), properties.getPort(), port);
+            }
+            McpServer.addServlet(ctx, "mcpServlet-" + properties.getName(), server.getServlet(), paths.toArray(new String[0]));
+            if (McpTracing.isEnabled()) {
+                McpServer.addFilter(ctx, "tracingFilter-" + properties.getName(), new TracingFilter(properties.getName()),
+                        "mcpServlet-" + properties.getName());
+            }
+            McpServer.addFilter(ctx, "cancellationFilter-" + properties.getName(),
+                    new ToolCallCancellationFilter(), "mcpServlet-" + properties.getName());
+            log.info("Mounted McpServer '{}' at {}", properties.getName(), paths);
+        }
+        String metricsPath = MetricsServlet.path();
+        if (!metricsPath.isEmpty()) {
+            if (mountedPaths.containsKey(metricsPath)) {
+                throw new IllegalStateException("Metrics path " + metricsPath + " is already used by McpServer '"
+                        + mountedPaths.get(metricsPath) + "'");
+            }
+            List<McpMetrics> metrics = servers.stream().map(McpServer::getMetrics).collect(Collectors.toList());
+            McpServer.addServlet(ctx, McpServer.METRICS_SERVLET_NAME, new MetricsServlet(() -> metrics), metricsPath);
+        }
+        if (McpTracing.isEnabled()) {
+            String tracesPath = McpTracing.tracesPath();
+            if (mountedPaths.containsKey(tracesPath)) {
+                throw new IllegalStateException("Traces path " + tracesPath + " is already used by McpServer '"
+                        + mountedPaths.get(tracesPath) + "'");
+            }
+            McpServer.addTracesServlet(ctx);
+        }
+        tomcat.start();
+
+        log.info("MCP Server host started {} servers on port {} in {} ms", servers.size(), port,
+                (System.nanoTime() - startNanos) / 1000000);
+    }
+
+    /**
+     * Tomcat实际监听的端口，未启动时为-1
+     */
+    public int getPort() {
+        return tomcat == null ? -1 : tomcat.getConnector().getLocalPort();
+    }
+
+    public void stop() {
+        log.info("Stopping MCP Server host...");
+
+        servers.forEach(McpServer::stop);
+        servers.clear();
+
+        if (configWatcher != null) {
+            try {
+                configWatcher.close();
+            } catch (IOException e) {
+                log.error("close ConfigWatcher error:", e);
+            }
+        }
+        workers.shutdownNow();
+        McpTracing.stop();
+
+        if (tomcat != null) {
+            log.info("Stopping Tomcat...");
+            try {
+                tomcat.stop();
+                tomcat.destroy();
+
+                log.info("Tomcat stopped");
+            } catch (LifecycleException e) {
+                log.error("stop Tomcat error:", e);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        log.info("=====================================================");
+        log.info("Example McpServerHost starting at {}", TimeUtils.getCurrentDateTime());
+        log.info("PID: {}", ProcessUtils.getCurrentPid());
+        log.info("=====================================================");
+
+        McpServerHost host = new McpServerHost();
+        try {
+            host.start();
+        } catch (Exception e) {
+            log.error("McpServerHost error:", e);
+            host.stop();
+        }
+    }
+}
@@ -82,6 +82,11 @@ public class McpServerProperties {
      */
     private boolean promptChangeNotification = true;
 
+    /**
+     * 是否监听tool-list.json、prompt配置文件夹的变化并热加载
+     */
+    private boolean hotReload = false;
+
     /**
      */
     private String baseUrl = "";
@@ -103,6 +108,11 @@ public class McpServerProperties {
 
     private TransportType transport = TransportType.STREAMABLE_HTTP;
 
+    /**
+     * Tomcat connector配置
+     */
+    private ConnectorProperties connector = ConnectorProperties.preset(ConnectorProperties.PRESET_DEFAULT);
+
     /**
      * The type of server to use for MCP server communication.
      * <p>
@@ -166,6 +176,10 @@ public class McpServerProperties {
         this.promptChangeNotification = promptChangeNotification;
     }
 
+    public void setHotReload(boolean hotReload) {
+        this.hotReload = hotReload;
+    }
+
     public void setBaseUrl(String baseUrl) {
         Objects.requireNonNull(baseUrl, "Base URL must not be null");
         this.baseUrl = baseUrl;
@@ -197,4 +211,9 @@ public class McpServerProperties {
     public void setTransport(TransportType transport) {
         this.transport = transport;
     }
+
+    public void setConnector(ConnectorProperties connector) {
+        Objects.requireNonNull(connector, "Connector must not be null");
+        this.connector = connector;
+    }
 }
@@ -2,25 +2,56 @@ package org.cafe.example.mcp;
 
 
 import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.cafe.example.mcp.annotation.ToolBatch;
+import org.cafe.example.mcp.annotation.ToolCache;
+import org.cafe.example.mcp.annotation.ToolExecution;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /**
  * 具体的tools功能类，通过`@McpServerEndpoint`注解来定义MCP Server属性、通过`@Tool`注解来定义tool方法
  */
-@McpServerEndpoint(name = "示例MCP服务器", port = 9090/*, transport = "sse", type = "async"*/)
+@McpServerEndpoint(name = "示例MCP服务器", port = 9090/*, transport = "sse", type = "async", hotReload = true*/)
 public class McpServerTool {
 
     // @Tool description的作用：供大模型是否调用该tool决策时使用、因此尽可能准确无误无歧义、不同的tool之间不要有重复或矛盾的描述
     // @ToolParam 不是必须的，但建议加上，因为大模型调用tool时，参数的描述也会被使用
 
+    // @ToolExecution 不是必须的，默认在专用线程池上执行；无阻塞、耗时极短的tool可声明为immediate以省去线程切换
+    // @ToolCache 不是必须的，结果只取决于参数的幂等tool可声明结果缓存，相同参数的并发调用只执行一次
+    // @ToolBatch 不是必须的，后端支持批量查询的tool可声明为批量方法（参数、返回值均为List），并发调用将被合并后一次执行
+    // @ToolExecution(bulkhead = "xxx") 可将慢tool隔离到@McpServerEndpoint(bulkheads = ...)中定义的独立线程池，队列满时快速失败
+    // @ToolExecution(timeoutMillis = xxx) 可限制单次调用的时间，超时或客户端取消（notifications/cancelled）时中断执行中的tool方法
+    // 返回Iterator/Stream/Flux的tool按分块产生结果，声明ToolProgress参数的tool可报告进度，客户端请求带有progressToken时通过进度通知实时发送
+
     @Tool(name = "getWeatherRename", description = "获取天气信息")
+    @ToolExecution(mode = "immediate")
     public String getWeather(@ToolParam(description = "城市名称") String city) {
         return String.format("%s: 晴天，温度25℃", city);
     }
 
     @Tool(description = "获取城市特产")
+    @ToolExecution(timeoutMillis = 3000)
+    @ToolCache(ttlMillis = 10 * 60 * 1000)
     public String getSpeciality(@ToolParam(description = "城市名称") String city, @ToolParam(description = "特产类型") String type) {
         return String.format("%s的%s特产是小笼包", type, city);
     }
+
+    @Tool(description = "获取城市空气质量")
+    @ToolBatch(maxSize = 16, maxDelayMillis = 10)
+    public List<String> getAirQuality(@ToolParam(description = "城市名称") List<String> city) {
+        // 批量tool：并发的多次调用合并为一次，第i个结果对应第i个城市
+        return city.stream().map(c -> String.format("%s: 空气质量优", c)).collect(Collectors.toList());
+    }
+
+    @Tool(description = "获取城市旅游攻略")
+    public Stream<String> getTravelGuide(@ToolParam(description = "城市名称") String city, ToolProgress progress) {
+        progress.report("正在生成" + city + "旅游攻略");
+        // 分块结果：每读取一个分块发送一次，而不是全部生成后再一次返回
+        return Stream.of("第一天", "第二天", "第三天").map(day -> String.format("%s%s：游览%s的名胜古迹", city, day, city));
+    }
 }
@@ -23,4 +23,29 @@ public class McpToolDef {
     String targetBeanClass;
     String targetMethodName;
 
+    /**
+     * targetBeanClass实例的生命周期：singleton(default)、prototype、pooled
+     */
+    String beanScope;
+
+    /**
+     * beanScope为pooled时实例池的大小
+     */
+    Integer beanPoolSize;
+
+    /**
+     * 执行方式定义，为空时使用默认值
+     */
+    ToolExecutionDef execution;
+
+    /**
+     * 结果缓存定义，为空时不缓存
+     */
+    ToolCacheDef cache;
+
+    /**
+     * 批量tool定义，不为空时targetMethodName须为批量方法（见{@link ToolBatcher}）
+     */
+    ToolBatchDef batch;
+
 }
@@ -2,7 +2,9 @@ package org.cafe.example.mcp;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.cafe.example.mcp.util.JsonSchemaGenerator;
+import org.cafe.example.mcp.annotation.ToolBatch;
+import org.cafe.example.mcp.annotation.ToolCache;
+import org.cafe.example.mcp.annotation.ToolExecution;
 
 import java.lang.reflect.Method;
 
@@ -18,12 +20,20 @@ public class McpToolInfo {
     private Object targetBean;
     private Method method;
     private String inputSchema;
+    private ToolInvoker invoker;
+    private ToolExecutionDef execution;
+    private ToolCacheDef cache;
+    private ToolBatchDef batch;
 
-    public McpToolInfo(String name, String description, Object targetBean, Method method) {
+    public McpToolInfo(String name, String description, Object targetBean, Method method) throws IllegalAccessException {
         this.name = name;
         this.description = description;
         this.targetBean = targetBean;
         this.method = method;
-        this.inputSchema = JsonSchemaGenerator.generateForMethodInput(method);
+        this.batch = ToolBatchDef.from(method.getAnnotation(ToolBatch.class));
+        this.inputSchema = ToolSchemaIndex.getInputSchema(method);
+        this.invoker = new ToolInvoker(name, method, ToolBeanFactory.singleton(targetBean), batch != null);
+        this.execution = ToolExecutionDef.from(method.getAnnotation(ToolExecution.class));
+        this.cache = ToolCacheDef.from(method.getAnnotation(ToolCache.class));
     }
 }
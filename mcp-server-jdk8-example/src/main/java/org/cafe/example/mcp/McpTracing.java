@@ -0,0 +1,427 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 请求追踪（进程内共享）：按采样率为HTTP请求创建根span（{@link TracingFilter}），
+ * 在JSON-RPC解析/序列化（{@link TracingObjectMapper}）、Reactor调度器切换、tools/call、隔离舱排队及tool方法调用处创建子span。
+ * <p>
+ * 当前span在线程内通过ThreadLocal传递，切换到Reactor调度器时由调度钩子带到新线程，在tool调用的Reactor链中通过Reactor Context传递。
+ * 未采样的请求不创建任何span，只多一次ThreadLocal读取
+ */
+@Slf4j
+public final class McpTracing {
+
+    /**
+     * 导出方式：none（默认，不追踪）、memory（内存环形缓冲区，通过调试端点查询）、otlp-file（OTLP-JSON文件），可用逗号分隔同时使用
+     */
+    public static final String PROPERTY_EXPORTER = "mcp.tracing.exporter";
+
+    /**
+     * 采样率（0~1），默认0.01；请求带有已采样的W3C traceparent头时总是采样，并延续上游的trace
+     */
+    public static final String PROPERTY_SAMPLE_RATE = "mcp.tracing.sampleRate";
+
+    /**
+     * otlp-file的文件路径
+     */
+    public static final String PROPERTY_FILE = "mcp.tracing.file";
+
+    /**
+     * 环形缓冲区的容量及文件导出队列的长度
+     */
+    public static final String PROPERTY_BUFFER_SIZE = "mcp.tracing.bufferSize";
+
+    /**
+     * 调试端点的路径，为空时不挂载（只在使用memory导出时挂载）
+     */
+    public static final String PROPERTY_TRACES_PATH = "mcp.tracing.path";
+
+    public static final String EXPORTER_MEMORY = "memory";
+    public static final String EXPORTER_OTLP_FILE = "otlp-file";
+
+    public static final String SPAN_DECODE = "jsonrpc.decode";
+    public static final String SPAN_CONVERT = "jsonrpc.convert";
+    public static final String SPAN_ENCODE = "jsonrpc.encode";
+    public static final String SPAN_SCHEDULE = "reactor.schedule";
+    public static final String SPAN_BULKHEAD_QUEUE = "bulkhead.queue";
+    public static final String SPAN_TOOL_INVOKE = "tool.invoke";
+
+    /**
+     * Reactor Context中当前span的key
+     */
+    public static final String CONTEXT_KEY = McpTracing.class.getName() + ".span";
+
+    private static final String SERVICE_NAME = "mcp-server-jdk8";
+    private static final String SCOPE_NAME = "org.cafe.example.mcp";
+    private static final String SCHEDULE_HOOK_KEY = McpTracing.class.getName();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * {@link System#nanoTime()}与纪元时间（纳秒）的差
+     */
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1000000 - System.nanoTime();
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private static volatile boolean enabled;
+    private static volatile double sampleRate;
+    private static volatile List<SpanExporter> exporters = Collections.emptyList();
+    private static volatile SpanRingBuffer ringBuffer;
+
+    private McpTracing() {
+    }
+
+    /**
+     * 按系统属性启动，已启动时忽略
+     */
+    public static synchronized void start() throws IOException {
+        if (enabled) {
+            return;
+        }
+        String exporterNames = System.getProperty(PROPERTY_EXPORTER, "none");
+        int bufferSize = Integer.getInteger(PROPERTY_BUFFER_SIZE, 4096);
+        List<SpanExporter> configured = new ArrayList<>();
+        for (String exporterName : exporterNames.split(",")) {
+            exporterName = exporterName.trim();
+            if (EXPORTER_MEMORY.equalsIgnoreCase(exporterName)) {
+                configured.add(new SpanRingBuffer(bufferSize));
+            } else if (EXPORTER_OTLP_FILE.equalsIgnoreCase(exporterName)) {
+                configured.add(new OtlpJsonFileExporter(
+                        Paths.get(System.getProperty(PROPERTY_FILE, "logs/mcp-spans.jsonl")), bufferSize));
+            } else if (!exporterName.isEmpty() && !"none".equalsIgnoreCase(exporterName)) {
+                throw new IllegalArgumentException("Unknown tracing exporter: " + exporterName);
+            }
+        }
+        if (configured.isEmpty()) {
+            return;
+        }
+        start(Double.parseDouble(System.getProperty(PROPERTY_SAMPLE_RATE, "0.01")), configured);
+    }
+
+    static synchronized void start(double sampleRate, List<SpanExporter> exporters) {
+        McpTracing.sampleRate = sampleRate;
+        McpTracing.exporters = Collections.unmodifiableList(new ArrayList<>(exporters));
+        McpTracing.ringBuffer = (SpanRingBuffer) exporters.stream()
+                .filter(SpanRingBuffer.class::isInstance).findFirst().orElse(null);
+        Schedulers.onScheduleHook(SCHEDULE_HOOK_KEY, McpTracing::propagate);
+        enabled = true;
+        log.info("Tracing enabled, sample rate: {}, exporters: {}", sampleRate, exporters.size());
+    }
+
+    public static synchronized void stop() {
+        if (!enabled) {
+            return;
+        }
+        enabled = false;
+        Schedulers.resetOnScheduleHook(SCHEDULE_HOOK_KEY);
+        exporters.forEach(SpanExporter::close);
+        exporters = Collections.emptyList();
+        ringBuffer = null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 内存环形缓冲区，未使用memory导出时为null
+     */
+    public static SpanRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    public static String tracesPath() {
+        return System.getProperty(PROPERTY_TRACES_PATH, "/debug/traces");
+    }
+
+    static long toEpochNanos(long nanoTime) {
+        return nanoTime + EPOCH_OFFSET_NANOS;
+    }
+
+    static void export(Span span) {
+        for (SpanExporter exporter : exporters) {
+            exporter.export(span);
+        }
+    }
+
+    /**
+     * 为请求创建根span（或延续上游的trace）
+     *
+     * @param traceparent W3C traceparent请求头，可为null
+     * @return 未采样时为null
+     */
+    public static Span startRequest(String name, String traceparent) {
+        if (!enabled) {
+            return null;
+        }
+        if (traceparent != null) {
+            Span remote = fromTraceparent(name, traceparent, System.nanoTime());
+            if (remote != null) {
+                return remote;
+            }
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return new Span(Span.randomId(), Span.randomId(), 0, name, Span.KIND_SERVER, System.nanoTime());
+    }
+
+    /**
+     * traceparent: {@code 00-<32位trace id>-<16位parent id>-<2位flags>}
+     *
+     * @return 格式错误或未设置采样标志时为null
+     */
+    static Span fromTraceparent(String name, String traceparent, long startNanos) {
+        if (traceparent.length() != 55 || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-'
+                || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        try {
+            long traceIdHigh = Long.parseUnsignedLong(traceparent.substring(3, 19), 16);
+            long traceIdLow = Long.parseUnsignedLong(traceparent.substring(19, 35), 16);
+            long parentId = Long.parseUnsignedLong(traceparent.substring(36, 52), 16);
+            int flags = Integer.parseInt(traceparent.substring(53, 55), 16);
+            if ((flags & 1) == 0 || (traceIdHigh == 0 && traceIdLow == 0) || parentId == 0) {
+                return null;
+            }
+            return new Span(traceIdHigh, traceIdLow, parentId, name, Span.KIND_SERVER, startNanos);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 当前线程的span，未采样时为null
+     */
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 当前span的子span，当前没有span（未采样）时为null
+     */
+    public static Span startSpan(String name) {
+        Span current = CURRENT.get();
+        return current == null ? null : current.child(name);
+    }
+
+    /**
+     * Reactor Context中的span，没有时为null
+     */
+    public static Span span(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    /**
+     * 把当前span放入Reactor Context，当前没有span时原样返回
+     */
+    public static <T> Mono<T> withCurrentSpan(Mono<T> mono) {
+        Span current = CURRENT.get();
+        return current == null ? mono : mono.contextWrite(Context.of(CONTEXT_KEY, current));
+    }
+
+    /**
+     * 在当前线程上设置当前span，{@link Scope#close()}时恢复原来的span
+     */
+    public static Scope activate(Span span) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(span);
+        return scope;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Span previous;
+
+        private Scope(Span previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Reactor调度钩子：任务在有当前span的线程上提交时，把span带到执行任务的线程，并记录从提交到开始执行的等待
+     */
+    static Runnable propagate(Runnable task) {
+        Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        long scheduledNanos = System.nanoTime();
+        return new Runnable() {
+            private boolean first = true;
+
+            @Override
+            public void run() {
+                // 周期性任务只记录第一次
+                if (first) {
+                    first = false;
+                    span.child(SPAN_SCHEDULE, scheduledNanos).setAttribute("thread.name", Thread.currentThread().getName()).end();
+                }
+                try (Scope ignored = activate(span)) {
+                    task.run();
+                }
+            }
+        };
+    }
+
+    public static McpServerFeatures.SyncToolSpecification wrap(McpServerFeatures.SyncToolSpecification specification) {
+        String spanName = McpMetrics.METHOD_TOOLS_CALL + " " + specification.getTool().getName();
+        return new McpServerFeatures.SyncToolSpecification(specification.getTool(), (exchange, request) -> {
+            Span span = startSpan(spanName);
+            if (span == null) {
+                return specification.getCall().apply(exchange, request);
+            }
+            try (Scope ignored = activate(span)) {
+                McpSchema.CallToolResult result = specification.getCall().apply(exchange, request);
+                if (result == null || Boolean.TRUE.equals(result.getIsError())) {
+                    span.setError("tool returned an error result");
+                }
+                return result;
+            } catch (RuntimeException e) {
+                span.setError(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        });
+    }
+
+    public static McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification specification) {
+        String spanName = McpMetrics.METHOD_TOOLS_CALL + " " + specification.getTool().getName();
+        return new McpServerFeatures.AsyncToolSpecification(specification.getTool(), (exchange, request) -> {
+            Span parent = CURRENT.get();
+            if (parent == null) {
+                return specification.getCall().apply(exchange, request);
+            }
+            Span span = parent.child(spanName);
+            // 结果在tool执行完成的线程上发出，下游（序列化响应）处理期间以父span为当前span
+            AtomicReference<Scope> emitting = new AtomicReference<>();
+            return Mono.defer(() -> {
+                        try (Scope ignored = activate(span)) {
+                            return specification.getCall().apply(exchange, request);
+                        }
+                    })
+                    .doOnSuccess(result -> {
+                        if (result == null || Boolean.TRUE.equals(result.getIsError())) {
+                            span.setError("tool returned an error result");
+                        }
+                        span.end();
+                        emitting.set(activate(parent));
+                    })
+                    .doOnError(e -> {
+                        span.setError(e);
+                        span.end();
+                    })
+                    .doOnCancel(span::end)
+                    .doAfterTerminate(() -> {
+                        Scope scope = emitting.getAndSet(null);
+                        if (scope != null) {
+                            scope.close();
+                        }
+                    })
+                    .contextWrite(Context.of(CONTEXT_KEY, span));
+        });
+    }
+
+    /**
+     * 以OTLP-JSON格式（ExportTraceServiceRequest）输出span
+     */
+    public static void writeOtlpJson(Collection<Span> spans, Writer out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("resourceSpans");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("resource");
+        generator.writeArrayFieldStart("attributes");
+        writeAttribute(generator, "service.name", SERVICE_NAME);
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("scopeSpans");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("scope");
+        generator.writeStringField("name", SCOPE_NAME);
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("spans");
+        for (Span span : spans) {
+            writeSpan(generator, span);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private static void writeSpan(JsonGenerator generator, Span span) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("traceId", span.getTraceId());
+        generator.writeStringField("spanId", span.getSpanIdHex());
+        if (span.getParentSpanIdHex() != null) {
+            generator.writeStringField("parentSpanId", span.getParentSpanIdHex());
+        }
+        generator.writeStringField("name", span.getName());
+        generator.writeNumberField("kind", span.getKind());
+        // OTLP-JSON中64位整数以字符串表示
+        generator.writeStringField("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        generator.writeStringField("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+        generator.writeArrayFieldStart("attributes");
+        for (Map.Entry<String, Object> attribute : span.getAttributes().entrySet()) {
+            writeAttribute(generator, attribute.getKey(), attribute.getValue());
+        }
+        generator.writeEndArray();
+        if (span.isError()) {
+            generator.writeObjectFieldStart("status");
+            generator.writeNumberField("code", 2);
+            if (span.getStatusMessage() != null) {
+                generator.writeStringField("message", span.getStatusMessage());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeAttribute(JsonGenerator generator, String key, Object value) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("key", key);
+        generator.writeObjectFieldStart("value");
+        if (value instanceof Boolean) {
+            generator.writeBooleanField("boolValue", (Boolean) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            generator.writeStringField("intValue", value.toString());
+        } else if (value instanceof Number) {
+            generator.writeNumberField("doubleValue", ((Number) value).doubleValue());
+        } else {
+            generator.writeStringField("stringValue", String.valueOf(value));
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,58 @@
+package org.cafe.example.mcp;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 只计算一次的值：首个调用者执行计算，并发的其他调用者等待同一结果（基于CAS，不加锁）；
+ * 计算失败时不保留结果，下次调用重新计算
+ */
+public class Memoized<T> {
+
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    private final Loader<T> loader;
+    private final AtomicReference<CompletableFuture<T>> value = new AtomicReference<>();
+
+    public Memoized(Loader<T> loader) {
+        this.loader = loader;
+    }
+
+    public T get() throws IOException {
+        while (true) {
+            CompletableFuture<T> future = value.get();
+            if (future == null) {
+                CompletableFuture<T> created = new CompletableFuture<>();
+                if (!value.compareAndSet(null, created)) {
+                    continue;
+                }
+                try {
+                    T result = loader.load();
+                    created.complete(result);
+                    return result;
+                } catch (Throwable e) {
+                    value.compareAndSet(created, null);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.cafe.example.mcp;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Prometheus指标端点，与MCP Servlet挂载在同一个Tomcat Context中（路径通过{@code -Dmcp.metrics.path}指定，默认为/metrics，为空时不挂载）
+ */
+public class MetricsServlet extends HttpServlet {
+
+    public static final String PROPERTY_METRICS_PATH = "mcp.metrics.path";
+    public static final String DEFAULT_METRICS_PATH = "/metrics";
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final transient Supplier<Collection<McpMetrics>> metrics;
+
+    public MetricsServlet(Supplier<Collection<McpMetrics>> metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 指标端点的路径，为空时不挂载
+     */
+    public static String path() {
+        return System.getProperty(PROPERTY_METRICS_PATH, DEFAULT_METRICS_PATH);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType(CONTENT_TYPE);
+        Writer writer = resp.getWriter();
+        McpMetrics.writePrometheus(metrics.get(), writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,98 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 以OTLP-JSON格式把span追加写入本地文件：每行一个ExportTraceServiceRequest（与OpenTelemetry Collector的otlpjsonfile receiver兼容）。
+ * 结束span的线程只把span放入有界队列，队列满时丢弃；后台线程每秒或每攒够一批写一次
+ */
+@Slf4j
+public class OtlpJsonFileExporter implements SpanExporter {
+
+    private static final int BATCH_SIZE = 512;
+
+    private final Path file;
+    private final BlockingQueue<Span> queue;
+    private final LongAdder droppedCount = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public OtlpJsonFileExporter(Path file, int queueSize) throws IOException {
+        this.file = file.toAbsolutePath();
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writerThread = new Thread(this::writeLoop, "mcp-span-exporter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.info("Exporting spans to {}", this.file);
+    }
+
+    @Override
+    public void export(Span span) {
+        if (!queue.offer(span)) {
+            droppedCount.increment();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    private void writeLoop() {
+        List<Span> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Span first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Span> batch) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            McpTracing.writeOtlpJson(batch, writer);
+            writer.write('\n');
+        } catch (IOException e) {
+            log.warn("Write spans to {} error: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        // 不中断写线程（中断会关闭正在写的文件通道），写完队列中剩余的span后退出
+        running = false;
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (getDroppedCount() > 0) {
+            log.warn("Dropped {} spans, exporter queue was full", getDroppedCount());
+        }
+    }
+}
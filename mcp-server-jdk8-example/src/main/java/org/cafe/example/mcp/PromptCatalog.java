@@ -0,0 +1,117 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cafe.example.mcp.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * prompt配置文件夹的索引：遍历一次文件夹（含子文件夹），建立prompt名称→文件的索引，替代每个prompt都列出并扫描整个文件夹。
+ * prompt名称为相对于配置文件夹的路径去掉后缀（子文件夹以{@code /}分隔，例如{@code team/review}）；
+ * 只索引已知MIME类型的文件（见{@link FileUtils#getMimeType}），同名时json优先
+ */
+@Slf4j
+public class PromptCatalog {
+
+    private static final String PROMPT_LIST_FILE = "prompt-list.json";
+    private static final String TEXT_MIME_TYPE = "application/json";
+
+    private final Map<String, Entry> entries;
+
+    private PromptCatalog(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static PromptCatalog scan(Path dir) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Entry> entries = new HashMap<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String fileName = file.getFileName().toString();
+                String mimeType = FileUtils.getMimeType(fileName);
+                if (mimeType == null || !attrs.isRegularFile() || PROMPT_LIST_FILE.equals(fileName)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String relativePath = dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                String name = relativePath.substring(0, relativePath.lastIndexOf('.'));
+                Entry entry = new Entry(file, mimeType, attrs.size(), attrs.lastModifiedTime().toMillis());
+                Entry existing = entries.putIfAbsent(name, entry);
+                if (existing != null) {
+                    if (entry.isText() && !existing.isText()) {
+                        entries.put(name, entry);
+                    }
+                    log.warn("Duplicate prompt file for '{}': {}, {}", name, existing.getPath(), file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        log.info("Indexed {} prompt files under {} in {} ms", entries.size(), dir, (System.nanoTime() - start) / 1000000);
+        return new PromptCatalog(entries);
+    }
+
+    /**
+     * @return prompt对应的文件，不存在时为null
+     */
+    public Entry get(String name) {
+        return entries.get(name);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Map<String, Entry> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    @Getter
+    public static class Entry {
+
+        private final Path path;
+        private final String mimeType;
+        private final long size;
+        private final long lastModified;
+
+        Entry(Path path, String mimeType, long size, long lastModified) {
+            this.path = path;
+            this.mimeType = mimeType;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * 是否为文本类型的prompt（MCP prompts/get的result，json格式）
+         */
+        public boolean isText() {
+            return TEXT_MIME_TYPE.equals(mimeType);
+        }
+
+        public boolean isImage() {
+            return mimeType.startsWith("image/");
+        }
+
+        /**
+         * 文件的版本标识（路径、大小、修改时间），热加载时用于判断文件是否变化
+         */
+        public String getStamp() {
+            return stamp(path, size, lastModified);
+        }
+    }
+
+    /**
+     * 文件的版本标识，见{@link Entry#getStamp()}
+     */
+    static String stamp(Path file, long size, long lastModified) {
+        return file + ":" + size + ":" + lastModified;
+    }
+}
@@ -0,0 +1,311 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * prompt内容缓存：prompt文件在首次prompts/get时读取并编译，按估算的堆内存字节数限制总大小，超出时按LRU或LFU淘汰；
+ * 可选使用软引用（内存不足时由GC回收，之后再次访问时重新加载）；固定（pinned）的prompt不会被淘汰或回收。
+ * 以prompt名称为key，文件版本（见{@link PromptCatalog.Entry#getStamp()}）变化时重新加载，同一prompt的并发加载只执行一次
+ */
+@Slf4j
+public class PromptContentCache implements PromptContentCacheMXBean {
+
+    public enum Eviction {
+        LRU, LFU
+    }
+
+    private final long maxBytes;
+    private final Eviction eviction;
+    private final boolean softReferences;
+    private final Set<String> pinned;
+
+    /**
+     * accessOrder为true的LinkedHashMap即LRU顺序（LFU时用于频率相同时的先后），所有访问都在this上同步
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Function<Map<String, Object>, McpSchema.GetPromptResult>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private long residentBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong collectedCount = new AtomicLong();
+
+    /**
+     * @param maxBytes       最大字节数，小于等于0表示不限制
+     * @param pinned         固定的prompt名称
+     */
+    public PromptContentCache(long maxBytes, Eviction eviction, boolean softReferences, Collection<String> pinned) {
+        this.maxBytes = maxBytes;
+        this.eviction = eviction;
+        this.softReferences = softReferences;
+        this.pinned = new HashSet<>(pinned);
+    }
+
+    /**
+     * 加载的结果：加载时读取的文件版本、估算的堆内存字节数及编译后的prompt
+     */
+    public static final class Loaded {
+
+        final String stamp;
+        final long weight;
+        final Function<Map<String, Object>, McpSchema.GetPromptResult> value;
+
+        public Loaded(String stamp, long weight, Function<Map<String, Object>, McpSchema.GetPromptResult> value) {
+            this.stamp = stamp;
+            this.weight = weight;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 同{@link #get(String, String, Callable)}，加载时的版本即stamp
+     *
+     * @param weight 估算的堆内存字节数
+     */
+    public Function<Map<String, Object>, McpSchema.GetPromptResult> get(String name, String stamp, long weight,
+            Callable<Function<Map<String, Object>, McpSchema.GetPromptResult>> loader) throws Exception {
+        return get(name, stamp, () -> new Loaded(stamp, weight, loader.call()));
+    }
+
+    /**
+     * 命中且版本一致时直接返回；否则若该prompt正在加载则等待其结果，再否则调用loader加载并按加载时读取的版本放入缓存。加载失败不缓存
+     *
+     * @param name   prompt名称
+     * @param stamp  调用方已知的prompt文件版本
+     */
+    public Function<Map<String, Object>, McpSchema.GetPromptResult> get(String name, String stamp, Callable<Loaded> loader) throws Exception {
+        Function<Map<String, Object>, McpSchema.GetPromptResult> cached = getIfPresent(name, stamp);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        missCount.incrementAndGet();
+
+        CompletableFuture<Function<Map<String, Object>, McpSchema.GetPromptResult>> future = new CompletableFuture<>();
+        CompletableFuture<Function<Map<String, Object>, McpSchema.GetPromptResult>> existing = inFlight.putIfAbsent(name, future);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            Loaded loaded = loader.call();
+            loadNanos.addAndGet(System.nanoTime() - start);
+            loadCount.incrementAndGet();
+            put(name, loaded.stamp, loaded.weight, loaded.value);
+            future.complete(loaded.value);
+            return loaded.value;
+        } catch (Exception e) {
+            loadFailureCount.incrementAndGet();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, future);
+        }
+    }
+
+    public synchronized void invalidate(String name) {
+        Entry entry = entries.remove(name);
+        if (entry != null) {
+            residentBytes -= entry.weight;
+        }
+    }
+
+    @Override
+    public synchronized int getSize() {
+        purgeCollected();
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getResidentBytes() {
+        purgeCollected();
+        return residentBytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String getEviction() {
+        return eviction.name();
+    }
+
+    @Override
+    public boolean isSoftReferences() {
+        return softReferences;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return loadFailureCount.get();
+    }
+
+    @Override
+    public double getAverageLoadMillis() {
+        long loads = loadCount.get();
+        return loads == 0 ? 0 : loadNanos.get() / 1e6 / loads;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public long getCollectedCount() {
+        return collectedCount.get();
+    }
+
+    private synchronized Function<Map<String, Object>, McpSchema.GetPromptResult> getIfPresent(String name, String stamp) {
+        purgeCollected();
+        Entry entry = entries.get(name);
+        if (entry == null || !entry.stamp.equals(stamp)) {
+            return null;
+        }
+        Function<Map<String, Object>, McpSchema.GetPromptResult> value = entry.value();
+        if (value != null) {
+            entry.frequency++;
+        }
+        return value;
+    }
+
+    private synchronized void put(String name, String stamp, long weight,
+                                  Function<Map<String, Object>, McpSchema.GetPromptResult> value) {
+        boolean pin = pinned.contains(name);
+        if (!pin && maxBytes > 0 && weight > maxBytes) {
+            log.debug("Prompt '{}' too large to cache: {} bytes", name, weight);
+            return;
+        }
+        Entry entry = new Entry(name, stamp, weight, value, softReferences && !pin, pin, collected);
+        Entry previous = entries.put(name, entry);
+        if (previous != null) {
+            residentBytes -= previous.weight;
+            entry.frequency = previous.frequency;
+        }
+        residentBytes += weight;
+        evict();
+    }
+
+    /**
+     * 淘汰未固定的条目直至不超过最大字节数：LRU淘汰最久未访问的，LFU淘汰访问次数最少的（次数相同时淘汰最久未访问的）
+     */
+    private void evict() {
+        while (maxBytes > 0 && residentBytes > maxBytes) {
+            Entry victim = null;
+            for (Entry entry : entries.values()) {
+                if (entry.pinned) {
+                    continue;
+                }
+                if (eviction == Eviction.LRU) {
+                    victim = entry;
+                    break;
+                }
+                if (victim == null || entry.frequency < victim.frequency) {
+                    victim = entry;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            entries.remove(victim.name);
+            residentBytes -= victim.weight;
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 移除软引用已被GC回收的条目
+     */
+    private void purgeCollected() {
+        Object reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = ((EntryReference) reference).entry;
+            if (entries.get(entry.name) == entry) {
+                entries.remove(entry.name);
+                residentBytes -= entry.weight;
+                collectedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static class Entry {
+
+        final String name;
+        final String stamp;
+        final long weight;
+        final boolean pinned;
+        final Function<Map<String, Object>, McpSchema.GetPromptResult> strong;
+        final EntryReference soft;
+        long frequency = 1;
+
+        Entry(String name, String stamp, long weight, Function<Map<String, Object>, McpSchema.GetPromptResult> value,
+              boolean soft, boolean pinned, ReferenceQueue<Object> queue) {
+            this.name = name;
+            this.stamp = stamp;
+            this.weight = weight;
+            this.pinned = pinned;
+            this.strong = soft ? null : value;
+            this.soft = soft ? new EntryReference(value, this, queue) : null;
+        }
+
+        Function<Map<String, Object>, McpSchema.GetPromptResult> value() {
+            return strong != null ? strong : soft.get();
+        }
+    }
+
+    private static class EntryReference extends SoftReference<Function<Map<String, Object>, McpSchema.GetPromptResult>> {
+
+        final Entry entry;
+
+        EntryReference(Function<Map<String, Object>, McpSchema.GetPromptResult> value, Entry entry, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.entry = entry;
+        }
+    }
+}
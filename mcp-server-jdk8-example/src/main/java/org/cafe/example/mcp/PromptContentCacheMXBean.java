@@ -0,0 +1,45 @@
+package org.cafe.example.mcp;
+
+/**
+ * prompt内容缓存的JMX指标
+ */
+public interface PromptContentCacheMXBean {
+
+    int getSize();
+
+    /**
+     * 缓存中prompt内容估算占用的堆内存字节数
+     */
+    long getResidentBytes();
+
+    long getMaxBytes();
+
+    String getEviction();
+
+    boolean isSoftReferences();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    long getLoadCount();
+
+    long getLoadFailureCount();
+
+    /**
+     * 平均加载（读取并编译prompt文件）耗时，毫秒
+     */
+    double getAverageLoadMillis();
+
+    /**
+     * 因超出最大字节数而被淘汰的条目数
+     */
+    long getEvictionCount();
+
+    /**
+     * 软引用被GC回收的条目数
+     */
+    long getCollectedCount();
+}
@@ -1,31 +1,118 @@
 package org.cafe.example.mcp;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
 import io.modelcontextprotocol.spec.McpSchema;
 import lombok.extern.slf4j.Slf4j;
 import org.cafe.example.mcp.util.FileUtils;
+import org.cafe.example.mcp.util.JmxUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Slf4j
-class PromptProvider {
+public class PromptProvider {
 
     private static final String PROPERTY_PROMPT_DIR = "mcp.prompt.dir";
-    private static final String DEFAULT_PROMPT_DIR = "prompt";
-    private static final String PROMPT_DIR = System.getProperty(PROPERTY_PROMPT_DIR,
-            Objects.requireNonNull(PromptProvider.class.getClassLoader().getResource(DEFAULT_PROMPT_DIR)).getPath()) + File.separator;
+    private static final String DEFAULT_PROMPT_DIR = FileUtils.CLASSPATH_PREFIX + "prompt";
+    private static final String PROMPT_LIST_FILE = "prompt-list.json";
 
-    private static final String PROMPT_TYPE_TEXT = "json";
-    private static final String PROMPT_TYPE_IMAGE = "image";
-    private static final String PROMPT_TYPE_TEXT_KEYWORD = "\"resource\":";
-    private static final String PROMPT_ARGUMENT_PLACEHOLDER = "%s";
+    private static final String PROPERTY_CACHE_MAX_BYTES = "mcp.prompt.cache.maxBytes";
+    private static final String PROPERTY_CACHE_EVICTION = "mcp.prompt.cache.eviction";
+    private static final String PROPERTY_CACHE_SOFT_REFERENCES = "mcp.prompt.cache.softReferences";
+    private static final String PROPERTY_CACHE_PINNED = "mcp.prompt.cache.pinned";
+    private static final long DEFAULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    private static final String CONTENT_CACHE_JMX_TYPE = "PromptContentCache";
+    private static final String CONTENT_CACHE_JMX_NAME = "prompts";
+
+    /**
+     * 文本prompt编译后估算占用的堆内存为文件大小的倍数（字符串按UTF-16存储）；图片映射在堆外，只计引用
+     */
+    private static final int TEXT_WEIGHT_FACTOR = 2;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlobStore blobStore;
+
+    /**
+     * prompt配置文件夹，其中包含prompt-list.json
+     */
+    private final Path promptDir;
+
+    /**
+     * JMX名称的前缀，为null时不加前缀
+     */
+    private final String jmxScope;
+    private final PromptContentCache contentCache = new PromptContentCache(
+            Long.getLong(PROPERTY_CACHE_MAX_BYTES, DEFAULT_CACHE_MAX_BYTES),
+            PromptContentCache.Eviction.valueOf(System.getProperty(PROPERTY_CACHE_EVICTION, "lru").toUpperCase(Locale.ROOT)),
+            Boolean.getBoolean(PROPERTY_CACHE_SOFT_REFERENCES),
+            Arrays.asList(System.getProperty(PROPERTY_CACHE_PINNED, "").split("\\s*,\\s*")));
+
+    /**
+     * 当前来自prompt-list.json的prompt：prompts/get时按名称获取，热加载时原子替换
+     */
+    private final Map<String, FilePrompt> filePrompts = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次读取失败的prompt，热加载时保留其原有的处理器
+     */
+    private final Set<String> failedPrompts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * prompt-list.json中prompt的顺序，用于输出当前的prompt列表
+     */
+    private volatile List<String> filePromptNames = Collections.emptyList();
+
+    /**
+     * 内置的prompt规格，首次获取时同时加载prompt-list.json中的prompt，只执行一次；之后的变化由热加载更新到{@link #filePrompts}
+     */
+    private final Memoized<List<McpServerFeatures.SyncPromptSpecification>> builtinPrompts = new Memoized<>(this::buildSyncPrompts);
+
+    PromptProvider(BlobStore blobStore) {
+        this(blobStore, resolvePromptDir(""), null);
+    }
+
+    public PromptProvider(BlobStore blobStore, Path promptDir) {
+        this(blobStore, promptDir, null);
+    }
+
+    /**
+     * @param jmxScope JMX名称的前缀，同一JVM中有多个MCP Server时用于区分，可以为null
+     */
+    public PromptProvider(BlobStore blobStore, Path promptDir, String jmxScope) {
+        this.blobStore = blobStore;
+        this.promptDir = promptDir;
+        this.jmxScope = jmxScope;
+        JmxUtils.register(contentCache, CONTENT_CACHE_JMX_TYPE, jmxName());
+    }
+
+    /**
+     * prompt配置文件夹的路径，location为空时使用{@code -Dmcp.prompt.dir}（默认为classpath中的prompt）
+     */
+    public static Path resolvePromptDir(String location) {
+        String dir = location.isEmpty() ? System.getProperty(PROPERTY_PROMPT_DIR, DEFAULT_PROMPT_DIR) : location;
+        Path path = FileUtils.resolvePath(dir);
+        if (path == null) {
+            throw new IllegalArgumentException("Prompt dir not found in file system: " + dir);
+        }
+        return path;
+    }
+
+    private String jmxName() {
+        return jmxScope == null ? CONTENT_CACHE_JMX_NAME : jmxScope + "/" + CONTENT_CACHE_JMX_NAME;
+    }
 
     public List<McpServerFeatures.AsyncPromptSpecification> allAsyncPrompts() throws IOException {
         List<McpServerFeatures.AsyncPromptSpecification> asyncPromptSpecifications = new ArrayList<>();
@@ -34,7 +121,21 @@ class PromptProvider {
         return asyncPromptSpecifications;
     }
 
+    /**
+     * 当前的prompt规格（包含热加载的变化）：内置的prompt在前，prompt-list.json中的prompt按文件中的顺序在后
+     */
     public List<McpServerFeatures.SyncPromptSpecification> allSyncPrompts() throws IOException {
+        List<McpServerFeatures.SyncPromptSpecification> list = new ArrayList<>(builtinPrompts.get());
+        for (String name : filePromptNames) {
+            FilePrompt filePrompt = filePrompts.get(name);
+            if (filePrompt != null) {
+                list.add(syncSpecification(filePrompt.specification.getPrompt()));
+            }
+        }
+        return list;
+    }
+
+    private List<McpServerFeatures.SyncPromptSpecification> buildSyncPrompts() throws IOException {
         List<McpServerFeatures.SyncPromptSpecification> list = new ArrayList<>();
         // Text Content
         list.add(buildTextPrompt());
@@ -45,10 +146,10 @@ class PromptProvider {
         // Image Content
         list.add(buildImagePrompt());
 
-        // add all from prompt-list.json
-        addPromptsFromFile(list);
+        // load all from prompt-list.json
+        filePrompts.putAll(readFilePrompts());
 
-        return list;
+        return Collections.unmodifiableList(list);
     }
 
     @NotNull
@@ -85,10 +186,10 @@ class PromptProvider {
     }
 
     @NotNull
-    private static McpServerFeatures.SyncPromptSpecification buildImagePrompt() {
+    private McpServerFeatures.SyncPromptSpecification buildImagePrompt() throws IOException {
         // 注意：image data 不要包含 data:image/png;base64,
         String filePath = Objects.requireNonNull(PromptProvider.class.getClassLoader().getResource("imageBase64.txt")).getPath();
-        String imageDataBase64 = FileUtils.readFile(filePath);
+        String imageDataBase64 = blobStore.mapBase64(Paths.get(FileUtils.resolveFilePath(filePath)));
         McpSchema.ImageContent imageContent = new McpSchema.ImageContent(Collections.singletonList(McpSchema.Role.USER), null, imageDataBase64, "image/png");
         McpSchema.Prompt prompt = new McpSchema.Prompt("test-prompt-image", "Test Image Prompt", Collections.emptyList());
         return new McpServerFeatures.SyncPromptSpecification(prompt,
@@ -96,47 +197,235 @@ class PromptProvider {
                         Collections.singletonList(new McpSchema.PromptMessage(McpSchema.Role.USER, imageContent))));
     }
 
-    private void addPromptsFromFile(List<McpServerFeatures.SyncPromptSpecification> list) throws JsonProcessingException {
-        String promptListFile = PROMPT_DIR + "prompt-list.json";
+    /**
+     * 提供给MCP Server的prompt规格：prompts/get时才按名称获取当前的处理器，因此热加载替换处理器后无需重新注册
+     */
+    public McpServerFeatures.SyncPromptSpecification syncSpecification(McpSchema.Prompt prompt) {
+        String name = prompt.getName();
+        return new McpServerFeatures.SyncPromptSpecification(prompt, (exchange, req) -> {
+            FilePrompt filePrompt = filePrompts.get(name);
+            if (filePrompt == null) {
+                throw new IllegalStateException("Prompt '" + name + "' has been removed");
+            }
+            return filePrompt.specification.getPromptHandler().apply(exchange, req);
+        });
+    }
+
+    public McpServerFeatures.AsyncPromptSpecification asyncSpecification(McpSchema.Prompt prompt) {
+        return McpServerFeatures.AsyncPromptSpecification.fromSync(syncSpecification(prompt));
+    }
+
+    /**
+     * prompt的当前定义：热加载更新过定义的prompt返回新的定义，用于prompts/list（见{@link ListResultSnapshots#setCurrentDefinitions}）
+     */
+    public McpSchema.Prompt currentPrompt(McpSchema.Prompt prompt) {
+        FilePrompt filePrompt = filePrompts.get(prompt.getName());
+        return filePrompt == null ? prompt : filePrompt.specification.getPrompt();
+    }
+
+    /**
+     * 注销JMX中的缓存指标
+     */
+    public void close() {
+        JmxUtils.unregister(CONTENT_CACHE_JMX_TYPE, jmxName());
+    }
+
+    PromptContentCache getContentCache() {
+        return contentCache;
+    }
+
+    /**
+     * prompt目录，其中的prompt-list.json及prompt文件变化时可通过{@link #reloadFilePrompts()}重新加载
+     */
+    public Path getPromptDir() {
+        return promptDir;
+    }
+
+    /**
+     * 重新加载prompt-list.json及prompt文件：只替换定义或文件内容有变化的prompt；读取失败的prompt保留原有的处理器
+     *
+     * @return prompt列表的变更，由调用方同步到MCP Server
+     */
+    public synchronized ListChanges<McpSchema.Prompt> reloadFilePrompts() throws IOException {
+        Map<String, FilePrompt> newPrompts = readFilePrompts();
+        ListChanges<McpSchema.Prompt> changes = new ListChanges<>();
+
+        for (String name : new ArrayList<>(filePrompts.keySet())) {
+            if (!newPrompts.containsKey(name) && !failedPrompts.contains(name)) {
+                // 图片prompt的文件映射随prompt一起释放
+                blobStore.release(filePrompts.remove(name).path);
+                contentCache.invalidate(name);
+                changes.getRemoved().add(name);
+            }
+        }
+
+        newPrompts.forEach((name, newPrompt) -> {
+            FilePrompt oldPrompt = filePrompts.get(name);
+            if (oldPrompt != null && oldPrompt.definition.equals(newPrompt.definition) && oldPrompt.content.equals(newPrompt.content)) {
+                return;
+            }
+            filePrompts.put(name, newPrompt);
+            if (oldPrompt == null) {
+                changes.getAdded().add(newPrompt.specification.getPrompt());
+            } else if (!oldPrompt.definition.equals(newPrompt.definition)) {
+                changes.getUpdated().add(newPrompt.specification.getPrompt());
+            }
+            log.info("Reloaded prompt '{}'", name);
+        });
+        return changes;
+    }
+
+    /**
+     * 读取prompt-list.json，并通过{@link PromptCatalog}查找每个prompt对应的文件（文件内容在首次prompts/get时才编译加载），
+     * 找不到文件、文件类型不支持或文本文件不是合法JSON的prompt不会出现在prompts/list中，其名称记录在{@link #failedPrompts}中
+     */
+    private Map<String, FilePrompt> readFilePrompts() throws IOException {
+        String promptListFile = promptDir.resolve(PROMPT_LIST_FILE).toString();
         McpSchema.ListPromptsResult listPrompts = objectMapper.readValue(FileUtils.readFile(promptListFile),
                 McpSchema.ListPromptsResult.class);
-        listPrompts.getPrompts().forEach(prompt -> {
-            // 根据文件名读取文件：判断文件类型、根据类型生成对应的PromptSpecification
-            String[] promptContent = FileUtils.readFileByName(PROMPT_DIR, prompt.getName());
-            if (promptContent.length == 2) {
-                // TODO embedded resource
-                if (promptContent[0].equals(PROMPT_TYPE_TEXT) && !promptContent[1].toLowerCase().contains(PROMPT_TYPE_TEXT_KEYWORD)) {
-                    McpServerFeatures.SyncPromptSpecification promptSpec = new McpServerFeatures.SyncPromptSpecification(prompt,
-                            (exchange, req) -> {
-                                StringBuffer promptContentBuffer = new StringBuffer(promptContent[1]);
-                                if (!prompt.getArguments().isEmpty()) {
-                                    prompt.getArguments().forEach(argument -> {
-                                        String value = req.getArguments().get(argument.getName()) == null ?
-                                                "" : (String) req.getArguments().get(argument.getName());
-                                        promptContentBuffer.replace(promptContentBuffer.indexOf(PROMPT_ARGUMENT_PLACEHOLDER),
-                                                promptContentBuffer.indexOf(PROMPT_ARGUMENT_PLACEHOLDER) + PROMPT_ARGUMENT_PLACEHOLDER.length(),
-                                                value);
-                                    });
-                                }
-                                try {
-                                    return objectMapper.readValue(promptContentBuffer.toString(), McpSchema.GetPromptResult.class);
-                                } catch (JsonProcessingException e) {
-                                    log.error("Error read prompt file: " + prompt.getName(), e);
-                                }
-                                return null;
-                            });
-                    list.add(promptSpec);
-                } else if (promptContent[0].contains(PROMPT_TYPE_IMAGE)) {
-                    McpSchema.ImageContent imageContent = new McpSchema.ImageContent(
-                            Collections.singletonList(McpSchema.Role.USER), null, promptContent[1], promptContent[0]);
-                    McpServerFeatures.SyncPromptSpecification promptSpec = new McpServerFeatures.SyncPromptSpecification(prompt,
-                            (exchange, req) -> new McpSchema.GetPromptResult(prompt.getDescription(),
-                                    Collections.singletonList(new McpSchema.PromptMessage(McpSchema.Role.USER, imageContent))));
-                    list.add(promptSpec);
-                }
+        PromptCatalog catalog = PromptCatalog.scan(getPromptDir());
+        Map<String, FilePrompt> prompts = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        failedPrompts.clear();
+        for (McpSchema.Prompt prompt : listPrompts.getPrompts()) {
+            names.add(prompt.getName());
+            PromptCatalog.Entry entry = catalog.get(prompt.getName());
+            if (entry == null) {
+                failedPrompts.add(prompt.getName());
+                log.error("Not found prompt file: {}", prompt.getName());
+                continue;
+            }
+            McpServerFeatures.SyncPromptSpecification promptSpec = buildFilePrompt(prompt, entry);
+            if (promptSpec == null) {
+                failedPrompts.add(prompt.getName());
+                log.error("Unsupported prompt file type: {}", entry.getPath());
+            } else if (entry.isText() && !isWellFormed(entry.getPath())) {
+                failedPrompts.add(prompt.getName());
             } else {
-                log.error("Not found prompt file: " + prompt.getName());
+                prompts.put(prompt.getName(), new FilePrompt(objectMapper.writeValueAsString(prompt), entry.getStamp(), entry.getPath(), promptSpec));
             }
-        });
+        }
+        filePromptNames = names;
+        return prompts;
+    }
+
+    /**
+     * 流式校验文本prompt文件是否为合法的JSON对象，不构建树、不保留内容，编译仍在首次prompts/get时进行
+     */
+    private boolean isWellFormed(Path file) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.error("Invalid prompt file {}: not a JSON object", file);
+                return false;
+            }
+            parser.skipChildren();
+            if (parser.nextToken() != null) {
+                log.error("Invalid prompt file {}: unexpected content after the JSON object", file);
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Invalid prompt file {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private McpServerFeatures.SyncPromptSpecification buildFilePrompt(McpSchema.Prompt prompt, PromptCatalog.Entry entry) {
+        if (entry.isText()) {
+            return new McpServerFeatures.SyncPromptSpecification(prompt, new CachedPrompt(prompt.getName(), entry, TEXT_WEIGHT_FACTOR,
+                    () -> compileTemplate(prompt, FileUtils.readFile(entry.getPath().toString()))::render));
+        } else if (entry.isImage()) {
+            return new McpServerFeatures.SyncPromptSpecification(prompt, new CachedPrompt(prompt.getName(), entry, 0, () -> {
+                McpSchema.ImageContent imageContent = new McpSchema.ImageContent(Collections.singletonList(McpSchema.Role.USER),
+                        null, blobStore.map(entry.getPath()), entry.getMimeType());
+                McpSchema.GetPromptResult result = new McpSchema.GetPromptResult(prompt.getDescription(),
+                        Collections.singletonList(new McpSchema.PromptMessage(McpSchema.Role.USER, imageContent)));
+                return arguments -> result;
+            }));
+        }
+        return null;
+    }
+
+    /**
+     * 文本类型的prompt在加载时编译为模板，prompts/get时只填充参数
+     */
+    private PromptTemplate compileTemplate(McpSchema.Prompt prompt, String content) {
+        List<String> argumentNames = new ArrayList<>();
+        if (prompt.getArguments() != null) {
+            prompt.getArguments().forEach(argument -> argumentNames.add(argument.getName()));
+        }
+        try {
+            PromptTemplate template = PromptTemplate.compile(content, argumentNames, objectMapper);
+            template.getSlotNames().stream()
+                    .filter(name -> !argumentNames.contains(name))
+                    .forEach(name -> log.warn("Prompt '{}' uses undeclared argument: {}", prompt.getName(), name));
+            return template;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid prompt file: " + prompt.getName(), e);
+        }
+    }
+
+    /**
+     * prompts/get时从{@link PromptContentCache}获取编译后的prompt，未缓存时才读取并编译prompt文件；
+     * 加载时重新读取文件的版本（扫描后文件可能已变化），缓存按加载时的版本保存
+     */
+    private class CachedPrompt implements BiFunction<McpSyncServerExchange, McpSchema.GetPromptRequest, McpSchema.GetPromptResult> {
+
+        private final String name;
+        private final Path path;
+        private final int weightFactor;
+        private final Callable<Function<Map<String, Object>, McpSchema.GetPromptResult>> loader;
+
+        /**
+         * 最近一次加载时的文件版本，初始为扫描时的版本
+         */
+        private volatile String stamp;
+
+        CachedPrompt(String name, PromptCatalog.Entry entry, int weightFactor,
+                     Callable<Function<Map<String, Object>, McpSchema.GetPromptResult>> loader) {
+            this.name = name;
+            this.path = entry.getPath();
+            this.weightFactor = weightFactor;
+            this.loader = loader;
+            this.stamp = entry.getStamp();
+        }
+
+        @Override
+        public McpSchema.GetPromptResult apply(McpSyncServerExchange exchange, McpSchema.GetPromptRequest request) {
+            Function<Map<String, Object>, McpSchema.GetPromptResult> renderer;
+            try {
+                renderer = contentCache.get(name, stamp, this::load);
+            } catch (Exception e) {
+                log.error("Error read prompt file: " + name, e);
+                throw new IllegalStateException("Error read prompt file: " + name, e);
+            }
+            return renderer.apply(request.getArguments());
+        }
+
+        private PromptContentCache.Loaded load() throws Exception {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            String current = PromptCatalog.stamp(path, attrs.size(), attrs.lastModifiedTime().toMillis());
+            PromptContentCache.Loaded loaded = new PromptContentCache.Loaded(current, attrs.size() * weightFactor, loader.call());
+            stamp = current;
+            return loaded;
+        }
+    }
+
+    /**
+     * 来自prompt-list.json的prompt：definition为prompt定义、content为文件的版本标识，用于热加载时比较差异
+     */
+    private static class FilePrompt {
+
+        final String definition;
+        final String content;
+        final Path path;
+        final McpServerFeatures.SyncPromptSpecification specification;
+
+        FilePrompt(String definition, String content, Path path, McpServerFeatures.SyncPromptSpecification specification) {
+            this.definition = definition;
+            this.content = content;
+            this.path = path;
+            this.specification = specification;
+        }
     }
 }
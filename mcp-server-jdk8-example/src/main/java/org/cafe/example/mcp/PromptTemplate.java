@@ -0,0 +1,189 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的prompt模板：加载prompt文件时解析一次，将description及text内容中的{@code {{arg}}}占位符拆分为文本片段和参数槽位，
+ * prompts/get时只需填充槽位生成新的{@link McpSchema.GetPromptResult}，无需再次解析JSON，参数值也无需转义。
+ * 兼容按顺序对应prompt参数的{@code %s}占位符（加载时按出现顺序转换为命名占位符）
+ */
+public final class PromptTemplate {
+
+    private static final Pattern NAMED_PLACEHOLDER = Pattern.compile("\\{\\{\\s*([\\w.-]+)\\s*}}");
+    private static final String POSITIONAL_PLACEHOLDER = "%s";
+    private static final String FIELD_RESULT = "result";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_MESSAGES = "messages";
+    private static final String FIELD_CONTENT = "content";
+    private static final String FIELD_TEXT = "text";
+
+    private final McpSchema.GetPromptResult result;
+
+    /**
+     * description的模板，不含占位符时为null
+     */
+    private final Text description;
+
+    /**
+     * 每条message中text内容的模板，不含占位符的message为null
+     */
+    private final Text[] messages;
+
+    private final Set<String> slotNames = new LinkedHashSet<>();
+
+    private PromptTemplate(McpSchema.GetPromptResult result) {
+        this.result = result;
+        this.description = Text.compile(result.getDescription(), slotNames);
+        List<McpSchema.PromptMessage> resultMessages = result.getMessages() == null ? Collections.emptyList() : result.getMessages();
+        this.messages = new Text[resultMessages.size()];
+        for (int i = 0; i < messages.length; i++) {
+            McpSchema.Content content = resultMessages.get(i).getContent();
+            if (content instanceof McpSchema.TextContent) {
+                messages[i] = Text.compile(((McpSchema.TextContent) content).getText(), slotNames);
+            }
+        }
+    }
+
+    /**
+     * 编译prompt文件内容（MCP {@code prompts/get}的{@code "result"}节点，可包含或不包含{@code "result"}本身）
+     *
+     * @param json          prompt文件内容
+     * @param argumentNames prompt的参数名称，用于按顺序替换{@code %s}占位符
+     */
+    public static PromptTemplate compile(String json, List<String> argumentNames, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(json);
+        if (root.has(FIELD_RESULT) && !root.has(FIELD_MESSAGES)) {
+            // 兼容包含"result"节点本身的文件
+            root = root.get(FIELD_RESULT);
+        }
+        if (root instanceof ObjectNode && !argumentNames.isEmpty()) {
+            toNamedPlaceholders((ObjectNode) root, argumentNames.iterator());
+        }
+        return new PromptTemplate(objectMapper.treeToValue(root, McpSchema.GetPromptResult.class));
+    }
+
+    /**
+     * 模板中出现的参数名称
+     */
+    public Set<String> getSlotNames() {
+        return Collections.unmodifiableSet(slotNames);
+    }
+
+    /**
+     * 填充参数生成prompts/get的结果：不含占位符的部分直接复用编译时的对象，未提供的参数按空字符串处理
+     */
+    public McpSchema.GetPromptResult render(Map<String, Object> arguments) {
+        if (slotNames.isEmpty()) {
+            return result;
+        }
+        List<McpSchema.PromptMessage> renderedMessages = new ArrayList<>(messages.length);
+        for (int i = 0; i < messages.length; i++) {
+            McpSchema.PromptMessage message = result.getMessages().get(i);
+            if (messages[i] == null) {
+                renderedMessages.add(message);
+            } else {
+                McpSchema.TextContent content = (McpSchema.TextContent) message.getContent();
+                renderedMessages.add(new McpSchema.PromptMessage(message.getRole(),
+                        new McpSchema.TextContent(content.getAudience(), content.getPriority(), messages[i].render(arguments))));
+            }
+        }
+        return new McpSchema.GetPromptResult(
+                description == null ? result.getDescription() : description.render(arguments), renderedMessages);
+    }
+
+    /**
+     * 按文件中的出现顺序将{@code %s}替换为对应参数的命名占位符，与原先逐个替换文件内容中{@code %s}的行为一致
+     */
+    private static void toNamedPlaceholders(ObjectNode root, Iterator<String> argumentNames) {
+        Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+        while (fields.hasNext() && argumentNames.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (FIELD_DESCRIPTION.equals(field.getKey()) && field.getValue().isTextual()) {
+                field.setValue(root.textNode(toNamedPlaceholders(field.getValue().asText(), argumentNames)));
+            } else if (FIELD_MESSAGES.equals(field.getKey()) && field.getValue().isArray()) {
+                for (JsonNode message : field.getValue()) {
+                    JsonNode content = message.get(FIELD_CONTENT);
+                    if (content instanceof ObjectNode && content.path(FIELD_TEXT).isTextual()) {
+                        ((ObjectNode) content).put(FIELD_TEXT, toNamedPlaceholders(content.get(FIELD_TEXT).asText(), argumentNames));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String toNamedPlaceholders(String text, Iterator<String> argumentNames) {
+        int index = text.indexOf(POSITIONAL_PLACEHOLDER);
+        if (index < 0) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        int start = 0;
+        while (index >= 0 && argumentNames.hasNext()) {
+            builder.append(text, start, index).append("{{").append(argumentNames.next()).append("}}");
+            start = index + POSITIONAL_PLACEHOLDER.length();
+            index = text.indexOf(POSITIONAL_PLACEHOLDER, start);
+        }
+        return builder.append(text, start, text.length()).toString();
+    }
+
+    /**
+     * 编译后的文本：literals比names多1个，依次为 literal[0] name[0] literal[1] ... literal[n]
+     */
+    private static final class Text {
+
+        private final String[] literals;
+        private final String[] names;
+        private final int literalLength;
+
+        private Text(String[] literals, String[] names) {
+            this.literals = literals;
+            this.names = names;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+
+        static Text compile(String text, Set<String> slotNames) {
+            if (text == null) {
+                return null;
+            }
+            Matcher matcher = NAMED_PLACEHOLDER.matcher(text);
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int start = 0;
+            while (matcher.find()) {
+                literals.add(text.substring(start, matcher.start()));
+                names.add(matcher.group(1));
+                start = matcher.end();
+            }
+            if (names.isEmpty()) {
+                return null;
+            }
+            literals.add(text.substring(start));
+            slotNames.addAll(names);
+            return new Text(literals.toArray(new String[0]), names.toArray(new String[0]));
+        }
+
+        String render(Map<String, Object> arguments) {
+            StringBuilder builder = new StringBuilder(literalLength + 16 * names.length);
+            for (int i = 0; i < names.length; i++) {
+                builder.append(literals[i]);
+                Object value = arguments == null ? null : arguments.get(names[i]);
+                if (value != null) {
+                    builder.append(value);
+                }
+            }
+            return builder.append(literals[names.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * resources/read的读穿透缓存：以resource uri为key，每次读取时用调用方提供的版本（文件为最后修改时间和大小，其他后端可使用ETag等）校验，
+ * 版本一致时直接返回缓存的结果，否则重新加载；条目数超过上限时淘汰最久未访问的条目。
+ * 内容变化时可由文件监听或后端调用{@link #invalidate(String)}使条目失效
+ */
+public class ResourceCache implements ResourceCacheMXBean {
+
+    private final int maxEntries;
+
+    /**
+     * accessOrder为true的LinkedHashMap即LRU顺序，所有访问都在entries上同步
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxEntries 最大条目数，小于等于0表示不限制
+     */
+    public ResourceCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param uri    resource uri
+     * @param stamp  resource当前的版本
+     * @param loader 未缓存或版本不一致时加载resource
+     */
+    public McpSchema.ReadResourceResult get(String uri, String stamp, Callable<McpSchema.ReadResourceResult> loader) throws Exception {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(uri);
+        }
+        if (entry != null && entry.stamp.equals(stamp)) {
+            hitCount.incrementAndGet();
+            return entry.result;
+        }
+        missCount.incrementAndGet();
+        if (entry != null) {
+            staleCount.incrementAndGet();
+        }
+        McpSchema.ReadResourceResult result = loader.call();
+        synchronized (entries) {
+            entries.put(uri, new Entry(stamp, result));
+            Iterator<String> eldest = entries.keySet().iterator();
+            while (maxEntries > 0 && entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 内容变化时使resource的缓存失效
+     */
+    public void invalidate(String uri) {
+        synchronized (entries) {
+            entries.remove(uri);
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * 移除已删除resource的缓存，不计入失效数
+     */
+    public void remove(String uri) {
+        synchronized (entries) {
+            entries.remove(uri);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    private static class Entry {
+
+        final String stamp;
+        final McpSchema.ReadResourceResult result;
+
+        Entry(String stamp, McpSchema.ReadResourceResult result) {
+            this.stamp = stamp;
+            this.result = result;
+        }
+    }
+}
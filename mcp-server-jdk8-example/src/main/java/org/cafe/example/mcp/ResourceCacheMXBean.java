@@ -0,0 +1,32 @@
+package org.cafe.example.mcp;
+
+/**
+ * resource内容缓存的JMX指标
+ */
+public interface ResourceCacheMXBean {
+
+    int getSize();
+
+    int getMaxEntries();
+
+    /**
+     * 超过最大条目数而淘汰的条目数
+     */
+    long getEvictionCount();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    /**
+     * 版本校验不一致（内容已变化）而重新加载的次数
+     */
+    long getStaleCount();
+
+    /**
+     * 由文件监听或外部调用{@link ResourceCache#invalidate(String)}失效的条目数
+     */
+    long getInvalidationCount();
+}
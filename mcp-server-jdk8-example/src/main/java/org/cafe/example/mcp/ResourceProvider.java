@@ -2,27 +2,321 @@ package org.cafe.example.mcp;
 
 import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.cafe.example.mcp.util.FileUtils;
+import org.cafe.example.mcp.util.JmxUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Resources 能力提供者：扫描配置的根目录（文件系统或classpath中的目录，含子目录），每个文件注册为1个resource，
+ * uri为{@code resource://<根目录名>/<相对路径>}（不暴露服务器上的绝对路径），每个根目录注册1个resource template；
+ * resources/read时不读取文件内容，而是通过{@link BlobStore}映射文件、在序列化响应时流式输出；
+ * 读取结果缓存在{@link ResourceCache}中，文件变化时（见{@link #refresh(Collection)}）失效
+ */
+@Slf4j
 public class ResourceProvider {
 
-    private static final String TEST_RESOURCE_URI = "test://resource";
+    private static final String PROPERTY_RESOURCE_ROOTS = "mcp.resource.roots";
+    private static final String URI_SCHEME = "resource";
+    private static final String PROPERTY_CACHE_MAX_ENTRIES = "mcp.resource.cache.maxEntries";
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 10000;
+    private static final String DEFAULT_RESOURCE_ROOTS = FileUtils.CLASSPATH_PREFIX + "resource";
+    private static final String CACHE_JMX_TYPE = "ResourceCache";
+    private static final String CACHE_JMX_NAME = "resources";
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+    private static final Set<String> TEXT_MIME_TYPES = new HashSet<>(Arrays.asList(
+            "application/json", "application/xml", "application/javascript", "application/x-yaml", "image/svg+xml"));
 
-    public List<McpServerFeatures.SyncResourceSpecification> allSyncResources() {
-        McpSchema.Resource resource = new McpSchema.Resource(TEST_RESOURCE_URI, "Test Resource", "text/plain", "Test resource description",
-                null);
-        McpServerFeatures.SyncResourceSpecification specification = new McpServerFeatures.SyncResourceSpecification(
-                resource, (exchange, req) -> new McpSchema.ReadResourceResult(Collections.emptyList()));
-        return Collections.singletonList(specification);
+    private final BlobStore blobStore;
+
+    /**
+     * 按文件后缀缓存的MIME类型
+     */
+    private final Map<String, String> mimeTypes = new ConcurrentHashMap<>();
+
+    /**
+     * 已注册的文件resource，key为uri
+     */
+    private final Map<String, FileResource> files = new ConcurrentHashMap<>();
+    private final ResourceCache cache = new ResourceCache(Integer.getInteger(PROPERTY_CACHE_MAX_ENTRIES, DEFAULT_CACHE_MAX_ENTRIES));
+    private final List<Path> roots;
+
+    /**
+     * 根目录 -> uri中的根目录名（目录名重复时添加序号）
+     */
+    private final Map<Path, String> rootNames;
+
+    /**
+     * JMX名称的前缀，为null时不加前缀
+     */
+    private final String jmxScope;
+
+    /**
+     * 启动时扫描根目录，只扫描一次；之后的变化由{@link #refresh(Collection)}更新到{@link #files}
+     */
+    private final Memoized<List<McpServerFeatures.SyncResourceSpecification>> syncResources = new Memoized<>(this::scanRoots);
+
+    public ResourceProvider(BlobStore blobStore) {
+        this(blobStore, "", null);
+    }
+
+    /**
+     * @param rootLocations 根目录（逗号分隔），为空时使用{@code -Dmcp.resource.roots}
+     * @param jmxScope      JMX名称的前缀，同一JVM中有多个MCP Server时用于区分，可以为null
+     */
+    public ResourceProvider(BlobStore blobStore, String rootLocations, String jmxScope) {
+        this.blobStore = blobStore;
+        this.roots = resolveRoots(rootLocations.isEmpty() ? System.getProperty(PROPERTY_RESOURCE_ROOTS, DEFAULT_RESOURCE_ROOTS) : rootLocations);
+        this.rootNames = nameRoots(roots);
+        this.jmxScope = jmxScope;
+        JmxUtils.register(cache, CACHE_JMX_TYPE, jmxName());
+    }
+
+    /**
+     * 注销JMX中的缓存指标
+     */
+    public void close() {
+        JmxUtils.unregister(CACHE_JMX_TYPE, jmxName());
+    }
+
+    private String jmxName() {
+        return jmxScope == null ? CACHE_JMX_NAME : jmxScope + "/" + CACHE_JMX_NAME;
     }
 
-    public List<McpServerFeatures.AsyncResourceSpecification> allAsyncResources() {
+    /**
+     * 当前的resource规格（包含refresh的变化），按uri排序
+     */
+    public List<McpServerFeatures.SyncResourceSpecification> allSyncResources() throws IOException {
+        syncResources.get();
+        List<McpServerFeatures.SyncResourceSpecification> specifications = new ArrayList<>();
+        new TreeMap<>(files).values().forEach(file -> specifications.add(file.specification));
+        return specifications;
+    }
+
+    private List<McpServerFeatures.SyncResourceSpecification> scanRoots() throws IOException {
+        List<McpServerFeatures.SyncResourceSpecification> specifications = new ArrayList<>();
+        for (Path root : roots) {
+            long start = System.nanoTime();
+            int count = specifications.size();
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        specifications.add(register(root, file, attrs));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            log.info("Registered {} resources under {} in {} ms", specifications.size() - count, root,
+                    (System.nanoTime() - start) / 1000000);
+        }
+        return Collections.unmodifiableList(specifications);
+    }
+
+    public List<McpServerFeatures.AsyncResourceSpecification> allAsyncResources() throws IOException {
         List<McpServerFeatures.AsyncResourceSpecification> asyncResourceSpecifications = new ArrayList<>();
         allSyncResources().forEach(syncResourceSpecification ->
                 asyncResourceSpecifications.add(McpServerFeatures.AsyncResourceSpecification.fromSync(syncResourceSpecification)));
         return asyncResourceSpecifications;
     }
+
+    /**
+     * 文件变化后同步已注册的resource：新增的文件注册为resource，删除的文件移除，内容变化的文件使其缓存失效
+     *
+     * @param changed 变化的文件或目录
+     * @return 新增和删除的resource（removed为uri）
+     */
+    public ListChanges<McpServerFeatures.SyncResourceSpecification> refresh(Collection<Path> changed) throws IOException {
+        ListChanges<McpServerFeatures.SyncResourceSpecification> changes = new ListChanges<>();
+        for (Path path : changed) {
+            Path root = roots.stream().filter(path::startsWith).findFirst().orElse(null);
+            if (root == null) {
+                continue;
+            }
+            // 变化路径下已注册的文件，遍历后剩余的即为已删除的
+            Set<String> missing = new HashSet<>();
+            files.forEach((uri, file) -> {
+                if (file.path.startsWith(path)) {
+                    missing.add(uri);
+                }
+            });
+            if (Files.exists(path)) {
+                Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (!attrs.isRegularFile()) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        String uri = uri(root, file);
+                        FileResource registered = files.get(uri);
+                        if (registered == null) {
+                            changes.getAdded().add(register(root, file, attrs));
+                        } else {
+                            missing.remove(uri);
+                            String stamp = stamp(attrs);
+                            if (!registered.stamp.equals(stamp)) {
+                                registered.stamp = stamp;
+                                cache.invalidate(uri);
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+            for (String uri : missing) {
+                blobStore.release(files.remove(uri).path);
+                cache.remove(uri);
+                changes.getRemoved().add(uri);
+            }
+        }
+        return changes;
+    }
+
+    public List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * 使resource的缓存失效，供文件以外的后端在内容变化时调用
+     */
+    public void invalidate(String uri) {
+        cache.invalidate(uri);
+    }
+
+    /**
+     * 每个根目录对应1个resource template：{@code resource://<根目录名>/{path}}
+     */
+    public List<McpSchema.ResourceTemplate> allResourceTemplates() {
+        List<McpSchema.ResourceTemplate> templates = new ArrayList<>();
+        for (Path root : roots) {
+            String rootName = rootNames.get(root);
+            templates.add(new McpSchema.ResourceTemplate(URI_SCHEME + "://" + rootName + "/{path}", rootName,
+                    "Files under " + rootName, null, null));
+        }
+        return templates;
+    }
+
+    /**
+     * 读取文件resource：内容为{@link BlobStore}的引用
+     */
+    McpSchema.ReadResourceResult read(Path file, BasicFileAttributes attrs, String uri, String mimeType) throws IOException {
+        McpSchema.ResourceContents contents = isText(mimeType) ? new McpSchema.TextResourceContents(uri, mimeType, blobStore.mapText(file, attrs))
+                : new McpSchema.BlobResourceContents(uri, mimeType, blobStore.map(file, attrs));
+        return new McpSchema.ReadResourceResult(Collections.singletonList(contents));
+    }
+
+    String getMimeType(Path file) {
+        String fileName = file.getFileName().toString();
+        int index = fileName.lastIndexOf('.');
+        String extension = index < 0 ? "" : fileName.substring(index + 1).toLowerCase(Locale.ROOT);
+        return mimeTypes.computeIfAbsent(extension, key -> {
+            String mimeType = FileUtils.getMimeType(fileName);
+            if (mimeType == null) {
+                try {
+                    mimeType = Files.probeContentType(file);
+                } catch (IOException e) {
+                    log.debug("Probe content type of {} error: {}", file, e.getMessage());
+                }
+            }
+            return mimeType == null ? DEFAULT_MIME_TYPE : mimeType;
+        });
+    }
+
+    private McpServerFeatures.SyncResourceSpecification register(Path root, Path file, BasicFileAttributes attrs) {
+        String uri = uri(root, file);
+        String mimeType = getMimeType(file);
+        String name = relativePath(root, file);
+        McpSchema.Resource resource = new McpSchema.Resource(uri, name, null, mimeType, null);
+        McpServerFeatures.SyncResourceSpecification specification = new McpServerFeatures.SyncResourceSpecification(resource, (exchange, req) -> {
+            try {
+                // 每次读取都校验文件版本（只读取一次文件属性，映射时复用），未启用文件监听时也不会返回过期内容
+                BasicFileAttributes current = Files.readAttributes(file, BasicFileAttributes.class);
+                return cache.get(uri, stamp(current), () -> read(file, current, uri, mimeType));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error read resource: " + uri, e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Error read resource: " + uri, e);
+            }
+        });
+        files.put(uri, new FileResource(file, stamp(attrs), specification));
+        return specification;
+    }
+
+    /**
+     * 文件的uri：{@code resource://<根目录名>/<相对路径>}，路径中的非ASCII字符及空格等按URI规则编码
+     */
+    private String uri(Path root, Path file) {
+        try {
+            return new URI(URI_SCHEME, rootNames.get(root), "/" + relativePath(root, file), null, null).toASCIIString();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid resource path: " + relativePath(root, file), e);
+        }
+    }
+
+    private static String relativePath(Path root, Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    private static Map<Path, String> nameRoots(List<Path> roots) {
+        Map<Path, String> names = new HashMap<>();
+        Set<String> used = new HashSet<>();
+        for (Path root : roots) {
+            String base = root.getFileName() == null ? "root" : root.getFileName().toString();
+            String name = base;
+            for (int i = 2; !used.add(name); i++) {
+                name = base + "-" + i;
+            }
+            names.put(root, name);
+        }
+        return names;
+    }
+
+    private static String stamp(BasicFileAttributes attrs) {
+        return attrs.lastModifiedTime().toMillis() + "-" + attrs.size();
+    }
+
+    private static boolean isText(String mimeType) {
+        return mimeType.startsWith("text/") || TEXT_MIME_TYPES.contains(mimeType);
+    }
+
+    /**
+     * 根目录通过{@code -Dmcp.resource.roots}指定（逗号分隔，{@code classpath:}开头的为classpath中的目录），默认为{@code classpath:resource}；
+     * 不存在或不在文件系统中（例如打包在jar中）的目录将被忽略
+     */
+    private static List<Path> resolveRoots(String rootLocations) {
+        List<Path> roots = new ArrayList<>();
+        for (String root : rootLocations.split("\\s*,\\s*")) {
+            if (root.isEmpty()) {
+                continue;
+            }
+            Path path = FileUtils.resolvePath(root);
+            if (path != null && Files.isDirectory(path)) {
+                roots.add(path);
+            } else {
+                log.warn("Resource root not found or not a directory: {}", root);
+            }
+        }
+        return roots;
+    }
+
+    private static class FileResource {
+
+        final Path path;
+        final McpServerFeatures.SyncResourceSpecification specification;
+        volatile String stamp;
+
+        FileResource(Path path, String stamp, McpServerFeatures.SyncResourceSpecification specification) {
+            this.path = path;
+            this.stamp = stamp;
+            this.specification = specification;
+        }
+    }
 }
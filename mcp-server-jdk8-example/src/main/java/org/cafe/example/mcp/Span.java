@@ -0,0 +1,147 @@
+package org.cafe.example.mcp;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 追踪span：一个处理阶段的开始、结束时间及少量属性，结束时交给{@link McpTracing}导出。只在请求被采样时创建
+ */
+@Getter
+public class Span {
+
+    public static final int KIND_INTERNAL = 1;
+    public static final int KIND_SERVER = 2;
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+
+    /**
+     * 0表示根span
+     */
+    private final long parentSpanId;
+    private final String name;
+    private final int kind;
+    private final long startNanos;
+    private long endNanos;
+    private boolean error;
+    private String statusMessage;
+    private final Map<String, Object> attributes = new LinkedHashMap<>(4);
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    Span(long traceIdHigh, long traceIdLow, long parentSpanId, String name, int kind, long startNanos) {
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = randomId();
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanos = startNanos;
+    }
+
+    static long randomId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    public Span child(String name) {
+        return child(name, System.nanoTime());
+    }
+
+    /**
+     * @param startNanos 开始时间（{@link System#nanoTime()}），用于记录已经开始的阶段，例如排队
+     */
+    public Span child(String name, long startNanos) {
+        return new Span(traceIdHigh, traceIdLow, spanId, name, KIND_INTERNAL, startNanos);
+    }
+
+    public Span setAttribute(String key, Object value) {
+        synchronized (attributes) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Map<String, Object> getAttributes() {
+        synchronized (attributes) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        }
+    }
+
+    public void setError(Throwable e) {
+        setError(e.getClass().getName() + ": " + e.getMessage());
+    }
+
+    public void setError(String message) {
+        this.error = true;
+        this.statusMessage = message;
+    }
+
+    /**
+     * 结束并导出，重复调用（例如取消后又完成）时忽略
+     */
+    public void end() {
+        if (ended.compareAndSet(false, true)) {
+            endNanos = System.nanoTime();
+            McpTracing.export(this);
+        }
+    }
+
+    public boolean isEnded() {
+        return ended.get();
+    }
+
+    public long getStartEpochNanos() {
+        return McpTracing.toEpochNanos(startNanos);
+    }
+
+    public long getEndEpochNanos() {
+        return McpTracing.toEpochNanos(endNanos);
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * 32位十六进制
+     */
+    public String getTraceId() {
+        return hex(traceIdHigh) + hex(traceIdLow);
+    }
+
+    /**
+     * 16位十六进制
+     */
+    public String getSpanIdHex() {
+        return hex(spanId);
+    }
+
+    /**
+     * 16位十六进制，根span为null
+     */
+    public String getParentSpanIdHex() {
+        return parentSpanId == 0 ? null : hex(parentSpanId);
+    }
+
+    static String hex(long id) {
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + getTraceId() + "/" + getSpanIdHex() + "]";
+    }
+}
@@ -0,0 +1,12 @@
+package org.cafe.example.mcp;
+
+/**
+ * span导出器，{@link #export(Span)}在结束span的线程上调用，不能阻塞
+ */
+public interface SpanExporter {
+
+    void export(Span span);
+
+    default void close() {
+    }
+}
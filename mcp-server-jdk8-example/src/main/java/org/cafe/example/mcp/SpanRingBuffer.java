@@ -0,0 +1,59 @@
+package org.cafe.example.mcp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 内存中的span环形缓冲区：只保留最近的{@code capacity}个span，写入只做一次原子自增和数组写，供调试端点（{@link TracesServlet}）查询
+ */
+public class SpanRingBuffer implements SpanExporter {
+
+    private final AtomicReferenceArray<Span> spans;
+    private final AtomicLong next = new AtomicLong();
+
+    public SpanRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.spans = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void export(Span span) {
+        spans.set((int) (next.getAndIncrement() % spans.length()), span);
+    }
+
+    /**
+     * 最近结束的span，按结束顺序从新到旧
+     */
+    public List<Span> recent(int limit) {
+        List<Span> result = new ArrayList<>(Math.min(limit, spans.length()));
+        long last = next.get() - 1;
+        for (long i = last; i >= 0 && i > last - spans.length() && result.size() < limit; i--) {
+            Span span = spans.get((int) (i % spans.length()));
+            if (span != null) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 缓冲区中某个trace的所有span，按开始时间排序
+     *
+     * @param traceId 32位十六进制
+     */
+    public List<Span> trace(String traceId) {
+        List<Span> result = new ArrayList<>();
+        for (int i = 0; i < spans.length(); i++) {
+            Span span = spans.get(i);
+            if (span != null && span.getTraceId().equalsIgnoreCase(traceId)) {
+                result.add(span);
+            }
+        }
+        result.sort((a, b) -> Long.compare(a.getStartNanos(), b.getStartNanos()));
+        return result;
+    }
+}
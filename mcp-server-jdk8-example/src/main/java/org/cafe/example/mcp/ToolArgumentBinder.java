@@ -0,0 +1,181 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.cafe.example.mcp.util.JsonSchemaGenerator;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * tool参数绑定器：启动时根据方法参数名（与{@link JsonSchemaGenerator#generateForMethodInput}生成的inputSchema中的属性名一致）
+ * 预先计算参数位置及类型转换器，调用时按名称将请求参数绑定到对应位置，而不依赖请求Map的迭代顺序
+ */
+public class ToolArgumentBinder {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final String[] names;
+
+    /**
+     * 参数值可直接使用时的类型（基本类型已装箱），集合、泛型等总是需要转换的位置为null
+     */
+    private final Class<?>[] types;
+
+    private final boolean[] required;
+    private final Object[] defaults;
+
+    /**
+     * 参数值类型与方法参数类型不一致（或为需要转换元素类型的集合）时使用的转换器
+     */
+    private final ObjectReader[] readers;
+
+    /**
+     * {@link ToolProgress}参数的位置，不从请求参数绑定，没有时为-1
+     */
+    private final int progressIndex;
+
+    /**
+     * 每个线程复用的参数数组：取出时置空、归还时放回，嵌套调用时取不到则新建
+     */
+    private final ThreadLocal<Object[]> reusableArgs;
+
+    public ToolArgumentBinder(Method method) {
+        this(method, false);
+    }
+
+    /**
+     * @param batch 是否为批量tool方法（见{@link ToolBatcher}）：每个参数均为{@code List}，按元素类型绑定单次调用的参数
+     */
+    public ToolArgumentBinder(Method method, boolean batch) {
+        int parameterCount = method.getParameterCount();
+        Parameter[] parameters = method.getParameters();
+        this.names = new String[parameterCount];
+        this.types = new Class<?>[parameterCount];
+        this.required = new boolean[parameterCount];
+        this.defaults = new Object[parameterCount];
+        this.readers = new ObjectReader[parameterCount];
+        int progressIndex = -1;
+        for (int i = 0; i < parameterCount; i++) {
+            if (!batch && !isInputParameter(parameters[i])) {
+                names[i] = parameters[i].getName();
+                progressIndex = i;
+                continue;
+            }
+            JavaType javaType = OBJECT_MAPPER.getTypeFactory().constructType(method.getGenericParameterTypes()[i]);
+            if (batch) {
+                javaType = javaType.getContentType() == null ? OBJECT_MAPPER.constructType(Object.class) : javaType.getContentType();
+            }
+            Class<?> type = batch ? javaType.getRawClass() : parameters[i].getType();
+            names[i] = parameters[i].getName();
+            types[i] = type.isPrimitive() ? boxed(type) : type;
+            required[i] = JsonSchemaGenerator.isMethodParameterRequired(method, i);
+            defaults[i] = type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+            readers[i] = OBJECT_MAPPER.readerFor(javaType);
+            if (javaType.isContainerType() || javaType.hasGenericTypes()) {
+                // 集合、泛型类型需要转换元素类型，不能直接使用参数值
+                types[i] = null;
+            }
+        }
+        this.progressIndex = progressIndex;
+        this.reusableArgs = parameterCount == 0 ? null : ThreadLocal.withInitial(() -> new Object[parameterCount]);
+    }
+
+    /**
+     * 是否为tool的输入参数：{@link ToolProgress}参数由Server传入，不出现在inputSchema中、也不从请求参数绑定
+     */
+    public static boolean isInputParameter(Parameter parameter) {
+        return parameter.getType() != ToolProgress.class;
+    }
+
+    public int getParameterCount() {
+        return names.length;
+    }
+
+    public String[] getParameterNames() {
+        return names.clone();
+    }
+
+    /**
+     * 绑定参数到新建的数组中，适用于参数数组需要在调用结束后继续持有的场景
+     */
+    public Object[] bind(Map<String, Object> arguments) {
+        return names.length == 0 ? NO_ARGS : bindTo(new Object[names.length], arguments);
+    }
+
+    /**
+     * 绑定参数到当前线程复用的数组中，调用结束后必须通过{@link #release(Object[])}归还
+     */
+    public Object[] bindReusable(Map<String, Object> arguments) {
+        if (names.length == 0) {
+            return NO_ARGS;
+        }
+        Object[] args = reusableArgs.get();
+        if (args == null) {
+            args = new Object[names.length];
+        } else {
+            reusableArgs.set(null);
+        }
+        try {
+            return bindTo(args, arguments);
+        } catch (RuntimeException e) {
+            release(args);
+            throw e;
+        }
+    }
+
+    public void release(Object[] args) {
+        if (args.length == 0) {
+            return;
+        }
+        // 清空引用以免线程长期持有请求参数
+        Arrays.fill(args, null);
+        reusableArgs.set(args);
+    }
+
+    private Object[] bindTo(Object[] args, Map<String, Object> arguments) {
+        for (int i = 0; i < names.length; i++) {
+            if (i == progressIndex) {
+                args[i] = ToolProgress.current();
+                continue;
+            }
+            Object value = arguments == null ? null : arguments.get(names[i]);
+            if (value == null) {
+                if (required[i] && (arguments == null || !arguments.containsKey(names[i]))) {
+                    throw new IllegalArgumentException("Missing required argument: " + names[i]);
+                }
+                args[i] = defaults[i];
+            } else {
+                args[i] = convert(i, value);
+            }
+        }
+        return args;
+    }
+
+    private Object convert(int index, Object value) {
+        if (types[index] != null && types[index].isInstance(value)) {
+            return value;
+        }
+        try {
+            return readers[index].readValue((JsonNode) OBJECT_MAPPER.valueToTree(value));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid argument '" + names[index] + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static Class<?> boxed(Class<?> primitiveType) {
+        return Array.get(Array.newInstance(primitiveType, 1), 0).getClass();
+    }
+}
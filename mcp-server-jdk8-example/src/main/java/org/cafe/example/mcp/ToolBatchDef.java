@@ -0,0 +1,29 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cafe.example.mcp.annotation.ToolBatch;
+
+/**
+ * 批量tool定义：来自{@code tool-list.json}中的"batch"节点或{@link ToolBatch}注解，属性为空时使用默认值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ToolBatchDef {
+
+    Integer maxSize;
+    Long maxDelayMillis;
+
+    public static ToolBatchDef from(ToolBatch annotation) {
+        if (annotation == null) {
+            return null;
+        }
+        return new ToolBatchDef(annotation.maxSize(), annotation.maxDelayMillis());
+    }
+}
@@ -0,0 +1,131 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 批量tool的调用收集器：将同一tool的并发调用（不区分会话）收集至最多maxSize个或等待maxDelayMillis后，
+ * 在隔离舱中执行一次批量调用，再将结果分发给各个调用方
+ */
+@Slf4j
+public class ToolBatcher {
+
+    private static final int DEFAULT_MAX_SIZE = 32;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+    /**
+     * 所有批量tool共享的定时器，只负责触发flush，批量调用本身在隔离舱中执行
+     */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "mcp-tool-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ToolInvoker invoker;
+    private final ToolBulkhead bulkhead;
+
+    @Getter
+    private final int maxSize;
+    @Getter
+    private final long maxDelayMillis;
+
+    /**
+     * 当前批次，所有访问都在this上同步
+     */
+    private List<PendingCall> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+
+    public ToolBatcher(ToolInvoker invoker, ToolBulkhead bulkhead, ToolBatchDef batchDef) {
+        this.invoker = invoker;
+        this.bulkhead = bulkhead;
+        this.maxSize = batchDef.getMaxSize() == null || batchDef.getMaxSize() <= 0 ? DEFAULT_MAX_SIZE : batchDef.getMaxSize();
+        this.maxDelayMillis = batchDef.getMaxDelayMillis() == null || batchDef.getMaxDelayMillis() < 0
+                ? DEFAULT_MAX_DELAY_MILLIS : batchDef.getMaxDelayMillis();
+    }
+
+    /**
+     * 加入当前批次，参数绑定失败时只影响本次调用
+     *
+     * @return 本次调用对应的结果
+     */
+    public Mono<Object> submit(Map<String, Object> arguments) {
+        return Mono.defer(() -> {
+            PendingCall call = new PendingCall(invoker.getArgumentBinder().bind(arguments));
+            enqueue(call);
+            // 调用方取消时不影响同批次的其他调用
+            return Mono.fromFuture(call.result.thenApply(Function.identity()));
+        });
+    }
+
+    private void enqueue(PendingCall call) {
+        List<PendingCall> batch = null;
+        synchronized (this) {
+            pending.add(call);
+            if (pending.size() >= maxSize || maxDelayMillis == 0) {
+                batch = takePending();
+            } else if (pending.size() == 1) {
+                flushTask = TIMER.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            execute(batch);
+        }
+    }
+
+    private void flush() {
+        List<PendingCall> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        execute(batch);
+    }
+
+    private List<PendingCall> takePending() {
+        List<PendingCall> batch = pending;
+        pending = new ArrayList<>();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+
+    private void execute(List<PendingCall> batch) {
+        List<Object[]> calls = new ArrayList<>(batch.size());
+        batch.forEach(call -> calls.add(call.args));
+        // 请求路径上的日志：关闭DEBUG时不装箱参数
+        if (log.isDebugEnabled()) {
+            log.debug("Tool '{}' executing batch of {} calls", invoker.getName(), batch.size());
+        }
+        bulkhead.submit(() -> invoker.invokeBatch(calls)).subscribe(results -> {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        }, e -> batch.forEach(call -> call.result.completeExceptionally(e)));
+    }
+
+    private static class PendingCall {
+
+        final Object[] args;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        PendingCall(Object[] args) {
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.cafe.example.mcp;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * tool目标类实例的提供者，根据{@link BeanScope}决定实例的获取与归还方式
+ */
+public interface ToolBeanFactory {
+
+    /**
+     * 获取用于本次调用的实例
+     */
+    Object acquire() throws ReflectiveOperationException;
+
+    /**
+     * 本次调用完成后归还实例
+     */
+    void release(Object bean);
+
+    static ToolBeanFactory singleton(Object bean) {
+        return new ToolBeanFactory() {
+            @Override
+            public Object acquire() {
+                return bean;
+            }
+
+            @Override
+            public void release(Object bean) {
+                // 共享实例无需归还
+            }
+        };
+    }
+
+    static ToolBeanFactory prototype(Class<?> beanClass) {
+        return new ToolBeanFactory() {
+            @Override
+            public Object acquire() throws ReflectiveOperationException {
+                return beanClass.getDeclaredConstructor().newInstance();
+            }
+
+            @Override
+            public void release(Object bean) {
+                // 每次调用的实例用完即丢弃
+            }
+        };
+    }
+
+    static ToolBeanFactory pooled(Class<?> beanClass, int poolSize) throws ReflectiveOperationException {
+        BlockingQueue<Object> pool = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool.offer(beanClass.getDeclaredConstructor().newInstance());
+        }
+        return new ToolBeanFactory() {
+            @Override
+            public Object acquire() throws ReflectiveOperationException {
+                // 池中实例耗尽时临时创建新实例、不阻塞调用方；归还时池已满则直接丢弃
+                Object bean = pool.poll();
+                return bean != null ? bean : beanClass.getDeclaredConstructor().newInstance();
+            }
+
+            @Override
+            public void release(Object bean) {
+                pool.offer(bean);
+            }
+        };
+    }
+}
@@ -0,0 +1,278 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * tool隔离舱：限制并发数的有界队列，队列已满时快速失败而不是无限排队，避免慢tool拖垮其他tool。
+ * 默认使用独立的线程池执行；也可以运行在共享的工作线程池上（见{@link McpServerHost}），此时仍由隔离舱自身限制并发数与队列
+ */
+public class ToolBulkhead implements ToolBulkheadMXBean {
+
+    public static final String REJECTION_ABORT = "abort";
+    public static final String REJECTION_CALLER_RUNS = "callerRuns";
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int maxThreads;
+    @Getter
+    private final int maxQueue;
+
+    /**
+     * 单次调用超时时间（含排队时间），null表示不超时
+     */
+    @Getter
+    private final Duration timeout;
+    @Getter
+    private final boolean callerRuns;
+
+    /**
+     * 执行任务的线程池，ownWorkers非null时为隔离舱独占
+     */
+    private final Executor workers;
+    private final ExecutorService ownWorkers;
+
+    private final Queue<FutureTask<?>> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已接受但尚未完成的调用数（排队中+执行中）
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 正在线程池中从队列取任务执行的runner数，不超过maxThreads
+     */
+    private final AtomicInteger runners = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    public ToolBulkhead(String name, int maxThreads, int maxQueue, long timeoutMillis, String rejection) {
+        this(name, maxThreads, maxQueue, timeoutMillis, rejection, null);
+    }
+
+    /**
+     * @param sharedWorkers 共享的工作线程池，为null时创建独占的线程池
+     */
+    public ToolBulkhead(String name, int maxThreads, int maxQueue, long timeoutMillis, String rejection, Executor sharedWorkers) {
+        if (!REJECTION_ABORT.equalsIgnoreCase(rejection) && !REJECTION_CALLER_RUNS.equalsIgnoreCase(rejection)) {
+            throw new IllegalArgumentException("Unknown bulkhead rejection policy: " + rejection);
+        }
+        this.name = name;
+        this.maxThreads = maxThreads;
+        this.maxQueue = maxQueue;
+        this.timeout = timeoutMillis > 0 ? Duration.ofMillis(timeoutMillis) : null;
+        this.callerRuns = REJECTION_CALLER_RUNS.equalsIgnoreCase(rejection);
+        if (sharedWorkers == null) {
+            // runner数不超过maxThreads，线程池本身无需再限制队列
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new BulkheadThreadFactory(name));
+            executor.allowCoreThreadTimeOut(true);
+            this.ownWorkers = executor;
+            this.workers = executor;
+        } else {
+            this.ownWorkers = null;
+            this.workers = sharedWorkers;
+        }
+    }
+
+    /**
+     * 在隔离舱中执行，订阅取消时排队中的任务出队、执行中的任务被中断
+     *
+     * @throws BulkheadFullException 隔离舱已满且拒绝策略为abort时以error信号返回
+     * @throws TimeoutException      超过超时时间时以error信号返回
+     */
+    public <T> Mono<T> submit(Callable<T> task) {
+        Mono<T> result = Mono.create(sink -> {
+            FutureTask<?> future = new FutureTask<>(() -> {
+                try {
+                    sink.success(task.call());
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            }, null);
+            try {
+                execute(future);
+            } catch (RejectedExecutionException e) {
+                rejectedCount.incrementAndGet();
+                if (callerRuns) {
+                    runOnCaller(task, sink);
+                } else {
+                    sink.error(new BulkheadFullException(name));
+                }
+                return;
+            }
+            sink.onCancel(() -> {
+                // 排队中的任务直接出队并释放名额，执行中的任务中断执行线程
+                if (queue.remove(future)) {
+                    inFlight.decrementAndGet();
+                    future.cancel(false);
+                } else {
+                    future.cancel(true);
+                }
+            });
+        });
+        if (timeout == null) {
+            return result;
+        }
+        return result.timeout(timeout).doOnError(TimeoutException.class, e -> timeoutCount.incrementAndGet());
+    }
+
+    /**
+     * callerRuns：隔离舱已满时在订阅方线程（Servlet传输下即处理该HTTP请求的线程）上执行，以此减缓该连接的请求速度；
+     * Reactor的非阻塞线程不能被阻塞，此时仍快速失败。超时后中断调用方线程
+     */
+    private <T> void runOnCaller(Callable<T> task, MonoSink<T> sink) {
+        if (Schedulers.isInNonBlockingThread()) {
+            sink.error(new BulkheadFullException(name));
+            return;
+        }
+        Thread caller = Thread.currentThread();
+        Disposable interrupter = timeout == null ? null
+                : Schedulers.parallel().schedule(caller::interrupt, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        activeCount.incrementAndGet();
+        try {
+            sink.success(task.call());
+        } catch (Throwable t) {
+            sink.error(t);
+        } finally {
+            if (interrupter != null) {
+                interrupter.dispose();
+                // 不把中断状态带回调用方线程
+                Thread.interrupted();
+            }
+            activeCount.decrementAndGet();
+            completedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 排队中与执行中的调用数之和超过maxThreads+maxQueue时拒绝；不超过maxThreads个runner在线程池中依次取出队列中的任务执行
+     */
+    private void execute(FutureTask<?> task) {
+        if (inFlight.incrementAndGet() > maxThreads + maxQueue) {
+            inFlight.decrementAndGet();
+            throw new RejectedExecutionException();
+        }
+        queue.offer(task);
+        startRunner();
+    }
+
+    private void startRunner() {
+        while (!queue.isEmpty()) {
+            int current = runners.get();
+            if (current >= maxThreads) {
+                return;
+            }
+            if (runners.compareAndSet(current, current + 1)) {
+                try {
+                    workers.execute(this::runQueue);
+                } catch (RejectedExecutionException e) {
+                    // 线程池已关闭：丢弃排队中的任务
+                    runners.decrementAndGet();
+                    FutureTask<?> task;
+                    while ((task = queue.poll()) != null) {
+                        task.cancel(false);
+                        inFlight.decrementAndGet();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void runQueue() {
+        try {
+            FutureTask<?> task;
+            while ((task = queue.poll()) != null) {
+                activeCount.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    // 超时或取消时cancel(true)中断的是当前线程，清除中断状态，避免影响同一线程上的下一个任务
+                    Thread.interrupted();
+                    activeCount.decrementAndGet();
+                    completedCount.incrementAndGet();
+                    inFlight.decrementAndGet();
+                }
+            }
+        } finally {
+            runners.decrementAndGet();
+            // 退出前入队的任务可能未能启动新的runner
+            startRunner();
+        }
+    }
+
+    public void shutdown() {
+        if (ownWorkers != null) {
+            ownWorkers.shutdownNow();
+        }
+        FutureTask<?> task;
+        while ((task = queue.poll()) != null) {
+            task.cancel(true);
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * 隔离舱已满
+     */
+    public static class BulkheadFullException extends RejectedExecutionException {
+
+        public BulkheadFullException(String bulkheadName) {
+            super("Bulkhead '" + bulkheadName + "' is full");
+        }
+    }
+
+    private static class BulkheadThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        BulkheadThreadFactory(String bulkheadName) {
+            this.namePrefix = "mcp-tool-" + bulkheadName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
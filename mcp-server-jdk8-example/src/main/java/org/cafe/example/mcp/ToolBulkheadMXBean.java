@@ -0,0 +1,35 @@
+package org.cafe.example.mcp;
+
+/**
+ * tool隔离舱JMX指标，ObjectName为{@code org.cafe.example.mcp:type=ToolBulkhead,name=隔离舱名称}
+ */
+public interface ToolBulkheadMXBean {
+
+    String getName();
+
+    int getMaxThreads();
+
+    int getMaxQueue();
+
+    /**
+     * 当前排队中的调用数
+     */
+    int getQueueDepth();
+
+    /**
+     * 当前执行中的调用数
+     */
+    int getActiveCount();
+
+    long getCompletedCount();
+
+    /**
+     * 因队列已满被拒绝的调用数
+     */
+    long getRejectedCount();
+
+    /**
+     * 超时的调用数
+     */
+    long getTimeoutCount();
+}
@@ -0,0 +1,106 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cafe.example.mcp.util.JmxUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * tool隔离舱注册表：按名称共享隔离舱，并将其指标注册到JMX（指定了scope时JMX名称为{@code scope/隔离舱名称}）
+ */
+@Slf4j
+public class ToolBulkheadRegistry {
+
+    public static final String DEFAULT_BULKHEAD_NAME = "default";
+
+    private static final int DEFAULT_MAX_THREADS = 10 * Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_MAX_QUEUE = 10000;
+    private static final String JMX_TYPE = "ToolBulkhead";
+
+    private final Map<String, ToolBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 未指定隔离舱的blocking类型tool共用的默认隔离舱
+     */
+    @Getter
+    private final ToolBulkhead defaultBulkhead;
+
+    /**
+     * 各隔离舱共用的工作线程池，为null时每个隔离舱使用独占的线程池
+     */
+    private final Executor sharedWorkers;
+    private final String jmxScope;
+
+    public ToolBulkheadRegistry() {
+        this(null, null);
+    }
+
+    /**
+     * @param sharedWorkers 共享的工作线程池，为null时每个隔离舱使用独占的线程池
+     * @param jmxScope      JMX名称的前缀，同一JVM中有多个注册表时用于区分，可以为null
+     */
+    public ToolBulkheadRegistry(Executor sharedWorkers, String jmxScope) {
+        this.sharedWorkers = sharedWorkers;
+        this.jmxScope = jmxScope;
+        this.defaultBulkhead = define(new BulkheadDef(DEFAULT_BULKHEAD_NAME, DEFAULT_MAX_THREADS, DEFAULT_MAX_QUEUE,
+                0L, ToolBulkhead.REJECTION_ABORT));
+    }
+
+    /**
+     * 定义隔离舱，同名隔离舱已存在时沿用已有的定义；给出的属性与已有定义不同时抛出异常
+     *
+     * @throws IllegalArgumentException 与同名隔离舱的定义冲突，或拒绝策略无法识别
+     */
+    public ToolBulkhead define(BulkheadDef bulkheadDef) {
+        int maxThreads = bulkheadDef.getMaxThreads() == null ? DEFAULT_MAX_THREADS : bulkheadDef.getMaxThreads();
+        int maxQueue = bulkheadDef.getMaxQueue() == null ? DEFAULT_MAX_QUEUE : bulkheadDef.getMaxQueue();
+        long timeoutMillis = bulkheadDef.getTimeoutMillis() == null ? 0 : bulkheadDef.getTimeoutMillis();
+        String rejection = bulkheadDef.getRejection() == null ? ToolBulkhead.REJECTION_ABORT : bulkheadDef.getRejection();
+        ToolBulkhead bulkhead = bulkheads.computeIfAbsent(bulkheadDef.getName(), name -> {
+            ToolBulkhead created = new ToolBulkhead(name, maxThreads, maxQueue, timeoutMillis, rejection, sharedWorkers);
+            JmxUtils.register(created, JMX_TYPE, jmxName(name));
+            log.info("Defined tool bulkhead: {}", bulkheadDef);
+            return created;
+        });
+        if (!bulkheadDef.isReference() && (bulkhead.getMaxThreads() != maxThreads || bulkhead.getMaxQueue() != maxQueue
+                || (bulkhead.getTimeout() == null ? 0 : bulkhead.getTimeout().toMillis()) != Math.max(timeoutMillis, 0)
+                || bulkhead.isCallerRuns() != ToolBulkhead.REJECTION_CALLER_RUNS.equalsIgnoreCase(rejection))) {
+            throw new IllegalArgumentException("Conflicting definition of tool bulkhead '" + bulkheadDef.getName() + "': " + bulkheadDef);
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 根据tool的隔离舱定义获取隔离舱：为空时返回默认隔离舱、仅有名称时引用已定义的隔离舱（未定义则按默认值创建）
+     */
+    public ToolBulkhead resolve(BulkheadDef bulkheadDef) {
+        if (bulkheadDef == null || bulkheadDef.getName() == null || bulkheadDef.getName().isEmpty()) {
+            return defaultBulkhead;
+        }
+        if (bulkheadDef.isReference() && !bulkheads.containsKey(bulkheadDef.getName())) {
+            log.warn("Tool bulkhead '{}' is not defined, using default settings", bulkheadDef.getName());
+        }
+        return define(bulkheadDef);
+    }
+
+    public Collection<ToolBulkhead> allBulkheads() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    public void shutdown() {
+        bulkheads.values().forEach(bulkhead -> {
+            bulkhead.shutdown();
+            JmxUtils.unregister(JMX_TYPE, jmxName(bulkhead.getName()));
+        });
+        bulkheads.clear();
+    }
+
+    private String jmxName(String name) {
+        return jmxScope == null ? name : jmxScope + "/" + name;
+    }
+}
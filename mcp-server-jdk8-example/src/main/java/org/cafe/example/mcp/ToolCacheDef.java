@@ -0,0 +1,30 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cafe.example.mcp.annotation.ToolCache;
+
+/**
+ * tool结果缓存定义：来自{@code tool-list.json}中的"cache"节点或{@link ToolCache}注解，属性为空时使用默认值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ToolCacheDef {
+
+    Long ttlMillis;
+    Integer maxEntries;
+    Long maxWeight;
+
+    public static ToolCacheDef from(ToolCache annotation) {
+        if (annotation == null) {
+            return null;
+        }
+        return new ToolCacheDef(annotation.ttlMillis(), annotation.maxEntries(), annotation.maxWeight());
+    }
+}
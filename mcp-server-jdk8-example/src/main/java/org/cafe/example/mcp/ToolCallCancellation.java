@@ -0,0 +1,148 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 执行中的tools/call请求的取消：{@link ToolCallCancellationFilter}按会话和JSON-RPC请求id登记，
+ * 收到对应的notifications/cancelled或HTTP异步请求超时/出错时取消，tool调用链随之被取消（隔离舱中排队的调用出队，执行中的调用被中断）。
+ * <p>
+ * SDK调用tool处理器时不传递请求id，因此登记通过ThreadLocal传给处理器，切换到Reactor调度器时由调度钩子带到新线程
+ */
+public class ToolCallCancellation {
+
+    private static final Map<String, ToolCallCancellation> REGISTRY = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ToolCallCancellation> CURRENT = new ThreadLocal<>();
+
+    static {
+        Schedulers.onScheduleHook(ToolCallCancellation.class.getName(), ToolCallCancellation::propagate);
+    }
+
+    private final String key;
+    private final CompletableFuture<String> cancelled = new CompletableFuture<>();
+
+    @Getter
+    private final String requestId;
+
+    /**
+     * 请求中的{@code params._meta.progressToken}，没有时为null（见{@link ToolProgress}）
+     */
+    @Getter
+    private final Object progressToken;
+
+    private ToolCallCancellation(String key, String requestId, Object progressToken) {
+        this.key = key;
+        this.requestId = requestId;
+        this.progressToken = progressToken;
+    }
+
+    private static String key(String sessionId, String requestId) {
+        return sessionId + "/" + requestId;
+    }
+
+    /**
+     * @param sessionId 会话id，无会话时为null
+     */
+    public static ToolCallCancellation register(String sessionId, String requestId) {
+        return register(sessionId, requestId, null);
+    }
+
+    /**
+     * @param sessionId     会话id，无会话时为null
+     * @param progressToken 请求中的progressToken，没有时为null
+     */
+    public static ToolCallCancellation register(String sessionId, String requestId, Object progressToken) {
+        String key = key(sessionId, requestId);
+        ToolCallCancellation cancellation = new ToolCallCancellation(key, requestId, progressToken);
+        REGISTRY.put(key, cancellation);
+        return cancellation;
+    }
+
+    /**
+     * 取消会话中的请求，请求不存在或已结束时忽略
+     *
+     * @return 是否找到请求
+     */
+    public static boolean cancel(String sessionId, String requestId, String reason) {
+        ToolCallCancellation cancellation = REGISTRY.get(key(sessionId, requestId));
+        if (cancellation == null) {
+            return false;
+        }
+        cancellation.cancel(reason);
+        return true;
+    }
+
+    static int registeredCount() {
+        return REGISTRY.size();
+    }
+
+    public void unregister() {
+        REGISTRY.remove(key, this);
+    }
+
+    public void cancel(String reason) {
+        cancelled.complete(reason == null ? "cancelled by client" : reason);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.isDone();
+    }
+
+    /**
+     * 取消时停止订阅{@code mono}并返回{@code onCancelled}生成的结果
+     *
+     * @param onCancelled 参数为取消原因
+     */
+    public <T> Mono<T> bind(Mono<T> mono, Function<String, T> onCancelled) {
+        // 订阅副本：tool调用正常结束时取消的是副本，不影响登记的状态
+        return mono.takeUntilOther(Mono.fromFuture(cancelled.thenApply(Function.identity())))
+                .switchIfEmpty(Mono.defer(() -> isCancelled() ? Mono.just(onCancelled.apply(cancelled.join())) : Mono.empty()));
+    }
+
+    /**
+     * 当前线程正在处理的tools/call请求，没有时为null
+     */
+    public static ToolCallCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设置当前线程正在处理的请求
+     *
+     * @return 原来的请求，传给{@link #restore(ToolCallCancellation)}
+     */
+    static ToolCallCancellation attach(ToolCallCancellation cancellation) {
+        ToolCallCancellation previous = CURRENT.get();
+        CURRENT.set(cancellation);
+        return previous;
+    }
+
+    static void restore(ToolCallCancellation previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static Runnable propagate(Runnable task) {
+        ToolCallCancellation cancellation = CURRENT.get();
+        if (cancellation == null) {
+            return task;
+        }
+        return () -> {
+            ToolCallCancellation previous = attach(cancellation);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
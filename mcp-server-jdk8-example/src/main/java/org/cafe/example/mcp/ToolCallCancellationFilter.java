@@ -0,0 +1,280 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 关联tools/call请求与客户端的notifications/cancelled：SDK不支持注册notifications/cancelled处理器，
+ * tool处理器也拿不到JSON-RPC请求id，因此在MCP Servlet之前读取JSON POST请求的消息体：
+ * tools/call请求在处理期间登记到{@link ToolCallCancellation}（同时记录progressToken，见{@link ToolProgress}），notifications/cancelled取消同一会话中对应id的请求。
+ * 处理tools/call的HTTP异步请求超时或出错（客户端断开）时同样取消。
+ * <p>
+ * 缓存消息体不限制大小（与直接由MCP Servlet读取相同）；设置{@code -Dmcp.request.maxBodyBytes}后，超过该大小的消息体返回413，不再交给MCP Servlet
+ */
+@Slf4j
+public class ToolCallCancellationFilter implements Filter {
+
+    static final String METHOD_TOOLS_CALL = "tools/call";
+    static final String METHOD_CANCELLED = "notifications/cancelled";
+    static final String HEADER_SESSION_ID = "Mcp-Session-Id";
+    static final String PARAM_SESSION_ID = "sessionId";
+
+    /**
+     * 消息体的最大字节数，默认0表示不限制
+     */
+    public static final String PROPERTY_MAX_BODY_BYTES = "mcp.request.maxBodyBytes";
+    /**
+     * 按Content-Length预分配的缓冲区上限，更大的消息体随读取扩容
+     */
+    private static final int MAX_INITIAL_BUFFER = 64 * 1024;
+
+    private static final byte[] TOOLS_CALL_BYTES = METHOD_TOOLS_CALL.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CANCELLED_BYTES = METHOD_CANCELLED.getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int maxBodyBytes;
+
+    public ToolCallCancellationFilter() {
+        this(Integer.getInteger(PROPERTY_MAX_BODY_BYTES, 0));
+    }
+
+    /**
+     * @param maxBodyBytes 消息体的最大字节数，小于等于0表示不限制
+     */
+    ToolCallCancellationFilter(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        // JSON-RPC消息都是JSON POST，其他请求由MCP Servlet处理（拒绝）
+        if (!"POST".equals(request.getMethod()) || !isJson(request.getContentType())) {
+            chain.doFilter(req, resp);
+            return;
+        }
+        byte[] body = maxBodyBytes > 0 && request.getContentLengthLong() > maxBodyBytes ? null
+                : readBody(request.getInputStream(), request.getContentLengthLong(), maxBodyBytes);
+        if (body == null) {
+            log.debug("Rejected request body larger than {} bytes from {}", maxBodyBytes, request.getRemoteAddr());
+            ((HttpServletResponse) resp).sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        BufferedRequest buffered = new BufferedRequest(request, body);
+        String sessionId = sessionId(request);
+        ToolCallCancellation cancellation = handle(sessionId, buffered.body, buffered.charset);
+        if (cancellation == null) {
+            chain.doFilter(buffered, resp);
+            return;
+        }
+        ToolCallCancellation previous = ToolCallCancellation.attach(cancellation);
+        try {
+            chain.doFilter(buffered, resp);
+        } finally {
+            ToolCallCancellation.restore(previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CancellationListener(cancellation));
+            } else {
+                cancellation.unregister();
+            }
+        }
+    }
+
+    static boolean isJson(String contentType) {
+        return contentType != null && contentType.regionMatches(true, 0, "application/json", 0, "application/json".length());
+    }
+
+    /**
+     * 读取消息体，maxBodyBytes大于0且超过该大小时停止读取并返回null
+     *
+     * @param contentLength 请求的Content-Length，未知时为-1
+     */
+    static byte[] readBody(InputStream in, long contentLength, int maxBodyBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(Math.max(contentLength, 256), MAX_INITIAL_BUFFER));
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            if (maxBodyBytes > 0 && out.size() + n > maxBodyBytes) {
+                return null;
+            }
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    static String sessionId(HttpServletRequest request) {
+        String sessionId = request.getHeader(HEADER_SESSION_ID);
+        return sessionId != null ? sessionId : request.getParameter(PARAM_SESSION_ID);
+    }
+
+    /**
+     * 处理notifications/cancelled，并为单个tools/call请求登记
+     *
+     * @return tools/call请求的登记，其他消息返回null
+     */
+    ToolCallCancellation handle(String sessionId, byte[] body, Charset charset) {
+        // 方法名都是ASCII，在UTF-8字节中直接查找，只有可能相关的消息才解析一次
+        byte[] json = StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+                ? body : new String(body, charset).getBytes(StandardCharsets.UTF_8);
+        boolean toolsCall = indexOf(json, TOOLS_CALL_BYTES) >= 0;
+        boolean cancelled = indexOf(json, CANCELLED_BYTES) >= 0;
+        if (!toolsCall && !cancelled) {
+            return null;
+        }
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(json);
+        } catch (IOException e) {
+            // 由MCP Servlet返回解析错误
+            return null;
+        }
+        if (message == null) {
+            return null;
+        }
+        if (cancelled) {
+            // 批量消息中可能包含多个通知
+            if (message.isArray()) {
+                message.forEach(item -> cancel(sessionId, item));
+            } else {
+                cancel(sessionId, message);
+            }
+        }
+        if (toolsCall && METHOD_TOOLS_CALL.equals(message.path("method").asText()) && message.hasNonNull("id")) {
+            return ToolCallCancellation.register(sessionId, message.get("id").asText(), progressToken(message));
+        }
+        return null;
+    }
+
+    static int indexOf(byte[] bytes, byte[] target) {
+        for (int i = 0; i <= bytes.length - target.length; i++) {
+            int j = 0;
+            while (j < target.length && bytes[i + j] == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 进度通知中需原样返回progressToken（字符串或数字）
+     */
+    private static Object progressToken(JsonNode message) {
+        JsonNode token = message.path("params").path("_meta").path("progressToken");
+        if (token.isNumber()) {
+            return token.numberValue();
+        }
+        return token.isTextual() ? token.asText() : null;
+    }
+
+    private static void cancel(String sessionId, JsonNode message) {
+        if (!METHOD_CANCELLED.equals(message.path("method").asText())) {
+            return;
+        }
+        JsonNode params = message.path("params");
+        String requestId = params.path("requestId").asText();
+        String reason = params.hasNonNull("reason") ? params.get("reason").asText() : null;
+        if (ToolCallCancellation.cancel(sessionId, requestId, reason)) {
+            log.debug("Cancelled tool call {} of session {}: {}", requestId, sessionId, reason);
+        }
+    }
+
+    private static class CancellationListener implements AsyncListener {
+
+        private final ToolCallCancellation cancellation;
+
+        CancellationListener(ToolCallCancellation cancellation) {
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            cancellation.unregister();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            cancellation.cancel("async request timed out");
+            cancellation.unregister();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            cancellation.cancel("client disconnected");
+            cancellation.unregister();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * 已读取消息体的请求，MCP Servlet可以再次读取
+     */
+    private static class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final Charset charset;
+
+        BufferedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            String encoding = request.getCharacterEncoding();
+            this.charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // 消息体已全部在内存中：立即通知可读，读完后通知结束
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+        }
+    }
+}
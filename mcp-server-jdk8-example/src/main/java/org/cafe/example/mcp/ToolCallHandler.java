@@ -0,0 +1,288 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+
+/**
+ * tools/call处理器：根据{@link ToolExecutionMode}选择执行方式，并将tool方法返回值转换为{@link McpSchema.CallToolResult}
+ */
+@Slf4j
+@Getter
+public class ToolCallHandler {
+
+    private final McpSchema.Tool tool;
+    private final ToolInvoker invoker;
+    private final ToolExecutionMode mode;
+
+    /**
+     * {@link ToolExecutionMode#BLOCKING}时使用的隔离舱
+     */
+    private final ToolBulkhead bulkhead;
+
+    /**
+     * 结果缓存，未声明缓存的tool为null
+     */
+    private final ToolResultCache cache;
+
+    /**
+     * 批量tool的调用收集器，非批量tool为null
+     */
+    private final ToolBatcher batcher;
+
+    /**
+     * 单次调用超时时间，null表示不超时
+     */
+    private final Duration timeout;
+
+    public ToolCallHandler(McpSchema.Tool tool, ToolInvoker invoker, ToolExecutionDef executionDef, ToolBulkhead bulkhead,
+                           ToolResultCache cache, ToolBatchDef batchDef) {
+        this.tool = tool;
+        this.invoker = invoker;
+        this.mode = ToolExecutionMode.resolve(invoker.getMethod(), executionDef == null ? null : executionDef.getMode());
+        checkProgressParameter(tool.getName(), invoker.getMethod(), mode);
+        this.bulkhead = bulkhead;
+        this.cache = cache;
+        this.batcher = batchDef == null ? null : new ToolBatcher(invoker, bulkhead, batchDef);
+        Long timeoutMillis = executionDef == null ? null : executionDef.getTimeoutMillis();
+        this.timeout = timeoutMillis != null && timeoutMillis > 0 ? Duration.ofMillis(timeoutMillis) : null;
+        if (timeout != null && mode == ToolExecutionMode.IMMEDIATE && batcher == null) {
+            log.warn("Timeout of immediate tool '{}' is ignored", tool.getName());
+        }
+    }
+
+    /**
+     * immediate类型在调用方线程（可能是非阻塞线程）上执行，不能声明等待通知发送完成的{@link ToolProgress}参数
+     *
+     * @throws IllegalArgumentException immediate类型的tool方法声明了{@link ToolProgress}参数
+     */
+    static void checkProgressParameter(String toolName, Method method, ToolExecutionMode mode) {
+        if (mode == ToolExecutionMode.IMMEDIATE && declaresProgress(method)) {
+            throw new IllegalArgumentException(String.format("Immediate tool '%s' cannot declare a ToolProgress parameter", toolName));
+        }
+    }
+
+    static boolean declaresProgress(Method method) {
+        return Arrays.asList(method.getParameterTypes()).contains(ToolProgress.class);
+    }
+
+    /**
+     * 异步Server使用
+     *
+     * @param progress 进度报告，传给tool方法的{@link ToolProgress}参数，并用于发送分块结果
+     */
+    public Mono<McpSchema.CallToolResult> call(Map<String, Object> arguments, ToolProgress progress) {
+        // 被采样的调用从Reactor Context中取得父span（见McpTracing）
+        Mono<McpSchema.CallToolResult> result = Mono.deferContextual(context -> {
+            Span parent = McpTracing.span(context);
+            if (cache == null) {
+                return execute(arguments, parent, progress);
+            }
+            // 超时作用于共享的调用；取消时只取消当前调用方的等待，全部调用方取消后才取消共享的调用
+            return Mono.fromFuture(() -> cache.get(arguments, () -> execute(arguments, parent, progress).toFuture()));
+        });
+        // 客户端取消请求时取消调用链：排队中的调用出队，执行中的调用被中断
+        ToolCallCancellation cancellation = ToolCallCancellation.current();
+        if (cancellation == null) {
+            return result;
+        }
+        return cancellation.bind(result, reason -> error(String.format("Tool '%s' cancelled: %s", tool.getName(), reason)));
+    }
+
+    /**
+     * 同步Server使用：未使用缓存的immediate类型直接调用，其他类型仍需经过缓存、批量收集器、隔离舱
+     */
+    public McpSchema.CallToolResult callSync(Map<String, Object> arguments, ToolProgress progress) {
+        if (mode != ToolExecutionMode.IMMEDIATE || cache != null || batcher != null) {
+            return McpTracing.withCurrentSpan(call(arguments, progress)).block();
+        }
+        try {
+            return complete(invoke(McpTracing.current(), arguments, progress), progress);
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    private Mono<McpSchema.CallToolResult> execute(Map<String, Object> arguments, Span parent, ToolProgress progress) {
+        if (batcher != null) {
+            return withTimeout(batcher.submit(arguments).map(ToolCallHandler::success)).onErrorResume(e -> Mono.just(error(e)));
+        }
+        Mono<McpSchema.CallToolResult> result;
+        switch (mode) {
+            case ASYNC:
+                result = Mono.defer(() -> invokeAsync(arguments, parent, progress));
+                break;
+            case IMMEDIATE:
+                result = Mono.fromCallable(() -> complete(invoke(parent, arguments, progress), progress));
+                break;
+            default:
+                if (parent == null) {
+                    result = bulkhead.submit(() -> complete(invoke(null, arguments, progress), progress));
+                } else {
+                    Span queued = parent.child(McpTracing.SPAN_BULKHEAD_QUEUE).setAttribute("bulkhead", bulkhead.getName());
+                    result = bulkhead.submit(() -> {
+                        queued.end();
+                        return complete(invoke(parent, arguments, progress), progress);
+                    }).doFinally(signal -> queued.end());
+                }
+                break;
+        }
+        return withTimeout(result).onErrorResume(e -> Mono.just(error(e)));
+    }
+
+    /**
+     * 超时后取消上游，隔离舱中执行的调用被中断，返回Mono/CompletionStage的调用被取消
+     */
+    private <T> Mono<T> withTimeout(Mono<T> result) {
+        return timeout == null || mode == ToolExecutionMode.IMMEDIATE && batcher == null ? result : result.timeout(timeout);
+    }
+
+    /**
+     * 调用tool方法，tool方法的{@link ToolProgress}参数通过当前线程绑定
+     */
+    private Object invoke(Span parent, Map<String, Object> arguments, ToolProgress progress) throws Exception {
+        if (!progress.isEnabled()) {
+            return invoke(parent, arguments);
+        }
+        ToolProgress previous = ToolProgress.attach(progress);
+        try {
+            return invoke(parent, arguments);
+        } finally {
+            ToolProgress.restore(previous);
+        }
+    }
+
+    /**
+     * 调用tool方法，被采样时记录span
+     */
+    private Object invoke(Span parent, Map<String, Object> arguments) throws Exception {
+        if (parent == null) {
+            return invoker.call(arguments);
+        }
+        Span span = parent.child(McpTracing.SPAN_TOOL_INVOKE).setAttribute("thread.name", Thread.currentThread().getName());
+        try {
+            return invoker.call(arguments);
+        } catch (Exception e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private Mono<McpSchema.CallToolResult> invokeAsync(Map<String, Object> arguments, Span parent, ToolProgress progress) {
+        Object callResult;
+        try {
+            callResult = invoke(parent, arguments, progress);
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+        if (callResult instanceof Mono) {
+            return ((Mono<?>) callResult).map(ToolCallHandler::success)
+                    .switchIfEmpty(Mono.fromSupplier(() -> success(null)));
+        }
+        if (callResult instanceof CompletionStage) {
+            return Mono.fromCompletionStage((CompletionStage<?>) callResult).map(ToolCallHandler::success)
+                    .switchIfEmpty(Mono.fromSupplier(() -> success(null)));
+        }
+        if (callResult instanceof Publisher) {
+            // 多个元素时每个元素对应一个TextContent，全部分块收集到一个结果中（见complete）
+            Flux<?> items = Flux.from((Publisher<?>) callResult);
+            Flux<McpSchema.Content> content = !progress.isEnabled()
+                    ? items.map(item -> new McpSchema.TextContent(String.valueOf(item)))
+                    // 每个分块的进度通知发送完成后才请求下一个分块（prefetch为0，不预取）
+                    : items.concatMap(item -> {
+                        String chunk = String.valueOf(item);
+                        return progress.send(ToolProgress.preview(chunk)).thenReturn(new McpSchema.TextContent(chunk));
+                    }, 0);
+            return content.collectList().map(list -> new McpSchema.CallToolResult(list, false));
+        }
+        return Mono.just(success(callResult));
+    }
+
+    /**
+     * 转换同步返回的结果：{@link Iterator}/{@link Stream}逐个读取分块，每个分块对应一个TextContent，
+     * 并在进度通知发送完成后才读取下一个分块；读取过程中被中断（超时或取消）时关闭Stream并停止读取。
+     * <p>
+     * tools/call只有一个响应，全部分块在响应发送前都保留在堆中，分块结果限制的是每个分块的生成方式，而不是结果的总大小；
+     * 结果可能很大的tool应自行限制分块数量，或返回资源链接
+     */
+    static McpSchema.CallToolResult complete(Object callResult, ToolProgress progress) throws InterruptedException {
+        Iterator<?> chunks;
+        if (callResult instanceof Iterator) {
+            chunks = (Iterator<?>) callResult;
+        } else if (callResult instanceof BaseStream) {
+            chunks = ((BaseStream<?, ?>) callResult).iterator();
+        } else {
+            return success(callResult);
+        }
+        try {
+            List<McpSchema.Content> content = new ArrayList<>();
+            while (chunks.hasNext()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                String chunk = String.valueOf(chunks.next());
+                if (progress.isEnabled()) {
+                    progress.report(ToolProgress.preview(chunk));
+                }
+                content.add(new McpSchema.TextContent(chunk));
+            }
+            return new McpSchema.CallToolResult(content, false);
+        } finally {
+            if (callResult instanceof BaseStream) {
+                ((BaseStream<?, ?>) callResult).close();
+            }
+        }
+    }
+
+    static McpSchema.CallToolResult success(Object callResult) {
+        if (callResult == null) {
+            return new McpSchema.CallToolResult(Collections.emptyList(), false);
+        }
+        // TODO mimeType
+        return new McpSchema.CallToolResult(Collections.singletonList(new McpSchema.TextContent(callResult.toString())), false);
+    }
+
+    McpSchema.CallToolResult error(Throwable e) {
+        String message = e.getMessage();
+        Duration fired = e instanceof TimeoutException ? firstTimeout() : null;
+        if (fired != null) {
+            message = String.format("Tool '%s' timed out after %dms", tool.getName(), fired.toMillis());
+        } else if (e instanceof ToolBulkhead.BulkheadFullException) {
+            message = String.format("Tool '%s' rejected: %s", tool.getName(), e.getMessage());
+        }
+        return error(message);
+    }
+
+    /**
+     * tool自身与隔离舱的超时时间中先到达的一个
+     */
+    private Duration firstTimeout() {
+        Duration bulkheadTimeout = bulkhead.getTimeout();
+        if (timeout == null || bulkheadTimeout != null && bulkheadTimeout.compareTo(timeout) < 0) {
+            return bulkheadTimeout;
+        }
+        return timeout;
+    }
+
+    static McpSchema.CallToolResult error(String message) {
+        return new McpSchema.CallToolResult(Collections.singletonList(new McpSchema.TextContent(message)), true);
+    }
+}
@@ -0,0 +1,15 @@
+package org.cafe.example.mcp;
+
+/**
+ * tool方法调度器：以统一的签名调用具体的tool方法，由{@link ToolDispatchers}在启动时为每个tool方法生成
+ */
+@FunctionalInterface
+public interface ToolDispatcher {
+
+    /**
+     * @param bean 目标实例（静态方法忽略）
+     * @param args 已按方法参数顺序绑定好的参数
+     * @return 方法返回值（void方法返回null）
+     */
+    Object dispatch(Object bean, Object[] args) throws Throwable;
+}
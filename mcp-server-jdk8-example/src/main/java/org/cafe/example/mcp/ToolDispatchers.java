@@ -0,0 +1,173 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ToolDispatcher}工厂：
+ * <ul>
+ * <li>{@link #generated(Method)} - 通过{@link LambdaMetafactory}生成直接调用目标方法的类，JIT可内联、无反射访问检查</li>
+ * <li>{@link #methodHandle(Method)} - 展开参数数组的{@link MethodHandle}</li>
+ * <li>{@link #reflective(Method)} - {@link Method#invoke}，仅作为基准对比使用</li>
+ * </ul>
+ */
+@Slf4j
+public final class ToolDispatchers {
+
+    /**
+     * 可生成调度类的最大参数个数，超出则使用{@link MethodHandle}
+     */
+    public static final int MAX_GENERATED_ARITY = 6;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Class<?>[] ARITY_INTERFACES = {
+            Arity0.class, Arity1.class, Arity2.class, Arity3.class, Arity4.class, Arity5.class, Arity6.class};
+
+    /**
+     * 按目标方法缓存的调度器（调度器不持有bean实例，可共享）：tool-list.json中指向同一方法的多个tool只生成一次调度类
+     */
+    private static final ClassValue<Map<Method, ToolDispatcher>> CREATED = new ClassValue<Map<Method, ToolDispatcher>>() {
+        @Override
+        protected Map<Method, ToolDispatcher> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ToolDispatchers() {
+    }
+
+    /**
+     * 优先生成调度类，不满足条件时（非public、静态、void返回值、参数过多）使用{@link MethodHandle}；同一方法只创建一次
+     */
+    public static ToolDispatcher create(Method method) throws IllegalAccessException {
+        Map<Method, ToolDispatcher> created = CREATED.get(method.getDeclaringClass());
+        ToolDispatcher dispatcher = created.get(method);
+        if (dispatcher == null) {
+            dispatcher = generated(method);
+            if (dispatcher == null) {
+                dispatcher = methodHandle(method);
+            }
+            ToolDispatcher existing = created.putIfAbsent(method, dispatcher);
+            if (existing != null) {
+                dispatcher = existing;
+            }
+        }
+        return dispatcher;
+    }
+
+    public static ToolDispatcher reflective(Method method) {
+        method.setAccessible(true);
+        return method::invoke;
+    }
+
+    public static ToolDispatcher methodHandle(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle target = LOOKUP.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        }
+        int parameterCount = method.getParameterCount();
+        MethodHandle handle = target.asType(MethodType.genericMethodType(parameterCount + 1))
+                .asSpreader(Object[].class, parameterCount);
+        return (bean, args) -> (Object) handle.invokeExact(bean, args);
+    }
+
+    /**
+     * @return 生成的调度器；方法不满足生成条件时返回null
+     */
+    public static ToolDispatcher generated(Method method) {
+        int arity = method.getParameterCount();
+        if (arity > MAX_GENERATED_ARITY || method.getReturnType() == void.class
+                || Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+                || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return null;
+        }
+        try {
+            Class<?> arityInterface = ARITY_INTERFACES[arity];
+            MethodHandle implMethod = LOOKUP.unreflect(method);
+            MethodType instantiatedType = implMethod.type().wrap();
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(arityInterface),
+                    MethodType.genericMethodType(arity + 1), implMethod, instantiatedType);
+            return adapt(arity, callSite.getTarget().invoke());
+        } catch (Throwable e) {
+            log.warn("Generate dispatcher for {} failed, fallback to MethodHandle: {}", method, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ToolDispatcher adapt(int arity, Object function) {
+        switch (arity) {
+            case 0: {
+                Arity0 fn = (Arity0) function;
+                return (bean, args) -> fn.apply(bean);
+            }
+            case 1: {
+                Arity1 fn = (Arity1) function;
+                return (bean, args) -> fn.apply(bean, args[0]);
+            }
+            case 2: {
+                Arity2 fn = (Arity2) function;
+                return (bean, args) -> fn.apply(bean, args[0], args[1]);
+            }
+            case 3: {
+                Arity3 fn = (Arity3) function;
+                return (bean, args) -> fn.apply(bean, args[0], args[1], args[2]);
+            }
+            case 4: {
+                Arity4 fn = (Arity4) function;
+                return (bean, args) -> fn.apply(bean, args[0], args[1], args[2], args[3]);
+            }
+            case 5: {
+                Arity5 fn = (Arity5) function;
+                return (bean, args) -> fn.apply(bean, args[0], args[1], args[2], args[3], args[4]);
+            }
+            case 6: {
+                Arity6 fn = (Arity6) function;
+                return (bean, args) -> fn.apply(bean, args[0], args[1], args[2], args[3], args[4], args[5]);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported arity: " + arity);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Arity0 {
+        Object apply(Object bean);
+    }
+
+    @FunctionalInterface
+    public interface Arity1 {
+        Object apply(Object bean, Object a0);
+    }
+
+    @FunctionalInterface
+    public interface Arity2 {
+        Object apply(Object bean, Object a0, Object a1);
+    }
+
+    @FunctionalInterface
+    public interface Arity3 {
+        Object apply(Object bean, Object a0, Object a1, Object a2);
+    }
+
+    @FunctionalInterface
+    public interface Arity4 {
+        Object apply(Object bean, Object a0, Object a1, Object a2, Object a3);
+    }
+
+    @FunctionalInterface
+    public interface Arity5 {
+        Object apply(Object bean, Object a0, Object a1, Object a2, Object a3, Object a4);
+    }
+
+    @FunctionalInterface
+    public interface Arity6 {
+        Object apply(Object bean, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5);
+    }
+}
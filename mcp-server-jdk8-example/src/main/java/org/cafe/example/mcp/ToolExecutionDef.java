@@ -0,0 +1,48 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cafe.example.mcp.annotation.ToolExecution;
+
+/**
+ * tool执行方式定义：来自{@code tool-list.json}中的"execution"节点或{@link ToolExecution}注解
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ToolExecutionDef {
+
+    /**
+     * blocking(default) or immediate，返回Mono/CompletableFuture/Publisher的方法将自动识别为异步执行
+     */
+    String mode;
+
+    /**
+     * blocking方式执行时使用的隔离舱，为空时使用默认隔离舱
+     */
+    BulkheadDef bulkhead;
+
+    /**
+     * 单次调用的超时时间（毫秒），为空或0时不限制
+     */
+    Long timeoutMillis;
+
+    public static ToolExecutionDef from(ToolExecution annotation) {
+        ToolExecutionDef executionDef = new ToolExecutionDef();
+        if (annotation != null) {
+            executionDef.setMode(annotation.mode());
+            if (!annotation.bulkhead().isEmpty()) {
+                executionDef.setBulkhead(new BulkheadDef(annotation.bulkhead()));
+            }
+            if (annotation.timeoutMillis() > 0) {
+                executionDef.setTimeoutMillis(annotation.timeoutMillis());
+            }
+        }
+        return executionDef;
+    }
+}
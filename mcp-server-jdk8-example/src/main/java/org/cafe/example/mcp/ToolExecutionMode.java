@@ -0,0 +1,58 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * tool方法的执行方式
+ */
+@Slf4j
+public enum ToolExecutionMode {
+
+    /**
+     * 方法返回{@link Mono}、{@link CompletionStage}或{@link Publisher}，直接接入响应式链路；根据返回值类型自动识别、无需声明
+     */
+    ASYNC,
+
+    /**
+     * 在调用方线程上同步执行，适用于无阻塞、耗时极短的tool
+     */
+    IMMEDIATE,
+
+    /**
+     * 在专用的有界线程池上执行，适用于可能阻塞的tool（默认）
+     */
+    BLOCKING;
+
+    /**
+     * 根据方法返回值类型及声明的执行方式确定最终的执行方式
+     *
+     * @param method tool方法
+     * @param mode   声明的执行方式（忽略大小写），为空或无法识别时使用{@link #BLOCKING}
+     */
+    public static ToolExecutionMode resolve(Method method, String mode) {
+        if (isAsync(method.getReturnType())) {
+            return ASYNC;
+        }
+        if (mode == null || mode.isEmpty()) {
+            return BLOCKING;
+        }
+        if (IMMEDIATE.name().equalsIgnoreCase(mode)) {
+            return IMMEDIATE;
+        }
+        if (BLOCKING.name().equalsIgnoreCase(mode)) {
+            return BLOCKING;
+        }
+        // 与无效的tool定义一样只记录日志，不影响其他tool的构建
+        log.warn("Unknown execution mode '{}' of {}, fallback to {}", mode, method, BLOCKING);
+        return BLOCKING;
+    }
+
+    private static boolean isAsync(Class<?> returnType) {
+        return Publisher.class.isAssignableFrom(returnType) || CompletionStage.class.isAssignableFrom(returnType);
+    }
+}
@@ -0,0 +1,107 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预先绑定好的tool调用器：启动时完成方法查找、参数绑定器与{@link ToolDispatcher}构建，调用时仅需获取实例并执行
+ */
+@Getter
+public class ToolInvoker {
+
+    private final String name;
+    private final Method method;
+    private final ToolBeanFactory beanFactory;
+    private final ToolArgumentBinder argumentBinder;
+    private final ToolDispatcher dispatcher;
+
+    /**
+     * 是否为批量tool方法：每个参数均为{@code List}、返回{@code List}，第i个元素对应第i次调用
+     */
+    private final boolean batch;
+
+    public ToolInvoker(String name, Method method, ToolBeanFactory beanFactory) throws IllegalAccessException {
+        this(name, method, beanFactory, false);
+    }
+
+    public ToolInvoker(String name, Method method, ToolBeanFactory beanFactory, boolean batch) throws IllegalAccessException {
+        if (batch) {
+            checkBatchMethod(method);
+        }
+        this.name = name;
+        this.method = method;
+        this.beanFactory = beanFactory;
+        this.argumentBinder = new ToolArgumentBinder(method, batch);
+        this.dispatcher = ToolDispatchers.create(method);
+        this.batch = batch;
+    }
+
+    /**
+     * 按参数名称绑定请求参数后调用，批量tool方法按只有1次调用的批次执行
+     *
+     * @param arguments tools/call请求中的arguments
+     */
+    public Object call(Map<String, Object> arguments) throws Exception {
+        if (batch) {
+            return invokeBatch(Collections.singletonList(argumentBinder.bind(arguments))).get(0);
+        }
+        Object[] args = argumentBinder.bindReusable(arguments);
+        try {
+            return invoke(args);
+        } finally {
+            argumentBinder.release(args);
+        }
+    }
+
+    /**
+     * 执行批量tool方法：将每次调用已绑定的参数按位置合并为List后一次调用
+     *
+     * @param calls 每次调用通过{@link ToolArgumentBinder#bind(Map)}绑定的参数
+     * @return 与calls一一对应的结果
+     */
+    public List<?> invokeBatch(List<Object[]> calls) throws Exception {
+        Object[] columns = new Object[argumentBinder.getParameterCount()];
+        for (int i = 0; i < columns.length; i++) {
+            List<Object> column = new ArrayList<>(calls.size());
+            for (Object[] call : calls) {
+                column.add(call[i]);
+            }
+            columns[i] = column;
+        }
+        List<?> results = (List<?>) invoke(columns);
+        if (results == null || results.size() != calls.size()) {
+            throw new IllegalStateException(String.format("Batch tool '%s' returned %d results for %d calls",
+                    name, results == null ? 0 : results.size(), calls.size()));
+        }
+        return results;
+    }
+
+    public Object invoke(Object... args) throws Exception {
+        Object bean = beanFactory.acquire();
+        try {
+            return dispatcher.dispatch(bean, args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        } finally {
+            beanFactory.release(bean);
+        }
+    }
+
+    private static void checkBatchMethod(Method method) {
+        boolean valid = List.class.isAssignableFrom(method.getReturnType());
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            valid &= parameterType.isAssignableFrom(List.class);
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("Batch tool method must take List parameters and return List: " + method);
+        }
+    }
+}
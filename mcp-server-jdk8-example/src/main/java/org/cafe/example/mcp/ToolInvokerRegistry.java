@@ -0,0 +1,91 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * tool调用器注册表：启动时将{@link McpToolDef}解析为{@link ToolInvoker}并缓存，避免每次调用时反射查找类、方法及创建实例
+ */
+@Slf4j
+public class ToolInvokerRegistry {
+
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private final Map<String, ToolInvoker> invokers = new ConcurrentHashMap<>();
+
+    /**
+     * singleton实例按类共享，同一个类的多个tool使用同一个实例
+     */
+    private final Map<Class<?>, Object> singletons = new ConcurrentHashMap<>();
+
+    /**
+     * 解析并注册tool调用器，同名tool将被覆盖
+     *
+     * @param toolDef tool定义
+     * @return 注册成功的调用器；目标类或方法不存在等情况返回null
+     */
+    public ToolInvoker register(McpToolDef toolDef) {
+        try {
+            Class<?> beanClass = Class.forName(toolDef.getTargetBeanClass());
+            Method method = findMethod(beanClass, toolDef.getTargetMethodName());
+            ToolBeanFactory beanFactory = createBeanFactory(beanClass, method, BeanScope.of(toolDef.getBeanScope()),
+                    toolDef.getBeanPoolSize() == null ? DEFAULT_POOL_SIZE : toolDef.getBeanPoolSize());
+            ToolInvoker invoker = new ToolInvoker(toolDef.getName(), method, beanFactory, toolDef.getBatch() != null);
+            invokers.put(toolDef.getName(), invoker);
+            return invoker;
+        } catch (Exception e) {
+            log.error("Register tool '{}' error: {}", toolDef.getName(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    public ToolInvoker getInvoker(String name) {
+        return invokers.get(name);
+    }
+
+    public void unregister(String name) {
+        invokers.remove(name);
+    }
+
+    public Collection<ToolInvoker> allInvokers() {
+        return Collections.unmodifiableCollection(invokers.values());
+    }
+
+    private ToolBeanFactory createBeanFactory(Class<?> beanClass, Method method, BeanScope scope, int poolSize)
+            throws ReflectiveOperationException {
+        if (Modifier.isStatic(method.getModifiers())) {
+            return ToolBeanFactory.singleton(null);
+        }
+        switch (scope) {
+            case PROTOTYPE:
+                return ToolBeanFactory.prototype(beanClass);
+            case POOLED:
+                return ToolBeanFactory.pooled(beanClass, poolSize);
+            default:
+                return ToolBeanFactory.singleton(singletons.computeIfAbsent(beanClass, ToolInvokerRegistry::newInstance));
+        }
+    }
+
+    private static Method findMethod(Class<?> beanClass, String methodName) throws NoSuchMethodException {
+        for (Method method : beanClass.getDeclaredMethods()) {
+            if (method.getName().equals(methodName)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(beanClass.getName() + "." + methodName);
+    }
+
+    private static Object newInstance(Class<?> beanClass) {
+        try {
+            return beanClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error creating instance of " + beanClass.getName(), e);
+        }
+    }
+}
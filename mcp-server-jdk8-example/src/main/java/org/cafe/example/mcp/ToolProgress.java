@@ -0,0 +1,292 @@
+package org.cafe.example.mcp;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * tool调用的进度报告：tool方法声明该类型的参数（不出现在inputSchema中）即可在执行过程中报告进度，
+ * 请求带有{@code params._meta.progressToken}时发送MCP {@code notifications/progress}通知，否则不做任何事。
+ * 返回{@code Iterator}/{@code Stream}/{@code Publisher}的tool每产生一个分块也通过该通知告知客户端（见{@link ToolCallHandler}），
+ * 完整的分块在最终结果中，通知中只有分块的预览。
+ * <p>
+ * {@link #report}等待通知发送完成，immediate类型的tool方法不能声明该类型的参数（见{@link ToolCallHandler}）。
+ * SDK 0.10没有发送进度通知的API，通知通过exchange持有的会话发送（{@code McpServerSession.sendNotification}），
+ * 对SDK私有字段的反射都在{@link SessionAccessor}中
+ */
+@Slf4j
+public class ToolProgress {
+
+    public static final String METHOD_PROGRESS = "notifications/progress";
+
+    /**
+     * 不报告进度
+     */
+    public static final ToolProgress NONE = new ToolProgress(null, null);
+
+    /**
+     * 进度通知中分块预览的最大长度
+     */
+    static final int MAX_CHUNK_PREVIEW = 200;
+
+    private static final ThreadLocal<ToolProgress> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 客户端请求中的progressToken（字符串或数字），为null时不报告进度
+     */
+    @Getter
+    private final Object progressToken;
+
+    /**
+     * 发送通知，参数为通知的params
+     */
+    private final Function<Map<String, Object>, Mono<Void>> sender;
+
+    /**
+     * 上次报告的进度，MCP要求进度值递增
+     */
+    private double progress;
+
+    ToolProgress(Object progressToken, Function<Map<String, Object>, Mono<Void>> sender) {
+        this.progressToken = progressToken;
+        this.sender = sender;
+    }
+
+    /**
+     * 为当前tools/call请求创建进度报告，请求中没有progressToken（或SDK不支持发送通知）时返回{@link #NONE}
+     *
+     * @param exchange tool处理器收到的{@code McpSyncServerExchange}或{@code McpAsyncServerExchange}
+     */
+    public static ToolProgress of(Object exchange) {
+        ToolCallCancellation request = ToolCallCancellation.current();
+        Object progressToken = request == null ? null : request.getProgressToken();
+        if (progressToken == null || exchange == null) {
+            return NONE;
+        }
+        Function<Map<String, Object>, Mono<Void>> sender = SessionAccessor.sender(exchange);
+        return sender == null ? NONE : new ToolProgress(progressToken, sender);
+    }
+
+    public boolean isEnabled() {
+        return progressToken != null;
+    }
+
+    /**
+     * 报告进度并等待通知发送完成，供同步执行的tool方法使用；在非阻塞线程上调用时只发送、不等待
+     *
+     * @param progress 当前进度，应大于上次报告的进度
+     * @param total    总量，未知时为null
+     * @param message  进度说明，可以为null
+     */
+    public void report(double progress, Double total, String message) {
+        if (isEnabled()) {
+            await(send(progress, total, message));
+        }
+    }
+
+    /**
+     * 报告一次进度（进度值加1）并等待通知发送完成
+     */
+    public void report(String message) {
+        if (isEnabled()) {
+            await(send(message));
+        }
+    }
+
+    /**
+     * 非阻塞线程（例如Reactor的parallel线程）上不能{@code block()}
+     */
+    private static void await(Mono<Void> notification) {
+        if (Schedulers.isInNonBlockingThread()) {
+            notification.subscribe();
+        } else {
+            notification.block();
+        }
+    }
+
+    /**
+     * 进度值加1的进度通知，未启用时返回empty
+     */
+    Mono<Void> send(String message) {
+        if (!isEnabled()) {
+            return Mono.empty();
+        }
+        double next;
+        synchronized (this) {
+            next = progress + 1;
+        }
+        return send(next, null, message);
+    }
+
+    private Mono<Void> send(double progress, Double total, String message) {
+        if (!isEnabled()) {
+            return Mono.empty();
+        }
+        synchronized (this) {
+            if (progress <= this.progress) {
+                return Mono.empty();
+            }
+            this.progress = progress;
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("progress", progress);
+        if (total != null) {
+            params.put("total", total);
+        }
+        if (message != null) {
+            params.put("message", message);
+        }
+        return sender.apply(params);
+    }
+
+    /**
+     * 分块在进度通知中的预览：完整内容已在最终结果中，通知中不再重复发送大的分块
+     */
+    static String preview(String chunk) {
+        if (chunk.length() <= MAX_CHUNK_PREVIEW) {
+            return chunk;
+        }
+        int end = Character.isHighSurrogate(chunk.charAt(MAX_CHUNK_PREVIEW - 1)) ? MAX_CHUNK_PREVIEW - 1 : MAX_CHUNK_PREVIEW;
+        return chunk.substring(0, end) + "…";
+    }
+
+    /**
+     * 当前线程正在执行的tool调用的进度报告，没有时为{@link #NONE}
+     */
+    public static ToolProgress current() {
+        ToolProgress progress = CURRENT.get();
+        return progress == null ? NONE : progress;
+    }
+
+    static ToolProgress attach(ToolProgress progress) {
+        ToolProgress previous = CURRENT.get();
+        CURRENT.set(progress);
+        return previous;
+    }
+
+    static void restore(ToolProgress previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 对SDK私有字段的反射访问：从exchange（同步exchange包装了异步exchange）中找到会话，通过其{@code sendNotification(String, Object)}发送通知。
+     * 字段与方法按类型缓存，每次调用只读取字段；SDK结构变化（字段不存在或不可访问）时只记录一次日志，之后不报告进度
+     */
+    private static final class SessionAccessor {
+
+        /**
+         * 按exchange类型缓存找到会话的字段：异步exchange为[session]，同步exchange为[exchange, session]，找不到时为null
+         */
+        private static final ClassValue<Field[]> SESSION_PATH = new ClassValue<Field[]>() {
+            @Override
+            protected Field[] computeValue(Class<?> type) {
+                Field session = findField(type, "session");
+                if (session != null) {
+                    return new Field[]{session};
+                }
+                Field asyncExchange = findField(type, "exchange");
+                Field asyncSession = asyncExchange == null ? null : findField(asyncExchange.getType(), "session");
+                return asyncSession == null ? null : new Field[]{asyncExchange, asyncSession};
+            }
+        };
+
+        /**
+         * 按会话类型缓存的{@code sendNotification(String, Object)}，没有时为null
+         */
+        private static final ClassValue<Method> SEND_NOTIFICATION = new ClassValue<Method>() {
+            @Override
+            protected Method computeValue(Class<?> type) {
+                try {
+                    return type.getMethod("sendNotification", String.class, Object.class);
+                } catch (NoSuchMethodException e) {
+                    return null;
+                }
+            }
+        };
+
+        private static final AtomicBoolean UNAVAILABLE_LOGGED = new AtomicBoolean();
+
+        /**
+         * @return 发送通知的函数，无法访问会话时返回null
+         */
+        static Function<Map<String, Object>, Mono<Void>> sender(Object exchange) {
+            Object mcpSession;
+            Method sendNotification;
+            try {
+                mcpSession = session(exchange);
+                sendNotification = mcpSession == null ? null : SEND_NOTIFICATION.get(mcpSession.getClass());
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                unavailable(exchange, e.toString());
+                return null;
+            }
+            if (sendNotification == null) {
+                unavailable(exchange, "no session with sendNotification(String, Object)");
+                return null;
+            }
+            // 发送失败（例如客户端已断开）不影响tool的执行
+            return params -> Mono.defer(() -> {
+                try {
+                    return Mono.from((Publisher<?>) sendNotification.invoke(mcpSession, METHOD_PROGRESS, params)).then();
+                } catch (ReflectiveOperationException e) {
+                    return Mono.error(e);
+                }
+            }).onErrorResume(e -> {
+                log.debug("Send progress notification error: {}", e.getMessage());
+                return Mono.empty();
+            });
+        }
+
+        private static Object session(Object exchange) throws IllegalAccessException {
+            Field[] path = SESSION_PATH.get(exchange.getClass());
+            if (path == null) {
+                return null;
+            }
+            Object target = exchange;
+            for (Field field : path) {
+                target = target == null ? null : field.get(target);
+            }
+            return target;
+        }
+
+        private static void unavailable(Object exchange, String reason) {
+            if (UNAVAILABLE_LOGGED.compareAndSet(false, true)) {
+                log.warn("Progress notifications are not supported by {}: {}", exchange.getClass().getName(), reason);
+            }
+        }
+
+        private static Field findField(Class<?> type, String name) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                Field field;
+                try {
+                    field = c.getDeclaredField(name);
+                } catch (NoSuchFieldException e) {
+                    // 继续查找父类
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    return field;
+                } catch (RuntimeException e) {
+                    // 例如模块化运行时不允许访问，结果按类型缓存，不再重复尝试
+                    log.debug("Access {} error: {}", field, e.getMessage());
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
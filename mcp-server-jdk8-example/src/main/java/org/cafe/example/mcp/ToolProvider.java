@@ -1,125 +1,401 @@
 package org.cafe.example.mcp;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.modelcontextprotocol.server.McpServerFeatures;
-import io.modelcontextprotocol.server.McpSyncServerExchange;
 import io.modelcontextprotocol.spec.McpSchema;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.cafe.example.mcp.annotation.Bulkhead;
 import org.cafe.example.mcp.annotation.McpServerEndpoint;
 import org.cafe.example.mcp.util.FileUtils;
+import org.cafe.example.mcp.util.JmxUtils;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 @Slf4j
 public class ToolProvider {
 
+    private static final String RESULT_CACHE_JMX_TYPE = "ToolResultCache";
+    private static final String TOOL_LIST_FILE = "tool/tool-list.json";
+    private static final String MSG_TOOL_REMOVED = "Tool '%s' has been removed";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final Object targetBean = new McpServerTool();
+    /**
+     * tool-list.json，为null时只提供{@code @Tool}方法
+     */
+    private final URL toolListFile;
+
+    /**
+     * 端点类及其提供的{@code @Tool}类的实例（见{@link McpServerEndpointProcessor#resolveToolClasses}）
+     */
+    private final List<Object> targetBeans = new ArrayList<>();
+
+    private final ToolInvokerRegistry invokerRegistry = new ToolInvokerRegistry();
+
+    /**
+     * {@link ToolExecutionMode#BLOCKING}类型tool使用的隔离舱，避免与Reactor全局boundedElastic共享、互相影响
+     */
+    private final ToolBulkheadRegistry bulkheadRegistry;
+
+    private final Map<String, ToolResultCache> resultCaches = new ConcurrentHashMap<>();
+
+    /**
+     * 当前的tool处理器：tools/call时按名称获取，热加载时原子替换
+     */
+    private final Map<String, ToolCallHandler> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次从tool-list.json加载的tool定义（按名称），用于热加载时比较差异
+     */
+    private Map<String, JsonNode> toolDefNodes = Collections.emptyMap();
+
+    /**
+     * 启动时构建的处理器，只构建一次；之后的变化由热加载更新到{@link #handlers}，tool列表见{@link #currentTools()}
+     */
+    private final Memoized<List<ToolCallHandler>> toolHandlers = new Memoized<>(this::buildToolHandlers);
 
     @Getter
     private final McpServerEndpoint endpoint;
 
+    /**
+     * JMX名称的前缀，为null时不加前缀
+     */
+    private final String jmxScope;
+
     public ToolProvider() {
-        this.endpoint = McpServerEndpointProcessor.resolveMcpServerEndpoint(targetBean.getClass().getName());
+        this(McpClassScanner.fromSystemProperties().scan());
+    }
+
+    public ToolProvider(McpClassScanner.ScanResult scanResult) {
+        this(scanResult, McpServerEndpointProcessor.selectEndpointClass(scanResult), null);
+    }
+
+    /**
+     * 指定端点类，用于同一JVM中运行多个MCP Server（见{@link McpServerHost}）
+     *
+     * @param sharedWorkers blocking类型tool共用的工作线程池（各隔离舱仍限制自身的并发数与队列），为null时隔离舱使用独占的线程池；
+     *                      不为null时隔离舱的JMX名称以端点名称为前缀
+     */
+    public ToolProvider(McpClassScanner.ScanResult scanResult, String endpointClass, Executor sharedWorkers) {
+        this(scanResult, endpointClass, resolveEndpoint(endpointClass), sharedWorkers);
+    }
+
+    private ToolProvider(McpClassScanner.ScanResult scanResult, String endpointClass, McpServerEndpoint endpoint, Executor sharedWorkers) {
+        this(scanResult, endpointClass, endpoint, sharedWorkers, resolveToolListFile(endpoint));
+    }
+
+    /**
+     * @param toolListFile tool-list.json，不使用端点上{@link McpServerEndpoint#toolList()}的配置
+     */
+    public ToolProvider(McpClassScanner.ScanResult scanResult, String endpointClass, Executor sharedWorkers, URL toolListFile) {
+        this(scanResult, endpointClass, resolveEndpoint(endpointClass), sharedWorkers, toolListFile);
+    }
+
+    private ToolProvider(McpClassScanner.ScanResult scanResult, String endpointClass, McpServerEndpoint endpoint,
+                         Executor sharedWorkers, URL toolListFile) {
+        this.toolListFile = toolListFile;
+        this.endpoint = endpoint;
+        this.jmxScope = sharedWorkers == null || endpoint == null ? null : endpoint.name();
+        this.bulkheadRegistry = new ToolBulkheadRegistry(sharedWorkers, jmxScope);
+        if (endpoint != null) {
+            for (String toolClass : McpServerEndpointProcessor.resolveToolClasses(endpointClass, scanResult)) {
+                Object targetBean = McpServerEndpointProcessor.createToolBean(toolClass);
+                if (targetBean != null) {
+                    targetBeans.add(targetBean);
+                }
+            }
+            for (Bulkhead bulkhead : endpoint.bulkheads()) {
+                bulkheadRegistry.define(BulkheadDef.from(bulkhead));
+            }
+        }
     }
 
-    public List<McpServerFeatures.AsyncToolSpecification> allAsyncTools() throws JsonProcessingException {
+    private static McpServerEndpoint resolveEndpoint(String endpointClass) {
+        return endpointClass == null ? null : McpServerEndpointProcessor.resolveMcpServerEndpoint(endpointClass);
+    }
+
+    /**
+     * 端点指定的tool-list.json，未指定时使用classpath中的{@value #TOOL_LIST_FILE}
+     */
+    private static URL resolveToolListFile(McpServerEndpoint endpoint) {
+        if (endpoint == null || endpoint.toolList().isEmpty()) {
+            return ToolProvider.class.getClassLoader().getResource(TOOL_LIST_FILE);
+        }
+        URL url = FileUtils.resolveLocation(endpoint.toolList());
+        if (url == null) {
+            log.error("Not found tool list {} of McpServer '{}'", endpoint.toolList(), endpoint.name());
+        }
+        return url;
+    }
+
+    /**
+     * JMX名称的前缀（在宿主中运行时为端点名称），同一MCP Server的prompt、resource等指标使用相同的前缀
+     */
+    String getJmxScope() {
+        return jmxScope;
+    }
+
+    /**
+     * tool-list.json的位置，用于检查宿主中的MCP Server是否共用了配置
+     */
+    URL getToolListFile() {
+        return toolListFile;
+    }
+
+    public void close() {
+        bulkheadRegistry.shutdown();
+        resultCaches.keySet().forEach(name -> JmxUtils.unregister(RESULT_CACHE_JMX_TYPE, jmxName(name)));
+        resultCaches.clear();
+    }
+
+    public List<McpServerFeatures.AsyncToolSpecification> allAsyncTools() throws IOException {
         List<McpServerFeatures.AsyncToolSpecification> asyncToolSpecifications = new ArrayList<>();
-        List<McpServerFeatures.SyncToolSpecification> syncToolSpecifications = allSyncTools();
-        syncToolSpecifications.forEach(syncToolSpecification -> {
-            McpServerFeatures.AsyncToolSpecification asyncToolSpecification =
-                    new McpServerFeatures.AsyncToolSpecification(syncToolSpecification.getTool(),
-                            (exchange, map) -> Mono
-                                    .fromCallable(() -> syncToolSpecification.getCall().apply(new McpSyncServerExchange(exchange), map))
-                                    .subscribeOn(Schedulers.boundedElastic()));
-            asyncToolSpecifications.add(asyncToolSpecification);
-        });
+        currentTools().forEach(tool -> asyncToolSpecifications.add(asyncSpecification(tool)));
         return asyncToolSpecifications;
     }
 
-    public List<McpServerFeatures.SyncToolSpecification> allSyncTools() throws JsonProcessingException {
+    public List<McpServerFeatures.SyncToolSpecification> allSyncTools() throws IOException {
         List<McpServerFeatures.SyncToolSpecification> toolSpecifications = new ArrayList<>();
+        currentTools().forEach(tool -> toolSpecifications.add(syncSpecification(tool)));
+        return toolSpecifications;
+    }
 
-        buildFromMcpToolDef(toolSpecifications);
+    /**
+     * 当前的tool定义（包含热加载的变化）：启动时的tool按原顺序在前（已删除的除外），热加载新增的按tool-list.json中的顺序在后
+     */
+    private List<McpSchema.Tool> currentTools() throws IOException {
+        List<McpSchema.Tool> tools = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (ToolCallHandler startup : toolHandlers.get()) {
+            String name = startup.getTool().getName();
+            names.add(name);
+            ToolCallHandler handler = handlers.get(name);
+            if (handler != null) {
+                tools.add(handler.getTool());
+            }
+        }
+        Set<String> added;
+        synchronized (this) {
+            added = new LinkedHashSet<>(toolDefNodes.keySet());
+        }
+        added.removeAll(names);
+        for (String name : added) {
+            ToolCallHandler handler = handlers.get(name);
+            if (handler != null) {
+                tools.add(handler.getTool());
+            }
+        }
+        return tools;
+    }
 
-        buildFromMcpToolInfo(toolSpecifications);
+    /**
+     * tool调用时才按名称获取当前的处理器，因此热加载替换处理器后无需重新注册
+     */
+    public McpServerFeatures.AsyncToolSpecification asyncSpecification(McpSchema.Tool tool) {
+        String name = tool.getName();
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, request) -> {
+            ToolCallHandler handler = handlers.get(name);
+            return handler == null ? Mono.just(ToolCallHandler.error(String.format(MSG_TOOL_REMOVED, name))) : handler.call(request, ToolProgress.of(exchange));
+        });
+    }
 
-        return toolSpecifications;
+    public McpServerFeatures.SyncToolSpecification syncSpecification(McpSchema.Tool tool) {
+        String name = tool.getName();
+        return new McpServerFeatures.SyncToolSpecification(tool, (exchange, request) -> {
+            ToolCallHandler handler = handlers.get(name);
+            return handler == null ? ToolCallHandler.error(String.format(MSG_TOOL_REMOVED, name)) : handler.callSync(request, ToolProgress.of(exchange));
+        });
+    }
+
+    /**
+     * tool的当前定义：热加载更新过定义的tool返回新的定义，用于tools/list（见{@link ListResultSnapshots#setCurrentDefinitions}）
+     */
+    public McpSchema.Tool currentTool(McpSchema.Tool tool) {
+        ToolCallHandler handler = handlers.get(tool.getName());
+        return handler == null ? tool : handler.getTool();
+    }
+
+    /**
+     * tool-list.json的文件路径，不在文件系统中（例如打包在jar中）时为null
+     */
+    public Path getToolListPath() {
+        return toolListFile == null || !"file".equals(toolListFile.getProtocol()) ? null
+                : Paths.get(FileUtils.resolveFilePath(toolListFile.getPath()));
+    }
+
+    /**
+     * 重新加载tool-list.json：只重建有变化的tool，并原子替换其处理器；定义有误的tool保留原有的处理器
+     *
+     * @return tool列表的变更，由调用方同步到MCP Server
+     */
+    public synchronized ListChanges<McpSchema.Tool> reloadToolDefs() throws JsonProcessingException {
+        Map<String, JsonNode> oldNodes = toolDefNodes;
+        Map<String, JsonNode> newNodes = readToolDefNodes();
+        ListChanges<McpSchema.Tool> changes = new ListChanges<>();
+
+        oldNodes.keySet().stream().filter(name -> !newNodes.containsKey(name)).forEach(name -> {
+            handlers.remove(name);
+            invokerRegistry.unregister(name);
+            removeResultCache(name);
+            changes.getRemoved().add(name);
+        });
+
+        Iterator<Map.Entry<String, JsonNode>> iterator = newNodes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = iterator.next();
+            JsonNode oldNode = oldNodes.get(entry.getKey());
+            if (entry.getValue().equals(oldNode)) {
+                continue;
+            }
+            ToolCallHandler handler = buildFromMcpToolDef(objectMapper.convertValue(entry.getValue(), McpToolDef.class));
+            if (handler == null) {
+                // 保留原有定义，下次变化时重试
+                if (oldNode == null) {
+                    iterator.remove();
+                } else {
+                    entry.setValue(oldNode);
+                }
+                continue;
+            }
+            handlers.put(entry.getKey(), handler);
+            if (oldNode == null) {
+                changes.getAdded().add(handler.getTool());
+            } else if (!sameTool(oldNode, entry.getValue())) {
+                changes.getUpdated().add(handler.getTool());
+            }
+            log.info("Reloaded tool '{}'", entry.getKey());
+        }
+
+        toolDefNodes = newNodes;
+        return changes;
     }
 
-    private void buildFromMcpToolDef(List<McpServerFeatures.SyncToolSpecification> toolSpecifications) throws JsonProcessingException {
-        URL toolListFile = ToolProvider.class.getClassLoader().getResource("tool/tool-list.json");
+    private List<ToolCallHandler> buildToolHandlers() throws JsonProcessingException {
+        List<ToolCallHandler> toolHandlers = new ArrayList<>();
+
+        Map<String, JsonNode> nodes = readToolDefNodes();
+        Iterator<JsonNode> iterator = nodes.values().iterator();
+        while (iterator.hasNext()) {
+            ToolCallHandler handler = buildFromMcpToolDef(objectMapper.convertValue(iterator.next(), McpToolDef.class));
+            if (handler == null) {
+                iterator.remove();
+            } else {
+                toolHandlers.add(handler);
+            }
+        }
+        synchronized (this) {
+            toolDefNodes = nodes;
+        }
+
+        buildFromMcpToolInfo(toolHandlers);
+
+        toolHandlers.forEach(handler -> {
+            handlers.put(handler.getTool().getName(), handler);
+            log.debug("Tool '{}' execution mode: {}", handler.getTool().getName(), handler.getMode());
+        });
+        return Collections.unmodifiableList(toolHandlers);
+    }
+
+    /**
+     * 读取tool-list.json，按名称保持文件中的顺序
+     */
+    private Map<String, JsonNode> readToolDefNodes() throws JsonProcessingException {
+        Map<String, JsonNode> nodes = new LinkedHashMap<>();
         if (toolListFile == null) {
-            log.info("Not found tool/tool-list.json");
-            return;
+            log.info("Not found {}", TOOL_LIST_FILE);
+            return nodes;
         }
 
         String toolListFilePath = toolListFile.getPath();
         String toolContent = FileUtils.readFile(toolListFilePath);
         if (toolContent.isEmpty()) {
             log.debug("Not found MCP tools on {}", toolListFilePath);
-            return;
-        }
-
-        List<McpToolDef> toolDefList = objectMapper.readValue(toolContent,
-                objectMapper.getTypeFactory().constructCollectionType(List.class, McpToolDef.class));
-        log.debug("Found MCP tools on {}: {}", toolListFilePath, toolDefList);
-
-        toolDefList.forEach(toolDef -> {
-            McpSchema.Tool tool = new McpSchema.Tool(toolDef.getName(), toolDef.getDescription(), toolDef.getInputSchema());
-            McpServerFeatures.SyncToolSpecification toolSpecification =
-                    new McpServerFeatures.SyncToolSpecification(tool, (exchange, request) -> {
-                        try {
-                            String callResult = callMethod(toolDef.getTargetBeanClass(), toolDef.getTargetMethodName(), request.values().toArray());
-                            // TODO mimeType
-                            return new McpSchema.CallToolResult(Collections.singletonList(new McpSchema.TextContent(callResult)), false);
-                        } catch (Exception e) {
-                            return new McpSchema.CallToolResult(Collections.singletonList(new McpSchema.TextContent(e.getMessage())), true);
-                        }
-                    });
-            toolSpecifications.add(toolSpecification);
-        });
+            return nodes;
+        }
+
+        JsonNode toolDefList = objectMapper.readTree(toolContent);
+        log.debug("Found {} MCP tools on {}", toolDefList.size(), toolListFilePath);
+        log.trace("MCP tools on {}: {}", toolListFilePath, toolDefList);
+        toolDefList.forEach(node -> nodes.put(node.path("name").asText(), node));
+        return nodes;
     }
 
-    private String callMethod(String targetBeanClass, String targetMethodName, Object... args)
-            throws InstantiationException, IllegalAccessException, InvocationTargetException, ClassNotFoundException {
-        // FIXME 每次调用时都创建实例似乎不妥，Spring环境下可通过容器获取实例、非Spring环境可考虑缓存等优化方式
-        Class<?> clazz = Class.forName(targetBeanClass);
-        Object bean = clazz.newInstance();
-        Method[] declaredMethods = clazz.getDeclaredMethods();
-        for (Method method : declaredMethods) {
-            if (method.getName().equals(targetMethodName)) {
-                return method.invoke(bean, args).toString();
+    private ToolCallHandler buildFromMcpToolDef(McpToolDef toolDef) {
+        ToolInvoker invoker = invokerRegistry.register(toolDef);
+        if (invoker == null) {
+            return null;
+        }
+        ToolExecutionDef execution = toolDef.getExecution();
+        Method method = invoker.getMethod();
+        if (ToolCallHandler.declaresProgress(method)) {
+            try {
+                // 在创建结果缓存之前校验，无效的定义不影响原有的缓存
+                ToolCallHandler.checkProgressParameter(toolDef.getName(), method,
+                        ToolExecutionMode.resolve(method, execution == null ? null : execution.getMode()));
+            } catch (IllegalArgumentException e) {
+                log.error("Register tool '{}' error: {}", toolDef.getName(), e.getMessage());
+                return null;
             }
         }
-        return null;
+        McpSchema.Tool tool = new McpSchema.Tool(toolDef.getName(), toolDef.getDescription(), toolDef.getInputSchema());
+        return new ToolCallHandler(tool, invoker, execution, resolveBulkhead(execution),
+                createResultCache(toolDef.getName(), toolDef.getCache()), toolDef.getBatch());
     }
 
-    private void buildFromMcpToolInfo(List<McpServerFeatures.SyncToolSpecification> toolSpecifications) {
-        List<McpToolInfo> toolInfos = McpServerEndpointProcessor.resolveMcpServerTools(targetBean, endpoint);
+    private void buildFromMcpToolInfo(List<ToolCallHandler> toolHandlers) {
+        List<McpToolInfo> toolInfos = new ArrayList<>();
+        for (Object targetBean : targetBeans) {
+            toolInfos.addAll(McpServerEndpointProcessor.resolveMcpServerTools(targetBean, endpoint));
+        }
         toolInfos.forEach(toolInfo -> {
             McpSchema.Tool tool = new McpSchema.Tool(toolInfo.getName(), toolInfo.getDescription(), toolInfo.getInputSchema());
-            McpServerFeatures.SyncToolSpecification toolSpecification =
-                    new McpServerFeatures.SyncToolSpecification(tool, (exchange, request) -> {
-                        try {
-                            String callResult = toolInfo.getMethod().invoke(toolInfo.getTargetBean(), request.values().toArray()).toString();
-                            // TODO mimeType
-                            return new McpSchema.CallToolResult(Collections.singletonList(new McpSchema.TextContent(callResult)), false);
-                        } catch (Exception e) {
-                            return new McpSchema.CallToolResult(Collections.singletonList(new McpSchema.TextContent(e.getMessage())), true);
-                        }
-                    });
-            toolSpecifications.add(toolSpecification);
+            toolHandlers.add(new ToolCallHandler(tool, toolInfo.getInvoker(), toolInfo.getExecution(), resolveBulkhead(toolInfo.getExecution()),
+                    createResultCache(toolInfo.getName(), toolInfo.getCache()), toolInfo.getBatch()));
         });
     }
+
+    /**
+     * tools/list中可见的内容是否相同
+     */
+    private static boolean sameTool(JsonNode oldNode, JsonNode newNode) {
+        return oldNode.path("description").equals(newNode.path("description"))
+                && oldNode.path("inputSchema").equals(newNode.path("inputSchema"));
+    }
+
+    private ToolBulkhead resolveBulkhead(ToolExecutionDef executionDef) {
+        return bulkheadRegistry.resolve(executionDef == null ? null : executionDef.getBulkhead());
+    }
+
+    private ToolResultCache createResultCache(String toolName, ToolCacheDef cacheDef) {
+        removeResultCache(toolName);
+        if (cacheDef == null) {
+            return null;
+        }
+        ToolResultCache cache = new ToolResultCache(toolName, cacheDef);
+        JmxUtils.register(cache, RESULT_CACHE_JMX_TYPE, jmxName(toolName));
+        resultCaches.put(toolName, cache);
+        log.info("Tool '{}' result cache enabled: {}", toolName, cacheDef);
+        return cache;
+    }
+
+    private void removeResultCache(String toolName) {
+        if (resultCaches.remove(toolName) != null) {
+            JmxUtils.unregister(RESULT_CACHE_JMX_TYPE, jmxName(toolName));
+        }
+    }
+
+    private String jmxName(String name) {
+        return jmxScope == null ? name : jmxScope + "/" + name;
+    }
 }
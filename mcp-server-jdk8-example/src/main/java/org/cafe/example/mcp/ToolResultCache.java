@@ -0,0 +1,275 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * tool结果缓存：以规范化后的参数为key，按LRU淘汰，支持有效期、最大条目数、最大权重；
+ * 相同参数的并发调用只执行一次（single-flight），等待的调用方全部取消时取消共享的调用，错误结果不缓存
+ */
+@Slf4j
+public class ToolResultCache implements ToolResultCacheMXBean {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * 按key排序输出Map，使参数顺序不同但内容相同的调用得到相同的key
+     */
+    private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    @Getter
+    private final String name;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxWeight;
+
+    /**
+     * accessOrder为true的LinkedHashMap即LRU顺序，所有访问都在this上同步
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Load> inFlight = new ConcurrentHashMap<>();
+    private long weight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public ToolResultCache(String name, ToolCacheDef cacheDef) {
+        this.name = name;
+        long ttlMillis = cacheDef.getTtlMillis() == null ? 0 : cacheDef.getTtlMillis();
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+        this.maxEntries = cacheDef.getMaxEntries() == null || cacheDef.getMaxEntries() <= 0
+                ? DEFAULT_MAX_ENTRIES : cacheDef.getMaxEntries();
+        this.maxWeight = cacheDef.getMaxWeight() == null ? 0 : cacheDef.getMaxWeight();
+    }
+
+    /**
+     * 命中时直接返回缓存的结果；未命中时若已有相同参数的调用在执行则等待其结果，否则调用loader
+     *
+     * @return 每次返回新的CompletableFuture：调用方取消时不影响其他调用方，最后一个等待的调用方取消时取消loader返回的future
+     */
+    public CompletableFuture<McpSchema.CallToolResult> get(Map<String, Object> arguments,
+                                                           Supplier<CompletableFuture<McpSchema.CallToolResult>> loader) {
+        String key = key(arguments);
+        McpSchema.CallToolResult cached = getIfPresent(key);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        while (true) {
+            Load load = new Load();
+            Load existing = inFlight.putIfAbsent(key, load);
+            if (existing == null) {
+                missCount.incrementAndGet();
+                CompletableFuture<McpSchema.CallToolResult> waiter = load.join();
+                load.start(key, loader);
+                return waiter;
+            }
+            CompletableFuture<McpSchema.CallToolResult> waiter = existing.join();
+            if (waiter != null) {
+                coalescedCount.incrementAndGet();
+                return waiter;
+            }
+            // 共享的调用已被取消，重新执行
+            inFlight.remove(key, existing);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    static String key(Map<String, Object> arguments) {
+        try {
+            return KEY_MAPPER.writeValueAsString(arguments == null ? Collections.emptyMap() : arguments);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot build cache key from arguments: " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized McpSchema.CallToolResult getIfPresent(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.result;
+    }
+
+    private void put(String key, McpSchema.CallToolResult result) {
+        long entryWeight = maxWeight > 0 ? weigh(result) : 0;
+        if (maxWeight > 0 && entryWeight > maxWeight) {
+            log.debug("Tool '{}' result too large to cache: {} bytes", name, entryWeight);
+            return;
+        }
+        long expireAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(result, entryWeight, expireAt));
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            evict();
+        }
+    }
+
+    /**
+     * 按LRU顺序淘汰至不超过最大条目数与最大权重；过期条目在被访问时移除
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && (entries.size() > maxEntries || (maxWeight > 0 && weight > maxWeight))) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            weight -= eldest.weight;
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        weight -= entry.weight;
+        evictionCount.incrementAndGet();
+    }
+
+    private static long weigh(McpSchema.CallToolResult result) {
+        try {
+            return KEY_MAPPER.writeValueAsBytes(result).length;
+        } catch (JsonProcessingException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 一次共享的调用，记录等待其结果的调用方数量
+     */
+    private final class Load {
+
+        private final CompletableFuture<McpSchema.CallToolResult> result = new CompletableFuture<>();
+        private volatile CompletableFuture<McpSchema.CallToolResult> loading;
+        private int waiters;
+        private boolean cancelled;
+
+        /**
+         * 加入等待，共享的调用已被取消时返回null
+         */
+        synchronized CompletableFuture<McpSchema.CallToolResult> join() {
+            if (cancelled) {
+                return null;
+            }
+            waiters++;
+            CompletableFuture<McpSchema.CallToolResult> waiter = result.thenApply(Function.identity());
+            waiter.whenComplete((r, e) -> {
+                if (waiter.isCancelled()) {
+                    leave();
+                }
+            });
+            return waiter;
+        }
+
+        private void leave() {
+            synchronized (this) {
+                if (--waiters > 0 || result.isDone()) {
+                    return;
+                }
+                cancelled = true;
+            }
+            // loader返回的future被取消时取消调用链（见ToolCallHandler），排队中的调用出队、执行中的调用被中断
+            CompletableFuture<McpSchema.CallToolResult> current = loading;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+
+        void start(String key, Supplier<CompletableFuture<McpSchema.CallToolResult>> loader) {
+            CompletableFuture<McpSchema.CallToolResult> current;
+            try {
+                current = loader.get();
+            } catch (Throwable e) {
+                current = new CompletableFuture<>();
+                current.completeExceptionally(e);
+            }
+            loading = current;
+            current.whenComplete((r, e) -> {
+                if (e == null && r != null && !Boolean.TRUE.equals(r.getIsError())) {
+                    put(key, r);
+                }
+                inFlight.remove(key, this);
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(r);
+                }
+            });
+        }
+    }
+
+    private static class Entry {
+
+        final McpSchema.CallToolResult result;
+        final long weight;
+        final long expireAt;
+
+        Entry(McpSchema.CallToolResult result, long weight, long expireAt) {
+            this.result = result;
+            this.weight = weight;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return expireAt != 0 && now - expireAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.cafe.example.mcp;
+
+/**
+ * tool结果缓存的JMX指标
+ */
+public interface ToolResultCacheMXBean {
+
+    String getName();
+
+    int getSize();
+
+    long getWeight();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    /**
+     * 合并到进行中的相同调用的请求数
+     */
+    long getCoalescedCount();
+
+    /**
+     * 因超出条目数/权重或过期而被移除的条目数
+     */
+    long getEvictionCount();
+}
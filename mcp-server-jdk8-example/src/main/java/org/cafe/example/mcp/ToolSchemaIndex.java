@@ -0,0 +1,182 @@
+package org.cafe.example.mcp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cafe.example.mcp.annotation.ToolBatch;
+import org.cafe.example.mcp.util.JsonSchemaGenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * 编译期生成的{@code @Tool}方法inputSchema索引（由构建时的ToolSchemaIndexGenerator生成，不随主代码发布）：首次使用时才加载，
+ * 索引中没有的类（或方法）、以及类文件在生成索引后被修改过的类再通过{@link JsonSchemaGenerator}反射生成；
+ * 索引每行为{@code 类名\t类文件CRC32\t方法签名\t紧凑格式的inputSchema}（紧凑格式的JSON中不会出现未转义的tab与换行），加载时无需JSON解析
+ */
+@Slf4j
+public final class ToolSchemaIndex {
+
+    public static final String INDEX_RESOURCE = "META-INF/mcp/tool-schema-index.tsv";
+
+    private static final AtomicInteger INDEX_HITS = new AtomicInteger();
+    private static final AtomicInteger GENERATED = new AtomicInteger();
+    private static final AtomicInteger STALE = new AtomicInteger();
+
+    private ToolSchemaIndex() {
+    }
+
+    /**
+     * 索引中的一个类
+     */
+    static final class IndexedClass {
+
+        final long checksum;
+
+        /**
+         * 方法签名 -> 紧凑格式的inputSchema
+         */
+        final Map<String, String> methods = new HashMap<>();
+
+        /**
+         * 类文件是否与生成索引时相同，首次查找该类时校验
+         */
+        volatile Boolean current;
+
+        IndexedClass(long checksum) {
+            this.checksum = checksum;
+        }
+
+        boolean isCurrent(Class<?> beanClass) {
+            Boolean result = current;
+            if (result == null) {
+                result = checksum == checksum(beanClass);
+                if (!result) {
+                    STALE.incrementAndGet();
+                    log.warn("{} is stale for {}, tool schemas will be generated at runtime", INDEX_RESOURCE, beanClass.getName());
+                }
+                current = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 类名 -> 索引中的类
+     */
+    private static final class Holder {
+
+        private static final Map<String, IndexedClass> INDEX = load();
+
+        private static Map<String, IndexedClass> load() {
+            long start = System.nanoTime();
+            InputStream in = ToolSchemaIndex.class.getClassLoader().getResourceAsStream(INDEX_RESOURCE);
+            if (in == null) {
+                log.debug("Not found {}, tool schemas will be generated at runtime", INDEX_RESOURCE);
+                return Collections.emptyMap();
+            }
+            try {
+                Map<String, IndexedClass> index = read(in);
+                log.debug("Loaded {} with {} classes in {} ms", INDEX_RESOURCE, index.size(), (System.nanoTime() - start) / 1000000);
+                return index;
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Load {} error, tool schemas will be generated at runtime: {}", INDEX_RESOURCE, e.getMessage());
+                return Collections.emptyMap();
+            }
+        }
+    }
+
+    static Map<String, IndexedClass> read(InputStream in) throws IOException {
+        Map<String, IndexedClass> index = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 4);
+                if (columns.length == 4) {
+                    long checksum = Long.parseLong(columns[1]);
+                    index.computeIfAbsent(columns[0], k -> new IndexedClass(checksum)).methods.put(columns[2], columns[3]);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取tool方法的inputSchema：优先使用索引，没有或已过期时反射生成
+     */
+    public static String getInputSchema(Method method) {
+        return getInputSchema(Holder.INDEX, method);
+    }
+
+    static String getInputSchema(Map<String, IndexedClass> index, Method method) {
+        Class<?> beanClass = method.getDeclaringClass();
+        IndexedClass indexed = index.get(beanClass.getName());
+        String schema = indexed == null || !indexed.isCurrent(beanClass) ? null : indexed.methods.get(signature(method));
+        if (schema != null) {
+            INDEX_HITS.incrementAndGet();
+            return schema;
+        }
+        GENERATED.incrementAndGet();
+        return generate(method);
+    }
+
+    /**
+     * 反射生成inputSchema，批量tool方法按参数的元素类型生成
+     */
+    public static String generate(Method method) {
+        return method.isAnnotationPresent(ToolBatch.class) ? JsonSchemaGenerator.generateForBatchMethodInput(method)
+                : JsonSchemaGenerator.generateForMethodInput(method, ToolArgumentBinder::isInputParameter);
+    }
+
+    /**
+     * 类文件内容的CRC32，找不到类文件时返回-1
+     */
+    public static long checksum(Class<?> beanClass) {
+        ClassLoader classLoader = beanClass.getClassLoader() == null ? ClassLoader.getSystemClassLoader() : beanClass.getClassLoader();
+        CRC32 crc = new CRC32();
+        try (InputStream in = classLoader.getResourceAsStream(beanClass.getName().replace('.', '/') + ".class")) {
+            if (in == null) {
+                return -1;
+            }
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 方法签名，例如{@code getSpeciality(java.lang.String,java.lang.String)}
+     */
+    public static String signature(Method method) {
+        StringJoiner joiner = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            joiner.add(parameterType.getName());
+        }
+        return joiner.toString();
+    }
+
+    public static int getIndexHits() {
+        return INDEX_HITS.get();
+    }
+
+    public static int getGenerated() {
+        return GENERATED.get();
+    }
+
+    public static int getStale() {
+        return STALE.get();
+    }
+}
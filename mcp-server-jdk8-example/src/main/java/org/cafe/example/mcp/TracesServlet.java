@@ -0,0 +1,45 @@
+package org.cafe.example.mcp;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 追踪调试端点：以OTLP-JSON格式返回内存环形缓冲区中的span（路径通过{@code -Dmcp.tracing.path}指定，默认为/debug/traces）。
+ * {@code ?traceId=<32位十六进制>}返回某个trace的所有span，否则返回最近结束的{@code limit}个span（默认100）
+ */
+public class TracesServlet extends HttpServlet {
+
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final int DEFAULT_LIMIT = 100;
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        SpanRingBuffer ringBuffer = McpTracing.getRingBuffer();
+        List<Span> spans;
+        if (ringBuffer == null) {
+            spans = Collections.emptyList();
+        } else if (req.getParameter("traceId") != null) {
+            spans = ringBuffer.trace(req.getParameter("traceId"));
+        } else {
+            int limit = DEFAULT_LIMIT;
+            try {
+                if (req.getParameter("limit") != null) {
+                    limit = Integer.parseInt(req.getParameter("limit"));
+                }
+            } catch (NumberFormatException e) {
+                resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid limit: " + req.getParameter("limit"));
+                return;
+            }
+            spans = ringBuffer.recent(limit);
+        }
+        resp.setContentType(CONTENT_TYPE);
+        Writer writer = resp.getWriter();
+        McpTracing.writeOtlpJson(spans, writer);
+        writer.flush();
+    }
+}
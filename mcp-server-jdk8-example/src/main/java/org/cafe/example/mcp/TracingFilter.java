@@ -0,0 +1,82 @@
+package org.cafe.example.mcp;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 为MCP Servlet的POST请求（JSON-RPC消息）创建根span，覆盖Tomcat的处理和异步响应，直到异步请求完成；
+ * SSE等长连接的GET请求不追踪
+ */
+public class TracingFilter implements Filter {
+
+    public static final String HEADER_TRACEPARENT = "traceparent";
+
+    /**
+     * MCP Server名称
+     */
+    private final String server;
+
+    public TracingFilter(String server) {
+        this.server = server;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        Span span = "POST".equals(request.getMethod())
+                ? McpTracing.startRequest("POST " + request.getRequestURI(), request.getHeader(HEADER_TRACEPARENT)) : null;
+        if (span == null) {
+            chain.doFilter(req, resp);
+            return;
+        }
+        span.setAttribute("http.request.method", "POST")
+                .setAttribute("url.path", request.getRequestURI())
+                .setAttribute("mcp.server", server);
+        try (McpTracing.Scope ignored = McpTracing.activate(span)) {
+            chain.doFilter(req, resp);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.setError(e);
+            span.end();
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    end(span, event.getSuppliedResponse());
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    span.setError("async request timed out");
+                    end(span, event.getSuppliedResponse());
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    span.setError(event.getThrowable());
+                    end(span, event.getSuppliedResponse());
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            end(span, resp);
+        }
+    }
+
+    private static void end(Span span, ServletResponse resp) {
+        if (resp instanceof HttpServletResponse) {
+            int status = ((HttpServletResponse) resp).getStatus();
+            span.setAttribute("http.response.status_code", status);
+            if (status >= 500) {
+                span.setError("HTTP " + status);
+            }
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,110 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * transport使用的ObjectMapper：当前线程有span（请求被采样）时，为JSON-RPC消息的解析、转换和序列化记录子span
+ */
+public class TracingObjectMapper extends ObjectMapper {
+
+    private static final long serialVersionUID = 1L;
+
+    public TracingObjectMapper() {
+    }
+
+    protected TracingObjectMapper(TracingObjectMapper src) {
+        super(src);
+    }
+
+    @Override
+    public ObjectMapper copy() {
+        _checkInvalidCopy(TracingObjectMapper.class);
+        return new TracingObjectMapper(this);
+    }
+
+    @Override
+    public <T> T readValue(String content, Class<T> valueType) throws JsonProcessingException {
+        Span span = McpTracing.startSpan(McpTracing.SPAN_DECODE);
+        if (span == null) {
+            return super.readValue(content, valueType);
+        }
+        try {
+            return super.readValue(content, valueType);
+        } finally {
+            span.setAttribute("json.bytes", utf8Length(content)).end();
+        }
+    }
+
+    @Override
+    public <T> T readValue(String content, TypeReference<T> valueTypeRef) throws JsonProcessingException {
+        Span span = McpTracing.startSpan(McpTracing.SPAN_DECODE);
+        if (span == null) {
+            return super.readValue(content, valueTypeRef);
+        }
+        try {
+            return super.readValue(content, valueTypeRef);
+        } finally {
+            span.setAttribute("json.bytes", utf8Length(content)).end();
+        }
+    }
+
+    @Override
+    public <T> T convertValue(Object fromValue, Class<T> toValueType) throws IllegalArgumentException {
+        Span span = McpTracing.startSpan(McpTracing.SPAN_CONVERT);
+        if (span == null) {
+            return super.convertValue(fromValue, toValueType);
+        }
+        try {
+            return super.convertValue(fromValue, toValueType);
+        } finally {
+            span.setAttribute("json.type", toValueType.getSimpleName()).end();
+        }
+    }
+
+    @Override
+    public <T> T convertValue(Object fromValue, TypeReference<T> toValueTypeRef) throws IllegalArgumentException {
+        Span span = McpTracing.startSpan(McpTracing.SPAN_CONVERT);
+        if (span == null) {
+            return super.convertValue(fromValue, toValueTypeRef);
+        }
+        try {
+            return super.convertValue(fromValue, toValueTypeRef);
+        } finally {
+            span.end();
+        }
+    }
+
+    @Override
+    public String writeValueAsString(Object value) throws JsonProcessingException {
+        Span span = McpTracing.startSpan(McpTracing.SPAN_ENCODE);
+        if (span == null) {
+            return super.writeValueAsString(value);
+        }
+        try {
+            String json = super.writeValueAsString(value);
+            span.setAttribute("json.bytes", utf8Length(json));
+            return json;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 字符串按UTF-8编码后的字节数，不分配字节数组
+     */
+    static int utf8Length(String s) {
+        int length = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                // 代理对（2个char）共4个字节，其余3个字节
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
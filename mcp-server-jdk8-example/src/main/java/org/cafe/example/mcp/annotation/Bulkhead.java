@@ -0,0 +1,42 @@
+package org.cafe.example.mcp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * tool隔离舱定义：每个隔离舱拥有独立的线程池与有界队列，通过{@link McpServerEndpoint#bulkheads()}定义、
+ * 通过{@link ToolExecution#bulkhead()}引用（同一隔离舱可被多个tool共享）
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    /**
+     * 隔离舱名称
+     */
+    String name();
+
+    /**
+     * 线程数
+     */
+    int maxThreads() default 10;
+
+    /**
+     * 等待队列长度，队列已满时按{@link #rejection()}处理
+     */
+    int maxQueue() default 100;
+
+    /**
+     * 单次调用超时时间（含排队时间），0表示不超时
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * abort(default) or callerRuns
+     * <ul>
+     * <li>abort - 立即返回isError=true的CallToolResult</li>
+     * <li>callerRuns - 在调用方线程上执行</li>
+     * </ul>
+     */
+    String rejection() default "abort";
+}
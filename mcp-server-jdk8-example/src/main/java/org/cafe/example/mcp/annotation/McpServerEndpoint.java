@@ -70,4 +70,35 @@ public @interface McpServerEndpoint {
      * 是否通知prompt变更
      */
     boolean promptChangeNotification() default true;
+
+    /**
+     * 是否监听tool-list.json、prompt配置文件夹的变化并热加载（仅对文件系统中的配置生效），变更通过list_changed通知客户端
+     */
+    boolean hotReload() default false;
+
+    /**
+     * tool-list.json的位置（{@code classpath:}开头的为classpath中的文件，否则为文件系统路径），为空时使用classpath中的tool/tool-list.json
+     */
+    String toolList() default "";
+
+    /**
+     * prompt配置文件夹（{@code classpath:}开头的为classpath中的目录），为空时使用{@code -Dmcp.prompt.dir}（默认为classpath中的prompt）
+     */
+    String promptDir() default "";
+
+    /**
+     * resource根目录（逗号分隔，{@code classpath:}开头的为classpath中的目录），为空时使用{@code -Dmcp.resource.roots}（默认为classpath中的resource）；
+     * 在同一个宿主中运行的多个MCP Server不能使用相同的tool-list.json、prompt配置文件夹或resource根目录（见{@link org.cafe.example.mcp.McpServerHost}）
+     */
+    String resourceRoots() default "";
+
+    /**
+     * Tomcat connector配置（stdio transport时忽略）
+     */
+    TomcatConnector connector() default @TomcatConnector;
+
+    /**
+     * tool隔离舱定义，通过{@link ToolExecution#bulkhead()}引用
+     */
+    Bulkhead[] bulkheads() default {};
 }
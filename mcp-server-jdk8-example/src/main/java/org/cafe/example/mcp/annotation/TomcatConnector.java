@@ -0,0 +1,77 @@
+package org.cafe.example.mcp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Tomcat connector配置，通过{@link McpServerEndpoint#connector()}指定；
+ * 以{@link #preset()}为基础，设置了值（非-1、非空；{@link #maxKeepAliveRequests()}为非{@link #UNSET}）的属性覆盖预设值
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TomcatConnector {
+
+    /**
+     * {@link #maxKeepAliveRequests()}未设置时的值（-1在Tomcat中表示不限制，不能作为未设置）
+     */
+    int UNSET = Integer.MIN_VALUE;
+
+    /**
+     * default or highConcurrency
+     * <ul>
+     * <li>default - NIO，Tomcat默认的线程数与连接数，异步请求超时10秒</li>
+     * <li>highConcurrency - NIO2，面向大量长时间保持的SSE/streamableHttp会话：更多的线程与连接数、更大的等待队列，异步请求不超时，JSON响应压缩</li>
+     * </ul>
+     */
+    String preset() default "default";
+
+    /**
+     * nio、nio2、apr（需要tomcat-native库）或协议类名
+     */
+    String protocol() default "";
+
+    /**
+     * 最大工作线程数
+     */
+    int maxThreads() default -1;
+
+    /**
+     * 最小空闲工作线程数
+     */
+    int minSpareThreads() default -1;
+
+    /**
+     * 最大连接数（含保持中的SSE连接）
+     */
+    int maxConnections() default -1;
+
+    /**
+     * 连接数达到上限后操作系统的等待队列长度
+     */
+    int acceptCount() default -1;
+
+    /**
+     * 建立连接后等待请求行的超时时间
+     */
+    int connectionTimeoutMillis() default -1;
+
+    /**
+     * keep-alive连接等待下一个请求的超时时间
+     */
+    int keepAliveTimeoutMillis() default -1;
+
+    /**
+     * keep-alive连接上的最大请求数，与Tomcat相同-1表示不限制
+     */
+    int maxKeepAliveRequests() default UNSET;
+
+    /**
+     * 异步请求（SSE流）超时时间，0表示不超时
+     */
+    long asyncTimeoutMillis() default -1;
+
+    /**
+     * off、on或force；SSE流（text/event-stream）不压缩
+     */
+    String compression() default "";
+}
@@ -0,0 +1,23 @@
+package org.cafe.example.mcp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 批量tool注解，与{@code @Tool}配合使用：方法的每个参数均为{@code List}、返回{@code List}，第i个元素对应第i次调用；
+ * inputSchema按参数的元素类型生成，并发的tools/call请求被合并为一次方法调用
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ToolBatch {
+
+    /**
+     * 每批最多合并的调用数，达到后立即执行
+     */
+    int maxSize() default 32;
+
+    /**
+     * 第一次调用到达后最多等待的时间（毫秒）
+     */
+    long maxDelayMillis() default 5;
+}
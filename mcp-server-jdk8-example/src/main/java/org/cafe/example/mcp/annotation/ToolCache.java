@@ -0,0 +1,27 @@
+package org.cafe.example.mcp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * tool结果缓存注解，与{@code @Tool}配合使用，仅适用于结果只取决于参数的幂等tool
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ToolCache {
+
+    /**
+     * 缓存有效期（毫秒），0表示不过期
+     */
+    long ttlMillis() default 0;
+
+    /**
+     * 最大缓存条目数
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * 最大缓存权重（结果序列化后的字节数之和），0表示不限制
+     */
+    long maxWeight() default 0;
+}
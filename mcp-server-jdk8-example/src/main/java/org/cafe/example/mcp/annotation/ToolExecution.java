@@ -0,0 +1,35 @@
+package org.cafe.example.mcp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * tool方法执行方式注解，与{@code @Tool}配合使用
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ToolExecution {
+
+    /**
+     * blocking(default) or immediate
+     * <ul>
+     * <li>blocking - 在专用的有界线程池上执行</li>
+     * <li>immediate - 在调用方线程上同步执行，仅适用于无阻塞、耗时极短的tool</li>
+     * </ul>
+     * 返回Mono/CompletableFuture/Publisher的方法将自动识别为异步执行、忽略该属性
+     */
+    String mode() default "blocking";
+
+    /**
+     * blocking方式执行时使用的隔离舱名称（见{@link McpServerEndpoint#bulkheads()}），为空时使用默认隔离舱
+     */
+    String bulkhead() default "";
+
+    /**
+     * 单次调用的超时时间（毫秒），0为不限制（仍受隔离舱的超时限制）。超时后中断执行中的tool方法并返回错误结果；
+     * immediate方式在调用方线程上执行，不受该属性限制。
+     * 声明了{@link ToolCache}的tool，相同参数的并发调用共享一次执行，超时从该执行开始计时，
+     * 客户端取消时只有等待该执行的调用全部取消后才中断tool方法
+     */
+    long timeoutMillis() default 0;
+}
@@ -7,17 +7,46 @@ import org.cafe.example.mcp.McpToolDef;
 
 import java.io.*;
 import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 public class FileUtils {
 
+    /**
+     * 配置的文件或目录位置以此开头时为classpath中的资源
+     */
+    public static final String CLASSPATH_PREFIX = "classpath:";
+
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+    static {
+        MIME_TYPES.put("json", "application/json");
+        MIME_TYPES.put("txt", "text/plain");
+        MIME_TYPES.put("md", "text/markdown");
+        MIME_TYPES.put("html", "text/html");
+        MIME_TYPES.put("csv", "text/csv");
+        MIME_TYPES.put("xml", "application/xml");
+        MIME_TYPES.put("pdf", "application/pdf");
+        MIME_TYPES.put("png", "image/png");
+        MIME_TYPES.put("jpg", "image/jpeg");
+        MIME_TYPES.put("jpeg", "image/jpeg");
+        MIME_TYPES.put("gif", "image/gif");
+        MIME_TYPES.put("webp", "image/webp");
+        MIME_TYPES.put("bmp", "image/bmp");
+        MIME_TYPES.put("svg", "image/svg+xml");
+        MIME_TYPES.put("ico", "image/x-icon");
+        MIME_TYPES.put("tif", "image/tiff");
+        MIME_TYPES.put("tiff", "image/tiff");
+        MIME_TYPES.put("mp3", "audio/mpeg");
+        MIME_TYPES.put("wav", "audio/wav");
+    }
+
     private FileUtils() {
     }
 
@@ -61,6 +90,39 @@ public class FileUtils {
         return absoluteFilePath;
     }
 
+    /**
+     * 解析配置的文件或目录位置：{@code classpath:}开头的为classpath中的资源，否则为文件系统路径
+     *
+     * @return classpath中不存在该资源时返回null
+     */
+    public static URL resolveLocation(String location) {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            return FileUtils.class.getClassLoader().getResource(location.substring(CLASSPATH_PREFIX.length()));
+        }
+        try {
+            return Paths.get(location).toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid location: " + location, e);
+        }
+    }
+
+    /**
+     * 解析配置的文件或目录位置为文件系统路径（见{@link #resolveLocation(String)}）
+     *
+     * @return classpath中不存在该资源、或资源不在文件系统中（例如打包在jar中）时返回null
+     */
+    public static Path resolvePath(String location) {
+        URL url = resolveLocation(location);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
     public static Path createParentDir(String absoluteFilePath) {
         Path filePath = Paths.get(resolveFilePath(absoluteFilePath));
         filePath.getParent().toFile().mkdirs();
@@ -110,23 +172,36 @@ public class FileUtils {
      * @return 数据元素1为文件后缀、元素2为文件内容（如果是json类型返回文件内容、如果是图片类型则返回图片base64编码数据、其他类型抛出异常）
      */
     public static String[] readFileByName(String absolutePath, String fileName) {
+        File file = findFileByName(absolutePath, fileName);
+        String[] result = new String[2];
+        if (isImageFile(file.getName())) {
+            result[0] = getMimeType4ImageFile(file.getPath());
+            result[1] = FileUtils.readImageToBase64(file.getPath());
+        } else {
+            // text类型的仅支持json后缀、且json文件内容格式按MCP的标准
+            result[0] = "json";
+            result[1] = FileUtils.readFile(file.getPath());
+        }
+        return result;
+    }
+
+    /**
+     * 在指定路径下根据文件名（不含后缀）查找json或图片文件
+     *
+     * @param absolutePath 绝对路径
+     * @param fileName     文件名（不含后缀）
+     * @return 找到的文件；未找到则抛出异常
+     */
+    public static File findFileByName(String absolutePath, String fileName) {
         absolutePath = absolutePath.endsWith(File.separator) ? absolutePath : absolutePath + File.separator;
         absolutePath = resolveFilePath(absolutePath);
 
-        String[] result = new String[2];
         // 查找fileName开头的文件
         for (String file : Objects.requireNonNull(new File(absolutePath).list())) {
             if (file.startsWith(fileName + ".")) {
                 String fileExtension = file.substring(file.lastIndexOf(".") + 1);
-                if ("json".equals(fileExtension)) {
-                    // text类型的仅支持json后缀、且json文件内容格式按MCP的标准
-                    result[0] = fileExtension;
-                    result[1] = FileUtils.readFile(absolutePath + file);
-                    return result;
-                } else if (isImageFile(file)) {
-                    result[0] = getMimeType4ImageFile(absolutePath + file);
-                    result[1] = FileUtils.readImageToBase64(absolutePath + file);
-                    return result;
+                if ("json".equals(fileExtension) || isImageFile(file)) {
+                    return new File(absolutePath + file);
                 }
             }
         }
@@ -140,8 +215,8 @@ public class FileUtils {
      * @return true 表示是图片文件；false 表示不是图片文件
      */
     public static boolean isImageFile(String fileName) {
-        // TODO 支持更多图片类型
-        return fileName.endsWith(".png") || fileName.endsWith(".jpg") || fileName.endsWith(".jpeg");
+        String mimeType = getMimeType(fileName);
+        return mimeType != null && mimeType.startsWith("image/");
     }
 
     /**
@@ -151,11 +226,18 @@ public class FileUtils {
      * @return 图片文件的MIME类型；如果不是图片类型则返回null
      */
     public static String getMimeType4ImageFile(String fileName) {
-        if (!isImageFile(fileName)) {
-            return null;
-        }
-        // TODO 支持更多图片类型
-        return fileName.endsWith(".png") ? "image/png" : "image/jpeg";
+        return isImageFile(fileName) ? getMimeType(fileName) : null;
+    }
+
+    /**
+     * 根据文件后缀（不区分大小写）获取MIME类型
+     *
+     * @param fileName 文件名
+     * @return MIME类型；未知后缀返回null
+     */
+    public static String getMimeType(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        return index < 0 ? null : MIME_TYPES.get(fileName.substring(index + 1).toLowerCase(Locale.ROOT));
     }
 
     /**
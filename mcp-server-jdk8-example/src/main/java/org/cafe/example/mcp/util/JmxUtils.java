@@ -0,0 +1,47 @@
+package org.cafe.example.mcp.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+@Slf4j
+public class JmxUtils {
+
+    public static final String DOMAIN = "org.cafe.example.mcp";
+
+    private JmxUtils() {
+    }
+
+    /**
+     * 注册MBean，名称为{@code org.cafe.example.mcp:type=<type>,name="<name>"}，同名MBean已存在时忽略
+     */
+    public static void register(Object mBean, String type, String name) {
+        try {
+            ObjectName objectName = objectName(type, name);
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(mBean, objectName);
+            }
+        } catch (Exception e) {
+            log.warn("Register MBean {} '{}' error: {}", type, name, e.getMessage());
+        }
+    }
+
+    public static void unregister(String type, String name) {
+        try {
+            ObjectName objectName = objectName(type, name);
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Unregister MBean {} '{}' error: {}", type, name, e.getMessage());
+        }
+    }
+
+    private static ObjectName objectName(String type, String name) throws Exception {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
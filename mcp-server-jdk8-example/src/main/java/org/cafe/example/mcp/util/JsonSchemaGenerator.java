@@ -14,9 +14,11 @@ import org.springframework.ai.tool.annotation.ToolParam;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
@@ -38,21 +40,24 @@ public final class JsonSchemaGenerator {
      */
     private static final boolean PROPERTY_REQUIRED_BY_DEFAULT = true;
 
-    private static final SchemaGenerator SUBTYPE_SCHEMA_GENERATOR;
-
-    /*
-     * Initialize JSON Schema generators.
+    /**
+     * 延迟初始化JSON Schema generators：schema全部来自预生成索引时（见{@code ToolSchemaIndex}）无需初始化
      */
-    static {
-        SchemaGeneratorConfigBuilder schemaGeneratorConfigBuilder = new SchemaGeneratorConfigBuilder(
-                SchemaVersion.DRAFT_2020_12, OptionPreset.PLAIN_JSON)
-                .with(Option.EXTRA_OPEN_API_FORMAT_VALUES)
-                .with(Option.PLAIN_DEFINITION_KEYS);
-
-        SchemaGeneratorConfig subtypeSchemaGeneratorConfig = schemaGeneratorConfigBuilder
-                .without(Option.SCHEMA_VERSION_INDICATOR)
-                .build();
-        SUBTYPE_SCHEMA_GENERATOR = new SchemaGenerator(subtypeSchemaGeneratorConfig);
+    private static final class Generators {
+
+        private static final SchemaGenerator SUBTYPE_SCHEMA_GENERATOR;
+
+        static {
+            SchemaGeneratorConfigBuilder schemaGeneratorConfigBuilder = new SchemaGeneratorConfigBuilder(
+                    SchemaVersion.DRAFT_2020_12, OptionPreset.PLAIN_JSON)
+                    .with(Option.EXTRA_OPEN_API_FORMAT_VALUES)
+                    .with(Option.PLAIN_DEFINITION_KEYS);
+
+            SchemaGeneratorConfig subtypeSchemaGeneratorConfig = schemaGeneratorConfigBuilder
+                    .without(Option.SCHEMA_VERSION_INDICATOR)
+                    .build();
+            SUBTYPE_SCHEMA_GENERATOR = new SchemaGenerator(subtypeSchemaGeneratorConfig);
+        }
     }
 
     private JsonSchemaGenerator() {
@@ -62,6 +67,25 @@ public final class JsonSchemaGenerator {
      * Generate a JSON Schema for a method's input parameters.
      */
     public static String generateForMethodInput(Method method, SchemaOption... schemaOptions) {
+        return generateForMethodInput(method, parameter -> true, schemaOptions);
+    }
+
+    /**
+     * 生成方法的inputSchema，只包含{@code inputParameter}为true的参数（例如由Server传入的参数不属于tool的输入）
+     */
+    public static String generateForMethodInput(Method method, Predicate<Parameter> inputParameter, SchemaOption... schemaOptions) {
+        return generateForMethodInput(method, false, inputParameter, schemaOptions);
+    }
+
+    /**
+     * 为批量tool方法生成单次调用的inputSchema：方法参数均为{@code List}，使用其元素类型
+     */
+    public static String generateForBatchMethodInput(Method method, SchemaOption... schemaOptions) {
+        return generateForMethodInput(method, true, parameter -> true, schemaOptions);
+    }
+
+    private static String generateForMethodInput(Method method, boolean batch, Predicate<Parameter> inputParameter,
+                                                 SchemaOption... schemaOptions) {
         ObjectNode schema = OBJECT_MAPPER.createObjectNode();
         schema.put("$schema", SchemaVersion.DRAFT_2020_12.getIdentifier());
         schema.put("type", "object");
@@ -70,12 +94,19 @@ public final class JsonSchemaGenerator {
         List<String> required = new ArrayList<>();
 
         for (int i = 0; i < method.getParameterCount(); i++) {
+            if (!inputParameter.test(method.getParameters()[i])) {
+                continue;
+            }
             String parameterName = method.getParameters()[i].getName();
             Type parameterType = method.getGenericParameterTypes()[i];
+            if (batch) {
+                parameterType = parameterType instanceof ParameterizedType
+                        ? ((ParameterizedType) parameterType).getActualTypeArguments()[0] : Object.class;
+            }
             if (isMethodParameterRequired(method, i)) {
                 required.add(parameterName);
             }
-            ObjectNode parameterNode = SUBTYPE_SCHEMA_GENERATOR.generateSchema(parameterType);
+            ObjectNode parameterNode = Generators.SUBTYPE_SCHEMA_GENERATOR.generateSchema(parameterType);
             String parameterDescription = getMethodParameterDescription(method, i);
             if (StringUtils.hasText(parameterDescription)) {
                 parameterNode.put("description", parameterDescription);
@@ -107,7 +138,7 @@ public final class JsonSchemaGenerator {
      * If none of these annotations are present, the default behavior is to consider the *
      * property as required.
      */
-    private static boolean isMethodParameterRequired(Method method, int index) {
+    public static boolean isMethodParameterRequired(Method method, int index) {
         Parameter parameter = method.getParameters()[index];
 
         ToolParam toolParamAnnotation = parameter.getAnnotation(ToolParam.class);
@@ -0,0 +1,68 @@
+package org.cafe.example.mcp.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志采样：指定logger（按名称前缀匹配）的DEBUG/TRACE日志每{@code rate}条只输出1条，其余在创建日志事件之前丢弃，
+ * 用于SDK逐条JSON-RPC消息的调试日志等高频输出。INFO及以上级别的日志不受影响。
+ * <p>
+ * TurboFilter在级别判断之前对每一次日志调用执行，这里只做级别比较、前缀匹配和原子自增，不分配对象；
+ * {@code isDebugEnabled()}等级别判断（format为null）不参与采样，否则判断和随后的日志调用会各消耗一次计数，
+ * 被判断保护的日志几乎不会输出
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 100;
+
+    /**
+     * 可配置多个{@code <logger>}
+     */
+    public void addLogger(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("rate must be positive: " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || level == null || level.levelInt > Level.DEBUG_INT
+                || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String loggerName) {
+        for (int i = 0; i < loggerPrefixes.size(); i++) {
+            if (loggerName.startsWith(loggerPrefixes.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Random;
+
+class BlobStoreTest {
+
+    private final BlobStore blobStore = new BlobStore();
+    private final ObjectMapper objectMapper = blobStore.register(new ObjectMapper());
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private String imageData(String reference) throws Exception {
+        McpSchema.ImageContent content = new McpSchema.ImageContent(
+                Collections.singletonList(McpSchema.Role.USER), null, reference, "image/png");
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(content));
+        Assertions.assertEquals("image/png", json.get("mimeType").asText());
+        return json.get("data").asText();
+    }
+
+    @Test
+    void testBinaryFileIsEncodedOnWrite() throws Exception {
+        byte[] image = randomBytes(100_001);
+        Path file = Files.write(Files.createTempFile("blob", ".png"), image);
+
+        String reference = blobStore.map(file);
+        Assertions.assertTrue(BlobStore.isReference(reference));
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(image), imageData(reference));
+        Assertions.assertEquals(image.length, blobStore.getMappedBytes());
+    }
+
+    @Test
+    void testBase64FileIsWrittenAsIs() throws Exception {
+        String base64 = Base64.getEncoder().encodeToString(randomBytes(3000));
+        Path file = Files.write(Files.createTempFile("blob", ".txt"), (base64 + "\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        Assertions.assertEquals(base64, imageData(blobStore.mapBase64(file)));
+    }
+
+    @Test
+    void testBlobResourceContents() throws Exception {
+        byte[] blob = randomBytes(1024);
+        Path file = Files.write(Files.createTempFile("blob", ".bin"), blob);
+        McpSchema.BlobResourceContents contents = new McpSchema.BlobResourceContents("file://blob.bin",
+                "application/octet-stream", blobStore.map(file));
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(contents));
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(blob), json.get("blob").asText());
+    }
+
+    @Test
+    void testInlineDataIsUnchanged() throws Exception {
+        Assertions.assertEquals("aGVsbG8=", imageData("aGVsbG8="));
+    }
+
+    @Test
+    void testChangedFileIsRemapped() throws Exception {
+        Path file = Files.write(Files.createTempFile("blob", ".png"), randomBytes(10));
+        String reference = blobStore.map(file);
+        Assertions.assertEquals(reference, blobStore.map(file));
+
+        // 替换文件（而不是原地覆盖）时，已有的映射仍指向原文件内容
+        byte[] changed = randomBytes(20);
+        Path replacement = Files.write(Files.createTempFile("blob", ".png"), changed);
+        Files.setLastModifiedTime(replacement, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+        String newReference = blobStore.map(file);
+
+        Assertions.assertNotEquals(reference, newReference);
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(changed), imageData(newReference));
+        // 进行中的请求仍可输出上一版本
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(randomBytes(10)), imageData(reference));
+        Assertions.assertEquals(1, blobStore.getBlobCount());
+    }
+
+    @Test
+    void testReleasedReferenceFails() throws Exception {
+        Path file = Files.write(Files.createTempFile("blob", ".png"), randomBytes(10));
+        String reference = blobStore.map(file);
+        blobStore.release(file);
+
+        Assertions.assertEquals(0, blobStore.getBlobCount());
+        Assertions.assertEquals(0, blobStore.getMappedBytes());
+        // 不能把引用当作图片数据发送给客户端
+        JsonMappingException e = Assertions.assertThrows(JsonMappingException.class, () -> imageData(reference));
+        Assertions.assertTrue(e.getMessage().contains("has been released"), e.getMessage());
+        // 再次映射时重新创建
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(randomBytes(10)), imageData(blobStore.map(file)));
+    }
+
+    @Test
+    void testCloseReleasesAll() throws Exception {
+        String reference = blobStore.map(Files.write(Files.createTempFile("blob", ".png"), randomBytes(10)));
+        blobStore.mapText(Files.write(Files.createTempFile("blob", ".txt"), "text".getBytes(StandardCharsets.UTF_8)));
+        blobStore.close();
+
+        Assertions.assertEquals(0, blobStore.getBlobCount());
+        Assertions.assertThrows(JsonMappingException.class, () -> imageData(reference));
+    }
+}
@@ -19,7 +19,7 @@ class CommonTest {
         ObjectMapper objectMapper = new ObjectMapper();
         String promptContent = FileUtils.readFileByName(
                 Objects.requireNonNull(getClass().getClassLoader().getResource("prompt")).getPath(),
-                "prompt-text-from-file.json")[1];
+                "prompt-text-from-file")[1];
         McpSchema.GetPromptResult promptResult = objectMapper.readValue(promptContent, McpSchema.GetPromptResult.class);
         System.out.println(promptResult);
     }
@@ -29,7 +29,7 @@ class CommonTest {
         ObjectMapper objectMapper = new ObjectMapper();
         String promptContent = FileUtils.readFileByName(
                 Objects.requireNonNull(getClass().getClassLoader().getResource("prompt")).getPath(),
-                "prompt-text-argument-from-file.json")[1];
+                "prompt-text-argument-from-file")[1];
         System.out.println(promptContent);
         // 使用 String.format() 需要一次性传入所有参数，否则会报错
 //        promptContent = String.format(promptContent, "111", "222");
@@ -0,0 +1,53 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConfigWatcherTest {
+
+    private static void awaitCount(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (counter.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void testChangesAreDebounced() throws Exception {
+        Path dir = Files.createTempDirectory("config-watcher");
+        Path file = Files.write(dir.resolve("tool-list.json"), "[]".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger reloads = new AtomicInteger();
+        try (ConfigWatcher watcher = new ConfigWatcher(1000)) {
+            watcher.watch(file, reloads::incrementAndGet);
+            for (int i = 0; i < 5; i++) {
+                Files.write(file, ("[" + i + "]").getBytes(StandardCharsets.UTF_8));
+            }
+            awaitCount(reloads, 1);
+            Thread.sleep(1500);
+            Assertions.assertEquals(1, reloads.get());
+        }
+    }
+
+    @Test
+    void testOnlyWatchedFileTriggersReload() throws Exception {
+        Path dir = Files.createTempDirectory("config-watcher");
+        Path file = Files.write(dir.resolve("tool-list.json"), "[]".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger fileReloads = new AtomicInteger();
+        AtomicInteger dirReloads = new AtomicInteger();
+        try (ConfigWatcher watcher = new ConfigWatcher(100)) {
+            watcher.watch(file, fileReloads::incrementAndGet);
+            watcher.watch(dir, dirReloads::incrementAndGet);
+            Files.write(dir.resolve("other.json"), "{}".getBytes(StandardCharsets.UTF_8));
+            awaitCount(dirReloads, 1);
+            Thread.sleep(500);
+            Assertions.assertEquals(1, dirReloads.get());
+            Assertions.assertEquals(0, fileReloads.get());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.cafe.example.mcp;
+
+import org.apache.catalina.connector.Connector;
+import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.cafe.example.mcp.annotation.TomcatConnector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ConnectorPropertiesTest {
+
+    @McpServerEndpoint(connector = @TomcatConnector(preset = "highConcurrency", maxThreads = 64, compression = "off"))
+    private static class HighConcurrencyEndpoint {
+    }
+
+    @McpServerEndpoint(connector = @TomcatConnector(maxKeepAliveRequests = -1))
+    private static class UnlimitedKeepAliveEndpoint {
+    }
+
+    @Test
+    void testDefaultPreset() {
+        ConnectorProperties properties = ConnectorProperties.from(
+                McpServerTool.class.getAnnotation(McpServerEndpoint.class).connector());
+
+        Assertions.assertEquals(ConnectorProperties.PROTOCOL_NIO, properties.getProtocol());
+        Assertions.assertEquals(10000, properties.getAsyncTimeoutMillis());
+        Assertions.assertNull(properties.getMaxThreads());
+        Assertions.assertNull(properties.getCompression());
+    }
+
+    @Test
+    void testOverridePreset() {
+        ConnectorProperties properties = ConnectorProperties.from(
+                HighConcurrencyEndpoint.class.getAnnotation(McpServerEndpoint.class).connector());
+
+        Assertions.assertEquals(ConnectorProperties.PROTOCOL_NIO2, properties.getProtocol());
+        Assertions.assertEquals(64, properties.getMaxThreads());
+        Assertions.assertEquals(50000, properties.getMaxConnections());
+        Assertions.assertEquals(0, properties.getAsyncTimeoutMillis());
+        Assertions.assertEquals("off", properties.getCompression());
+    }
+
+    @Test
+    void testUnlimitedKeepAliveRequests() {
+        ConnectorProperties properties = ConnectorProperties.from(
+                UnlimitedKeepAliveEndpoint.class.getAnnotation(McpServerEndpoint.class).connector());
+
+        Assertions.assertEquals(-1, properties.getMaxKeepAliveRequests());
+        Assertions.assertNull(ConnectorProperties.from(
+                McpServerTool.class.getAnnotation(McpServerEndpoint.class).connector()).getMaxKeepAliveRequests());
+    }
+
+    @Test
+    void testCreateConnector() {
+        Connector connector = ConnectorProperties.preset(ConnectorProperties.PRESET_HIGH_CONCURRENCY).createConnector(9100);
+
+        Assertions.assertEquals("org.apache.coyote.http11.Http11Nio2Protocol", connector.getProtocolHandlerClassName());
+        Assertions.assertEquals(9100, connector.getPort());
+        Assertions.assertEquals(0, connector.getAsyncTimeout());
+        Assertions.assertEquals(400, connector.getProperty("maxThreads"));
+        Assertions.assertEquals(2048, connector.getProperty("acceptCount"));
+        Assertions.assertEquals("on", connector.getProperty("compression"));
+    }
+
+    @Test
+    void testUnknownPreset() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConnectorProperties.preset("fast"));
+    }
+}
@@ -0,0 +1,73 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class ListResultSnapshotsTest {
+
+    private final ListResultSnapshots snapshots = new ListResultSnapshots();
+    private final ObjectMapper objectMapper = snapshots.register(new ObjectMapper());
+
+    private final McpSchema.Tool hello = new McpSchema.Tool("sayHello", "问候", "{\"type\":\"object\"}");
+    private final McpSchema.Tool landmark = new McpSchema.Tool("getLandmark", "获取地标", "{\"type\":\"object\"}");
+
+    @Test
+    void testSnapshotReusedForSameTools() throws Exception {
+        // SDK每次list请求都会新建List
+        String first = objectMapper.writeValueAsString(new McpSchema.ListToolsResult(new ArrayList<>(Arrays.asList(hello, landmark)), null));
+        String etag = snapshots.getToolsEtag();
+        String second = objectMapper.writeValueAsString(new McpSchema.ListToolsResult(new ArrayList<>(Arrays.asList(hello, landmark)), null));
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotNull(etag);
+        Assertions.assertEquals(etag, objectMapper.readTree(second).path("_meta").path("etag").asText());
+        Assertions.assertEquals("sayHello", objectMapper.readTree(second).path("tools").get(0).path("name").asText());
+    }
+
+    @Test
+    void testSnapshotRebuiltWhenToolsChange() throws Exception {
+        objectMapper.writeValueAsString(new McpSchema.ListToolsResult(Arrays.asList(hello, landmark), null));
+        String etag = snapshots.getToolsEtag();
+        JsonNode result = objectMapper.readTree(objectMapper.writeValueAsString(
+                new McpSchema.ListToolsResult(Collections.singletonList(hello), null)));
+        Assertions.assertEquals(1, result.path("tools").size());
+        Assertions.assertNotEquals(etag, snapshots.getToolsEtag());
+    }
+
+    @Test
+    void testInvalidate() throws Exception {
+        List<McpSchema.Tool> tools = Arrays.asList(hello, landmark);
+        objectMapper.writeValueAsString(new McpSchema.ListToolsResult(tools, null));
+        snapshots.invalidate();
+        Assertions.assertNull(snapshots.getToolsEtag());
+        objectMapper.writeValueAsString(new McpSchema.ListToolsResult(tools, null));
+        Assertions.assertNotNull(snapshots.getToolsEtag());
+    }
+
+    @Test
+    void testEmbeddedInResponse() throws Exception {
+        String json = objectMapper.writeValueAsString(Collections.singletonMap("result",
+                new McpSchema.ListToolsResult(Collections.singletonList(hello), null)));
+        Assertions.assertEquals("sayHello", objectMapper.readTree(json).path("result").path("tools").get(0).path("name").asText());
+    }
+
+    @Test
+    void testCurrentDefinitions() throws Exception {
+        McpSchema.Tool updated = new McpSchema.Tool("sayHello", "问候并回显", "{\"type\":\"object\"}");
+        List<McpSchema.Tool> tools = Arrays.asList(hello, landmark);
+        objectMapper.writeValueAsString(new McpSchema.ListToolsResult(tools, null));
+        // 热加载更新了定义：SDK中注册的仍是原对象
+        snapshots.setCurrentDefinitions(tool -> tool.getName().equals("sayHello") ? updated : tool, prompt -> prompt);
+        snapshots.invalidate();
+        JsonNode result = objectMapper.readTree(objectMapper.writeValueAsString(new McpSchema.ListToolsResult(tools, null)));
+        Assertions.assertEquals("问候并回显", result.path("tools").get(0).path("description").asText());
+        Assertions.assertEquals("获取地标", result.path("tools").get(1).path("description").asText());
+    }
+}
@@ -0,0 +1,140 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+class McpClassScannerTest {
+
+    private static final List<String> PACKAGES = Collections.singletonList("org.cafe.example.mcp");
+
+    private static final AtomicBoolean NOT_A_TOOL_INITIALIZED = new AtomicBoolean();
+
+    public static class NotATool {
+
+        static {
+            NOT_A_TOOL_INITIALIZED.set(true);
+        }
+    }
+
+    private static Path classesDirectory() throws Exception {
+        return Paths.get(McpServerTool.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static Path createJar(Class<?>... classes) throws Exception {
+        Path jar = Files.createTempFile("scan", ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Class<?> clazz : classes) {
+                String name = clazz.getName().replace('.', '/') + ".class";
+                out.putNextEntry(new JarEntry(name));
+                out.write(Files.readAllBytes(classesDirectory().resolve(name)));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    @Test
+    void testReadAnnotationsFromClassFile() throws Exception {
+        byte[] bytes = Files.readAllBytes(classesDirectory().resolve(McpServerTool.class.getName().replace('.', '/') + ".class"));
+        ClassFileReader reader = new ClassFileReader(bytes);
+
+        Assertions.assertEquals(McpServerTool.class.getName(), reader.getClassName());
+        Assertions.assertTrue(reader.getClassAnnotations().contains("org.cafe.example.mcp.annotation.McpServerEndpoint"));
+        Assertions.assertTrue(reader.getMethodAnnotations().contains("org.springframework.ai.tool.annotation.Tool"));
+        Assertions.assertTrue(reader.getMethodAnnotations().contains("org.cafe.example.mcp.annotation.ToolBatch"));
+    }
+
+    @Test
+    void testScanDirectory() throws Exception {
+        McpClassScanner.ScanResult result = new McpClassScanner(PACKAGES, null).scan(Collections.singletonList(classesDirectory()));
+
+        Assertions.assertEquals(Collections.singletonList(McpServerTool.class.getName()), result.getEndpointClasses());
+        Assertions.assertTrue(result.getToolClasses().contains(McpServerTool.class.getName()));
+        Assertions.assertFalse(result.getToolClasses().contains(McpTool.class.getName()));
+    }
+
+    @Test
+    void testScanJarWithCache() throws Exception {
+        Path cacheFile = Files.createTempDirectory("scan-cache").resolve("scan.json");
+        Path jar = createJar(McpServerTool.class, McpTool.class);
+        McpClassScanner scanner = new McpClassScanner(PACKAGES, cacheFile);
+
+        McpClassScanner.ScanResult result = scanner.scan(Collections.singletonList(jar));
+        Assertions.assertEquals(Collections.singletonList(McpServerTool.class.getName()), result.getEndpointClasses());
+        Assertions.assertTrue(Files.readAllLines(cacheFile).get(0).contains(jar.getFileName().toString()));
+        Assertions.assertEquals(result, scanner.scan(Collections.singletonList(jar)));
+
+        // jar变化后重新扫描
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            out.write(Files.readAllBytes(createJar(McpTool.class)));
+        }
+        Assertions.assertTrue(scanner.scan(Collections.singletonList(jar)).getEndpointClasses().isEmpty());
+    }
+
+    @Test
+    void testCacheWritableByOthersIsIgnored() throws Exception {
+        Path cacheFile = Files.createTempDirectory("scan-cache").resolve("scan.json");
+        Assumptions.assumeTrue(Files.getFileAttributeView(cacheFile.getParent(), PosixFileAttributeView.class) != null);
+        Path jar = createJar(McpServerTool.class, McpTool.class);
+        McpClassScanner scanner = new McpClassScanner(PACKAGES, cacheFile);
+        scanner.scan(Collections.singletonList(jar));
+        Assertions.assertTrue(McpClassScanner.isPrivate(cacheFile));
+
+        // 被其他用户改写的缓存不使用
+        String poisoned = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8)
+                .replace(McpServerTool.class.getName(), McpTool.class.getName());
+        Files.write(cacheFile, poisoned.getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(cacheFile, PosixFilePermissions.fromString("rw-rw-rw-"));
+        Assertions.assertFalse(McpClassScanner.isPrivate(cacheFile));
+        Assertions.assertEquals(Collections.singletonList(McpServerTool.class.getName()),
+                scanner.scan(Collections.singletonList(jar)).getEndpointClasses());
+    }
+
+    @Test
+    void testDefaultIsNoCache() throws Exception {
+        Assertions.assertNull(System.getProperty(McpClassScanner.PROPERTY_SCAN_CACHE_FILE));
+        Path tmpCache = Paths.get(System.getProperty("java.io.tmpdir"), "mcp-class-scan.json");
+        boolean existed = Files.exists(tmpCache);
+        McpClassScanner.fromSystemProperties().scan(Collections.singletonList(classesDirectory()));
+        Assertions.assertEquals(existed, Files.exists(tmpCache));
+    }
+
+    @Test
+    void testAnnotationsAreCheckedAfterLoading() {
+        // 类名可能来自缓存文件，加载后确认注解，不初始化不符合的类
+        Assertions.assertNull(McpServerEndpointProcessor.createToolBean(NotATool.class.getName()));
+        Assertions.assertFalse(NOT_A_TOOL_INITIALIZED.get());
+        Assertions.assertNull(McpServerEndpointProcessor.resolveMcpServerEndpoint(McpTool.class.getName()));
+        Assertions.assertNotNull(McpServerEndpointProcessor.resolveMcpServerEndpoint(McpServerTool.class.getName()));
+        Assertions.assertTrue(McpServerEndpointProcessor.createToolBean(McpServerTool.class.getName()) instanceof McpServerTool);
+    }
+
+    @Test
+    void testResolveToolClasses() {
+        McpClassScanner.ScanResult result = new McpClassScanner.ScanResult();
+        result.getEndpointClasses().add("a.Endpoint");
+        result.getEndpointClasses().add("b.Endpoint");
+        result.getToolClasses().add("a.Endpoint");
+        result.getToolClasses().add("a.sub.Tools");
+        result.getToolClasses().add("b.Endpoint");
+        result.getToolClasses().add("c.Tools");
+
+        Assertions.assertEquals(Arrays.asList("a.Endpoint", "a.sub.Tools"),
+                McpServerEndpointProcessor.resolveToolClasses("a.Endpoint", result));
+    }
+}
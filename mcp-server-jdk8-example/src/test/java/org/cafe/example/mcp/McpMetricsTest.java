@@ -0,0 +1,133 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.StringWriter;
+import java.util.Collections;
+
+class McpMetricsTest {
+
+    @Test
+    void testHistogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordNanos(i * 1000_000L);
+        }
+
+        Assertions.assertEquals(1000, histogram.getCount());
+        Assertions.assertEquals(1000_000, histogram.getMaxMicros());
+        // 相对误差不超过约3%
+        Assertions.assertEquals(500_000, histogram.getQuantileMicros(0.5), 500_000 * 0.035);
+        Assertions.assertEquals(990_000, histogram.getQuantileMicros(0.99), 990_000 * 0.035);
+        Assertions.assertEquals(1000_000, histogram.getQuantileMicros(0.999), 1000_000 * 0.035);
+        Assertions.assertEquals(0, new LatencyHistogram().getQuantileMicros(0.5));
+    }
+
+    @Test
+    void testBucketBoundaries() {
+        long previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros += 7) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            Assertions.assertTrue(LatencyHistogram.bucketUpperBound(index) >= micros);
+            Assertions.assertTrue(index >= previous);
+            previous = index;
+        }
+        Assertions.assertEquals(LatencyHistogram.bucketIndex(Long.MAX_VALUE), LatencyHistogram.bucketIndex(1L << 40));
+    }
+
+    @Test
+    void testWrapCountsCallsAndErrors() {
+        McpMetrics metrics = new McpMetrics("test-server", "test-server");
+        try {
+            McpSchema.Resource resource = new McpSchema.Resource("file:///a.txt", "a.txt", null, "text/plain", null);
+            McpServerFeatures.SyncResourceSpecification specification = metrics.wrap(
+                    new McpServerFeatures.SyncResourceSpecification(resource, (exchange, request) -> {
+                        if (request.getUri().endsWith("error")) {
+                            throw new IllegalStateException("read error");
+                        }
+                        return new McpSchema.ReadResourceResult(Collections.emptyList());
+                    }));
+
+            specification.getReadHandler().apply(null, new McpSchema.ReadResourceRequest("file:///a.txt"));
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> specification.getReadHandler().apply(null, new McpSchema.ReadResourceRequest("file:///error")));
+
+            CallMetrics callMetrics = metrics.get(McpMetrics.METHOD_RESOURCES_READ, "file:///a.txt");
+            Assertions.assertEquals(2, callMetrics.getCallCount());
+            Assertions.assertEquals(1, callMetrics.getErrorCount());
+            Assertions.assertEquals(0, callMetrics.getInFlight());
+        } finally {
+            metrics.close();
+        }
+    }
+
+    @Test
+    void testWrapAsyncCountsCallsAndErrors() {
+        McpMetrics metrics = new McpMetrics("test-server", "test-server");
+        try {
+            McpSchema.Tool tool = new McpSchema.Tool("asyncTool", "asyncTool", "{}");
+            McpServerFeatures.AsyncToolSpecification specification = metrics.wrap(
+                    new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) -> {
+                        switch (String.valueOf(arguments.get("mode"))) {
+                            case "throw":
+                                throw new IllegalStateException("sync error");
+                            case "error":
+                                return Mono.error(new IllegalStateException("async error"));
+                            case "errorResult":
+                                return Mono.just(new McpSchema.CallToolResult(Collections.emptyList(), true));
+                            case "never":
+                                return Mono.never();
+                            default:
+                                return Mono.just(new McpSchema.CallToolResult(Collections.emptyList(), false));
+                        }
+                    }));
+            CallMetrics callMetrics = metrics.get(McpMetrics.METHOD_TOOLS_CALL, "asyncTool");
+
+            // 订阅之前不计数
+            Mono<McpSchema.CallToolResult> result = specification.getCall().apply(null, Collections.singletonMap("mode", "ok"));
+            Assertions.assertEquals(0, callMetrics.getCallCount());
+            result.block();
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> specification.getCall().apply(null, Collections.singletonMap("mode", "throw")).block());
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> specification.getCall().apply(null, Collections.singletonMap("mode", "error")).block());
+            specification.getCall().apply(null, Collections.singletonMap("mode", "errorResult")).block();
+            Assertions.assertEquals(4, callMetrics.getCallCount());
+            Assertions.assertEquals(3, callMetrics.getErrorCount());
+            Assertions.assertEquals(0, callMetrics.getInFlight());
+
+            // 取消时结束in-flight，不计入错误
+            specification.getCall().apply(null, Collections.singletonMap("mode", "never")).subscribe().dispose();
+            Assertions.assertEquals(5, callMetrics.getCallCount());
+            Assertions.assertEquals(3, callMetrics.getErrorCount());
+            Assertions.assertEquals(0, callMetrics.getInFlight());
+        } finally {
+            metrics.close();
+        }
+    }
+
+    @Test
+    void testWritePrometheus() throws Exception {
+        McpMetrics metrics = new McpMetrics("test \"server\"", null);
+        try {
+            CallMetrics callMetrics = metrics.get(McpMetrics.METHOD_TOOLS_CALL, "getWeather");
+            callMetrics.end(callMetrics.start(), true);
+            StringWriter out = new StringWriter();
+
+            McpMetrics.writePrometheus(Collections.singletonList(metrics), out);
+
+            String labels = "server=\"test \\\"server\\\"\",method=\"tools/call\",name=\"getWeather\"";
+            Assertions.assertTrue(out.toString().contains("# TYPE mcp_calls_total counter\nmcp_calls_total{" + labels + "} 1\n"));
+            Assertions.assertTrue(out.toString().contains("mcp_errors_total{" + labels + "} 1\n"));
+            Assertions.assertTrue(out.toString().contains("mcp_in_flight{" + labels + "} 0\n"));
+            Assertions.assertTrue(out.toString().contains("mcp_latency_seconds{" + labels + ",quantile=\"0.99\"} "));
+            Assertions.assertTrue(out.toString().contains("mcp_latency_seconds_count{" + labels + "} 1\n"));
+        } finally {
+            metrics.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.cafe.example.mcp;
+
+import org.cafe.example.mcp.host.a.HostEndpointA;
+import org.cafe.example.mcp.util.JmxUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class McpServerHostTest {
+
+    private static final String HOST_PACKAGE = "org.cafe.example.mcp.host.";
+
+    private McpServerHost host;
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(McpServerHost.PROPERTY_HOST_PORT);
+        if (host != null) {
+            host.stop();
+        }
+    }
+
+    private static McpClassScanner.ScanResult scan(String... packages) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (String name : packages) {
+            names.add(HOST_PACKAGE + name);
+        }
+        Path classes = Paths.get(HostEndpointA.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        return new McpClassScanner(names, null).scan(Collections.singletonList(classes));
+    }
+
+    private int status(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + host.getPort() + path).openConnection();
+        connection.setRequestMethod("POST");
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static boolean isRegistered(String type, String name) throws Exception {
+        return ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName(JmxUtils.DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name)));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void testMountsServersOnHostPort() throws Exception {
+        int port = freePort();
+        System.setProperty(McpServerHost.PROPERTY_HOST_PORT, String.valueOf(port));
+        host = new McpServerHost();
+        host.start(scan("a", "b"));
+
+        Assertions.assertEquals(port, host.getPort());
+        Assertions.assertNotEquals(404, status("/a/message"));
+        Assertions.assertNotEquals(404, status("/b/message"));
+        Assertions.assertEquals(404, status("/c/message"));
+        // 各MCP Server的指标以名称为前缀，不会互相覆盖
+        Assertions.assertTrue(isRegistered("PromptContentCache", "a/prompts"));
+        Assertions.assertTrue(isRegistered("PromptContentCache", "b/prompts"));
+        Assertions.assertTrue(isRegistered("ResourceCache", "a/resources"));
+        Assertions.assertTrue(isRegistered("ResourceCache", "b/resources"));
+
+        host.stop();
+        Assertions.assertFalse(isRegistered("PromptContentCache", "a/prompts"));
+        Assertions.assertFalse(isRegistered("ResourceCache", "b/resources"));
+        host = null;
+    }
+
+    @Test
+    void testDefaultPortIsFirstServerPort() throws Exception {
+        host = new McpServerHost();
+        host.start(scan("a"));
+
+        Assertions.assertEquals(19501, host.getPort());
+        Assertions.assertNotEquals(404, status("/a/sse"));
+    }
+
+    @Test
+    void testDuplicatePathIsRejected() throws Exception {
+        System.setProperty(McpServerHost.PROPERTY_HOST_PORT, String.valueOf(freePort()));
+        host = new McpServerHost();
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, () -> host.start(scan("a", "dup")));
+        Assertions.assertEquals("McpServer 'dup' path /a/sse is already used by McpServer 'a'", e.getMessage());
+    }
+
+    @Test
+    void testSharedConfigIsRejected() throws Exception {
+        host = new McpServerHost();
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, () -> host.start(scan("a", "shared")));
+        Assertions.assertTrue(e.getMessage().startsWith("McpServer 'shared' tool list "), e.getMessage());
+        Assertions.assertTrue(e.getMessage().contains("is already used by McpServer 'a'"), e.getMessage());
+    }
+}
@@ -0,0 +1,156 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+class McpTracingTest {
+
+    private static final String TRACEPARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        McpTracing.stop();
+    }
+
+    @Test
+    void testSampling() {
+        Assertions.assertNull(McpTracing.startRequest("POST /mcp", null));
+
+        McpTracing.start(0, Collections.singletonList(new SpanRingBuffer(16)));
+        Assertions.assertNull(McpTracing.startRequest("POST /mcp", null));
+        Assertions.assertNull(McpTracing.startRequest("POST /mcp", TRACEPARENT.replace("-01", "-00")));
+
+        // 已采样的上游trace总是延续
+        Span remote = McpTracing.startRequest("POST /mcp", TRACEPARENT);
+        Assertions.assertNotNull(remote);
+        Assertions.assertEquals("0af7651916cd43dd8448eb211c80319c", remote.getTraceId());
+        Assertions.assertEquals("b7ad6b7169203331", remote.getParentSpanIdHex());
+        Assertions.assertEquals(Span.KIND_SERVER, remote.getKind());
+
+        McpTracing.stop();
+        McpTracing.start(1, Collections.singletonList(new SpanRingBuffer(16)));
+        Span root = McpTracing.startRequest("POST /mcp", "invalid");
+        Assertions.assertNotNull(root);
+        Assertions.assertNull(root.getParentSpanIdHex());
+        Assertions.assertEquals(32, root.getTraceId().length());
+    }
+
+    @Test
+    void testJsonSpansAndPropagation() throws Exception {
+        SpanRingBuffer ringBuffer = new SpanRingBuffer(16);
+        McpTracing.start(1, Collections.singletonList(ringBuffer));
+        TracingObjectMapper tracingObjectMapper = new TracingObjectMapper();
+
+        // 未采样时不记录
+        tracingObjectMapper.readValue("{\"jsonrpc\":\"2.0\"}", Map.class);
+        Assertions.assertTrue(ringBuffer.recent(16).isEmpty());
+
+        Span root = McpTracing.startRequest("POST /mcp", null);
+        Runnable scheduled;
+        try (McpTracing.Scope ignored = McpTracing.activate(root)) {
+            tracingObjectMapper.readValue("{\"jsonrpc\":\"2.0\",\"method\":\"tools/call\"}", Map.class);
+            scheduled = McpTracing.propagate(() -> {
+                Assertions.assertSame(root, McpTracing.current());
+                try {
+                    tracingObjectMapper.writeValueAsString(Collections.singletonMap("result", "天安门"));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        Assertions.assertNull(McpTracing.current());
+        Thread thread = new Thread(scheduled);
+        thread.start();
+        thread.join();
+        root.end();
+
+        List<Span> trace = ringBuffer.trace(root.getTraceId());
+        Assertions.assertEquals(Arrays.asList("POST /mcp", McpTracing.SPAN_DECODE, McpTracing.SPAN_SCHEDULE, McpTracing.SPAN_ENCODE),
+                Arrays.asList(trace.stream().map(Span::getName).toArray()));
+        for (Span span : trace.subList(1, trace.size())) {
+            Assertions.assertEquals(root.getSpanIdHex(), span.getParentSpanIdHex());
+        }
+        Assertions.assertEquals(root, ringBuffer.recent(1).get(0));
+        // 按UTF-8字节数而非字符数记录
+        Assertions.assertEquals("{\"result\":\"天安门\"}".getBytes(StandardCharsets.UTF_8).length,
+                trace.get(3).getAttributes().get("json.bytes"));
+    }
+
+    @Test
+    void testUtf8Length() {
+        for (String s : Arrays.asList("", "{\"jsonrpc\":\"2.0\"}", "é", "天安门", "\uD83D\uDE00", "a\u00e9\u5929\uD83D\uDE00")) {
+            Assertions.assertEquals(s.getBytes(StandardCharsets.UTF_8).length, TracingObjectMapper.utf8Length(s), s);
+        }
+    }
+
+    @Test
+    void testRingBufferKeepsRecentSpans() {
+        SpanRingBuffer ringBuffer = new SpanRingBuffer(4);
+        Span root = new Span(1, 2, 0, "root", Span.KIND_SERVER, System.nanoTime());
+        for (int i = 0; i < 10; i++) {
+            ringBuffer.export(root.child("span-" + i));
+        }
+        List<Span> recent = ringBuffer.recent(10);
+        Assertions.assertEquals(Arrays.asList("span-9", "span-8", "span-7", "span-6"),
+                Arrays.asList(recent.stream().map(Span::getName).toArray()));
+        Assertions.assertEquals(2, ringBuffer.recent(2).size());
+        Assertions.assertEquals(4, ringBuffer.trace(root.getTraceId()).size());
+        Assertions.assertTrue(ringBuffer.trace("00000000000000000000000000000003").isEmpty());
+    }
+
+    @Test
+    void testOtlpJson() throws Exception {
+        Span root = new Span(1, 2, 0, "POST /mcp", Span.KIND_SERVER, System.nanoTime());
+        root.setAttribute("http.response.status_code", 200).setAttribute("mcp.server", "test");
+        Span child = root.child(McpTracing.SPAN_TOOL_INVOKE);
+        child.setError(new IllegalStateException("failed"));
+        child.end();
+        root.end();
+
+        StringWriter writer = new StringWriter();
+        McpTracing.writeOtlpJson(Arrays.asList(root, child), writer);
+        JsonNode spans = objectMapper.readTree(writer.toString())
+                .path("resourceSpans").path(0).path("scopeSpans").path(0).path("spans");
+        Assertions.assertEquals(2, spans.size());
+        Assertions.assertEquals("00000000000000010000000000000002", spans.path(0).path("traceId").asText());
+        Assertions.assertTrue(spans.path(0).path("parentSpanId").isMissingNode());
+        Assertions.assertEquals(2, spans.path(0).path("kind").asInt());
+        Assertions.assertEquals("200", spans.path(0).path("attributes").path(0).path("value").path("intValue").asText());
+        Assertions.assertEquals("test", spans.path(0).path("attributes").path(1).path("value").path("stringValue").asText());
+        Assertions.assertTrue(spans.path(0).path("endTimeUnixNano").asLong() >= spans.path(0).path("startTimeUnixNano").asLong());
+        Assertions.assertEquals(root.getSpanIdHex(), spans.path(1).path("parentSpanId").asText());
+        Assertions.assertEquals(2, spans.path(1).path("status").path("code").asInt());
+    }
+
+    @Test
+    void testOtlpJsonFileExporter() throws Exception {
+        Path file = Files.createTempDirectory("otlp").resolve("spans.jsonl");
+        OtlpJsonFileExporter exporter = new OtlpJsonFileExporter(file, 16);
+        Span root = new Span(1, 2, 0, "POST /mcp", Span.KIND_SERVER, System.nanoTime());
+        for (int i = 0; i < 20; i++) {
+            exporter.export(root.child("span-" + i));
+        }
+        exporter.close();
+
+        long written = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            written += objectMapper.readTree(line).path("resourceSpans").path(0).path("scopeSpans").path(0).path("spans").size();
+        }
+        Assertions.assertEquals(20, written + exporter.getDroppedCount());
+        Assertions.assertTrue(written >= 16);
+    }
+}
@@ -0,0 +1,64 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MemoizedTest {
+
+    @Test
+    void testConcurrentCallersLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        Memoized<String> memoized = new Memoized<>(() -> {
+            loads.incrementAndGet();
+            try {
+                loading.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "value";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(memoized::get));
+            }
+            Thread.sleep(100);
+            loading.countDown();
+            for (Future<String> result : results) {
+                Assertions.assertEquals("value", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals("value", memoized.get());
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testFailureIsNotMemoized() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Memoized<String> memoized = new Memoized<>(() -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("broken");
+            }
+            return "value";
+        });
+
+        Assertions.assertThrows(IOException.class, memoized::get);
+        Assertions.assertEquals("value", memoized.get());
+        Assertions.assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,56 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class PromptCatalogTest {
+
+    private static Path createFile(Path dir, String name) throws Exception {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, new byte[]{'{', '}'});
+    }
+
+    @Test
+    void testScan() throws Exception {
+        Path dir = Files.createTempDirectory("prompt-catalog");
+        createFile(dir, "prompt-list.json");
+        Path text = createFile(dir, "text.json");
+        createFile(dir, "team/review.PNG");
+        createFile(dir, "team/deep/chart.webp");
+        createFile(dir, "notes.unknown");
+
+        PromptCatalog catalog = PromptCatalog.scan(dir);
+
+        Assertions.assertEquals(3, catalog.size());
+        Assertions.assertNull(catalog.get("prompt-list"));
+        Assertions.assertNull(catalog.get("notes"));
+        Assertions.assertEquals(text, catalog.get("text").getPath());
+        Assertions.assertTrue(catalog.get("text").isText());
+        Assertions.assertEquals("image/png", catalog.get("team/review").getMimeType());
+        Assertions.assertEquals("image/webp", catalog.get("team/deep/chart").getMimeType());
+        Assertions.assertTrue(catalog.get("team/deep/chart").isImage());
+    }
+
+    @Test
+    void testTextPreferredOnDuplicateName() throws Exception {
+        Path dir = Files.createTempDirectory("prompt-catalog");
+        createFile(dir, "same.png");
+        Path text = createFile(dir, "same.json");
+
+        Assertions.assertEquals(text, PromptCatalog.scan(dir).get("same").getPath());
+    }
+
+    @Test
+    void testStampChangesWithFile() throws Exception {
+        Path dir = Files.createTempDirectory("prompt-catalog");
+        Path file = createFile(dir, "text.json");
+        String stamp = PromptCatalog.scan(dir).get("text").getStamp();
+
+        Files.write(file, new byte[]{'{', ' ', '}'});
+        Assertions.assertNotEquals(stamp, PromptCatalog.scan(dir).get("text").getStamp());
+    }
+}
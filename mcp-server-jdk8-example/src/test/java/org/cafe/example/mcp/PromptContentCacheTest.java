@@ -0,0 +1,110 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class PromptContentCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Callable<Function<Map<String, Object>, McpSchema.GetPromptResult>> loader(String description) {
+        return () -> {
+            loads.incrementAndGet();
+            McpSchema.GetPromptResult result = new McpSchema.GetPromptResult(description, Collections.emptyList());
+            return arguments -> result;
+        };
+    }
+
+    private String render(PromptContentCache cache, String name, String stamp, long weight) throws Exception {
+        return cache.get(name, stamp, weight, loader(name + "@" + stamp)).apply(null).getDescription();
+    }
+
+    @Test
+    void testLoadedOnceAndReloadedWhenStampChanges() throws Exception {
+        PromptContentCache cache = new PromptContentCache(0, PromptContentCache.Eviction.LRU, false, Collections.emptyList());
+
+        Assertions.assertEquals("a@1", render(cache, "a", "1", 10));
+        Assertions.assertEquals("a@1", render(cache, "a", "1", 10));
+        Assertions.assertEquals(1, loads.get());
+
+        Assertions.assertEquals("a@2", render(cache, "a", "2", 20));
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(20, cache.getResidentBytes());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getLoadCount());
+        Assertions.assertEquals(1.0 / 3, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void testLruEviction() throws Exception {
+        PromptContentCache cache = new PromptContentCache(30, PromptContentCache.Eviction.LRU, false, Collections.emptyList());
+        render(cache, "a", "1", 10);
+        render(cache, "b", "1", 10);
+        render(cache, "c", "1", 10);
+        // 访问a后b成为最久未访问的
+        render(cache, "a", "1", 10);
+        render(cache, "d", "1", 10);
+
+        Assertions.assertEquals(3, cache.getSize());
+        Assertions.assertEquals(30, cache.getResidentBytes());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        loads.set(0);
+        render(cache, "a", "1", 10);
+        Assertions.assertEquals(0, loads.get());
+        render(cache, "b", "1", 10);
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testLfuEviction() throws Exception {
+        PromptContentCache cache = new PromptContentCache(30, PromptContentCache.Eviction.LFU, false, Collections.emptyList());
+        render(cache, "a", "1", 10);
+        render(cache, "b", "1", 10);
+        render(cache, "c", "1", 10);
+        render(cache, "a", "1", 10);
+        render(cache, "a", "1", 10);
+        render(cache, "b", "1", 10);
+        // c访问次数最少，虽然是最近访问的也被淘汰
+        render(cache, "d", "1", 10);
+
+        loads.set(0);
+        render(cache, "a", "1", 10);
+        render(cache, "b", "1", 10);
+        Assertions.assertEquals(0, loads.get());
+        render(cache, "c", "1", 10);
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testPinnedNotEvicted() throws Exception {
+        PromptContentCache cache = new PromptContentCache(20, PromptContentCache.Eviction.LRU, true, Collections.singletonList("hot"));
+        render(cache, "hot", "1", 10);
+        render(cache, "b", "1", 10);
+        render(cache, "c", "1", 10);
+        render(cache, "d", "1", 10);
+
+        loads.set(0);
+        render(cache, "hot", "1", 10);
+        Assertions.assertEquals(0, loads.get());
+        Assertions.assertEquals(20, cache.getResidentBytes());
+    }
+
+    @Test
+    void testLoadFailureNotCached() throws Exception {
+        PromptContentCache cache = new PromptContentCache(0, PromptContentCache.Eviction.LRU, false, Collections.emptyList());
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get("a", "1", 10, () -> {
+            throw new IllegalStateException("broken");
+        }));
+
+        Assertions.assertEquals("a@1", render(cache, "a", "1", 10));
+        Assertions.assertEquals(1, cache.getLoadFailureCount());
+        Assertions.assertEquals(1, cache.getLoadCount());
+    }
+}
@@ -0,0 +1,210 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.cafe.example.mcp.util.JmxUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class PromptProviderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private PromptProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        writePromptList(prompt("greeting", "问候", "name"), prompt("farewell", "告别"));
+        writePromptFile("greeting", "你好，%s");
+        writePromptFile("farewell", "再见");
+        provider = new PromptProvider(new BlobStore(), dir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    private ObjectNode prompt(String name, String description, String... arguments) {
+        ObjectNode prompt = objectMapper.createObjectNode();
+        prompt.put("name", name);
+        prompt.put("description", description);
+        ArrayNode argumentNodes = prompt.putArray("arguments");
+        for (String argument : arguments) {
+            argumentNodes.addObject().put("name", argument).put("required", true);
+        }
+        return prompt;
+    }
+
+    private void writePromptList(ObjectNode... prompts) throws Exception {
+        ObjectNode list = objectMapper.createObjectNode();
+        ArrayNode promptNodes = list.putArray("prompts");
+        for (ObjectNode prompt : prompts) {
+            promptNodes.add(prompt);
+        }
+        Files.write(dir.resolve("prompt-list.json"), objectMapper.writeValueAsBytes(list));
+    }
+
+    private void writePromptFile(String name, String text) throws Exception {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("description", name);
+        ObjectNode message = result.putArray("messages").addObject();
+        message.put("role", "assistant");
+        message.putObject("content").put("type", "text").put("text", text);
+        Path file = dir.resolve(name + ".json");
+        boolean exists = Files.exists(file);
+        Files.write(file, objectMapper.writeValueAsString(result).getBytes(StandardCharsets.UTF_8));
+        if (exists) {
+            // 文件系统的修改时间精度可能较低，确保版本标识变化
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        }
+    }
+
+    private McpServerFeatures.SyncPromptSpecification specification(String name) throws Exception {
+        return provider.allSyncPrompts().stream().filter(specification -> specification.getPrompt().getName().equals(name))
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    private static String render(McpServerFeatures.SyncPromptSpecification specification, Map<String, Object> arguments) {
+        McpSchema.GetPromptResult result = specification.getPromptHandler().apply(null,
+                new McpSchema.GetPromptRequest(specification.getPrompt().getName(), arguments));
+        return ((McpSchema.TextContent) result.getMessages().get(0).getContent()).getText();
+    }
+
+    @Test
+    void testReloadFilePrompts() throws Exception {
+        McpServerFeatures.SyncPromptSpecification greeting = specification("greeting");
+        McpServerFeatures.SyncPromptSpecification farewell = specification("farewell");
+        Assertions.assertEquals("你好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+        Assertions.assertTrue(provider.reloadFilePrompts().isEmpty());
+
+        writePromptList(prompt("greeting", "按姓名问候", "name"), prompt("welcome", "欢迎"));
+        writePromptFile("welcome", "欢迎");
+        ListChanges<McpSchema.Prompt> changes = provider.reloadFilePrompts();
+        Assertions.assertEquals(Collections.singletonList("greeting"), names(changes.getUpdated()));
+        Assertions.assertEquals(Collections.singletonList("welcome"), names(changes.getAdded()));
+        Assertions.assertEquals(Collections.singletonList("farewell"), changes.getRemoved());
+        // 重新获取的规格列表为当前的定义
+        List<McpSchema.Prompt> current = provider.allSyncPrompts().stream().map(McpServerFeatures.SyncPromptSpecification::getPrompt)
+                .filter(prompt -> !prompt.getName().startsWith("test-prompt")).collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("greeting", "welcome"), names(current));
+        Assertions.assertEquals("按姓名问候", current.get(0).getDescription());
+
+        // SDK中注册的仍是启动时的定义，prompts/list按名称输出当前定义
+        Assertions.assertEquals("按姓名问候", provider.currentPrompt(greeting.getPrompt()).getDescription());
+        Assertions.assertThrows(IllegalStateException.class, () -> render(farewell, Collections.emptyMap()));
+        Assertions.assertEquals("欢迎", render(provider.syncSpecification(changes.getAdded().get(0)), Collections.emptyMap()));
+    }
+
+    @Test
+    void testContentChangeIsNotListChange() throws Exception {
+        McpServerFeatures.SyncPromptSpecification greeting = specification("greeting");
+        Assertions.assertEquals("你好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+
+        writePromptFile("greeting", "您好，%s");
+        Assertions.assertTrue(provider.reloadFilePrompts().isEmpty());
+        Assertions.assertEquals("您好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+    }
+
+    @Test
+    void testMissingFileKeepsHandler() throws Exception {
+        McpServerFeatures.SyncPromptSpecification greeting = specification("greeting");
+        Assertions.assertEquals("你好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+
+        Files.delete(dir.resolve("greeting.json"));
+        Assertions.assertTrue(provider.reloadFilePrompts().isEmpty());
+        Assertions.assertEquals("你好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+    }
+
+    @Test
+    void testPromptFileIsLoadedLazily() throws Exception {
+        McpServerFeatures.SyncPromptSpecification greeting = specification("greeting");
+        PromptContentCache cache = provider.getContentCache();
+        Assertions.assertEquals(0, cache.getLoadCount());
+
+        Assertions.assertEquals("你好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+        Assertions.assertEquals("你好，李四", render(greeting, Collections.singletonMap("name", "李四")));
+        Assertions.assertEquals(1, cache.getLoadCount());
+        Assertions.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testFailedLoadIsRetried() throws Exception {
+        McpServerFeatures.SyncPromptSpecification greeting = specification("greeting");
+        Path file = dir.resolve("greeting.json");
+        byte[] content = Files.readAllBytes(file);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+
+        Files.delete(file);
+        Assertions.assertThrows(IllegalStateException.class, () -> render(greeting, Collections.singletonMap("name", "张三")));
+        Assertions.assertEquals(1, provider.getContentCache().getLoadFailureCount());
+
+        // 加载失败不缓存，文件恢复后再次获取时重新加载
+        Files.write(file, content);
+        Files.setLastModifiedTime(file, lastModified);
+        Assertions.assertEquals("你好，张三", render(greeting, Collections.singletonMap("name", "张三")));
+        Assertions.assertEquals(1, provider.getContentCache().getLoadCount());
+    }
+
+    @Test
+    void testInvalidPromptFilesAreNotListed() throws Exception {
+        writePromptList(prompt("greeting", "问候", "name"), prompt("broken", "格式错误"), prompt("voice", "语音"), prompt("missing", "缺失"));
+        Files.write(dir.resolve("broken.json"), "{\"messages\": [".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("voice.mp3"), new byte[]{1, 2, 3});
+        provider = new PromptProvider(new BlobStore(), dir);
+
+        Assertions.assertEquals(Collections.singletonList("greeting"), provider.allSyncPrompts().stream()
+                .map(specification -> specification.getPrompt().getName()).filter(name -> !name.startsWith("test-prompt"))
+                .collect(Collectors.toList()));
+        // 修复后热加载时作为新增的prompt
+        writePromptFile("broken", "已修复");
+        Assertions.assertEquals(Collections.singletonList("broken"), names(provider.reloadFilePrompts().getAdded()));
+    }
+
+    @Test
+    void testFileChangedAfterScanIsCachedWithCurrentStamp() throws Exception {
+        McpServerFeatures.SyncPromptSpecification greeting = specification("greeting");
+        writePromptFile("greeting", "您好，尊敬的%s");
+        long size = Files.size(dir.resolve("greeting.json"));
+
+        // 扫描后、热加载前变化的文件按加载时的版本缓存
+        Assertions.assertEquals("您好，尊敬的张三", render(greeting, Collections.singletonMap("name", "张三")));
+        Assertions.assertEquals(size * 2, provider.getContentCache().getResidentBytes());
+        Assertions.assertTrue(provider.reloadFilePrompts().isEmpty());
+        Assertions.assertEquals("您好，尊敬的李四", render(greeting, Collections.singletonMap("name", "李四")));
+        Assertions.assertEquals(1, provider.getContentCache().getLoadCount());
+    }
+
+    @Test
+    void testCloseUnregistersMBean() throws Exception {
+        ObjectName objectName = new ObjectName(JmxUtils.DOMAIN + ":type=PromptContentCache,name=\"prompts\"");
+        Assertions.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+        provider.close();
+        Assertions.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+
+    private static List<String> names(List<McpSchema.Prompt> prompts) {
+        return prompts.stream().map(McpSchema.Prompt::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,67 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+class PromptTemplateTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static String prompt(String description, String text) {
+        return "{\"description\": \"" + description + "\", \"messages\": [{\"role\": \"assistant\", "
+                + "\"content\": {\"type\": \"text\", \"text\": \"" + text + "\"}}]}";
+    }
+
+    private static String text(McpSchema.GetPromptResult result) {
+        return ((McpSchema.TextContent) result.getMessages().get(0).getContent()).getText();
+    }
+
+    @Test
+    void testNamedPlaceholders() throws Exception {
+        PromptTemplate template = PromptTemplate.compile(prompt("About {{city}}", "城市: {{city}}, 日期: {{ date }}"),
+                Arrays.asList("city", "date"), OBJECT_MAPPER);
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("city", "北京");
+        arguments.put("date", "2025-07-30");
+
+        McpSchema.GetPromptResult result = template.render(arguments);
+        Assertions.assertEquals("About 北京", result.getDescription());
+        Assertions.assertEquals("城市: 北京, 日期: 2025-07-30", text(result));
+    }
+
+    @Test
+    void testPositionalPlaceholders() throws Exception {
+        PromptTemplate template = PromptTemplate.compile(prompt("desc", "参数1: %s, 参数2: %s"),
+                Arrays.asList("arg1", "arg2"), OBJECT_MAPPER);
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("arg1", "a");
+
+        Assertions.assertEquals("参数1: a, 参数2: ", text(template.render(arguments)));
+        Assertions.assertEquals(Arrays.asList("arg1", "arg2"), Arrays.asList(template.getSlotNames().toArray()));
+    }
+
+    @Test
+    void testValuesAreNotParsedAsJson() throws Exception {
+        PromptTemplate template = PromptTemplate.compile(prompt("desc", "say: {{arg1}}"),
+                Collections.singletonList("arg1"), OBJECT_MAPPER);
+
+        String value = "\"quoted\", {\"json\": %s} {{arg1}}";
+        Assertions.assertEquals("say: " + value, text(template.render(Collections.singletonMap("arg1", value))));
+    }
+
+    @Test
+    void testStaticPromptIsShared() throws Exception {
+        PromptTemplate template = PromptTemplate.compile(prompt("desc", "no arguments"),
+                Collections.emptyList(), OBJECT_MAPPER);
+
+        Assertions.assertSame(template.render(null), template.render(Collections.emptyMap()));
+        Assertions.assertEquals("no arguments", text(template.render(null)));
+    }
+}
@@ -0,0 +1,62 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ResourceCacheTest {
+
+    private final ResourceCache cache = new ResourceCache(2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private McpSchema.ReadResourceResult read(String uri, String stamp) throws Exception {
+        return cache.get(uri, stamp, () -> {
+            loads.incrementAndGet();
+            return new McpSchema.ReadResourceResult(Collections.singletonList(
+                    new McpSchema.TextResourceContents(uri, "text/plain", stamp)));
+        });
+    }
+
+    @Test
+    void testValidatedByStamp() throws Exception {
+        McpSchema.ReadResourceResult first = read("file:///a.txt", "1");
+        Assertions.assertSame(first, read("file:///a.txt", "1"));
+        Assertions.assertEquals(1, loads.get());
+
+        read("file:///a.txt", "2");
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getStaleCount());
+    }
+
+    @Test
+    void testInvalidate() throws Exception {
+        read("file:///a.txt", "1");
+
+        cache.invalidate("file:///a.txt");
+        cache.remove("file:///b.txt");
+
+        Assertions.assertEquals(1, cache.getInvalidationCount());
+        Assertions.assertEquals(0, cache.getSize());
+        read("file:///a.txt", "1");
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() throws Exception {
+        read("file:///a.txt", "1");
+        read("file:///b.txt", "1");
+        read("file:///a.txt", "1");
+        read("file:///c.txt", "1");
+
+        Assertions.assertEquals(2, cache.getSize());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        read("file:///a.txt", "1");
+        Assertions.assertEquals(3, loads.get());
+        read("file:///b.txt", "1");
+        Assertions.assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,134 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class ResourceProviderTest {
+
+    private final BlobStore blobStore = new BlobStore();
+    private final ObjectMapper objectMapper = blobStore.register(new ObjectMapper());
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createTempDirectory("resource-root");
+        System.setProperty("mcp.resource.roots", root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("mcp.resource.roots");
+    }
+
+    private Path createFile(String name, byte[] content) throws Exception {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content);
+    }
+
+    private Map<String, McpServerFeatures.SyncResourceSpecification> resources() throws Exception {
+        return new ResourceProvider(blobStore).allSyncResources().stream()
+                .collect(Collectors.toMap(spec -> spec.getResource().getName(), spec -> spec));
+    }
+
+    private JsonNode read(McpServerFeatures.SyncResourceSpecification specification) throws Exception {
+        McpSchema.ReadResourceResult result = specification.getReadHandler().apply(null,
+                new McpSchema.ReadResourceRequest(specification.getResource().getUri()));
+        return objectMapper.readTree(objectMapper.writeValueAsString(result)).get("contents");
+    }
+
+    private String uri(String relativePath) {
+        return "resource://" + root.getFileName() + "/" + relativePath;
+    }
+
+    @Test
+    void testScanRoot() throws Exception {
+        createFile("a.txt", "hello".getBytes(StandardCharsets.UTF_8));
+        createFile("docs/b.json", "{}".getBytes(StandardCharsets.UTF_8));
+        createFile("docs/c.png", new byte[]{1, 2, 3});
+        createFile("docs/release notes.txt", new byte[0]);
+
+        Map<String, McpServerFeatures.SyncResourceSpecification> resources = resources();
+
+        Assertions.assertEquals(4, resources.size());
+        // uri不包含服务器上的绝对路径
+        Assertions.assertEquals(uri("a.txt"), resources.get("a.txt").getResource().getUri());
+        Assertions.assertEquals(uri("docs/release%20notes.txt"), resources.get("docs/release notes.txt").getResource().getUri());
+        resources.values().forEach(spec -> Assertions.assertFalse(spec.getResource().getUri().contains(root.getParent().toString())));
+        Assertions.assertEquals("application/json", resources.get("docs/b.json").getResource().getMimeType());
+        Assertions.assertEquals("image/png", resources.get("docs/c.png").getResource().getMimeType());
+
+        List<McpSchema.ResourceTemplate> templates = new ResourceProvider(blobStore).allResourceTemplates();
+        Assertions.assertEquals(1, templates.size());
+        Assertions.assertEquals(uri("{path}"), templates.get(0).getUriTemplate());
+    }
+
+    @Test
+    void testReadBinary() throws Exception {
+        byte[] image = {1, 2, 3, 4, 5};
+        createFile("c.png", image);
+
+        JsonNode contents = read(resources().get("c.png"));
+
+        Assertions.assertEquals(1, contents.size());
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(image), contents.get(0).get("blob").asText());
+    }
+
+    @Test
+    void testReadText() throws Exception {
+        String text = "第一行的内容\n\"second\" line";
+        createFile("notes.txt", text.getBytes(StandardCharsets.UTF_8));
+
+        JsonNode contents = read(resources().get("notes.txt"));
+
+        Assertions.assertEquals(1, contents.size());
+        Assertions.assertEquals(uri("notes.txt"), contents.get(0).get("uri").asText());
+        Assertions.assertEquals("text/plain", contents.get(0).get("mimeType").asText());
+        Assertions.assertEquals(text, contents.get(0).get("text").asText());
+    }
+
+    @Test
+    void testRefresh() throws Exception {
+        Path changed = createFile("changed.txt", "v1".getBytes(StandardCharsets.UTF_8));
+        Path deleted = createFile("docs/deleted.txt", "v1".getBytes(StandardCharsets.UTF_8));
+        createFile("unchanged.txt", "v1".getBytes(StandardCharsets.UTF_8));
+        ResourceProvider resourceProvider = new ResourceProvider(blobStore);
+        Map<String, McpServerFeatures.SyncResourceSpecification> before = resourceProvider.allSyncResources().stream()
+                .collect(Collectors.toMap(spec -> spec.getResource().getName(), spec -> spec));
+        Assertions.assertEquals("v1", read(before.get("changed.txt")).get(0).get("text").asText());
+
+        Files.write(changed, "v2".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(changed, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        Files.delete(deleted);
+        Path added = createFile("docs/added.txt", "v1".getBytes(StandardCharsets.UTF_8));
+        ListChanges<McpServerFeatures.SyncResourceSpecification> changes =
+                resourceProvider.refresh(Arrays.asList(changed, root.resolve("docs")));
+
+        // 内容变化的文件不在变化列表中，下一次读取时返回新内容
+        Assertions.assertEquals("v2", read(before.get("changed.txt")).get(0).get("text").asText());
+        Assertions.assertEquals(Collections.singletonList(uri("docs/deleted.txt")), changes.getRemoved());
+        Assertions.assertEquals(1, changes.getAdded().size());
+        Assertions.assertEquals(uri("docs/added.txt"), changes.getAdded().get(0).getResource().getUri());
+        Assertions.assertEquals("docs/added.txt", changes.getAdded().get(0).getResource().getName());
+        // 重新获取的规格列表为当前的文件
+        Assertions.assertEquals(Arrays.asList("changed.txt", "docs/added.txt", "unchanged.txt"), resourceProvider.allSyncResources().stream()
+                .map(spec -> spec.getResource().getName()).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,86 @@
+package org.cafe.example.mcp;
+
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ToolArgumentBinderTest {
+
+    enum Unit {CELSIUS, FAHRENHEIT}
+
+    @Data
+    static class Location {
+        private String city;
+        private double latitude;
+    }
+
+    static class ForecastTool {
+
+        public String forecast(String city, int days, Unit unit, List<Integer> hours, Location location,
+                               @ToolParam(required = false) Integer limit, @ToolParam(required = false) boolean detail) {
+            return city + days + unit + hours + location + limit + detail;
+        }
+    }
+
+    private static ToolArgumentBinder binder() throws NoSuchMethodException {
+        return new ToolArgumentBinder(ForecastTool.class.getMethod("forecast", String.class, int.class, Unit.class,
+                List.class, Location.class, Integer.class, boolean.class));
+    }
+
+    private static Map<String, Object> arguments() {
+        Map<String, Object> location = new HashMap<>();
+        location.put("city", "上海");
+        location.put("latitude", 31.2);
+        // 与方法参数顺序不同
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("location", location);
+        arguments.put("hours", Arrays.asList("8", 12));
+        arguments.put("unit", "FAHRENHEIT");
+        arguments.put("days", "3");
+        arguments.put("city", "北京");
+        return arguments;
+    }
+
+    @Test
+    void testBindByNameWithCoercion() throws NoSuchMethodException {
+        Object[] args = binder().bind(arguments());
+        Assertions.assertEquals("北京", args[0]);
+        Assertions.assertEquals(3, args[1]);
+        Assertions.assertEquals(Unit.FAHRENHEIT, args[2]);
+        Assertions.assertEquals(Arrays.asList(8, 12), args[3]);
+        Assertions.assertEquals("上海", ((Location) args[4]).getCity());
+        Assertions.assertEquals(31.2, ((Location) args[4]).getLatitude(), 0);
+        // 可选参数使用默认值
+        Assertions.assertNull(args[5]);
+        Assertions.assertEquals(false, args[6]);
+    }
+
+    @Test
+    void testMissingRequiredArgument() throws NoSuchMethodException {
+        Map<String, Object> arguments = arguments();
+        arguments.remove("city");
+        ToolArgumentBinder binder = binder();
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> binder.bind(arguments));
+        Assertions.assertEquals("Missing required argument: city", e.getMessage());
+    }
+
+    @Test
+    void testReusableArgsReleased() throws NoSuchMethodException {
+        ToolArgumentBinder binder = binder();
+        Object[] first = binder.bindReusable(arguments());
+        // 未归还前再次获取（嵌套调用）得到的是新数组
+        Object[] nested = binder.bindReusable(arguments());
+        Assertions.assertNotSame(first, nested);
+        binder.release(nested);
+        binder.release(first);
+        Assertions.assertNull(first[0]);
+        Assertions.assertSame(first, binder.bindReusable(arguments()));
+    }
+}
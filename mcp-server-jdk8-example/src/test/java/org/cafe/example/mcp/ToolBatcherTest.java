@@ -0,0 +1,95 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+class ToolBatcherTest {
+
+    public static class LandmarkTool {
+
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+        public List<String> getFamous(List<String> city) {
+            batches.add(city);
+            if (city.contains("error")) {
+                throw new IllegalStateException("landmark service unavailable");
+            }
+            return city.stream().map(name -> name + "-landmark").collect(Collectors.toList());
+        }
+    }
+
+    private final LandmarkTool tool = new LandmarkTool();
+    private final ToolBulkhead bulkhead = new ToolBulkhead("batch", 2, 10, 0, ToolBulkhead.REJECTION_ABORT);
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    private ToolBatcher batcher(int maxSize, long maxDelayMillis) throws Exception {
+        ToolInvoker invoker = new ToolInvoker("getFamous", LandmarkTool.class.getMethod("getFamous", List.class),
+                ToolBeanFactory.singleton(tool), true);
+        return new ToolBatcher(invoker, bulkhead, new ToolBatchDef(maxSize, maxDelayMillis));
+    }
+
+    private static Map<String, Object> city(String city) {
+        return Collections.singletonMap("city", city);
+    }
+
+    /**
+     * 并发提交，按提交顺序返回各调用方收到的结果或异常信息
+     */
+    private static List<Object> submitAll(ToolBatcher batcher, List<Map<String, Object>> calls) {
+        return Flux.fromIterable(calls)
+                .flatMapSequential(arguments -> batcher.submit(arguments).onErrorResume(e -> Mono.just("error: " + e.getMessage())))
+                .collectList().block();
+    }
+
+    @Test
+    void testConcurrentCallsMergeByMaxSize() throws Exception {
+        ToolBatcher batcher = batcher(4, 60_000);
+        List<Object> results = submitAll(batcher, Arrays.asList(city("北京"), city("上海"), city("广州"), city("深圳")));
+        Assertions.assertEquals(Arrays.asList("北京-landmark", "上海-landmark", "广州-landmark", "深圳-landmark"), results);
+        Assertions.assertEquals(Collections.singletonList(Arrays.asList("北京", "上海", "广州", "深圳")), tool.batches);
+    }
+
+    @Test
+    void testFlushAfterMaxDelay() throws Exception {
+        ToolBatcher batcher = batcher(32, 20);
+        List<Object> results = submitAll(batcher, Arrays.asList(city("北京"), city("上海"), city("广州")));
+        Assertions.assertEquals(Arrays.asList("北京-landmark", "上海-landmark", "广州-landmark"), results);
+        Assertions.assertEquals(1, tool.batches.size());
+
+        // 新的调用进入下一批次
+        Assertions.assertEquals("杭州-landmark", batcher.submit(city("杭州")).block());
+        Assertions.assertEquals(Arrays.asList(Arrays.asList("北京", "上海", "广州"), Collections.singletonList("杭州")),
+                new ArrayList<>(tool.batches));
+    }
+
+    @Test
+    void testBatchErrorReachesEveryCaller() throws Exception {
+        ToolBatcher batcher = batcher(3, 60_000);
+        List<Object> results = submitAll(batcher, Arrays.asList(city("北京"), city("error"), city("上海")));
+        Assertions.assertEquals(Collections.nCopies(3, "error: landmark service unavailable"), results);
+        Assertions.assertEquals(1, tool.batches.size());
+    }
+
+    @Test
+    void testBindingErrorOnlyAffectsItsCaller() throws Exception {
+        ToolBatcher batcher = batcher(2, 60_000);
+        List<Object> results = submitAll(batcher, Arrays.asList(city("北京"), Collections.emptyMap(), city("上海")));
+        Assertions.assertEquals(Arrays.asList("北京-landmark", "error: Missing required argument: city", "上海-landmark"), results);
+        Assertions.assertEquals(Collections.singletonList(Arrays.asList("北京", "上海")), tool.batches);
+    }
+}
@@ -0,0 +1,97 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class ToolBulkheadRegistryTest {
+
+    @Test
+    void testResolveDefault() {
+        ToolBulkheadRegistry registry = new ToolBulkheadRegistry();
+        try {
+            Assertions.assertSame(registry.getDefaultBulkhead(), registry.resolve(null));
+            Assertions.assertSame(registry.getDefaultBulkhead(), registry.resolve(new BulkheadDef("")));
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void testResolveReferenceSharesDefinedBulkhead() {
+        ToolBulkheadRegistry registry = new ToolBulkheadRegistry();
+        try {
+            ToolBulkhead db = registry.define(new BulkheadDef("db", 2, 5, 3000L, "callerRuns"));
+            Assertions.assertSame(db, registry.resolve(new BulkheadDef("db")));
+            Assertions.assertEquals(2, db.getMaxThreads());
+            Assertions.assertEquals(5, db.getMaxQueue());
+            Assertions.assertEquals(3000, db.getTimeout().toMillis());
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void testConflictingDefinitionIsRejected() {
+        ToolBulkheadRegistry registry = new ToolBulkheadRegistry();
+        try {
+            ToolBulkhead db = registry.define(new BulkheadDef("db", 2, 5, 3000L, "callerRuns"));
+            Assertions.assertSame(db, registry.define(new BulkheadDef("db", 2, 5, 3000L, "CallerRuns")));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> registry.define(new BulkheadDef("db", 4, 5, 3000L, "callerRuns")));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> registry.define(new BulkheadDef("db", 2, 5, null, "callerRuns")));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> registry.define(new BulkheadDef("db", 2, 5, 3000L, null)));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> registry.define(new BulkheadDef(ToolBulkheadRegistry.DEFAULT_BULKHEAD_NAME, 1, null, null, null)));
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void testUnknownRejectionPolicy() {
+        ToolBulkheadRegistry registry = new ToolBulkheadRegistry();
+        try {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> registry.define(new BulkheadDef("bad", 1, 1, 0L, "discard")));
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void testSharedWorkersKeepBulkheadLimits() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        ToolBulkheadRegistry registry = new ToolBulkheadRegistry(workers, "test");
+        try {
+            ToolBulkhead bulkhead = registry.define(new BulkheadDef("limited", 1, 1, 0L, "abort"));
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Mono<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                release.await();
+                return "first";
+            }).cache();
+            Mono<String> queued = bulkhead.submit(() -> "second").cache();
+            running.subscribe();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            queued.subscribe();
+
+            Assertions.assertEquals(1, bulkhead.getActiveCount());
+            Assertions.assertEquals(1, bulkhead.getQueueDepth());
+            Assertions.assertThrows(ToolBulkhead.BulkheadFullException.class, () -> bulkhead.submit(() -> "third").block());
+
+            release.countDown();
+            Assertions.assertEquals("first", running.block());
+            Assertions.assertEquals("second", queued.block());
+            Assertions.assertEquals(1, bulkhead.getRejectedCount());
+        } finally {
+            registry.shutdown();
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ToolBulkheadTest {
+
+    /**
+     * 阻塞直到被中断
+     */
+    private static String awaitInterrupt(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return "interrupted";
+    }
+
+    @Test
+    void testTimeoutInterruptsRunningTask() throws Exception {
+        ToolBulkhead bulkhead = new ToolBulkhead("timeout", 1, 1, 100, ToolBulkhead.REJECTION_ABORT);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            Mono<String> result = bulkhead.submit(() -> awaitInterrupt(started, interrupted));
+            Throwable error = Assertions.assertThrows(RuntimeException.class, result::block);
+            Assertions.assertTrue(Exceptions.unwrap(error) instanceof TimeoutException);
+            Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, bulkhead.getTimeoutCount());
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testCancelInterruptsRunningTask() throws Exception {
+        ToolBulkhead bulkhead = new ToolBulkhead("cancel", 1, 1, 0, ToolBulkhead.REJECTION_ABORT);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            Disposable subscription = bulkhead.submit(() -> awaitInterrupt(started, interrupted)).subscribe();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            subscription.dispose();
+            Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            // 中断后隔离舱可以继续执行后续任务
+            Assertions.assertEquals("next", bulkhead.submit(() -> "next").block());
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testCancelRemovesQueuedTask() throws Exception {
+        ToolBulkhead bulkhead = new ToolBulkhead("queued", 1, 1, 0, ToolBulkhead.REJECTION_ABORT);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Mono<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                release.await();
+                return "running";
+            }).cache();
+            running.subscribe();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            AtomicBoolean ran = new AtomicBoolean();
+            Disposable queued = bulkhead.submit(() -> ran.getAndSet(true)).subscribe();
+            Assertions.assertEquals(1, bulkhead.getQueueDepth());
+            // 已满
+            Assertions.assertThrows(ToolBulkhead.BulkheadFullException.class, () -> bulkhead.submit(() -> "full").block());
+
+            // 排队中的任务出队并释放名额，可以再接受一个任务
+            queued.dispose();
+            Assertions.assertEquals(0, bulkhead.getQueueDepth());
+            Mono<String> next = bulkhead.submit(() -> "next").cache();
+            next.subscribe();
+            release.countDown();
+            Assertions.assertEquals("running", running.block(Duration.ofSeconds(5)));
+            Assertions.assertEquals("next", next.block(Duration.ofSeconds(5)));
+            Assertions.assertFalse(ran.get());
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testInterruptDoesNotLeakToNextTask() throws Exception {
+        ToolBulkhead bulkhead = new ToolBulkhead("interrupt", 1, 1, 0, ToolBulkhead.REJECTION_ABORT);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicBoolean release = new AtomicBoolean();
+            // 不响应中断的任务：取消时的中断状态保留到任务结束
+            Disposable subscription = bulkhead.submit(() -> {
+                started.countDown();
+                while (!release.get()) {
+                    Thread.yield();
+                }
+                return "ignored";
+            }).subscribe();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Mono<Boolean> next = bulkhead.submit(() -> Thread.currentThread().isInterrupted()).cache();
+            next.subscribe();
+            subscription.dispose();
+            release.set(true);
+
+            Assertions.assertFalse(next.block(Duration.ofSeconds(5)));
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testCallerRunsWhenFull() throws Exception {
+        ToolBulkhead bulkhead = new ToolBulkhead("callerRuns", 1, 0, 0, ToolBulkhead.REJECTION_CALLER_RUNS);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Mono<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                release.await();
+                return Thread.currentThread().getName();
+            }).cache();
+            running.subscribe();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Assertions.assertEquals(Thread.currentThread().getName(),
+                    bulkhead.submit(() -> Thread.currentThread().getName()).block());
+            Assertions.assertEquals(1, bulkhead.getRejectedCount());
+
+            // 非阻塞线程上不能在调用方执行
+            Assertions.assertThrows(ToolBulkhead.BulkheadFullException.class, () -> Mono.defer(() -> bulkhead.submit(() -> "parallel"))
+                    .subscribeOn(Schedulers.parallel()).block());
+
+            release.countDown();
+            Assertions.assertTrue(running.block().startsWith("mcp-tool-callerRuns-"));
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testCallerRunsTimeoutInterruptsCaller() throws Exception {
+        ToolBulkhead bulkhead = new ToolBulkhead("callerRunsTimeout", 1, 0, 100, ToolBulkhead.REJECTION_CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            bulkhead.submit(() -> {
+                started.countDown();
+                release.await();
+                return "first";
+            }).subscribe();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch interrupted = new CountDownLatch(1);
+            Assertions.assertThrows(RuntimeException.class,
+                    () -> bulkhead.submit(() -> awaitInterrupt(new CountDownLatch(1), interrupted)).block());
+            Assertions.assertEquals(0, interrupted.getCount());
+            // 中断状态不会带回调用方线程
+            Assertions.assertFalse(Thread.currentThread().isInterrupted());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+}
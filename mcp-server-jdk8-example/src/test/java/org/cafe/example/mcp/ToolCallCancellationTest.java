@@ -0,0 +1,253 @@
+package org.cafe.example.mcp;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+class ToolCallCancellationTest {
+
+    private final ToolCallCancellationFilter filter = new ToolCallCancellationFilter();
+
+    @Test
+    void testRegisterAndCancel() {
+        ToolCallCancellation cancellation = handle("s1", "{\"jsonrpc\":\"2.0\",\"id\":7,\"method\":\"tools/call\","
+                + "\"params\":{\"name\":\"getLandmark\",\"arguments\":{}}}");
+        Assertions.assertNotNull(cancellation);
+        Assertions.assertEquals("7", cancellation.getRequestId());
+        Assertions.assertFalse(cancellation.isCancelled());
+
+        // 其他会话的同id请求不受影响
+        Assertions.assertNull(handle("s2", cancelled(7)));
+        Assertions.assertFalse(cancellation.isCancelled());
+
+        Assertions.assertNull(handle("s1", cancelled(7)));
+        Assertions.assertTrue(cancellation.isCancelled());
+
+        cancellation.unregister();
+        Assertions.assertFalse(ToolCallCancellation.cancel("s1", "7", null));
+    }
+
+    @Test
+    void testBatchAndOtherMessages() {
+        ToolCallCancellation first = ToolCallCancellation.register("s3", "1");
+        ToolCallCancellation second = ToolCallCancellation.register("s3", "req-2");
+        int registered = ToolCallCancellation.registeredCount();
+
+        Assertions.assertNull(handle("s3", "[" + cancelled(1) + ",{\"jsonrpc\":\"2.0\",\"method\":\"notifications/cancelled\","
+                + "\"params\":{\"requestId\":\"req-2\"}}]"));
+        Assertions.assertTrue(first.isCancelled());
+        Assertions.assertTrue(second.isCancelled());
+
+        // 非tools/call请求、通知及无法解析的消息体不登记
+        Assertions.assertNull(handle("s3", "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"tools/list\"}"));
+        Assertions.assertNull(handle("s3", "{\"jsonrpc\":\"2.0\",\"method\":\"tools/call\"}"));
+        Assertions.assertNull(handle("s3", "{\"method\":\"tools/call\""));
+        Assertions.assertEquals(registered, ToolCallCancellation.registeredCount());
+        first.unregister();
+        second.unregister();
+    }
+
+    @Test
+    void testCurrentPropagation() throws Exception {
+        ToolCallCancellation cancellation = ToolCallCancellation.register(null, "1");
+        ToolCallCancellation[] seen = new ToolCallCancellation[1];
+        ToolCallCancellation previous = ToolCallCancellation.attach(cancellation);
+        Thread thread;
+        try {
+            Assertions.assertSame(cancellation, ToolCallCancellation.current());
+            thread = new Thread(() -> seen[0] = ToolCallCancellation.current());
+        } finally {
+            ToolCallCancellation.restore(previous);
+        }
+        Assertions.assertNull(ToolCallCancellation.current());
+        thread.start();
+        thread.join();
+        // 未经过Reactor调度器的线程不继承
+        Assertions.assertNull(seen[0]);
+        cancellation.unregister();
+    }
+
+    @Test
+    void testBindReturnsCancelledResult() {
+        ToolCallCancellation cancellation = ToolCallCancellation.register("s4", "1");
+        try {
+            Mono<String> result = cancellation.bind(Mono.never(), reason -> "cancelled: " + reason).cache();
+            result.subscribe();
+            cancellation.cancel("user cancelled");
+            Assertions.assertEquals("cancelled: user cancelled", result.block(Duration.ofSeconds(5)));
+
+            // 取消之前已完成的调用不受影响
+            ToolCallCancellation other = ToolCallCancellation.register("s4", "2");
+            Assertions.assertEquals("done", other.bind(Mono.just("done"), reason -> "cancelled").block());
+            other.unregister();
+        } finally {
+            cancellation.unregister();
+        }
+    }
+
+    @Test
+    void testReadBody() throws Exception {
+        byte[] body = new byte[10000];
+        Assertions.assertEquals(10000, ToolCallCancellationFilter.readBody(new ByteArrayInputStream(body), -1, 10000).length);
+        // Content-Length不可信：超过上限时停止读取，预分配的缓冲区有上限
+        Assertions.assertNull(ToolCallCancellationFilter.readBody(new ByteArrayInputStream(body), 10, 9999));
+        Assertions.assertEquals(0, ToolCallCancellationFilter.readBody(new ByteArrayInputStream(new byte[0]),
+                Integer.MAX_VALUE, 10000).length);
+        // 默认不限制大小
+        Assertions.assertEquals(10000, ToolCallCancellationFilter.readBody(new ByteArrayInputStream(body), 10, 0).length);
+
+        Assertions.assertTrue(ToolCallCancellationFilter.isJson("application/json; charset=utf-8"));
+        Assertions.assertTrue(ToolCallCancellationFilter.isJson("Application/JSON"));
+        Assertions.assertFalse(ToolCallCancellationFilter.isJson("text/plain"));
+        Assertions.assertFalse(ToolCallCancellationFilter.isJson(null));
+    }
+
+    @Test
+    void testFilterOverHttp() throws Exception {
+        Tomcat tomcat = startTomcat(new ToolCallCancellationFilter(1024));
+        try {
+            int port = tomcat.getConnector().getLocalPort();
+            String json = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\"}";
+
+            // JSON POST被缓存，MCP Servlet仍可以通过ReadListener异步读取
+            HttpURLConnection connection = post(port, "application/json", json.getBytes(StandardCharsets.UTF_8), false);
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals("true", connection.getHeaderField("X-Buffered"));
+            Assertions.assertEquals(json, read(connection.getInputStream()));
+
+            // 其他POST不缓存
+            connection = post(port, "text/plain", "hello".getBytes(StandardCharsets.UTF_8), false);
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals("false", connection.getHeaderField("X-Buffered"));
+            Assertions.assertEquals("hello", read(connection.getInputStream()));
+
+            // 超过上限：按Content-Length直接拒绝，没有Content-Length时读取到上限为止
+            byte[] large = new byte[2048];
+            Assertions.assertEquals(413, post(port, "application/json", large, false).getResponseCode());
+            Assertions.assertEquals(413, post(port, "application/json", large, true).getResponseCode());
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    @Test
+    void testFilterWithoutBodyLimit() throws Exception {
+        Tomcat tomcat = startTomcat(new ToolCallCancellationFilter());
+        try {
+            int port = tomcat.getConnector().getLocalPort();
+            byte[] large = new byte[64 * 1024];
+            Arrays.fill(large, (byte) 'x');
+            for (boolean chunked : new boolean[]{false, true}) {
+                HttpURLConnection connection = post(port, "application/json", large, chunked);
+                Assertions.assertEquals(200, connection.getResponseCode());
+                Assertions.assertEquals("true", connection.getHeaderField("X-Buffered"));
+                Assertions.assertEquals(large.length, read(connection.getInputStream()).length());
+            }
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private static Tomcat startTomcat(ToolCallCancellationFilter filter) throws LifecycleException {
+        Tomcat tomcat = McpServer.createTomcat(0, ConnectorProperties.preset(ConnectorProperties.PRESET_DEFAULT));
+        Context ctx = tomcat.addContext("", new File(System.getProperty("java.io.tmpdir")).getAbsolutePath());
+        McpServer.addServlet(ctx, "echo", new EchoServlet(), "/*");
+        McpServer.addFilter(ctx, "cancellation", filter, "echo");
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static HttpURLConnection post(int port, String contentType, byte[] body, boolean chunked) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/mcp").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", contentType);
+        connection.setDoOutput(true);
+        if (chunked) {
+            connection.setChunkedStreamingMode(256);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 与SDK的Servlet相同异步读取消息体，原样返回
+     */
+    private static class EchoServlet extends HttpServlet {
+
+        @Override
+        protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            AsyncContext asyncContext = req.startAsync();
+            ServletInputStream in = req.getInputStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[1024];
+                    int n;
+                    while (in.isReady() && (n = in.read(buffer)) != -1) {
+                        body.write(buffer, 0, n);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    resp.setHeader("X-Buffered", String.valueOf(req instanceof HttpServletRequestWrapper));
+                    resp.getOutputStream().write(body.toByteArray());
+                    asyncContext.complete();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    asyncContext.complete();
+                }
+            });
+        }
+    }
+
+    private ToolCallCancellation handle(String sessionId, String body) {
+        return filter.handle(sessionId, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static String cancelled(int requestId) {
+        return "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/cancelled\",\"params\":{\"requestId\":" + requestId
+                + ",\"reason\":\"user cancelled\"}}";
+    }
+}
@@ -0,0 +1,214 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class ToolCallHandlerTest {
+
+    public static class SampleTool {
+
+        public String current(String city) {
+            return city + "@" + Thread.currentThread().getName();
+        }
+
+        public Mono<String> mono(String city) {
+            return Mono.just(city + "-mono");
+        }
+
+        public CompletableFuture<String> future(String city) {
+            return CompletableFuture.completedFuture(city + "-future");
+        }
+
+        public Flux<String> flux(String city) {
+            return Flux.just(city + "-1", city + "-2");
+        }
+
+        public Mono<String> empty(String city) {
+            return Mono.empty();
+        }
+
+        public String fail(String city) {
+            throw new IllegalStateException("no data for " + city);
+        }
+
+        public String slow(String city) {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return city;
+        }
+    }
+
+    private static CountDownLatch started;
+    private static CountDownLatch interrupted;
+
+    private final ToolBulkhead bulkhead = new ToolBulkhead("test", 2, 2, 0, ToolBulkhead.REJECTION_ABORT);
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return SampleTool.class.getMethod(name, String.class);
+    }
+
+    private ToolCallHandler handler(String methodName, String mode) throws Exception {
+        ToolExecutionDef executionDef = new ToolExecutionDef();
+        executionDef.setMode(mode);
+        return createHandler(methodName, executionDef);
+    }
+
+    private ToolCallHandler createHandler(String methodName, ToolExecutionDef executionDef) throws Exception {
+        ToolInvoker invoker = new ToolInvoker(methodName, method(methodName), ToolBeanFactory.singleton(new SampleTool()));
+        McpSchema.Tool tool = new McpSchema.Tool(methodName, methodName, "{}");
+        return new ToolCallHandler(tool, invoker, executionDef, bulkhead, null, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        started = new CountDownLatch(1);
+        interrupted = new CountDownLatch(1);
+    }
+
+    private static Map<String, Object> arguments() {
+        return Collections.singletonMap("city", "北京");
+    }
+
+    private static List<String> texts(McpSchema.CallToolResult result) {
+        return result.getContent().stream().map(content -> ((McpSchema.TextContent) content).getText()).collect(Collectors.toList());
+    }
+
+    @Test
+    void testResolveMode() throws Exception {
+        Assertions.assertEquals(ToolExecutionMode.BLOCKING, ToolExecutionMode.resolve(method("current"), null));
+        Assertions.assertEquals(ToolExecutionMode.IMMEDIATE, ToolExecutionMode.resolve(method("current"), "Immediate"));
+        Assertions.assertEquals(ToolExecutionMode.BLOCKING, ToolExecutionMode.resolve(method("current"), "blocking"));
+        // 返回值为异步类型时忽略声明的执行方式
+        Assertions.assertEquals(ToolExecutionMode.ASYNC, ToolExecutionMode.resolve(method("mono"), "immediate"));
+        Assertions.assertEquals(ToolExecutionMode.ASYNC, ToolExecutionMode.resolve(method("future"), null));
+        Assertions.assertEquals(ToolExecutionMode.ASYNC, ToolExecutionMode.resolve(method("flux"), null));
+        // 无法识别的执行方式使用默认值，不影响tool的构建
+        Assertions.assertEquals(ToolExecutionMode.BLOCKING, ToolExecutionMode.resolve(method("current"), "parallel"));
+        Assertions.assertEquals(ToolExecutionMode.BLOCKING, handler("current", "parallel").getMode());
+    }
+
+    @Test
+    void testBlockingRunsInBulkhead() throws Exception {
+        ToolCallHandler handler = handler("current", null);
+        Assertions.assertTrue(texts(handler.call(arguments(), ToolProgress.NONE).block()).get(0).startsWith("北京@mcp-tool-test-"));
+        Assertions.assertTrue(texts(handler.callSync(arguments(), ToolProgress.NONE)).get(0).startsWith("北京@mcp-tool-test-"));
+    }
+
+    @Test
+    void testImmediateRunsOnCaller() throws Exception {
+        ToolCallHandler handler = handler("current", "immediate");
+        String caller = Thread.currentThread().getName();
+        Assertions.assertEquals(Collections.singletonList("北京@" + caller), texts(handler.callSync(arguments(), ToolProgress.NONE)));
+        Assertions.assertEquals(Collections.singletonList("北京@" + caller), texts(handler.call(arguments(), ToolProgress.NONE).block()));
+    }
+
+    @Test
+    void testAsyncResults() throws Exception {
+        Assertions.assertEquals(Collections.singletonList("北京-mono"), texts(handler("mono", null).call(arguments(), ToolProgress.NONE).block()));
+        Assertions.assertEquals(Collections.singletonList("北京-future"), texts(handler("future", null).call(arguments(), ToolProgress.NONE).block()));
+        Assertions.assertEquals(Arrays.asList("北京-1", "北京-2"), texts(handler("flux", null).call(arguments(), ToolProgress.NONE).block()));
+        McpSchema.CallToolResult empty = handler("empty", null).call(arguments(), ToolProgress.NONE).block();
+        Assertions.assertFalse(empty.getIsError());
+        Assertions.assertTrue(empty.getContent().isEmpty());
+    }
+
+    @Test
+    void testErrorsBecomeErrorResults() throws Exception {
+        for (String mode : Arrays.asList("immediate", "blocking")) {
+            ToolCallHandler handler = handler("fail", mode);
+            McpSchema.CallToolResult result = handler.call(arguments(), ToolProgress.NONE).block();
+            Assertions.assertTrue(result.getIsError(), mode);
+            Assertions.assertEquals(Collections.singletonList("no data for 北京"), texts(result), mode);
+            Assertions.assertTrue(handler.callSync(arguments(), ToolProgress.NONE).getIsError(), mode);
+        }
+        // 缺少必填参数
+        McpSchema.CallToolResult result = handler("current", null).call(Collections.emptyMap(), ToolProgress.NONE).block();
+        Assertions.assertTrue(result.getIsError());
+        Assertions.assertEquals(Collections.singletonList("Missing required argument: city"), texts(result));
+    }
+
+    @Test
+    void testTimeoutInterruptsBulkheadTool() throws Exception {
+        ToolExecutionDef executionDef = new ToolExecutionDef();
+        executionDef.setTimeoutMillis(100L);
+
+        McpSchema.CallToolResult result = createHandler("slow", executionDef).call(arguments(), ToolProgress.NONE).block();
+        Assertions.assertTrue(result.getIsError());
+        Assertions.assertEquals(Collections.singletonList("Tool 'slow' timed out after 100ms"), texts(result));
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        // 中断后隔离舱继续执行后续调用
+        Assertions.assertFalse(handler("current", null).call(arguments(), ToolProgress.NONE).block().getIsError());
+    }
+
+    @Test
+    void testCancellationReturnsErrorResult() throws Exception {
+        ToolCallHandler handler = handler("slow", null);
+        ToolCallCancellation cancellation = ToolCallCancellation.register("session", "1");
+        Mono<McpSchema.CallToolResult> call;
+        ToolCallCancellation previous = ToolCallCancellation.attach(cancellation);
+        try {
+            call = handler.call(arguments(), ToolProgress.NONE).cache();
+        } finally {
+            ToolCallCancellation.restore(previous);
+        }
+        call.subscribe();
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertTrue(ToolCallCancellation.cancel("session", "1", "user cancelled"));
+        McpSchema.CallToolResult result = call.block(Duration.ofSeconds(5));
+        Assertions.assertTrue(result.getIsError());
+        Assertions.assertEquals(Collections.singletonList("Tool 'slow' cancelled: user cancelled"), texts(result));
+        // 执行中的tool被中断
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        cancellation.unregister();
+    }
+
+    @Test
+    void testCancellationInterruptsCachedTool() throws Exception {
+        ToolInvoker invoker = new ToolInvoker("slow", method("slow"), ToolBeanFactory.singleton(new SampleTool()));
+        ToolResultCache cache = new ToolResultCache("slow", new ToolCacheDef());
+        ToolCallHandler handler = new ToolCallHandler(new McpSchema.Tool("slow", "slow", "{}"), invoker, null, bulkhead, cache, null);
+        ToolCallCancellation cancellation = ToolCallCancellation.register("session", "2");
+        Mono<McpSchema.CallToolResult> call;
+        ToolCallCancellation previous = ToolCallCancellation.attach(cancellation);
+        try {
+            call = handler.call(arguments(), ToolProgress.NONE).cache();
+        } finally {
+            ToolCallCancellation.restore(previous);
+        }
+        call.subscribe();
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertTrue(ToolCallCancellation.cancel("session", "2", "user cancelled"));
+        Assertions.assertTrue(call.block(Duration.ofSeconds(5)).getIsError());
+        // 唯一的调用方取消后共享的调用被取消，执行中的tool被中断
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, cache.getSize());
+        cancellation.unregister();
+    }
+}
@@ -0,0 +1,111 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+class ToolDispatchersTest {
+
+    public static class SampleTool {
+
+        public int add(int a, long b) {
+            return (int) (a + b);
+        }
+
+        public String describe(String city, double temperature, boolean sunny) {
+            return city + ":" + temperature + ":" + sunny;
+        }
+
+        public String nullable(String value, Integer count) {
+            return value + "/" + count;
+        }
+
+        public String fail(String message) throws IOException {
+            throw new IOException(message);
+        }
+
+        public String six(String a, String b, String c, String d, String e, String f) {
+            return a + b + c + d + e + f;
+        }
+
+        public static String upper(String value) {
+            return value.toUpperCase();
+        }
+
+        public void nothing() {
+        }
+    }
+
+    private final SampleTool tool = new SampleTool();
+
+    private static Method method(String name) {
+        return Arrays.stream(SampleTool.class.getMethods()).filter(m -> m.getName().equals(name)).findFirst()
+                .orElseThrow(IllegalArgumentException::new);
+    }
+
+    /**
+     * 反射调用的结果，目标方法抛出的异常去掉InvocationTargetException包装
+     */
+    private Object reflective(Method method, Object... args) throws Throwable {
+        try {
+            return ToolDispatchers.reflective(method).dispatch(tool, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    void testGeneratedMatchesReflective() throws Throwable {
+        List<Object[]> cases = Arrays.asList(
+                new Object[]{"add", 1, 2L},
+                new Object[]{"describe", "北京", 25.5, true},
+                new Object[]{"nullable", null, null},
+                new Object[]{"nullable", "a", 3},
+                new Object[]{"six", "1", "2", "3", "4", "5", "6"});
+        for (Object[] testCase : cases) {
+            Method method = method((String) testCase[0]);
+            Object[] args = Arrays.copyOfRange(testCase, 1, testCase.length);
+            ToolDispatcher generated = ToolDispatchers.generated(method);
+            Assertions.assertNotNull(generated, method.getName());
+            Object expected = reflective(method, args);
+            Assertions.assertEquals(expected, generated.dispatch(tool, args), method.getName());
+            Assertions.assertEquals(expected, ToolDispatchers.methodHandle(method).dispatch(tool, args), method.getName());
+        }
+        // 基本类型返回值被装箱
+        Assertions.assertEquals(Integer.class, ToolDispatchers.generated(method("add")).dispatch(tool, new Object[]{1, 2L}).getClass());
+    }
+
+    @Test
+    void testExceptionsAreNotWrapped() throws Throwable {
+        Method fail = method("fail");
+        IOException expected = Assertions.assertThrows(IOException.class, () -> reflective(fail, "boom"));
+        IOException generated = Assertions.assertThrows(IOException.class,
+                () -> ToolDispatchers.generated(fail).dispatch(tool, new Object[]{"boom"}));
+        Assertions.assertEquals(expected.getMessage(), generated.getMessage());
+        Assertions.assertThrows(IOException.class,
+                () -> ToolDispatchers.methodHandle(fail).dispatch(tool, new Object[]{"boom"}));
+    }
+
+    @Test
+    void testNullForPrimitiveIsRejected() {
+        // ToolArgumentBinder为缺失的基本类型参数填入默认值，正常调用不会传入null；直接传入时各调度器均拒绝
+        Method add = method("add");
+        Object[] args = {null, 2L};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reflective(add, args));
+        Assertions.assertThrows(NullPointerException.class, () -> ToolDispatchers.generated(add).dispatch(tool, args));
+        Assertions.assertThrows(NullPointerException.class, () -> ToolDispatchers.methodHandle(add).dispatch(tool, args));
+    }
+
+    @Test
+    void testFallbackToMethodHandle() throws Throwable {
+        Assertions.assertNull(ToolDispatchers.generated(method("upper")));
+        Assertions.assertNull(ToolDispatchers.generated(method("nothing")));
+        Assertions.assertEquals("ABC", ToolDispatchers.create(method("upper")).dispatch(null, new Object[]{"abc"}));
+        Assertions.assertNull(ToolDispatchers.create(method("nothing")).dispatch(tool, new Object[0]));
+    }
+}
@@ -0,0 +1,81 @@
+package org.cafe.example.mcp;
+
+import org.cafe.example.mcp.util.JsonSchemaGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class ToolInvokerBatchTest {
+
+    static class LandmarkTool {
+
+        public List<String> getFamous(List<String> city, List<Integer> rank) {
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < city.size(); i++) {
+                results.add(city.get(i) + rank.get(i));
+            }
+            return results;
+        }
+
+        public List<String> dropLast(List<String> city) {
+            return city.stream().skip(1).collect(Collectors.toList());
+        }
+
+        public String notBatch(String city) {
+            return city;
+        }
+    }
+
+    private static ToolInvoker invoker(String methodName, Class<?>... parameterTypes) throws Exception {
+        return new ToolInvoker(methodName, LandmarkTool.class.getMethod(methodName, parameterTypes),
+                ToolBeanFactory.singleton(new LandmarkTool()), true);
+    }
+
+    private static Map<String, Object> arguments(String city, Object rank) {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("city", city);
+        arguments.put("rank", rank);
+        return arguments;
+    }
+
+    @Test
+    void testInvokeBatch() throws Exception {
+        ToolInvoker invoker = invoker("getFamous", List.class, List.class);
+        ToolArgumentBinder binder = invoker.getArgumentBinder();
+        List<?> results = invoker.invokeBatch(Arrays.asList(
+                binder.bind(arguments("北京", 1)), binder.bind(arguments("上海", "2"))));
+        Assertions.assertEquals(Arrays.asList("北京1", "上海2"), results);
+    }
+
+    @Test
+    void testCallAsSingleBatch() throws Exception {
+        Assertions.assertEquals("北京1", invoker("getFamous", List.class, List.class).call(arguments("北京", 1)));
+    }
+
+    @Test
+    void testResultCountMismatch() throws Exception {
+        ToolInvoker invoker = invoker("dropLast", List.class);
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> invoker.call(Collections.singletonMap("city", "北京")));
+    }
+
+    @Test
+    void testRejectNonBatchMethod() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> invoker("notBatch", String.class));
+    }
+
+    @Test
+    void testBatchInputSchemaUsesElementType() throws Exception {
+        String schema = JsonSchemaGenerator.generateForBatchMethodInput(
+                LandmarkTool.class.getMethod("getFamous", List.class, List.class));
+        Assertions.assertTrue(schema.contains("\"integer\""));
+        Assertions.assertFalse(schema.contains("\"array\""));
+    }
+}
@@ -0,0 +1,42 @@
+package org.cafe.example.mcp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ToolInvokerRegistryTest {
+
+    private static McpToolDef toolDef(String name, String methodName, String beanScope) {
+        McpToolDef toolDef = new McpToolDef();
+        toolDef.setName(name);
+        toolDef.setTargetBeanClass(McpTool.class.getName());
+        toolDef.setTargetMethodName(methodName);
+        toolDef.setBeanScope(beanScope);
+        return toolDef;
+    }
+
+    @Test
+    void testInvokeWithEachBeanScope() throws Exception {
+        ToolInvokerRegistry registry = new ToolInvokerRegistry();
+        for (BeanScope scope : BeanScope.values()) {
+            ToolInvoker invoker = registry.register(toolDef("getLandmark-" + scope, "getFamous", scope.name()));
+            Assertions.assertNotNull(invoker);
+            Assertions.assertEquals("北京的地标是天安门", invoker.invoke("北京", "天安门"));
+        }
+    }
+
+    @Test
+    void testSingletonSharedAcrossTools() throws Exception {
+        ToolInvokerRegistry registry = new ToolInvokerRegistry();
+        ToolInvoker hello = registry.register(toolDef("问候", "sayHello", null));
+        ToolInvoker landmark = registry.register(toolDef("getLandmark", "getFamous", "singleton"));
+        Assertions.assertSame(hello.getBeanFactory().acquire(), landmark.getBeanFactory().acquire());
+        Assertions.assertSame(landmark, registry.getInvoker("getLandmark"));
+    }
+
+    @Test
+    void testRegisterUnknownMethod() {
+        ToolInvokerRegistry registry = new ToolInvokerRegistry();
+        Assertions.assertNull(registry.register(toolDef("unknown", "notExists", null)));
+        Assertions.assertNull(registry.getInvoker("unknown"));
+    }
+}
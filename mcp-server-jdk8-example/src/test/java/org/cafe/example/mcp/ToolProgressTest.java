@@ -0,0 +1,283 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ToolProgressTest {
+
+    static class ReportTool {
+
+        public String report(String city, ToolProgress progress) {
+            return city + (progress == ToolProgress.NONE);
+        }
+    }
+
+    public static class ChunkTool {
+
+        /**
+         * 已读取的分块数
+         */
+        static final AtomicInteger READ = new AtomicInteger();
+
+        public Flux<String> chunks(String city) {
+            return Flux.just(city + "1", city + "2", repeat('x', 300)).doOnNext(chunk -> READ.incrementAndGet());
+        }
+    }
+
+    /**
+     * 与SDK的exchange结构相同：同步exchange包装异步exchange，异步exchange持有会话（McpServerSession）
+     */
+    static class Session {
+
+        final List<Map<String, Object>> notifications = new CopyOnWriteArrayList<>();
+        /**
+         * 每个通知发送时已读取的分块数
+         */
+        final List<Integer> readAtSend = new CopyOnWriteArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        public Mono<Void> sendNotification(String method, Object params) {
+            Assertions.assertEquals(ToolProgress.METHOD_PROGRESS, method);
+            notifications.add((Map<String, Object>) params);
+            readAtSend.add(ChunkTool.READ.get());
+            // 模拟较慢的客户端
+            return Mono.delay(Duration.ofMillis(20)).then();
+        }
+    }
+
+    static class AsyncExchange {
+
+        private final Session session = new Session();
+    }
+
+    static class SyncExchange {
+
+        private final AsyncExchange exchange = new AsyncExchange();
+    }
+
+    @Test
+    void testProgressParameterIsNotInput() throws Exception {
+        Method method = ReportTool.class.getMethod("report", String.class, ToolProgress.class);
+        JsonNode schema = new ObjectMapper().readTree(ToolSchemaIndex.generate(method));
+        Assertions.assertEquals(Collections.singletonList("city"), fieldNames(schema.path("properties")));
+        Assertions.assertEquals(1, schema.path("required").size());
+
+        ToolArgumentBinder binder = new ToolArgumentBinder(method);
+        Object[] args = binder.bind(Collections.singletonMap("city", "北京"));
+        Assertions.assertEquals("北京", args[0]);
+        Assertions.assertSame(ToolProgress.NONE, args[1]);
+
+        ToolProgress progress = new ToolProgress("token", params -> null);
+        ToolProgress previous = ToolProgress.attach(progress);
+        try {
+            Assertions.assertSame(progress, binder.bind(Collections.singletonMap("city", "北京"))[1]);
+        } finally {
+            ToolProgress.restore(previous);
+        }
+        Assertions.assertSame(ToolProgress.NONE, ToolProgress.current());
+    }
+
+    @Test
+    void testChunkedResults() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<String> stream = Stream.of("a", "b", "c").onClose(() -> closed.set(true));
+        McpSchema.CallToolResult result = ToolCallHandler.complete(stream, ToolProgress.NONE);
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), texts(result));
+        Assertions.assertTrue(closed.get());
+
+        result = ToolCallHandler.complete(Arrays.asList(1, 2).iterator(), ToolProgress.NONE);
+        Assertions.assertEquals(Arrays.asList("1", "2"), texts(result));
+
+        // 其他类型仍为单个TextContent
+        result = ToolCallHandler.complete(Arrays.asList(1, 2), ToolProgress.NONE);
+        Assertions.assertEquals(Collections.singletonList("[1, 2]"), texts(result));
+    }
+
+    @Test
+    void testInterruptedStopsReading() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<String> stream = Stream.of("a", "b").onClose(() -> closed.set(true));
+        Thread.currentThread().interrupt();
+        Assertions.assertThrows(InterruptedException.class, () -> ToolCallHandler.complete(stream, ToolProgress.NONE));
+        Assertions.assertTrue(closed.get());
+    }
+
+    @Test
+    void testProgressTokenFromRequest() {
+        ToolCallCancellationFilter filter = new ToolCallCancellationFilter();
+        Assertions.assertSame(ToolProgress.NONE, ToolProgress.of(new SyncExchange()));
+
+        ToolCallCancellation request = filter.handle("s1", ("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\","
+                + "\"params\":{\"name\":\"getTravelGuide\",\"_meta\":{\"progressToken\":42}}}").getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+        ToolCallCancellation previous = ToolCallCancellation.attach(request);
+        try {
+            Assertions.assertEquals(42, ((Number) request.getProgressToken()).intValue());
+            ToolProgress progress = ToolProgress.of(new SyncExchange());
+            Assertions.assertTrue(progress.isEnabled());
+            Assertions.assertEquals(request.getProgressToken(), progress.getProgressToken());
+            Assertions.assertTrue(ToolProgress.of(new AsyncExchange()).isEnabled());
+            // 找不到会话时不报告进度
+            Assertions.assertSame(ToolProgress.NONE, ToolProgress.of(new Object()));
+        } finally {
+            ToolCallCancellation.restore(previous);
+            request.unregister();
+        }
+
+        request = filter.handle("s1", ("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/call\","
+                + "\"params\":{\"name\":\"getTravelGuide\",\"_meta\":{\"progressToken\":\"abc\"}}}").getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+        Assertions.assertEquals("abc", request.getProgressToken());
+        request.unregister();
+    }
+
+    @Test
+    void testNotificationParams() {
+        SyncExchange exchange = new SyncExchange();
+        ToolCallCancellation request = ToolCallCancellation.register("s2", "1", 42);
+        ToolCallCancellation previous = ToolCallCancellation.attach(request);
+        try {
+            ToolProgress progress = ToolProgress.of(exchange);
+            progress.report(0.5, 2.0, "half");
+            progress.report("step");
+            // 进度值不递增时不发送
+            progress.report(1, null, null);
+        } finally {
+            ToolCallCancellation.restore(previous);
+            request.unregister();
+        }
+
+        Map<String, Object> half = new LinkedHashMap<>();
+        half.put("progressToken", 42);
+        half.put("progress", 0.5);
+        half.put("total", 2.0);
+        half.put("message", "half");
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("progressToken", 42);
+        step.put("progress", 1.5);
+        step.put("message", "step");
+        Assertions.assertEquals(Arrays.asList(half, step), exchange.exchange.session.notifications);
+    }
+
+    @Test
+    void testPublisherChunksInOrderWithBackpressure() throws Exception {
+        ChunkTool.READ.set(0);
+        SyncExchange exchange = new SyncExchange();
+        Method method = ChunkTool.class.getMethod("chunks", String.class);
+        ToolBulkhead bulkhead = new ToolBulkhead("chunks", 1, 1, 0, ToolBulkhead.REJECTION_ABORT);
+        ToolCallHandler handler = new ToolCallHandler(new McpSchema.Tool("chunks", "chunks", "{}"),
+                new ToolInvoker("chunks", method, ToolBeanFactory.singleton(new ChunkTool())), null, bulkhead, null, null);
+        ToolCallCancellation request = ToolCallCancellation.register("s3", "1", "token");
+        ToolCallCancellation previous = ToolCallCancellation.attach(request);
+        McpSchema.CallToolResult result;
+        try {
+            result = handler.call(Collections.singletonMap("city", "c"), ToolProgress.of(exchange)).block(Duration.ofSeconds(5));
+        } finally {
+            ToolCallCancellation.restore(previous);
+            request.unregister();
+            bulkhead.shutdown();
+        }
+
+        // 最终结果包含完整的分块，通知中只有预览
+        Assertions.assertEquals(Arrays.asList("c1", "c2", repeat('x', 300)), texts(result));
+        Session session = exchange.exchange.session;
+        Assertions.assertEquals(Arrays.asList("c1", "c2", repeat('x', ToolProgress.MAX_CHUNK_PREVIEW) + "…"),
+                session.notifications.stream().map(params -> params.get("message")).collect(Collectors.toList()));
+        Assertions.assertEquals(Arrays.asList(1.0, 2.0, 3.0),
+                session.notifications.stream().map(params -> params.get("progress")).collect(Collectors.toList()));
+        // 上一个通知发送完成后才读取下一个分块
+        Assertions.assertEquals(Arrays.asList(1, 2, 3), session.readAtSend);
+    }
+
+    @Test
+    void testStreamChunksWithBackpressure() throws Exception {
+        ChunkTool.READ.set(0);
+        SyncExchange exchange = new SyncExchange();
+        Stream<String> stream = Stream.of("a", "b", "c").peek(chunk -> ChunkTool.READ.incrementAndGet());
+        ToolCallCancellation request = ToolCallCancellation.register("s4", "1", "token");
+        ToolCallCancellation previous = ToolCallCancellation.attach(request);
+        McpSchema.CallToolResult result;
+        try {
+            result = ToolCallHandler.complete(stream, ToolProgress.of(exchange));
+        } finally {
+            ToolCallCancellation.restore(previous);
+            request.unregister();
+        }
+
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), texts(result));
+        Assertions.assertEquals(Arrays.asList(1, 2, 3), exchange.exchange.session.readAtSend);
+    }
+
+    @Test
+    void testImmediateToolCannotDeclareProgress() throws Exception {
+        Method method = ReportTool.class.getMethod("report", String.class, ToolProgress.class);
+        ToolExecutionDef immediate = new ToolExecutionDef();
+        immediate.setMode("immediate");
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> new ToolCallHandler(
+                new McpSchema.Tool("report", "report", "{}"), new ToolInvoker("report", method, ToolBeanFactory.singleton(new ReportTool())),
+                immediate, null, null, null));
+        Assertions.assertEquals("Immediate tool 'report' cannot declare a ToolProgress parameter", e.getMessage());
+    }
+
+    @Test
+    void testReportOnNonBlockingThread() {
+        SyncExchange exchange = new SyncExchange();
+        ToolCallCancellation request = ToolCallCancellation.register("s5", "1", "token");
+        ToolCallCancellation previous = ToolCallCancellation.attach(request);
+        ToolProgress progress;
+        try {
+            progress = ToolProgress.of(exchange);
+        } finally {
+            ToolCallCancellation.restore(previous);
+            request.unregister();
+        }
+        // 非阻塞线程上只发送、不等待，不抛出block()的异常
+        Mono.fromRunnable(() -> progress.report("step")).subscribeOn(Schedulers.parallel()).block(Duration.ofSeconds(5));
+        Assertions.assertEquals(1, exchange.exchange.session.notifications.size());
+    }
+
+    @Test
+    void testPreview() {
+        Assertions.assertEquals("short", ToolProgress.preview("short"));
+        String emoji = repeat('x', ToolProgress.MAX_CHUNK_PREVIEW - 1) + "\uD83D\uDE00";
+        // 不截断代理对
+        Assertions.assertEquals(repeat('x', ToolProgress.MAX_CHUNK_PREVIEW - 1) + "…", ToolProgress.preview(emoji + "tail"));
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static List<String> texts(McpSchema.CallToolResult result) {
+        return result.getContent().stream().map(content -> ((McpSchema.TextContent) content).getText()).collect(Collectors.toList());
+    }
+}
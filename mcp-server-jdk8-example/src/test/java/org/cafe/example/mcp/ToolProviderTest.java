@@ -0,0 +1,164 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.cafe.example.mcp.util.JmxUtils;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class ToolProviderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private Path toolList;
+    private ToolProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        toolList = dir.resolve("tool-list.json");
+        writeTools(tool("问候", "简单的问候", "sayHello", "message"), tool("getLandmark", "获取城市地标", "getFamous", "city", "place"));
+        provider = new ToolProvider(null, null, null, toolList.toUri().toURL());
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    private ObjectNode tool(String name, String description, String methodName, String... parameters) {
+        ObjectNode tool = objectMapper.createObjectNode();
+        tool.put("name", name);
+        tool.put("description", description);
+        ObjectNode inputSchema = tool.putObject("inputSchema");
+        inputSchema.put("type", "object");
+        ObjectNode properties = inputSchema.putObject("properties");
+        ArrayNode required = inputSchema.putArray("required");
+        for (String parameter : parameters) {
+            properties.putObject(parameter).put("type", "string");
+            required.add(parameter);
+        }
+        tool.put("targetBeanClass", McpTool.class.getName());
+        tool.put("targetMethodName", methodName);
+        return tool;
+    }
+
+    private void writeTools(ObjectNode... tools) throws Exception {
+        ArrayNode list = objectMapper.createArrayNode();
+        for (ObjectNode tool : tools) {
+            list.add(tool);
+        }
+        Files.write(toolList, objectMapper.writeValueAsBytes(list));
+    }
+
+    private McpSchema.CallToolResult call(McpServerFeatures.SyncToolSpecification specification, Map<String, Object> arguments) {
+        return specification.getCall().apply(null, arguments);
+    }
+
+    private static String text(McpSchema.CallToolResult result) {
+        return ((McpSchema.TextContent) result.getContent().get(0)).getText();
+    }
+
+    @Test
+    void testReloadToolDefs() throws Exception {
+        List<McpServerFeatures.SyncToolSpecification> specifications = provider.allSyncTools();
+        Assertions.assertEquals(2, specifications.size());
+        McpServerFeatures.SyncToolSpecification hello = specifications.get(0);
+        McpServerFeatures.SyncToolSpecification landmark = specifications.get(1);
+        Assertions.assertTrue(provider.reloadToolDefs().isEmpty());
+
+        writeTools(tool("问候", "问候并回显", "sayHello", "message"), tool("getLandmark2", "获取城市地标", "getFamous", "city", "place"));
+        ListChanges<McpSchema.Tool> changes = provider.reloadToolDefs();
+        Assertions.assertEquals(Collections.singletonList("问候"), names(changes.getUpdated()));
+        Assertions.assertEquals(Collections.singletonList("getLandmark2"), names(changes.getAdded()));
+        Assertions.assertEquals(Collections.singletonList("getLandmark"), changes.getRemoved());
+        // 重新获取的规格列表为当前的定义
+        List<McpSchema.Tool> current = provider.allSyncTools().stream().map(McpServerFeatures.SyncToolSpecification::getTool)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("问候", "getLandmark2"), names(current));
+        Assertions.assertEquals("问候并回显", current.get(0).getDescription());
+
+        // SDK中注册的仍是启动时的定义，tools/list按名称输出当前定义
+        Assertions.assertEquals("问候并回显", provider.currentTool(hello.getTool()).getDescription());
+        Assertions.assertEquals("Hello: 你好", text(call(hello, Collections.singletonMap("message", "你好"))));
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("city", "北京");
+        arguments.put("place", "故宫");
+        McpSchema.CallToolResult removed = call(landmark, arguments);
+        Assertions.assertTrue(removed.getIsError());
+        Assertions.assertEquals("Tool 'getLandmark' has been removed", text(removed));
+        Assertions.assertEquals("北京的地标是故宫", text(call(provider.syncSpecification(changes.getAdded().get(0)), arguments)));
+    }
+
+    @Test
+    void testHandlerOnlyChangeIsNotListChange() throws Exception {
+        McpServerFeatures.SyncToolSpecification hello = provider.allSyncTools().get(0);
+        ObjectNode immediate = tool("问候", "简单的问候", "sayHello", "message");
+        immediate.putObject("execution").put("mode", "immediate");
+        writeTools(immediate, tool("getLandmark", "获取城市地标", "getFamous", "city", "place"));
+        Assertions.assertTrue(provider.reloadToolDefs().isEmpty());
+        Assertions.assertEquals("简单的问候", provider.currentTool(hello.getTool()).getDescription());
+        Assertions.assertEquals("Hello: 你好", text(call(hello, Collections.singletonMap("message", "你好"))));
+    }
+
+    @Test
+    void testInvalidDefinitionKeepsHandler() throws Exception {
+        McpServerFeatures.SyncToolSpecification hello = provider.allSyncTools().get(0);
+        writeTools(tool("问候", "问候并回显", "missingMethod", "message"), tool("getLandmark", "获取城市地标", "getFamous", "city", "place"));
+        Assertions.assertTrue(provider.reloadToolDefs().isEmpty());
+        Assertions.assertEquals("简单的问候", provider.currentTool(hello.getTool()).getDescription());
+        Assertions.assertEquals("Hello: 你好", text(call(hello, Collections.singletonMap("message", "你好"))));
+
+        // 修正后再次加载
+        writeTools(tool("问候", "问候并回显", "sayHello", "message"), tool("getLandmark", "获取城市地标", "getFamous", "city", "place"));
+        Assertions.assertEquals(Collections.singletonList("问候"), names(provider.reloadToolDefs().getUpdated()));
+    }
+
+    @Test
+    void testReloadDropsResultCache() throws Exception {
+        ObjectNode cached = tool("问候", "简单的问候", "sayHello", "message");
+        cached.putObject("cache").put("ttlMillis", 60000);
+        writeTools(cached, tool("getLandmark", "获取城市地标", "getFamous", "city", "place"));
+        provider.close();
+        provider = new ToolProvider(null, null, null, toolList.toUri().toURL());
+        McpServerFeatures.SyncToolSpecification hello = provider.allSyncTools().get(0);
+        Assertions.assertEquals("Hello: 你好", text(call(hello, Collections.singletonMap("message", "你好"))));
+        Assertions.assertTrue(isResultCacheRegistered("问候"));
+
+        // 去掉cache节点后重新加载，旧缓存及其MBean随之移除
+        writeTools(tool("问候", "简单的问候", "sayHello", "message"), tool("getLandmark", "获取城市地标", "getFamous", "city", "place"));
+        Assertions.assertTrue(provider.reloadToolDefs().isEmpty());
+        Assertions.assertFalse(isResultCacheRegistered("问候"));
+        Assertions.assertEquals("Hello: 你好", text(call(hello, Collections.singletonMap("message", "你好"))));
+    }
+
+    private static boolean isResultCacheRegistered(String name) throws Exception {
+        return ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName(JmxUtils.DOMAIN + ":type=ToolResultCache,name=" + ObjectName.quote(name)));
+    }
+
+    private static List<String> names(List<McpSchema.Tool> tools) {
+        return tools.stream().map(McpSchema.Tool::getName).collect(Collectors.toList());
+    }
+}
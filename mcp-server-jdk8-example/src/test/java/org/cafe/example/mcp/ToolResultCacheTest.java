@@ -0,0 +1,130 @@
+package org.cafe.example.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ToolResultCacheTest {
+
+    private static Map<String, Object> arguments(String city, String place) {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("city", city);
+        arguments.put("place", place);
+        return arguments;
+    }
+
+    private static CompletableFuture<McpSchema.CallToolResult> load(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(ToolCallHandler.success("result"));
+    }
+
+    @Test
+    void testKeyIgnoresArgumentOrder() {
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("place", "天安门");
+        reversed.put("city", "北京");
+        Assertions.assertEquals(ToolResultCache.key(arguments("北京", "天安门")), ToolResultCache.key(reversed));
+        Assertions.assertEquals(ToolResultCache.key(null), ToolResultCache.key(new HashMap<>()));
+    }
+
+    @Test
+    void testHitAndMiss() {
+        ToolResultCache cache = new ToolResultCache("getLandmark", new ToolCacheDef(null, 10, null));
+        AtomicInteger calls = new AtomicInteger();
+        McpSchema.CallToolResult first = cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        McpSchema.CallToolResult second = cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testSingleFlight() {
+        ToolResultCache cache = new ToolResultCache("getLandmark", new ToolCacheDef());
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<McpSchema.CallToolResult> pending = new CompletableFuture<>();
+        CompletableFuture<McpSchema.CallToolResult> first = cache.get(arguments("北京", "天安门"), () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<McpSchema.CallToolResult> second = cache.get(arguments("北京", "天安门"), () -> load(calls));
+        // 取消其中一个调用方不影响共享的调用
+        first.cancel(true);
+        pending.complete(ToolCallHandler.success("result"));
+        Assertions.assertNotNull(second.join());
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(1, cache.getCoalescedCount());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void testLastWaiterCancelsLoad() {
+        ToolResultCache cache = new ToolResultCache("getLandmark", new ToolCacheDef());
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<McpSchema.CallToolResult> pending = new CompletableFuture<>();
+        CompletableFuture<McpSchema.CallToolResult> first = cache.get(arguments("北京", "天安门"), () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<McpSchema.CallToolResult> second = cache.get(arguments("北京", "天安门"), () -> load(calls));
+        first.cancel(true);
+        Assertions.assertFalse(pending.isCancelled());
+        // 最后一个调用方取消时取消共享的调用
+        second.cancel(true);
+        Assertions.assertTrue(pending.isCancelled());
+        Assertions.assertEquals(0, cache.getSize());
+
+        // 之后的调用重新执行
+        Assertions.assertNotNull(cache.get(arguments("北京", "天安门"), () -> load(calls)).join());
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void testLruEviction() {
+        ToolResultCache cache = new ToolResultCache("getLandmark", new ToolCacheDef(null, 2, null));
+        AtomicInteger calls = new AtomicInteger();
+        cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        cache.get(arguments("上海", "东方明珠"), () -> load(calls)).join();
+        cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        cache.get(arguments("广州", "小蛮腰"), () -> load(calls)).join();
+        Assertions.assertEquals(2, cache.getSize());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        // 最近访问过的北京仍在缓存中
+        cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testTtlExpiration() throws InterruptedException {
+        ToolResultCache cache = new ToolResultCache("getLandmark", new ToolCacheDef(50L, null, null));
+        AtomicInteger calls = new AtomicInteger();
+        cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        Thread.sleep(100);
+        cache.get(arguments("北京", "天安门"), () -> load(calls)).join();
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testErrorResultNotCached() {
+        ToolResultCache cache = new ToolResultCache("getLandmark", new ToolCacheDef());
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            cache.get(Collections.emptyMap(), () -> {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture(new McpSchema.CallToolResult(Collections.emptyList(), true));
+            }).join();
+        }
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,90 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 构建时生成{@link ToolSchemaIndex}：扫描编译输出目录中带{@code @Tool}方法的类，生成紧凑格式的inputSchema并写入
+ * {@value ToolSchemaIndex#INDEX_RESOURCE}，由exec-maven-plugin在process-test-classes阶段执行，不随主代码发布
+ */
+@Slf4j
+public class ToolSchemaIndexGenerator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ToolSchemaIndexGenerator() {
+    }
+
+    /**
+     * @param args 编译输出目录，例如{@code target/classes}
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: ToolSchemaIndexGenerator <classesDirectory>");
+        }
+        Path classesDirectory = Paths.get(args[0]);
+        Map<String, Map<String, String>> index = generate(classesDirectory);
+        Path indexFile = classesDirectory.resolve(ToolSchemaIndex.INDEX_RESOURCE);
+        Files.createDirectories(indexFile.getParent());
+        ClassLoader classLoader = ToolSchemaIndexGenerator.class.getClassLoader();
+        try (BufferedWriter writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Map<String, String>> beanClass : index.entrySet()) {
+                long checksum = ToolSchemaIndex.checksum(Class.forName(beanClass.getKey(), false, classLoader));
+                for (Map.Entry<String, String> method : beanClass.getValue().entrySet()) {
+                    writer.write(beanClass.getKey() + '\t' + checksum + '\t' + method.getKey() + '\t' + method.getValue());
+                    writer.newLine();
+                }
+            }
+        }
+        log.info("Generated {} with {} classes", indexFile, index.size());
+    }
+
+    static Map<String, Map<String, String>> generate(Path classesDirectory) throws IOException {
+        List<String> classNames;
+        try (Stream<Path> paths = Files.walk(classesDirectory)) {
+            classNames = paths.map(path -> classesDirectory.relativize(path).toString())
+                    .filter(name -> name.endsWith(".class") && !name.contains("$"))
+                    .map(name -> name.substring(0, name.length() - ".class".length()).replace('/', '.').replace('\\', '.'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        Map<String, Map<String, String>> index = new TreeMap<>();
+        ClassLoader classLoader = ToolSchemaIndexGenerator.class.getClassLoader();
+        for (String className : classNames) {
+            Class<?> beanClass;
+            try {
+                // 不执行类的静态初始化
+                beanClass = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.debug("Skip {}: {}", className, e.getMessage());
+                continue;
+            }
+            Map<String, String> methods = new TreeMap<>();
+            for (Method method : beanClass.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    methods.put(ToolSchemaIndex.signature(method),
+                            OBJECT_MAPPER.readTree(ToolSchemaIndex.generate(method)).toString());
+                }
+            }
+            if (!methods.isEmpty()) {
+                index.put(className, methods);
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,60 @@
+package org.cafe.example.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+class ToolSchemaIndexTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testGeneratedIndexMatchesRuntimeSchema() throws Exception {
+        Path classesDirectory = Paths.get(McpServerTool.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Map<String, Map<String, String>> index = ToolSchemaIndexGenerator.generate(classesDirectory);
+
+        Map<String, String> methods = index.get(McpServerTool.class.getName());
+        Assertions.assertNotNull(methods);
+        Method method = McpServerTool.class.getMethod("getSpeciality", String.class, String.class);
+        String schema = methods.get("getSpeciality(java.lang.String,java.lang.String)");
+        Assertions.assertFalse(schema.contains("\n"));
+        Assertions.assertEquals(objectMapper.readTree(ToolSchemaIndex.generate(method)), objectMapper.readTree(schema));
+        // 没有@Tool方法的类不在索引中
+        Assertions.assertFalse(index.containsKey(McpTool.class.getName()));
+    }
+
+    @Test
+    void testFallbackForClassNotInIndex() throws Exception {
+        Method method = McpTool.class.getMethod("getFamous", String.class, String.class);
+        int generated = ToolSchemaIndex.getGenerated();
+        Assertions.assertEquals(ToolSchemaIndex.generate(method), ToolSchemaIndex.getInputSchema(method));
+        Assertions.assertEquals(generated + 1, ToolSchemaIndex.getGenerated());
+    }
+
+    @Test
+    void testStaleClassFallsBackToGeneration() throws Exception {
+        Method method = McpServerTool.class.getMethod("getSpeciality", String.class, String.class);
+        String signature = ToolSchemaIndex.signature(method);
+        long checksum = ToolSchemaIndex.checksum(McpServerTool.class);
+        Assertions.assertNotEquals(-1, checksum);
+
+        String current = McpServerTool.class.getName() + '\t' + checksum + '\t' + signature + "\t{\"indexed\":true}\n";
+        Map<String, ToolSchemaIndex.IndexedClass> index = ToolSchemaIndex.read(new ByteArrayInputStream(current.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals("{\"indexed\":true}", ToolSchemaIndex.getInputSchema(index, method));
+
+        // 生成索引后类文件被修改：不使用索引中的schema
+        String stale = McpServerTool.class.getName() + '\t' + (checksum + 1) + '\t' + signature + "\t{\"indexed\":true}\n";
+        index = ToolSchemaIndex.read(new ByteArrayInputStream(stale.getBytes(StandardCharsets.UTF_8)));
+        int staleCount = ToolSchemaIndex.getStale();
+        Assertions.assertEquals(ToolSchemaIndex.generate(method), ToolSchemaIndex.getInputSchema(index, method));
+        Assertions.assertEquals(ToolSchemaIndex.generate(method), ToolSchemaIndex.getInputSchema(index, method));
+        Assertions.assertEquals(staleCount + 1, ToolSchemaIndex.getStale());
+    }
+}
@@ -0,0 +1,86 @@
+package org.cafe.example.mcp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.cafe.example.mcp.BlobStore;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 图片常驻堆内存对比：生成count个size字节的图片文件，分别以base64字符串（原实现）和{@link BlobStore}引用构建ImageContent并保持，
+ * 测量Full GC后堆的增量（即保持这些内容的retained heap），并确认两种方式序列化的结果相同。
+ * 参数（系统属性）：count（默认1000）、size（默认65536）；建议使用固定的堆大小运行，例如-Xms1g -Xmx1g
+ */
+public class BlobStoreHeapBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int count = Integer.getInteger("count", 1000);
+        int size = Integer.getInteger("size", 65536);
+        Path dir = Files.createTempDirectory("blob-heap");
+        List<Path> files = new ArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < count; i++) {
+            byte[] image = new byte[size];
+            random.nextBytes(image);
+            files.add(Files.write(dir.resolve(i + ".png"), image));
+        }
+
+        BlobStore blobStore = new BlobStore();
+        ObjectMapper objectMapper = blobStore.register(new ObjectMapper());
+
+        long baseline = usedHeap();
+        List<McpSchema.ImageContent> strings = new ArrayList<>();
+        for (Path file : files) {
+            strings.add(image(Base64.getEncoder().encodeToString(Files.readAllBytes(file))));
+        }
+        long stringHeap = usedHeap() - baseline;
+        String expected = objectMapper.writeValueAsString(strings.get(count - 1));
+        strings = null;
+
+        baseline = usedHeap();
+        List<McpSchema.ImageContent> blobs = new ArrayList<>();
+        for (Path file : files) {
+            blobs.add(image(blobStore.map(file)));
+        }
+        long blobHeap = usedHeap() - baseline;
+        if (!expected.equals(objectMapper.writeValueAsString(blobs.get(count - 1)))) {
+            throw new IllegalStateException("Serialized blob differs from base64 string");
+        }
+
+        System.out.printf("%d images x %d bytes%n%-8s %12s%n%-8s %12.1f%n%-8s %12.1f%n", count, size, "mode", "heap(MB)",
+                "string", stringHeap / 1048576.0, "blob", blobHeap / 1048576.0);
+        System.out.printf("mapped %d files, %.1f MB off heap%n", blobStore.getBlobCount(), blobStore.getMappedBytes() / 1048576.0);
+        blobStore.close();
+        deleteAll(files, dir);
+    }
+
+    private static McpSchema.ImageContent image(String data) {
+        return new McpSchema.ImageContent(Collections.singletonList(McpSchema.Role.USER), null, data, "image/png");
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void deleteAll(List<Path> files, Path dir) throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(dir);
+    }
+}
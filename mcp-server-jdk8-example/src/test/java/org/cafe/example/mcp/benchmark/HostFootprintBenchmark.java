@@ -0,0 +1,79 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.cafe.example.mcp.McpClassScanner;
+import org.cafe.example.mcp.McpServer;
+import org.cafe.example.mcp.McpServerEndpointProcessor;
+import org.cafe.example.mcp.McpServerHost;
+import org.cafe.example.mcp.host.a.HostEndpointA;
+import org.cafe.example.mcp.host.b.HostEndpointB;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 同一JVM中运行2个MCP Server（测试代码中的{@link HostEndpointA}、{@link HostEndpointB}）的线程数与堆内存：
+ * 各自独立运行（各自的Tomcat）vs 在{@link McpServerHost}中运行（共用一个Tomcat connector和工作线程池）。
+ * 参数（系统属性）：mode为standalone或host（默认两者都测量，每种方式在新的JVM中运行更准确）；建议使用固定的堆大小运行，例如-Xms256m -Xmx256m
+ */
+public class HostFootprintBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final List<String> ENDPOINTS = Arrays.asList(HostEndpointA.class.getName(), HostEndpointB.class.getName());
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty(McpClassScanner.PROPERTY_SCAN_PACKAGES,
+                HostEndpointA.class.getPackage().getName() + "," + HostEndpointB.class.getPackage().getName());
+        String mode = System.getProperty("mode", "");
+        System.out.printf("%-12s %8s %10s%n", "mode", "threads", "heap(MB)");
+        if (!"host".equals(mode)) {
+            standalone();
+        }
+        if (!"standalone".equals(mode)) {
+            host();
+        }
+    }
+
+    private static void standalone() throws Exception {
+        int threads = THREADS.getThreadCount();
+        long heap = usedHeap();
+        List<McpServer> servers = new ArrayList<>();
+        for (String endpoint : ENDPOINTS) {
+            System.setProperty(McpServerEndpointProcessor.PROPERTY_ENDPOINT, endpoint);
+            McpServer server = new McpServer();
+            servers.add(server);
+            server.start();
+        }
+        System.clearProperty(McpServerEndpointProcessor.PROPERTY_ENDPOINT);
+        report("standalone", threads, heap);
+        servers.forEach(McpServer::stop);
+        Thread.sleep(1000);
+    }
+
+    private static void host() throws Exception {
+        int threads = THREADS.getThreadCount();
+        long heap = usedHeap();
+        McpServerHost host = new McpServerHost();
+        host.start();
+        report("host", threads, heap);
+        host.stop();
+    }
+
+    private static void report(String mode, int threads, long heap) throws InterruptedException {
+        // 等待Tomcat启动的线程就绪
+        Thread.sleep(1000);
+        System.out.printf("%-12s %8d %10.1f%n", mode, THREADS.getThreadCount() - threads, (usedHeap() - heap) / 1048576.0);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,104 @@
+package org.cafe.example.mcp.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cafe.example.mcp.McpTool;
+import org.cafe.example.mcp.McpToolDef;
+import org.cafe.example.mcp.ToolInvoker;
+import org.cafe.example.mcp.ToolInvokerRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tools/call在不同日志配置下的吞吐量：默认的logback.xml（DEBUG、同步写控制台和文件）vs logback-production.xml（异步写、SDK调试日志采样）。
+ * <p>
+ * 每次调用按SDK的方式记录收到的请求和发出的响应（DEBUG），中间经{@link ToolInvoker}执行tool并序列化结果；
+ * 控制台输出被丢弃（不计终端的开销），文件写到当前目录的logs下
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoggingProfileBenchmark {
+
+    /**
+     * SDK的logger名称
+     */
+    private static final String SDK_LOGGER = "io.modelcontextprotocol.server.McpServerSession";
+
+    @Param({"logback.xml", "logback-production.xml"})
+    private String profile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Object> arguments = new HashMap<>();
+    private PrintStream stdout;
+    private LoggerContext loggerContext;
+    private Logger sdkLogger;
+    private ToolInvoker invoker;
+
+    @Setup
+    public void setup() throws Exception {
+        stdout = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(loggerContext);
+        configurator.doConfigure(LoggingProfileBenchmark.class.getClassLoader().getResource(profile));
+        sdkLogger = LoggerFactory.getLogger(SDK_LOGGER);
+
+        McpToolDef toolDef = new McpToolDef();
+        toolDef.setName("getLandmark");
+        toolDef.setTargetBeanClass(McpTool.class.getName());
+        toolDef.setTargetMethodName("getFamous");
+        invoker = new ToolInvokerRegistry().register(toolDef);
+        arguments.put("city", "北京");
+        arguments.put("place", "天安门");
+    }
+
+    @TearDown
+    public void tearDown() {
+        // 停止时异步appender会等待队列中的日志写完
+        loggerContext.stop();
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public String toolsCall() throws Exception {
+        sdkLogger.debug("Received request: {}", arguments);
+        String result = objectMapper.writeValueAsString(invoker.call(arguments));
+        sdkLogger.debug("Sending response: {}", result);
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoggingProfileBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,81 @@
+package org.cafe.example.mcp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.cafe.example.mcp.PromptTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带参数的文本prompt（prompts/get）：原实现的StringBuffer替换{@code %s}+每次解析JSON vs {@link PromptTemplate}填充槽位
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptTemplateBenchmark {
+
+    private static final String PLACEHOLDER = "%s";
+
+    /**
+     * 每条message的文本重复次数，用于模拟不同大小的prompt文件
+     */
+    @Param({"1", "50"})
+    private int textRepeat;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> argumentNames = Arrays.asList("arg1", "arg2");
+    private final Map<String, Object> arguments = new HashMap<>();
+
+    private String content;
+    private PromptTemplate template;
+
+    @Setup
+    public void setup() throws Exception {
+        StringBuilder text = new StringBuilder("参数1: %s, 参数2: %s.");
+        for (int i = 1; i < textRepeat; i++) {
+            text.append(" Lorem ipsum dolor sit amet, consectetur adipiscing elit.");
+        }
+        content = "{\"description\": \"Test prompt with argument description\", \"messages\": [{\"role\": \"assistant\", "
+                + "\"content\": {\"type\": \"text\", \"text\": \"" + text + "\"}}]}";
+        template = PromptTemplate.compile(content, argumentNames, objectMapper);
+        arguments.put("arg1", "北京");
+        arguments.put("arg2", "2025-07-30");
+    }
+
+    /**
+     * 原PromptProvider的实现：复制文件内容、逐个替换{@code %s}后再解析为GetPromptResult
+     */
+    @Benchmark
+    public McpSchema.GetPromptResult stringBufferReplace() throws Exception {
+        StringBuffer buffer = new StringBuffer(content);
+        argumentNames.forEach(name -> {
+            String value = arguments.get(name) == null ? "" : (String) arguments.get(name);
+            buffer.replace(buffer.indexOf(PLACEHOLDER), buffer.indexOf(PLACEHOLDER) + PLACEHOLDER.length(), value);
+        });
+        return objectMapper.readValue(buffer.toString(), McpSchema.GetPromptResult.class);
+    }
+
+    @Benchmark
+    public McpSchema.GetPromptResult templateRender() {
+        return template.render(arguments);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PromptTemplateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,127 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.cafe.example.mcp.BlobStore;
+import org.cafe.example.mcp.McpClassScanner;
+import org.cafe.example.mcp.PromptProvider;
+import org.cafe.example.mcp.ResourceProvider;
+import org.cafe.example.mcp.ToolProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 冷启动时构建tools/prompts/resources：500个tool-list.json中的tool、2000个prompt文件，
+ * 与{@code McpServer.start()}相同在3个线程上并行构建 vs 依次构建。每次测量都在新的JVM中执行一次
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class RegistryStartupBenchmark {
+
+    private static final int TOOLS = 500;
+    private static final int PROMPTS = 2000;
+
+    private Path dir;
+    private ToolProvider toolProvider;
+    private PromptProvider promptProvider;
+    private ResourceProvider resourceProvider;
+    private BlobStore blobStore;
+
+    @Setup
+    public void setup() throws IOException {
+        // 与服务启动时相同，构建之前日志系统已初始化
+        LoggerFactory.getLogger(RegistryStartupBenchmark.class);
+        dir = Files.createTempDirectory("registry-startup");
+        Path toolList = dir.resolve("tool-list.json");
+        StringJoiner tools = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < TOOLS; i++) {
+            tools.add(i % 2 == 0
+                    ? "{\"name\":\"hello" + i + "\",\"description\":\"问候" + i + "\",\"inputSchema\":{\"type\":\"object\","
+                    + "\"properties\":{\"message\":{\"type\":\"string\"}},\"required\":[\"message\"]},"
+                    + "\"targetBeanClass\":\"org.cafe.example.mcp.McpTool\",\"targetMethodName\":\"sayHello\"}"
+                    : "{\"name\":\"landmark" + i + "\",\"description\":\"地标" + i + "\",\"inputSchema\":{\"type\":\"object\","
+                    + "\"properties\":{\"city\":{\"type\":\"string\"},\"place\":{\"type\":\"string\"}},\"required\":[\"city\",\"place\"]},"
+                    + "\"targetBeanClass\":\"org.cafe.example.mcp.McpTool\",\"targetMethodName\":\"getFamous\"}");
+        }
+        Files.write(toolList, tools.toString().getBytes(StandardCharsets.UTF_8));
+
+        Path promptDir = Files.createDirectories(dir.resolve("prompt"));
+        StringJoiner prompts = new StringJoiner(",", "{\"prompts\":[", "]}");
+        for (int i = 0; i < PROMPTS; i++) {
+            prompts.add("{\"name\":\"prompt" + i + "\",\"description\":\"prompt " + i + "\",\"arguments\":[]}");
+            Files.write(promptDir.resolve("prompt" + i + ".json"), ("{\"description\":\"prompt " + i + "\",\"messages\":[{\"role\":\"user\","
+                    + "\"content\":{\"type\":\"text\",\"text\":\"这是prompt " + i + "的内容\"}}]}").getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(promptDir.resolve("prompt-list.json"), prompts.toString().getBytes(StandardCharsets.UTF_8));
+
+        blobStore = new BlobStore();
+        toolProvider = new ToolProvider(new McpClassScanner.ScanResult(), null, null, toolList.toUri().toURL());
+        promptProvider = new PromptProvider(blobStore, promptDir);
+        resourceProvider = new ResourceProvider(blobStore);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        toolProvider.close();
+        promptProvider.close();
+        blobStore.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void parallel(Blackhole blackhole) {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> blackhole.consume(call(toolProvider::allSyncTools)), pool),
+                    CompletableFuture.runAsync(() -> blackhole.consume(call(promptProvider::allSyncPrompts)), pool),
+                    CompletableFuture.runAsync(() -> blackhole.consume(call(resourceProvider::allSyncResources)), pool)).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void sequential(Blackhole blackhole) throws IOException {
+        blackhole.consume(toolProvider.allSyncTools());
+        blackhole.consume(promptProvider.allSyncPrompts());
+        blackhole.consume(resourceProvider.allSyncResources());
+    }
+
+    private static Object call(Callable<?> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RegistryStartupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,344 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.cafe.example.mcp.ConnectorProperties;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 并发会话压测：对运行中的MCP Server逐级增加保持打开的会话数，每级在保持所有会话的同时测量新建会话的延迟，
+ * 用于比较不同{@code @TomcatConnector}配置下单个节点能保持多少会话而延迟不明显上升。
+ * <ul>
+ * <li>sse - GET sseEndpoint，收到endpoint事件后保持连接</li>
+ * <li>streamableHttp - POST initialize和notifications/initialized后，GET mcpEndpoint打开通知流并保持连接；
+ * 测量用的会话和结束时保持的会话都通过DELETE关闭，不会在服务端遗留</li>
+ * </ul>
+ * 参数（系统属性）：url（默认http://localhost:9000/mcp）、transport（streamableHttp或sse，默认streamableHttp）、
+ * steps（各级的会话数，默认500,1000,2000,5000,10000）、probes（每级测量的新建会话数，默认50）、
+ * preset（设置后忽略url，在本进程中用该connector预设启动Tomcat和只实现会话建立/关闭的{@link SessionServlet}，
+ * 用于在没有MCP Server时比较connector预设）。
+ * 保持的会话只占用socket、不占用线程；客户端和服务端进程的文件描述符上限（ulimit -n）需大于最大会话数
+ */
+public class SessionLoadBenchmark {
+
+    private static final int TIMEOUT_MILLIS = 10000;
+    private static final String INITIALIZE = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":{"
+            + "\"protocolVersion\":\"2025-03-26\",\"capabilities\":{},\"clientInfo\":{\"name\":\"load-test\",\"version\":\"1.0\"}}}";
+    private static final String INITIALIZED = "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}";
+
+    private final URL url;
+    private final boolean sse;
+
+    public SessionLoadBenchmark(URL url, boolean sse) {
+        this.url = url;
+        this.sse = sse;
+    }
+
+    public static void main(String[] args) throws Exception {
+        URL url = new URL(System.getProperty("url", "http://localhost:9000/mcp"));
+        boolean sse = "sse".equalsIgnoreCase(System.getProperty("transport", "streamableHttp"));
+        int probes = Integer.getInteger("probes", 50);
+        List<Integer> steps = new ArrayList<>();
+        for (String step : System.getProperty("steps", "500,1000,2000,5000,10000").split(",")) {
+            steps.add(Integer.parseInt(step.trim()));
+        }
+        String preset = System.getProperty("preset");
+        if (preset == null) {
+            new SessionLoadBenchmark(url, sse).run(steps, probes);
+            return;
+        }
+
+        SessionServlet servlet = new SessionServlet();
+        Tomcat tomcat = startTomcat(ConnectorProperties.preset(preset), servlet);
+        try {
+            System.out.println("preset " + preset);
+            new SessionLoadBenchmark(new URL("http://localhost:" + tomcat.getConnector().getLocalPort() + "/mcp"), sse)
+                    .run(steps, probes);
+            if (!sse) {
+                System.out.println("sessions left on server: " + servlet.sessions.size());
+            }
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private static Tomcat startTomcat(ConnectorProperties connectorProperties, HttpServlet servlet)
+            throws LifecycleException, IOException {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("session-load").toFile().getAbsolutePath());
+        tomcat.setConnector(connectorProperties.createConnector(0));
+        Context ctx = tomcat.addContext("", new File(System.getProperty("java.io.tmpdir")).getAbsolutePath());
+        Wrapper wrapper = Tomcat.addServlet(ctx, "mcp", servlet);
+        wrapper.setAsyncSupported(true);
+        ctx.addServletMappingDecoded("/mcp", "mcp");
+        tomcat.start();
+        return tomcat;
+    }
+
+    public void run(List<Integer> steps, int probes) throws InterruptedException {
+        System.out.printf("%s %s%n%10s %8s %10s %10s %10s%n", sse ? "sse" : "streamableHttp", url,
+                "sessions", "failed", "p50(ms)", "p99(ms)", "max(ms)");
+        List<Session> sessions = new ArrayList<>();
+        try {
+            for (int step : steps) {
+                int failed = 0;
+                while (sessions.size() + failed < step) {
+                    try {
+                        sessions.add(openSession());
+                    } catch (IOException e) {
+                        failed++;
+                    }
+                }
+                // 等待服务端处理完新建会话的后续工作后再测量
+                Thread.sleep(1000);
+                double[] latencies = new double[probes];
+                for (int i = 0; i < probes; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        Session session = openSession();
+                        latencies[i] = (System.nanoTime() - start) / 1e6;
+                        session.close();
+                    } catch (IOException e) {
+                        failed++;
+                        latencies[i] = TIMEOUT_MILLIS;
+                    }
+                }
+                Arrays.sort(latencies);
+                System.out.printf(Locale.ROOT, "%10d %8d %10.1f %10.1f %10.1f%n", sessions.size(), failed,
+                        percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[probes - 1]);
+                if (failed > 0) {
+                    break;
+                }
+            }
+        } finally {
+            for (Session session : sessions) {
+                try {
+                    session.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /**
+     * 保持打开的会话：SSE连接或streamableHttp的通知流
+     */
+    private class Session {
+
+        private final Socket socket;
+        /**
+         * streamableHttp的会话ID，SSE会话为null（断开连接即结束会话）
+         */
+        private final String sessionId;
+
+        private Session(Socket socket, String sessionId) {
+            this.socket = socket;
+            this.sessionId = sessionId;
+        }
+
+        /**
+         * 断开连接；streamableHttp会话还需要DELETE，否则服务端的会话会一直保留
+         */
+        private void close() throws IOException {
+            socket.close();
+            if (sessionId != null) {
+                try (Socket delete = connect()) {
+                    send(delete, "DELETE", sessionId, null);
+                    checkStatus(readHeaders(delete.getInputStream()), "2");
+                }
+            }
+        }
+    }
+
+    /**
+     * 建立会话并返回保持打开的会话
+     */
+    private Session openSession() throws IOException {
+        if (sse) {
+            Socket socket = connect();
+            send(socket, "GET", null, null);
+            String response = readHeaders(socket.getInputStream());
+            checkStatus(response, "200");
+            readUntil(socket.getInputStream(), "endpoint");
+            return new Session(socket, null);
+        }
+
+        String sessionId;
+        try (Socket socket = connect()) {
+            send(socket, "POST", null, INITIALIZE);
+            String response = readHeaders(socket.getInputStream());
+            checkStatus(response, "200");
+            sessionId = header(response, "Mcp-Session-Id");
+        }
+        try (Socket socket = connect()) {
+            send(socket, "POST", sessionId, INITIALIZED);
+            checkStatus(readHeaders(socket.getInputStream()), "202");
+        }
+        Socket socket = connect();
+        send(socket, "GET", sessionId, null);
+        checkStatus(readHeaders(socket.getInputStream()), "200");
+        return new Session(socket, sessionId);
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(url.getHost(), url.getPort() == -1 ? 80 : url.getPort()), TIMEOUT_MILLIS);
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        return socket;
+    }
+
+    private void send(Socket socket, String method, String sessionId, String body) throws IOException {
+        StringBuilder request = new StringBuilder();
+        request.append(method).append(' ').append(url.getFile()).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(url.getAuthority()).append("\r\n")
+                .append("Accept: ").append(body == null ? "text/event-stream" : "application/json, text/event-stream").append("\r\n");
+        if ("DELETE".equals(method)) {
+            request.append("Connection: close\r\n");
+        }
+        if (sessionId != null) {
+            request.append("Mcp-Session-Id: ").append(sessionId).append("\r\n");
+        }
+        byte[] content = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        if (body != null) {
+            request.append("Content-Type: application/json\r\n")
+                    .append("Content-Length: ").append(content.length).append("\r\n")
+                    .append("Connection: close\r\n");
+        }
+        request.append("\r\n");
+        OutputStream out = socket.getOutputStream();
+        out.write(request.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(content);
+        out.flush();
+    }
+
+    private static String readHeaders(InputStream in) throws IOException {
+        return readUntil(in, "\r\n\r\n");
+    }
+
+    private static String readUntil(InputStream in, String terminator) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            buffer.write(b);
+            if (b == terminator.charAt(terminator.length() - 1)
+                    && new String(buffer.toByteArray(), StandardCharsets.ISO_8859_1).endsWith(terminator)) {
+                return new String(buffer.toByteArray(), StandardCharsets.ISO_8859_1);
+            }
+        }
+        throw new IOException("Connection closed before " + terminator.trim());
+    }
+
+    private static void checkStatus(String response, String status) throws IOException {
+        String statusLine = response.substring(0, Math.max(response.indexOf("\r\n"), 0));
+        if (!statusLine.contains(" " + status)) {
+            throw new IOException("Unexpected response: " + statusLine);
+        }
+    }
+
+    private static String header(String response, String name) throws IOException {
+        for (String line : response.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase(name)) {
+                return line.substring(colon + 1).trim();
+            }
+        }
+        throw new IOException("Missing header " + name);
+    }
+
+    /**
+     * 只实现会话建立与关闭的MCP servlet，不处理其它请求：
+     * 不带Mcp-Session-Id的GET为SSE会话；POST initialize创建streamableHttp会话，带Mcp-Session-Id的GET打开其通知流，DELETE关闭会话
+     */
+    static class SessionServlet extends HttpServlet {
+
+        private static final String HEADER_SESSION_ID = "Mcp-Session-Id";
+
+        /**
+         * streamableHttp会话及其通知流（未打开时为会话ID本身）
+         */
+        final Map<String, Object> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            String sessionId = req.getHeader(HEADER_SESSION_ID);
+            if (sessionId != null && !sessions.containsKey(sessionId)) {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            resp.setContentType("text/event-stream");
+            resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            AsyncContext asyncContext = req.startAsync();
+            PrintWriter writer = resp.getWriter();
+            if (sessionId == null) {
+                writer.write("event: endpoint\ndata: /mcp?sessionId=" + UUID.randomUUID() + "\n\n");
+            } else {
+                sessions.replace(sessionId, asyncContext);
+            }
+            writer.flush();
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            String sessionId = req.getHeader(HEADER_SESSION_ID);
+            if (sessionId == null) {
+                sessionId = UUID.randomUUID().toString();
+                sessions.put(sessionId, sessionId);
+                resp.setHeader(HEADER_SESSION_ID, sessionId);
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"protocolVersion\":\"2025-03-26\","
+                        + "\"capabilities\":{},\"serverInfo\":{\"name\":\"session-load\",\"version\":\"1.0\"}}}");
+            } else if (sessions.containsKey(sessionId)) {
+                resp.setStatus(HttpServletResponse.SC_ACCEPTED);
+            } else {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+
+        @Override
+        protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            String sessionId = req.getHeader(HEADER_SESSION_ID);
+            Object session = sessionId == null ? null : sessions.remove(sessionId);
+            if (session == null) {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (session instanceof AsyncContext) {
+                try {
+                    ((AsyncContext) session).complete();
+                } catch (IllegalStateException ignored) {
+                    // 通知流已超时或已断开
+                }
+            }
+            resp.setStatus(HttpServletResponse.SC_OK);
+        }
+    }
+}
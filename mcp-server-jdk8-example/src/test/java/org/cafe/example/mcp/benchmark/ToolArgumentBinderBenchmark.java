@@ -0,0 +1,95 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.cafe.example.mcp.ToolArgumentBinder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1、5、20个参数的tool：按请求Map迭代顺序取参数 vs {@link ToolArgumentBinder}按名称绑定
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolArgumentBinderBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int arity;
+
+    private final ArityTool bean = new ArityTool();
+    private Method method;
+    private ToolArgumentBinder binder;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        Class<?>[] parameterTypes = new Class<?>[arity];
+        for (int i = 0; i < arity; i++) {
+            parameterTypes[i] = i % 2 == 0 ? String.class : int.class;
+        }
+        method = ArityTool.class.getMethod("arity" + arity, parameterTypes);
+        binder = new ToolArgumentBinder(method);
+        // 按参数顺序插入，保证原实现也能调用成功
+        request = new LinkedHashMap<>();
+        String[] names = binder.getParameterNames();
+        for (int i = 0; i < arity; i++) {
+            request.put(names[i], i % 2 == 0 ? "v" + i : i);
+        }
+    }
+
+    /**
+     * 原ToolProvider的实现：依赖Map迭代顺序、每次调用创建数组且不做类型转换
+     */
+    @Benchmark
+    public Object mapValuesToArray() throws Exception {
+        return method.invoke(bean, request.values().toArray());
+    }
+
+    @Benchmark
+    public Object binderBind() throws Exception {
+        return method.invoke(bean, binder.bind(request));
+    }
+
+    @Benchmark
+    public Object binderBindReusable() throws Exception {
+        Object[] args = binder.bindReusable(request);
+        try {
+            return method.invoke(bean, args);
+        } finally {
+            binder.release(args);
+        }
+    }
+
+    public static class ArityTool {
+
+        public String arity1(String a0) {
+            return a0;
+        }
+
+        public String arity5(String a0, int a1, String a2, int a3, String a4) {
+            return a0;
+        }
+
+        public String arity20(String a0, int a1, String a2, int a3, String a4, int a5, String a6, int a7, String a8, int a9,
+                              String a10, int a11, String a12, int a13, String a14, int a15, String a16, int a17, String a18, int a19) {
+            return a0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ToolArgumentBinderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,84 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.cafe.example.mcp.ToolDispatcher;
+import org.cafe.example.mcp.ToolDispatchers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同参数个数的tool方法：{@link Method#invoke}、{@code MethodHandle}与{@code LambdaMetafactory}生成类的调用对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolDispatcherBenchmark {
+
+    @Param({"1", "3", "6"})
+    private int arity;
+
+    private final ArityTool bean = new ArityTool();
+    private Object[] args;
+    private ToolDispatcher reflective;
+    private ToolDispatcher methodHandle;
+    private ToolDispatcher generated;
+
+    @Setup
+    public void setup() throws Exception {
+        Class<?>[] parameterTypes = new Class<?>[arity];
+        args = new Object[arity];
+        for (int i = 0; i < arity; i++) {
+            parameterTypes[i] = i % 2 == 0 ? String.class : int.class;
+            args[i] = i % 2 == 0 ? "v" + i : i;
+        }
+        Method method = ArityTool.class.getMethod("arity" + arity, parameterTypes);
+        reflective = ToolDispatchers.reflective(method);
+        methodHandle = ToolDispatchers.methodHandle(method);
+        generated = ToolDispatchers.generated(method);
+    }
+
+    @Benchmark
+    public Object reflective() throws Throwable {
+        return reflective.dispatch(bean, args);
+    }
+
+    @Benchmark
+    public Object methodHandle() throws Throwable {
+        return methodHandle.dispatch(bean, args);
+    }
+
+    @Benchmark
+    public Object generated() throws Throwable {
+        return generated.dispatch(bean, args);
+    }
+
+    public static class ArityTool {
+
+        public String arity1(String a0) {
+            return a0;
+        }
+
+        public String arity3(String a0, int a1, String a2) {
+            return a0;
+        }
+
+        public String arity6(String a0, int a1, String a2, int a3, String a4, int a5) {
+            return a0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ToolDispatcherBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
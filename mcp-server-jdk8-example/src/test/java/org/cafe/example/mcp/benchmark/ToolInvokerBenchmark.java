@@ -0,0 +1,90 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.cafe.example.mcp.McpTool;
+import org.cafe.example.mcp.McpToolDef;
+import org.cafe.example.mcp.ToolInvoker;
+import org.cafe.example.mcp.ToolInvokerRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tool-list.json中tool的调用方式对比：每次调用都反射查找类、方法并创建实例 vs {@link ToolInvokerRegistry}预先构建的调用器
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolInvokerBenchmark {
+
+    private static final String TARGET_BEAN_CLASS = McpTool.class.getName();
+    private static final String TARGET_METHOD_NAME = "getFamous";
+
+    private final Object[] args = {"北京", "天安门"};
+
+    private ToolInvoker singletonInvoker;
+    private ToolInvoker prototypeInvoker;
+    private ToolInvoker pooledInvoker;
+
+    @Setup
+    public void setup() {
+        ToolInvokerRegistry registry = new ToolInvokerRegistry();
+        singletonInvoker = registry.register(toolDef("singleton"));
+        prototypeInvoker = registry.register(toolDef("prototype"));
+        pooledInvoker = registry.register(toolDef("pooled"));
+    }
+
+    private static McpToolDef toolDef(String beanScope) {
+        McpToolDef toolDef = new McpToolDef();
+        toolDef.setName("getLandmark-" + beanScope);
+        toolDef.setTargetBeanClass(TARGET_BEAN_CLASS);
+        toolDef.setTargetMethodName(TARGET_METHOD_NAME);
+        toolDef.setBeanScope(beanScope);
+        return toolDef;
+    }
+
+    /**
+     * 原ToolProvider.callMethod的实现
+     */
+    @Benchmark
+    public Object reflectPerCall() throws Exception {
+        Class<?> clazz = Class.forName(TARGET_BEAN_CLASS);
+        Object bean = clazz.newInstance();
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.getName().equals(TARGET_METHOD_NAME)) {
+                return method.invoke(bean, args).toString();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Object invokerSingleton() throws Exception {
+        return singletonInvoker.invoke(args).toString();
+    }
+
+    @Benchmark
+    public Object invokerPrototype() throws Exception {
+        return prototypeInvoker.invoke(args).toString();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object invokerPooled() throws Exception {
+        return pooledInvoker.invoke(args).toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ToolInvokerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,60 @@
+package org.cafe.example.mcp.benchmark;
+
+import org.cafe.example.mcp.McpServerTool;
+import org.cafe.example.mcp.ToolSchemaIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动时获取全部{@code @Tool}方法的inputSchema：反射生成 vs 构建时生成的索引（含加载索引与校验类文件）。
+ * 每次测量都在新的JVM中执行一次，需先执行构建生成{@value ToolSchemaIndex#INDEX_RESOURCE}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ToolSchemaIndexBenchmark {
+
+    private final List<Method> methods = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        // 与服务启动时相同，解析tool之前日志系统已初始化
+        LoggerFactory.getLogger(ToolSchemaIndexBenchmark.class);
+        for (Method method : McpServerTool.class.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Tool.class)) {
+                methods.add(method);
+            }
+        }
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) {
+        methods.forEach(method -> blackhole.consume(ToolSchemaIndex.generate(method)));
+    }
+
+    @Benchmark
+    public void index(Blackhole blackhole) {
+        methods.forEach(method -> blackhole.consume(ToolSchemaIndex.getInputSchema(method)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ToolSchemaIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
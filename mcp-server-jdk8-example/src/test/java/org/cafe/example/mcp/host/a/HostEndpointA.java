@@ -0,0 +1,17 @@
+package org.cafe.example.mcp.host.a;
+
+import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.springframework.ai.tool.annotation.Tool;
+
+/**
+ * 宿主测试用的MCP Server
+ */
+@McpServerEndpoint(name = "a", port = 19501, transport = "sse", sseEndpoint = "/a/sse", sseMessageEndpoint = "/a/message",
+        toolList = "classpath:host/a/tool-list.json", promptDir = "classpath:host/a/prompt", resourceRoots = "classpath:host/a/resource")
+public class HostEndpointA {
+
+    @Tool(description = "回显")
+    public String echoA(String message) {
+        return message;
+    }
+}
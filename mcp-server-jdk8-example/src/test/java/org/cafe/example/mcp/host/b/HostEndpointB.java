@@ -0,0 +1,17 @@
+package org.cafe.example.mcp.host.b;
+
+import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.springframework.ai.tool.annotation.Tool;
+
+/**
+ * 宿主测试用的MCP Server
+ */
+@McpServerEndpoint(name = "b", port = 19502, transport = "sse", sseEndpoint = "/b/sse", sseMessageEndpoint = "/b/message",
+        toolList = "classpath:host/b/tool-list.json", promptDir = "classpath:host/b/prompt", resourceRoots = "classpath:host/b/resource")
+public class HostEndpointB {
+
+    @Tool(description = "回显")
+    public String echoB(String message) {
+        return message;
+    }
+}
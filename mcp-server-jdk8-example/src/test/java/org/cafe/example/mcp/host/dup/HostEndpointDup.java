@@ -0,0 +1,17 @@
+package org.cafe.example.mcp.host.dup;
+
+import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.springframework.ai.tool.annotation.Tool;
+
+/**
+ * 与{@link org.cafe.example.mcp.host.a.HostEndpointA}的请求路径相同
+ */
+@McpServerEndpoint(name = "dup", port = 19503, transport = "sse", sseEndpoint = "/a/sse", sseMessageEndpoint = "/a/message",
+        toolList = "classpath:host/b/tool-list.json", promptDir = "classpath:host/b/prompt", resourceRoots = "classpath:host/b/resource")
+public class HostEndpointDup {
+
+    @Tool(description = "回显")
+    public String echoDup(String message) {
+        return message;
+    }
+}
@@ -0,0 +1,17 @@
+package org.cafe.example.mcp.host.shared;
+
+import org.cafe.example.mcp.annotation.McpServerEndpoint;
+import org.springframework.ai.tool.annotation.Tool;
+
+/**
+ * 与{@link org.cafe.example.mcp.host.a.HostEndpointA}共用tool-list.json、prompt配置文件夹及resource根目录
+ */
+@McpServerEndpoint(name = "shared", port = 19504, transport = "sse", sseEndpoint = "/shared/sse", sseMessageEndpoint = "/shared/message",
+        toolList = "classpath:host/a/tool-list.json", promptDir = "classpath:host/a/prompt", resourceRoots = "classpath:host/a/resource")
+public class HostEndpointShared {
+
+    @Tool(description = "回显")
+    public String echoShared(String message) {
+        return message;
+    }
+}
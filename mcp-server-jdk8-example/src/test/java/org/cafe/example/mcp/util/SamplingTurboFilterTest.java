@@ -0,0 +1,86 @@
+package org.cafe.example.mcp.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SamplingTurboFilterTest {
+
+    @Test
+    void testSampleDebugOfMatchedLoggers() {
+        LoggerContext context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.addLogger("io.modelcontextprotocol");
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+
+        Logger sdkLogger = context.getLogger("io.modelcontextprotocol.server.McpServerSession");
+        for (int i = 0; i < 100; i++) {
+            sdkLogger.debug("Received request: {}", i);
+        }
+        Assertions.assertEquals(10, appender.list.size());
+        Assertions.assertEquals("Received request: 0", appender.list.get(0).getFormattedMessage());
+
+        // INFO及以上和其他logger不采样
+        appender.list.clear();
+        for (int i = 0; i < 100; i++) {
+            sdkLogger.info("Session created: {}", i);
+            context.getLogger("org.cafe.example.mcp.McpServer").debug("Resource updated: {}", i);
+        }
+        Assertions.assertEquals(200, appender.list.size());
+        context.stop();
+    }
+
+    @Test
+    void testLevelCheckIsNotSampled() {
+        LoggerContext context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.addLogger("io.modelcontextprotocol");
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+
+        Logger sdkLogger = context.getLogger("io.modelcontextprotocol.server.McpServerSession");
+        for (int i = 0; i < 100; i++) {
+            // 级别判断总是通过，只对实际的日志调用采样
+            Assertions.assertTrue(sdkLogger.isDebugEnabled());
+            if (sdkLogger.isDebugEnabled()) {
+                sdkLogger.debug("Received request: " + i);
+            }
+        }
+        Assertions.assertEquals(10, appender.list.size());
+        Assertions.assertEquals("Received request: 0", appender.list.get(0).getFormattedMessage());
+        Assertions.assertEquals("Received request: 10", appender.list.get(1).getFormattedMessage());
+        context.stop();
+    }
+
+    @Test
+    void testInvalidRate() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(new LoggerContext());
+        filter.setRate(0);
+        filter.start();
+        Assertions.assertFalse(filter.isStarted());
+    }
+}